@@ -0,0 +1,32 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.WarehouseApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Context aplikasi lengkap di atas H2 embedded, tanpa web server dan tanpa job terjadwal
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.sql.init.mode=never",
+                "--logging.level.root=WARN",
+                "--warehouse.outbox.dispatcher-enabled=false",
+                "--warehouse.rollups.enabled=false",
+                "--warehouse.snapshots.enabled=false"
+        ));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return SpringApplication.run(WarehouseApiApplication.class, args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,98 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
+import com.arief.warehouse.warehouse_api.repository.JournalCommitRepository;
+import com.arief.warehouse.warehouse_api.service.ItemService;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Harga marker commit journal per transaksi stok, dengan warehouse.journal.enabled.
+ * <p>
+ * emptyTransaction vs markerTransaction memberi biaya insert journal_commits sendiri; journaledSell
+ * memberi sell lengkap (fsync termasuk) sebagai pembanding. Marker ditulis selagi writer fsync, jadi
+ * sell hanya melambat kalau selisih pertama lebih besar dari waktu fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalMarkerBenchmark {
+
+    // Tidak boleh habis selama run: OutOfStockException akan menggagalkan benchmark
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    private ConfigurableApplicationContext context;
+    private TransactionOperations transactionOperations;
+    private JournalCommitRepository journalCommitRepository;
+    private ItemVariantService itemVariantService;
+    private Long variantId;
+
+    // Jauh di atas seq journal yang dipakai journaledSell supaya tidak bentrok
+    private final AtomicLong markerSeq = new AtomicLong(1L << 40);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("journal-marker",
+                "warehouse.journal.enabled=true",
+                "warehouse.journal.directory=" + Files.createTempDirectory("journal-bench"));
+        transactionOperations = context.getBean(TransactionOperations.class);
+        journalCommitRepository = context.getBean(JournalCommitRepository.class);
+        itemVariantService = context.getBean(ItemVariantService.class);
+
+        Long itemId = context.getBean(ItemService.class)
+                .create(new ItemCreateRequest("Journal marker benchmark", null, true))
+                .getId();
+        variantId = itemVariantService.createVariant(itemId, new ItemVariantCreateRequest(
+                "BENCH-JOURNAL", null, null, BigDecimal.TEN, INITIAL_STOCK)).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteMarkers() {
+        transactionOperations.executeWithoutResult(status -> journalCommitRepository.deleteUpTo(Long.MAX_VALUE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void emptyTransaction() {
+        transactionOperations.executeWithoutResult(status -> {
+        });
+    }
+
+    @Benchmark
+    public void markerTransaction() {
+        long seq = markerSeq.incrementAndGet();
+        transactionOperations.executeWithoutResult(status -> journalCommitRepository.insert(seq, seq));
+    }
+
+    @Benchmark
+    public void journaledSell() {
+        itemVariantService.sell(variantId, 1);
+    }
+}
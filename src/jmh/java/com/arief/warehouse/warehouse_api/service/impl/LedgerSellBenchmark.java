@@ -0,0 +1,118 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
+import com.arief.warehouse.warehouse_api.exception.LedgerBacklogException;
+import com.arief.warehouse.warehouse_api.service.ItemService;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput ItemVariantServiceImpl.sell dengan warehouse.stock.ledger.enabled, dengan 1/8/64 thread.
+ * <p>
+ * Pembanding langsung untuk {@link SellBenchmark}: variant dan distribusi HOT/UNIFORM sama, tapi sell
+ * berhenti di CAS {@link StockLedger} dan DB hanya disentuh oleh thread flush. Kalau flush tertinggal
+ * sampai maxPending, sell yang habis backlogTimeout dihitung di counter "backlogged", jadi hasil
+ * yang bagus di sini hanya berarti kalau counter itu tetap nol.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerSellBenchmark {
+
+    private static final int VARIANTS = 1024;
+    // Tidak boleh habis selama run: OutOfStockException akan menggagalkan benchmark
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    @Param({"HOT", "UNIFORM"})
+    public SellBenchmark.Distribution distribution;
+
+    private ConfigurableApplicationContext context;
+    private ItemVariantService itemVariantService;
+    private StockLedger stockLedger;
+    private long[] variantIds;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Backlog {
+        public long backlogged;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("ledger-sell", "warehouse.stock.ledger.enabled=true");
+        itemVariantService = context.getBean(ItemVariantService.class);
+        stockLedger = context.getBean(StockLedger.class);
+
+        Long itemId = context.getBean(ItemService.class)
+                .create(new ItemCreateRequest("Ledger sell benchmark", null, true))
+                .getId();
+        variantIds = new long[VARIANTS];
+        for (int i = 0; i < VARIANTS; i++) {
+            variantIds[i] = itemVariantService.createVariant(itemId, new ItemVariantCreateRequest(
+                    "BENCH-LEDGER-" + i, null, null, BigDecimal.TEN, INITIAL_STOCK)).getId();
+        }
+    }
+
+    // Antrean flush dikosongkan di antara iterasi supaya tiap iterasi mulai dari backlog yang sama
+    @TearDown(Level.Iteration)
+    public void flush() {
+        stockLedger.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void sell1Thread(Backlog backlog) {
+        sell(backlog);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void sell8Threads(Backlog backlog) {
+        sell(backlog);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void sell64Threads(Backlog backlog) {
+        sell(backlog);
+    }
+
+    private void sell(Backlog backlog) {
+        long variantId = distribution == SellBenchmark.Distribution.HOT
+                ? variantIds[0]
+                : variantIds[ThreadLocalRandom.current().nextInt(VARIANTS)];
+        try {
+            itemVariantService.sell(variantId, 1);
+        } catch (LedgerBacklogException ex) {
+            backlog.backlogged++;
+        }
+    }
+}
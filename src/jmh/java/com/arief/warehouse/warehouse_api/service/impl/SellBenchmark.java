@@ -0,0 +1,119 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockLockStrategy;
+import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
+import com.arief.warehouse.warehouse_api.exception.StockConflictException;
+import com.arief.warehouse.warehouse_api.service.ItemService;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput ItemVariantServiceImpl.sell per strategi lock, dengan 1/8/64 thread.
+ * <p>
+ * HOT: semua thread menjual variant yang sama (kontensi row lock/versi). UNIFORM: variant dipilih acak
+ * dari {@value #VARIANTS} variant. Konflik OPTIMISTIC yang habis retry dihitung di counter "conflicts"
+ * (muncul sebagai secondary metric di JSON), bukan menggagalkan benchmark. Pool Hikari tetap default,
+ * jadi di 64 thread sebagian waktu adalah menunggu koneksi, sama seperti di produksi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellBenchmark {
+
+    public enum Distribution {
+        HOT,
+        UNIFORM
+    }
+
+    private static final int VARIANTS = 1024;
+    // Tidak boleh habis selama run: OutOfStockException akan menggagalkan benchmark
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    @Param({"PESSIMISTIC", "CONDITIONAL_UPDATE", "OPTIMISTIC"})
+    public StockLockStrategy strategy;
+
+    @Param({"HOT", "UNIFORM"})
+    public Distribution distribution;
+
+    private ConfigurableApplicationContext context;
+    private ItemVariantService itemVariantService;
+    private long[] variantIds;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Conflicts {
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("sell", "warehouse.stock.strategy=" + strategy);
+        itemVariantService = context.getBean(ItemVariantService.class);
+
+        Long itemId = context.getBean(ItemService.class)
+                .create(new ItemCreateRequest("Sell benchmark", null, true))
+                .getId();
+        variantIds = new long[VARIANTS];
+        for (int i = 0; i < VARIANTS; i++) {
+            variantIds[i] = itemVariantService.createVariant(itemId, new ItemVariantCreateRequest(
+                    "BENCH-SELL-" + i, null, null, BigDecimal.TEN, INITIAL_STOCK)).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void sell1Thread(Conflicts conflicts) {
+        sell(conflicts);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void sell8Threads(Conflicts conflicts) {
+        sell(conflicts);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void sell64Threads(Conflicts conflicts) {
+        sell(conflicts);
+    }
+
+    private void sell(Conflicts conflicts) {
+        long variantId = distribution == Distribution.HOT
+                ? variantIds[0]
+                : variantIds[ThreadLocalRandom.current().nextInt(VARIANTS)];
+        try {
+            itemVariantService.sell(variantId, 1);
+        } catch (StockConflictException ex) {
+            conflicts.conflicts++;
+        }
+    }
+}
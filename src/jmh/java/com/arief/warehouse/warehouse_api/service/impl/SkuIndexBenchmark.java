@@ -0,0 +1,79 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SkuIndex.find di atas {@link SkuIdTable} berisi {@value #SKUS} SKU, untuk SKU yang ada (hit) dan yang
+ * tidak ada (miss), dengan 1 dan 8 thread. Tanpa context Spring: index diisi lewat put seperti load().
+ * <p>
+ * SKU yang dicari adalah String baru dengan isi yang sama, bukan instance yang disimpan, jadi equals
+ * benar-benar membandingkan isi seperti SKU yang datang dari request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkuIndexBenchmark {
+
+    private static final int SKUS = 1_000_000;
+
+    private SkuIndex skuIndex;
+    private String[] hits;
+    private String[] misses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Repository hanya dipakai load(), yang tidak dipanggil di sini
+        skuIndex = new SkuIndex(null);
+        // Format SKU sama dengan DatasetGenerator
+        for (int i = 0; i < SKUS; i++) {
+            skuIndex.put("GEN-" + (i + 1), i + 1L);
+        }
+        hits = new String[SKUS];
+        misses = new String[SKUS];
+        for (int i = 0; i < SKUS; i++) {
+            hits[i] = "GEN-" + (i + 1);
+            misses[i] = "MISS-" + (i + 1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long findHit1Thread() {
+        return skuIndex.find(hits[ThreadLocalRandom.current().nextInt(SKUS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long findHit8Threads() {
+        return skuIndex.find(hits[ThreadLocalRandom.current().nextInt(SKUS)]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long findMiss1Thread() {
+        return skuIndex.find(misses[ThreadLocalRandom.current().nextInt(SKUS)]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long findMiss8Threads() {
+        return skuIndex.find(misses[ThreadLocalRandom.current().nextInt(SKUS)]);
+    }
+}
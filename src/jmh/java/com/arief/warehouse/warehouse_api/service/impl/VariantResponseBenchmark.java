@@ -0,0 +1,94 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Mapping entity -> response dan serialisasi Jackson untuk satu halaman variant (1, default 50, max 200)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantResponseBenchmark {
+
+    @Param({"1", "50", "200"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemVariantServiceImpl itemVariantService;
+    private ObjectMapper objectMapper;
+    private List<ItemVariant> variants;
+    private List<ItemVariantResponse> responses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("responses");
+        // Target di balik proxy @Transactional: toResponse package-private, tidak lewat proxy
+        Object service = context.getBean(ItemVariantService.class);
+        Object target = AopProxyUtils.getSingletonTarget(service);
+        itemVariantService = (ItemVariantServiceImpl) (target != null ? target : service);
+        // ObjectMapper yang sama dengan yang dipakai MVC
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        Item item = new Item();
+        item.setId(1L);
+        item.setName("Response benchmark");
+        variants = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            ItemVariant variant = new ItemVariant();
+            variant.setId((long) i + 1);
+            variant.setItem(item);
+            variant.setSku("BENCH-RESP-" + i);
+            variant.setColor("Black");
+            variant.setSize("M");
+            variant.setPrice(BigDecimal.valueOf(99_000));
+            variant.setStockQuantity(100 + i);
+            variants.add(variant);
+        }
+        responses = toResponses();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemVariantResponse> toResponses() {
+        List<ItemVariantResponse> mapped = new ArrayList<>(variants.size());
+        for (ItemVariant variant : variants) {
+            mapped.add(itemVariantService.toResponse(variant));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+}
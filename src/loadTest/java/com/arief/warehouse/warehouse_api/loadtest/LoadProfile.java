@@ -0,0 +1,65 @@
+package com.arief.warehouse.warehouse_api.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parameter load test, dibaca dari system property load.* (Gradle: -Pload.duration=PT2M dan seterusnya).
+ *
+ * @param mix bobot relatif per operasi, format "sell=60,adjust=10,list=20,movements=10"
+ */
+record LoadProfile(Duration duration,
+                   int concurrency,
+                   int variants,
+                   int initialStock,
+                   double zipfExponent,
+                   Map<Operation, Integer> mix,
+                   long seed,
+                   double minThroughput,
+                   boolean ledger,
+                   String reportDirectory) {
+
+    enum Operation {
+        SELL,
+        ADJUST,
+        LIST,
+        MOVEMENTS
+    }
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Duration.parse(System.getProperty("load.duration", "PT30S")),
+                Integer.getInteger("load.concurrency", 32),
+                Integer.getInteger("load.variants", 200),
+                // Kecil supaya variant populer benar-benar habis dan jalur OUT_OF_STOCK ikut teruji
+                Integer.getInteger("load.initial-stock", 500),
+                Double.parseDouble(System.getProperty("load.zipf-exponent", "1.1")),
+                parseMix(System.getProperty("load.mix", "sell=60,adjust=10,list=20,movements=10")),
+                Long.getLong("load.seed", 42L),
+                // Request sukses per detik minimum; 0 = tidak dicek
+                Double.parseDouble(System.getProperty("load.min-throughput", "0")),
+                // Sell/adjust lewat StockLedger (warehouse.stock.ledger.enabled) alih-alih transaksi DB
+                Boolean.getBoolean("load.ledger"),
+                System.getProperty("load.report-dir", "build/reports/load-test"));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in load.mix: " + part);
+            }
+            mix.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("load.mix has no operation with a positive weight");
+        }
+        return mix;
+    }
+}
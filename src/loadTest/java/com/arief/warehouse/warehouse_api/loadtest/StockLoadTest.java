@@ -0,0 +1,400 @@
+package com.arief.warehouse.warehouse_api.loadtest;
+
+import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
+import com.arief.warehouse.warehouse_api.loadtest.LoadProfile.Operation;
+import com.arief.warehouse.warehouse_api.service.ItemService;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.impl.PendingMovements;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test end-to-end: aplikasi jalan di port acak, worker HTTP menjalankan campuran sell, adjust,
+ * list variant, dan baca movement selama load.duration, dengan popularitas SKU mengikuti Zipf.
+ * <p>
+ * Latency per operasi dicatat di HdrHistogram per worker lalu digabung; ringkasan dicetak dan distribusi
+ * lengkap (.hgrm) ditulis ke load.report-dir. Setelah beban selesai dan movement yang tertahan sudah
+ * di-persist, dicek invariant stok per variant: tidak oversold (stok tidak di bawah reserved),
+ * stock_quantity = stok awal + total movement, dan total movement = perubahan yang di-acknowledge ke
+ * client (kalau tidak ada write yang hasilnya tidak pasti).
+ * Dijalankan dengan ./gradlew loadTest, tidak ikut ./gradlew test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:warehouse-load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.sql.init.mode=never",
+        "logging.level.root=WARN"
+})
+class StockLoadTest {
+
+    private static final String SKU_PREFIX = "LOAD-";
+    private static final int VARIANTS_PER_ITEM = 10;
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private PendingMovements pendingMovements;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void stockProperties(DynamicPropertyRegistry registry) {
+        registry.add("warehouse.stock.ledger.enabled", () -> LoadProfile.fromSystemProperties().ledger());
+    }
+
+    @Test
+    void mixedLoad_neverOversells_andStockMatchesMovements() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        Catalog catalog = createCatalog(profile);
+        ZipfSampler zipf = new ZipfSampler(profile.variants(), profile.zipfExponent());
+
+        ExecutorService executor = Executors.newFixedThreadPool(profile.concurrency(),
+                new CustomizableThreadFactory("load-worker-"));
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + profile.duration().toNanos();
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+        for (int i = 0; i < profile.concurrency(); i++) {
+            futures.add(executor.submit(new Worker(profile, catalog, zipf, deadline,
+                    new SplittableRandom(profile.seed() + i))));
+        }
+        WorkerResult total = new WorkerResult(profile.variants());
+        for (Future<WorkerResult> future : futures) {
+            total.merge(future.get());
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        double throughput = report(profile, total, elapsedNanos);
+
+        // Response 2xx belum berarti movement/stok sudah di DB (journal write-behind, ledger)
+        pendingMovements.persist();
+        List<String> violations = checkInvariants(profile, catalog, total);
+        violations.stream().limit(50).forEach(System.out::println);
+        assertThat(violations).as("stock invariant violations").isEmpty();
+        assertThat(total.errors).as("unexpected errors (5xx, transport, unexpected 4xx)").isZero();
+        assertThat(throughput).as("successful requests per second").isGreaterThanOrEqualTo(profile.minThroughput());
+    }
+
+    // Item dengan masing-masing VARIANTS_PER_ITEM variant; rank Zipf dipetakan acak (dari seed) ke variant
+    private Catalog createCatalog(LoadProfile profile) {
+        int variants = profile.variants();
+        long[] variantIds = new long[variants];
+        long[] itemIds = new long[variants];
+        Long itemId = null;
+        for (int i = 0; i < variants; i++) {
+            if (i % VARIANTS_PER_ITEM == 0) {
+                itemId = itemService.create(new ItemCreateRequest("Load item " + i / VARIANTS_PER_ITEM, null, true))
+                        .getId();
+            }
+            itemIds[i] = itemId;
+            variantIds[i] = itemVariantService.createVariant(itemId, new ItemVariantCreateRequest(
+                    SKU_PREFIX + i, null, null, BigDecimal.valueOf(10_000), profile.initialStock())).getId();
+        }
+
+        int[] variantByRank = new int[variants];
+        for (int i = 0; i < variants; i++) {
+            variantByRank[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(profile.seed());
+        for (int i = variants - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = variantByRank[i];
+            variantByRank[i] = variantByRank[j];
+            variantByRank[j] = swap;
+        }
+        return new Catalog(variantIds, itemIds, variantByRank);
+    }
+
+    private double report(LoadProfile profile, WorkerResult total, long elapsedNanos) throws IOException {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        Path directory = Path.of(profile.reportDirectory());
+        Files.createDirectories(directory);
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Load test: %s, concurrency %d, %d variants, zipf s=%.2f, seed %d, ledger %s%n",
+                profile.duration(), profile.concurrency(), profile.variants(), profile.zipfExponent(), profile.seed(),
+                profile.ledger() ? "on" : "off"));
+        summary.append(String.format("%-10s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "ok", "rejected", "errors", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        long ok = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = total.latencies.get(operation);
+            long operationOk = total.ok.get(operation);
+            ok += operationOk;
+            summary.append(String.format("%-10s %9d %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name().toLowerCase(), operationOk, total.rejected.get(operation),
+                    total.errorsByOperation.get(operation), operationOk / seconds,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+
+            try (PrintStream out = new PrintStream(
+                    directory.resolve(operation.name().toLowerCase() + ".hgrm").toFile())) {
+                // Nilai dicatat dalam µs, distribusi ditulis dalam ms
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        double throughput = ok / seconds;
+        summary.append(String.format("total ok/s %.1f over %.1f s%n", throughput, seconds));
+
+        System.out.print(summary);
+        Files.writeString(directory.resolve("summary.txt"), summary);
+        return throughput;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private List<String> checkInvariants(LoadProfile profile, Catalog catalog, WorkerResult total) {
+        // Total movement per variant langsung dari DB; sum(int) di H2 = BIGINT
+        Map<Long, long[]> states = new HashMap<>();
+        jdbcTemplate.query("""
+                select v.id, v.stock_quantity, v.reserved_quantity, coalesce(m.total, 0) as movement_total
+                from item_variants v
+                left join (select variant_id, sum(quantity_change) as total
+                           from stock_movements group by variant_id) m on m.variant_id = v.id
+                where v.sku like ?
+                """, rs -> {
+            states.put(rs.getLong("id"), new long[]{
+                    rs.getLong("stock_quantity"), rs.getLong("reserved_quantity"), rs.getLong("movement_total")});
+        }, SKU_PREFIX + "%");
+
+        List<String> violations = new ArrayList<>();
+        for (int i = 0; i < catalog.variantIds().length; i++) {
+            long variantId = catalog.variantIds()[i];
+            long[] state = states.get(variantId);
+            if (state == null) {
+                violations.add("Variant " + variantId + " disappeared");
+                continue;
+            }
+            long stock = state[0];
+            long reserved = state[1];
+            long movementTotal = state[2];
+            if (stock < 0 || stock < reserved) {
+                violations.add("Variant " + variantId + " oversold: stock " + stock + ", reserved " + reserved);
+            }
+            if (stock != profile.initialStock() + movementTotal) {
+                violations.add("Variant " + variantId + " stock " + stock + " != initial " + profile.initialStock()
+                        + " + movements " + movementTotal);
+            }
+            if (!total.ambiguousWrites && movementTotal != total.acknowledged[i]) {
+                violations.add("Variant " + variantId + " movements " + movementTotal
+                        + " != acknowledged changes " + total.acknowledged[i]);
+            }
+        }
+        return violations;
+    }
+
+    private record Catalog(long[] variantIds, long[] itemIds, int[] variantByRank) {
+    }
+
+    private static final class WorkerResult {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> ok = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> rejected = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errorsByOperation = new EnumMap<>(Operation.class);
+        // Perubahan stok yang dijawab 2xx, per index variant
+        private final long[] acknowledged;
+        private long errors;
+        // Write tanpa response (timeout/IO): hasilnya di server tidak diketahui
+        private boolean ambiguousWrites;
+
+        private WorkerResult(int variants) {
+            acknowledged = new long[variants];
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new Histogram(MAX_LATENCY_MICROS, 3));
+                ok.put(operation, 0L);
+                rejected.put(operation, 0L);
+                errorsByOperation.put(operation, 0L);
+            }
+        }
+
+        private void merge(WorkerResult other) {
+            for (Operation operation : Operation.values()) {
+                latencies.get(operation).add(other.latencies.get(operation));
+                ok.merge(operation, other.ok.get(operation), Long::sum);
+                rejected.merge(operation, other.rejected.get(operation), Long::sum);
+                errorsByOperation.merge(operation, other.errorsByOperation.get(operation), Long::sum);
+            }
+            for (int i = 0; i < acknowledged.length; i++) {
+                acknowledged[i] += other.acknowledged[i];
+            }
+            errors += other.errors;
+            ambiguousWrites |= other.ambiguousWrites;
+        }
+
+        private void error(Operation operation) {
+            errors++;
+            errorsByOperation.merge(operation, 1L, Long::sum);
+        }
+    }
+
+    private final class Worker implements Callable<WorkerResult> {
+
+        private final Catalog catalog;
+        private final ZipfSampler zipf;
+        private final long deadline;
+        private final SplittableRandom random;
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+        private final WorkerResult result;
+
+        private Worker(LoadProfile profile, Catalog catalog, ZipfSampler zipf, long deadline,
+                       SplittableRandom random) {
+            this.catalog = catalog;
+            this.zipf = zipf;
+            this.deadline = deadline;
+            this.random = random;
+            this.operations = profile.mix().keySet().toArray(Operation[]::new);
+            this.cumulativeWeights = new int[operations.length];
+            int sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += profile.mix().get(operations[i]);
+                cumulativeWeights[i] = sum;
+            }
+            this.result = new WorkerResult(profile.variants());
+        }
+
+        @Override
+        public WorkerResult call() {
+            while (System.nanoTime() < deadline) {
+                Operation operation = nextOperation();
+                int index = catalog.variantByRank()[zipf.sample(random)];
+                execute(operation, index);
+            }
+            return result;
+        }
+
+        private Operation nextOperation() {
+            int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < operations.length; i++) {
+                if (pick < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private void execute(Operation operation, int index) {
+            long variantId = catalog.variantIds()[index];
+            int quantity = 0;
+            HttpRequest request = switch (operation) {
+                case SELL -> {
+                    quantity = 1 + random.nextInt(3);
+                    yield post("/api/variants/" + variantId + "/sell", "{\"quantity\":" + quantity + "}");
+                }
+                case ADJUST -> {
+                    quantity = 1 + random.nextInt(10);
+                    yield post("/api/variants/" + variantId + "/stock/adjust",
+                            "{\"quantityChange\":" + quantity + ",\"reason\":\"LOAD_RESTOCK\"}");
+                }
+                case LIST -> get("/api/items/" + catalog.itemIds()[index] + "/variants?limit=50");
+                case MOVEMENTS -> get("/api/variants/" + variantId + "/movements?limit=20");
+            };
+
+            long startedAt = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException ex) {
+                result.error(operation);
+                if (operation == Operation.SELL || operation == Operation.ADJUST) {
+                    result.ambiguousWrites = true;
+                }
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Load worker interrupted", ex);
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt);
+            result.latencies.get(operation).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+
+            int status = response.statusCode();
+            if (status / 100 == 2) {
+                result.ok.merge(operation, 1L, Long::sum);
+                if (operation == Operation.SELL) {
+                    result.acknowledged[index] -= quantity;
+                } else if (operation == Operation.ADJUST) {
+                    result.acknowledged[index] += quantity;
+                }
+            } else if (isExpectedRejection(operation, status, response.body())) {
+                result.rejected.merge(operation, 1L, Long::sum);
+            } else {
+                result.error(operation);
+            }
+        }
+
+        // Stok habis dan konflik optimistic adalah jawaban yang benar di bawah beban, bukan error
+        private boolean isExpectedRejection(Operation operation, int status, String body) {
+            if (operation == Operation.SELL && status == 400 && body.contains("OUT_OF_STOCK")) {
+                return true;
+            }
+            return (operation == Operation.SELL || operation == Operation.ADJUST) && status == 409;
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(uri(path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(uri(path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.arief.warehouse.warehouse_api.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Rank 0..n-1 dengan peluang ~ 1/(rank+1)^s; CDF dihitung sekali, sampling = binary search
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // Tidak ketemu persis: -(insertion point) - 1
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,17 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.bulk")
+public class BulkProperties {
+
+    // Baris per transaksi; kelipatan hibernate.jdbc.batch_size supaya batch penuh
+    private int chunkSize = 500;
+
+    // Error yang dikembalikan di response dibatasi, sisanya hanya dihitung
+    private int maxErrors = 1000;
+}
@@ -0,0 +1,41 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.dataset")
+public class DatasetProperties {
+
+    private long items = 1_000_000;
+
+    // Dibagi rata ke item
+    private long variants = 5_000_000;
+
+    private long movements = 200_000_000;
+
+    private long seed = 42;
+
+    // Eksponen Zipf jumlah movement per variant; 0 = rata
+    private double movementSkew = 1.0;
+
+    // Movement tersebar di [until - history, until)
+    private Duration history = Duration.ofDays(365);
+
+    // null = awal hari ini (UTC); isi supaya dataset identik antar hari
+    private Instant until;
+
+    private int batchSize = 10_000;
+
+    // Jumlah koneksi penulis; tiap worker mengisi range item sendiri
+    private int parallelism = 4;
+
+    private Duration progressInterval = Duration.ofSeconds(10);
+
+    private boolean exitWhenDone = true;
+}
@@ -0,0 +1,34 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.journal")
+public class JournalProperties {
+
+    // false: movement langsung di-insert di transaksi stok seperti biasa
+    private boolean enabled = false;
+
+    private String directory = "data/journal";
+
+    // Ukuran satu file segment yang di-mmap
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // Maksimum append yang digabung dalam satu fsync
+    private int maxGroupSize = 1024;
+
+    // Row per transaksi drain ke stock_movements
+    private int drainBatchSize = 1000;
+
+    // Drain jalan paling lambat setiap interval ini walaupun batch belum penuh
+    private Duration drainInterval = Duration.ofMillis(50);
+
+    // Query movement menunggu drain paling lama ini, setelah itu data dibaca apa adanya
+    private Duration readYourWritesTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,43 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.outbox")
+public class OutboxProperties {
+
+    // Matikan dispatcher terjadwal (row tetap ditulis), mis. di test
+    private boolean dispatcherEnabled = true;
+
+    // memory atau file; sink lain cukup didaftarkan sebagai bean OutboxSink
+    private String sink = "memory";
+
+    private int batchSize = 200;
+
+    // Batch per tick selama masih ada antrean, supaya lag cepat turun
+    private int maxBatchesPerPoll = 20;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    // Klaim dilepas otomatis kalau instance mati di tengah pengiriman
+    private Duration lease = Duration.ofSeconds(30);
+
+    private int maxAttempts = 10;
+
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    // Row DELIVERED yang lebih tua dari ini dihapus
+    private Duration retention = Duration.ofHours(1);
+
+    private String filePath = "outbox-events.ndjson";
+
+    // Sink memory hanya menyimpan pesan terakhir sebanyak ini
+    private int memoryCapacity = 10_000;
+}
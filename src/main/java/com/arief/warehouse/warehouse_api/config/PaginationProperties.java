@@ -0,0 +1,23 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.pagination")
+public class PaginationProperties {
+
+    private int defaultLimit = 50;
+
+    // Limit dari client di-clamp ke sini
+    private int maxLimit = 200;
+
+    public int resolveLimit(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return defaultLimit;
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
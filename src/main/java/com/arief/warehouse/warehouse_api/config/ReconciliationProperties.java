@@ -0,0 +1,22 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.reconciliation")
+public class ReconciliationProperties {
+
+    // Jumlah partisi/worker per run; tiap worker paling banyak memegang satu koneksi
+    private int parallelism = 2;
+
+    // Lebar range id per query agregat (dan per checkpoint)
+    private int chunkSize = 1000;
+
+    // Jeda tiap worker di antara chunk, untuk menjalankan run di jam sibuk
+    private Duration pauseBetweenChunks = Duration.ZERO;
+}
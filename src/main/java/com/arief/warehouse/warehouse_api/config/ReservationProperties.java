@@ -0,0 +1,27 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.reservations")
+public class ReservationProperties {
+
+    // TTL kalau request tidak menyebutkan ttlSeconds
+    private Duration defaultTtl = Duration.ofMinutes(15);
+
+    private Duration maxTtl = Duration.ofHours(2);
+
+    // Resolusi timing wheel; reservasi kedaluwarsa paling lambat satu tick setelah expiresAt
+    private Duration tickDuration = Duration.ofMillis(100);
+
+    // Jumlah slot wheel (dibulatkan ke pangkat dua); TTL lebih panjang dari satu putaran dihitung lewat rounds
+    private int wheelSize = 512;
+
+    // Reservasi yang di-expire per transaksi
+    private int expireBatchSize = 500;
+}
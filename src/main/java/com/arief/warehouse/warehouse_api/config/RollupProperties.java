@@ -0,0 +1,22 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.rollups")
+public class RollupProperties {
+
+    // Matikan job terjadwal (rollup tetap bisa dijalankan manual), mis. di test
+    private boolean enabled = true;
+
+    private Duration interval = Duration.ofMinutes(1);
+
+    // Watermark berhenti sejauh ini di belakang sekarang, supaya movement yang transaksinya
+    // masih berjalan tidak terlewat
+    private Duration settleDelay = Duration.ofMinutes(1);
+}
@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.snapshots")
+public class SnapshotProperties {
+
+    // Matikan job terjadwal (snapshot tetap bisa dibuat manual), mis. di test
+    private boolean enabled = true;
+
+    private Duration interval = Duration.ofHours(1);
+
+    // Snapshot diambil untuk waktu sedikit di belakang sekarang, supaya transaksi yang masih
+    // berjalan (movement dengan createdAt sebelum itu) sudah commit
+    private Duration settleDelay = Duration.ofMinutes(1);
+
+    // Variant per INSERT ... SELECT
+    private int batchSize = 10_000;
+}
@@ -0,0 +1,88 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hitungan SQL untuk request HTTP yang sedang berjalan: jumlah statement, row, dan waktu JDBC.
+ * <p>
+ * Diisi oleh {@link SqlTrackingDataSource} dari thread request saja; statement dari worker atau
+ * scheduler tidak punya {@link Stats} dan tidak dihitung. Satu executeBatch dihitung satu statement
+ * (satu round trip), row = update count atau row yang dibaca lewat ResultSet.next().
+ */
+public final class SqlTracker {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private SqlTracker() {
+    }
+
+    public static Stats begin(int maxCapturedStatements, boolean responseHeaders) {
+        Stats stats = new Stats(maxCapturedStatements, responseHeaders);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // Hanya dipakai satu thread, tanpa sinkronisasi
+    public static final class Stats {
+
+        private final int maxCapturedStatements;
+        private final boolean responseHeaders;
+        private final List<String> capturedStatements = new ArrayList<>();
+        private int statements;
+        private long rows;
+        private long jdbcNanos;
+
+        private Stats(int maxCapturedStatements, boolean responseHeaders) {
+            this.maxCapturedStatements = Math.max(0, maxCapturedStatements);
+            this.responseHeaders = responseHeaders;
+        }
+
+        void recordStatement(String sql, long nanos) {
+            statements++;
+            jdbcNanos += nanos;
+            if (capturedStatements.size() < maxCapturedStatements) {
+                capturedStatements.add(sql);
+            }
+        }
+
+        void recordRows(long count) {
+            rows += count;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getJdbcMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(jdbcNanos);
+        }
+
+        public boolean isResponseHeaders() {
+            return responseHeaders;
+        }
+
+        public List<String> getCapturedStatements() {
+            return Collections.unmodifiableList(capturedStatements);
+        }
+
+        @Override
+        public String toString() {
+            return statements + " SQL statements, " + rows + " rows, " + getJdbcMillis() + " ms in JDBC";
+        }
+    }
+}
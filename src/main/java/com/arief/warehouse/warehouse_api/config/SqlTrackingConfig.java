@@ -0,0 +1,33 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "warehouse.sql-tracking", name = "enabled", matchIfMissing = true)
+public class SqlTrackingConfig {
+
+    // static: BeanPostProcessor harus ada sebelum DataSource dibuat
+    @Bean
+    static BeanPostProcessor sqlTrackingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Hikari tetap di dalam (unwrap ke HikariDataSource masih jalan); close tetap ke bean asli
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlTrackingDataSource)) {
+                    return new SqlTrackingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    SqlTrackingFilter sqlTrackingFilter(SqlTrackingProperties properties) {
+        return new SqlTrackingFilter(properties);
+    }
+}
@@ -0,0 +1,167 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource yang menghitung SQL ke {@link SqlTracker}.
+ * <p>
+ * Dipasang di level JDBC, bukan StatementInspector Hibernate, supaya query JdbcTemplate
+ * (MovementBatchWriter, laporan, reconciliation) ikut terhitung. Connection, Statement, dan ResultSet
+ * dibungkus proxy; di thread tanpa tracking biayanya satu ThreadLocal.get() per execute.
+ * Waktu JDBC = waktu execute*, tidak termasuk membaca ResultSet.
+ */
+public class SqlTrackingDataSource extends DelegatingDataSource {
+
+    private static final String BATCH_WITHOUT_SQL = "<batch>";
+
+    public SqlTrackingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private static Connection track(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlTrackingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof Long count) {
+            return Math.max(0, count);
+        }
+        long rows = 0;
+        // Batch: SUCCESS_NO_INFO (-2) tidak dihitung
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement/prepareCall: SQL ada di argumen pertama
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                StatementHandler handler = new StatementHandler(statement, sql);
+                if (statement instanceof CallableStatement) {
+                    return proxy(CallableStatement.class, handler);
+                }
+                if (statement instanceof PreparedStatement) {
+                    return proxy(PreparedStatement.class, handler);
+                }
+                return proxy(Statement.class, handler);
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement target, String preparedSql) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            SqlTracker.Stats stats = SqlTracker.current();
+            if (stats == null) {
+                return invokeTarget(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                Object result = invokeTarget(target, method, args);
+                // Hasil execute() yang boolean diambil lewat getResultSet
+                if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                    return trackRows(resultSet, stats);
+                }
+                return result;
+            }
+
+            long startedAt = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } finally {
+                // Statement yang gagal tetap satu round trip
+                stats.recordStatement(sqlOf(args), System.nanoTime() - startedAt);
+            }
+            if (result instanceof ResultSet resultSet) {
+                return trackRows(resultSet, stats);
+            }
+            stats.recordRows(rowsOf(result));
+            return result;
+        }
+
+        private String sqlOf(Object[] args) {
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                return sql;
+            }
+            return preparedSql != null ? preparedSql : BATCH_WITHOUT_SQL;
+        }
+
+        private static ResultSet trackRows(ResultSet resultSet, SqlTracker.Stats stats) {
+            return proxy(ResultSet.class, new ResultSetHandler(resultSet, stats));
+        }
+    }
+
+    private record ResultSetHandler(ResultSet target, SqlTracker.Stats stats) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            Object result = invokeTarget(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                stats.recordRows(1);
+            }
+            return result;
+        }
+    }
+}
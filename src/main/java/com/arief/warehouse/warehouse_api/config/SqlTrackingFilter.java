@@ -0,0 +1,76 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Membuka dan menutup {@link SqlTracker} per request HTTP.
+ * <p>
+ * Ringkasan SQL di-log DEBUG untuk setiap request, dan WARN beserta SQL-nya untuk request yang melewati
+ * slowRequestThreshold. Stats juga disimpan sebagai request attribute supaya test bisa membatasi jumlah
+ * query per endpoint. Header X-Sql-* ditulis di sini hanya kalau response belum committed (204, 304);
+ * response dengan body diberi header oleh {@link SqlTrackingHeaderAdvice} sebelum body ditulis.
+ */
+public class SqlTrackingFilter extends OncePerRequestFilter {
+
+    public static final String STATS_ATTRIBUTE = SqlTrackingFilter.class.getName() + ".STATS";
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlTrackingFilter.class);
+
+    private final SqlTrackingProperties properties;
+
+    public SqlTrackingFilter(SqlTrackingProperties properties) {
+        this.properties = properties;
+    }
+
+    static void writeHeaders(SqlTracker.Stats stats, BiConsumer<String, String> header) {
+        header.accept(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+        header.accept(ROWS_HEADER, String.valueOf(stats.getRows()));
+        header.accept(TIME_HEADER, String.valueOf(stats.getJdbcMillis()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlTracker.Stats stats = SqlTracker.begin(properties.getMaxCapturedStatements(),
+                properties.isResponseHeaders());
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        long startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlTracker.end();
+            if (stats.isResponseHeaders() && !response.isCommitted()) {
+                writeHeaders(stats, response::setHeader);
+            }
+            logRequest(request, response, stats, System.nanoTime() - startedAt);
+        }
+    }
+
+    private void logRequest(HttpServletRequest request, HttpServletResponse response,
+                            SqlTracker.Stats stats, long elapsedNanos) {
+        Duration threshold = properties.getSlowRequestThreshold();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (threshold != null && !threshold.isZero() && elapsedNanos >= threshold.toNanos()) {
+            log.warn("Slow request {} {} -> {} in {} ms, {}:\n  {}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMillis, stats,
+                    String.join("\n  ", stats.getCapturedStatements()));
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {} -> {} in {} ms, {}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMillis, stats);
+        }
+    }
+}
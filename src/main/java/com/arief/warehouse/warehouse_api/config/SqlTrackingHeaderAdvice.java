@@ -0,0 +1,31 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Header X-Sql-* untuk response dengan body: ditulis tepat sebelum body, tanpa buffering response
+@ControllerAdvice
+public class SqlTrackingHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlTracker.Stats stats = SqlTracker.current();
+        // Tanpa filter (mis. test slice) tidak ada stats
+        if (stats != null && stats.isResponseHeaders()) {
+            SqlTrackingFilter.writeHeaders(stats, response.getHeaders()::set);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.sql-tracking")
+public class SqlTrackingProperties {
+
+    // false: DataSource tidak dibungkus sama sekali
+    private boolean enabled = true;
+
+    // Header X-Sql-* di setiap response, untuk debug dan test
+    private boolean responseHeaders = false;
+
+    // Request selama ini atau lebih di-log WARN beserta SQL-nya; 0 = mati
+    private Duration slowRequestThreshold = Duration.ofSeconds(1);
+
+    // SQL yang disimpan per request; sisanya hanya dihitung
+    private int maxCapturedStatements = 50;
+}
@@ -0,0 +1,33 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.stock-events")
+public class StockEventProperties {
+
+    // Koneksi SSE per node; lewat dari ini subscribe ditolak dengan 503
+    private int maxSubscribers = 10_000;
+
+    // Event belum terkirim per subscriber, maksimal satu per variant (digabung)
+    private int bufferSize = 256;
+
+    // Antrean dari write path ke thread fan-out; kalau penuh event dibuang, bukan ditunggu
+    private int queueCapacity = 65_536;
+
+    // Thread yang menulis ke koneksi SSE; client lambat hanya menahan satu thread
+    private int dispatcherThreads = 8;
+
+    // Send yang tertahan lebih lama dari ini: subscriber dilepas dan thread-nya diganti thread baru
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // Setelah ini koneksi ditutup dan client reconnect
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,10 @@
+package com.arief.warehouse.warehouse_api.config;
+
+public enum StockLockStrategy {
+    // SELECT ... FOR UPDATE, cek di Java, lalu save
+    PESSIMISTIC,
+    // Satu UPDATE dengan guard "stock + delta >= 0", tanpa row lock eksplisit
+    CONDITIONAL_UPDATE,
+    // Baca tanpa lock, tulis dengan cek @Version, ulangi kalau bentrok
+    OPTIMISTIC
+}
@@ -0,0 +1,104 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "warehouse.stock")
+public class StockProperties {
+
+    private StockLockStrategy strategy = StockLockStrategy.PESSIMISTIC;
+
+    // Override strategi per variant id, misalnya SKU long tail pakai OPTIMISTIC
+    private Map<Long, StockLockStrategy> variantStrategies = new HashMap<>();
+
+    private Optimistic optimistic = new Optimistic();
+
+    private Combiner combiner = new Combiner();
+
+    private Sharding sharding = new Sharding();
+
+    private Ledger ledger = new Ledger();
+
+    private Metrics metrics = new Metrics();
+
+    public StockLockStrategy strategyFor(Long variantId) {
+        return variantStrategies.getOrDefault(variantId, strategy);
+    }
+
+    @Getter
+    @Setter
+    public static class Optimistic {
+
+        // Total percobaan termasuk yang pertama
+        private int maxAttempts = 5;
+
+        private Duration initialBackoff = Duration.ofMillis(2);
+
+        private Duration maxBackoff = Duration.ofMillis(50);
+    }
+
+    @Getter
+    @Setter
+    public static class Combiner {
+
+        // Gabungkan sell yang bersamaan untuk variant yang sama (flat combining)
+        private boolean enabled = false;
+
+        // Maksimum request yang diproses leader dalam satu transaksi
+        private int batchSize = 64;
+
+        // Berapa lama leader menunggu batch terisi sebelum jalan; 0 = langsung
+        private Duration maxWait = Duration.ZERO;
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+
+        private int maxBuckets = 64;
+
+        // Dibaca juga oleh @Scheduled di StockBucketRebalancer
+        private Duration rebalanceInterval = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Ledger {
+
+        // Stok dipegang di memori (StockLedger); DB diperbarui write-behind. Hanya untuk satu node
+        private boolean enabled = false;
+
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        // Maksimum movement per transaksi flush
+        private int flushBatchSize = 10_000;
+
+        // Movement yang belum di-flush; kalau penuh, perubahan stok menunggu sampai backlogTimeout
+        private int maxPending = 1_000_000;
+
+        private Duration backlogTimeout = Duration.ofSeconds(1);
+
+        private int initialCapacity = 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+
+        // Jumlah rank yang diekspor sebagai gauge hot variant
+        private int hotVariants = 10;
+
+        // Maksimum variant berbeda yang dihitung per window; variant baru setelah penuh diabaikan
+        private int hotVariantCapacity = 10_000;
+
+        // Dibaca juga oleh @Scheduled di StockMetrics
+        private Duration hotVariantWindow = Duration.ofSeconds(10);
+    }
+}
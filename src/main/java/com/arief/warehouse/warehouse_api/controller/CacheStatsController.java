@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.CacheStatsResponse;
+import com.arief.warehouse.warehouse_api.service.impl.SecondLevelCacheStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache/stats")
+public class CacheStatsController {
+
+    private final SecondLevelCacheStats secondLevelCacheStats;
+
+    public CacheStatsController(SecondLevelCacheStats secondLevelCacheStats) {
+        this.secondLevelCacheStats = secondLevelCacheStats;
+    }
+
+    @GetMapping
+    public ResponseEntity<CacheStatsResponse> getStats() {
+        return ResponseEntity.ok(secondLevelCacheStats.getStats());
+    }
+}
@@ -0,0 +1,49 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.service.CatalogExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogExportController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final CatalogExportService catalogExportService;
+
+    public CatalogExportController(CatalogExportService catalogExportService) {
+        this.catalogExportService = catalogExportService;
+    }
+
+    // Ditulis langsung ke response, tidak pernah dikumpulkan ke satu list
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void export(@RequestParam(required = false) Instant updatedSince,
+                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                catalogExportService.exportCatalog(updatedSince, out);
+            }
+        } else {
+            OutputStream out = response.getOutputStream();
+            catalogExportService.exportCatalog(updatedSince, out);
+        }
+    }
+}
@@ -3,13 +3,15 @@ package com.arief.warehouse.warehouse_api.controller;
 import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 import com.arief.warehouse.warehouse_api.service.ItemService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/items")
@@ -31,14 +33,25 @@ public class ItemController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ItemResponse> getById(@PathVariable Long id) {
+    public ResponseEntity<ItemResponse> getById(@PathVariable Long id, WebRequest request) {
+        // Validator dicek dulu; kalau cocok langsung 304 tanpa load entity dan tanpa JSON
+        ResourceVersion version = itemService.getVersion(id);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
         ItemResponse response = itemService.getById(id);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
-    public ResponseEntity<List<ItemResponse>> getAll() {
-        List<ItemResponse> items = itemService.getAll();
+    public ResponseEntity<PageResponse<ItemResponse>> getAll(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            WebRequest request) {
+        ResourceVersion version = itemService.getPageVersion(cursor, limit);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+        PageResponse<ItemResponse> items = itemService.getAll(cursor, limit);
         return ResponseEntity.ok(items);
     }
 
@@ -1,31 +1,37 @@
 package com.arief.warehouse.warehouse_api.controller;
 
+import com.arief.warehouse.warehouse_api.dto.CheckoutRequest;
+import com.arief.warehouse.warehouse_api.dto.CheckoutResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 import com.arief.warehouse.warehouse_api.dto.SellRequest;
 import com.arief.warehouse.warehouse_api.dto.StockAdjustmentRequest;
-import com.arief.warehouse.warehouse_api.entity.StockMovement;
-import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.dto.StockMovementResponse;
+import com.arief.warehouse.warehouse_api.dto.StockShardRequest;
 import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.StockMovementService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
-import java.util.List;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api")
 public class ItemVariantController {
 
     private final ItemVariantService itemVariantService;
-    private final StockMovementRepository stockMovementRepository;
+    private final StockMovementService stockMovementService;
 
     public ItemVariantController(ItemVariantService itemVariantService,
-                                 StockMovementRepository stockMovementRepository) {
+                                 StockMovementService stockMovementService) {
         this.itemVariantService = itemVariantService;
-        this.stockMovementRepository = stockMovementRepository;
+        this.stockMovementService = stockMovementService;
     }
 
     // CRUD VARIANT
@@ -40,12 +46,25 @@ public class ItemVariantController {
     }
 
     @GetMapping("/items/{itemId}/variants")
-    public ResponseEntity<List<ItemVariantResponse>> getVariantsByItem(@PathVariable Long itemId) {
-        return ResponseEntity.ok(itemVariantService.getVariantsByItem(itemId));
+    public ResponseEntity<PageResponse<ItemVariantResponse>> getVariantsByItem(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        ResourceVersion version = itemVariantService.getVariantPageVersion(itemId, cursor, limit);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok(itemVariantService.getVariantsByItem(itemId, cursor, limit));
     }
 
     @GetMapping("/variants/{id}")
-    public ResponseEntity<ItemVariantResponse> getVariant(@PathVariable Long id) {
+    public ResponseEntity<ItemVariantResponse> getVariant(@PathVariable Long id, WebRequest request) {
+        // 304 langsung dari kolom version, tanpa load variant dan tanpa JSON
+        ResourceVersion version = itemVariantService.getVariantVersion(id);
+        if (request.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
         return ResponseEntity.ok(itemVariantService.getVariant(id));
     }
 
@@ -77,10 +96,31 @@ public class ItemVariantController {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/variants/{id}/stock/shards")
+    public ResponseEntity<ItemVariantResponse> shardStock(@PathVariable("id") Long variantId,
+                                                          @Valid @RequestBody StockShardRequest request) {
+        return ResponseEntity.ok(itemVariantService.shardStock(variantId, request.getBucketCount()));
+    }
+
+    @DeleteMapping("/variants/{id}/stock/shards")
+    public ResponseEntity<ItemVariantResponse> unshardStock(@PathVariable("id") Long variantId) {
+        return ResponseEntity.ok(itemVariantService.unshardStock(variantId));
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<CheckoutResponse> checkout(@Valid @RequestBody CheckoutRequest request) {
+        return ResponseEntity.ok(itemVariantService.checkout(request.getLines()));
+    }
+
     @GetMapping("/variants/{id}/movements")
-    public ResponseEntity<List<StockMovement>> getMovements(@PathVariable("id") Long variantId) {
-        List<StockMovement> movements =
-                stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variantId);
+    public ResponseEntity<PageResponse<StockMovementResponse>> getMovements(
+            @PathVariable("id") Long variantId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        PageResponse<StockMovementResponse> movements =
+                stockMovementService.getMovements(variantId, from, to, cursor, limit);
         return ResponseEntity.ok(movements);
     }
 }
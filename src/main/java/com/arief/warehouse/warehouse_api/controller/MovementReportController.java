@@ -0,0 +1,39 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.MovementReportGroupBy;
+import com.arief.warehouse.warehouse_api.dto.MovementReportPeriod;
+import com.arief.warehouse.warehouse_api.dto.MovementReportResponse;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.service.MovementRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/reports")
+public class MovementReportController {
+
+    private final MovementRollupService movementRollupService;
+
+    public MovementReportController(MovementRollupService movementRollupService) {
+        this.movementRollupService = movementRollupService;
+    }
+
+    // from/to inklusif, hari UTC; hanya membaca rollup harian
+    @GetMapping("/movements")
+    public ResponseEntity<MovementReportResponse> getMovementReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "TYPE") MovementReportGroupBy groupBy,
+            @RequestParam(defaultValue = "TOTAL") MovementReportPeriod period,
+            @RequestParam(required = false) StockMovementType type,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(required = false) Long variantId) {
+        return ResponseEntity.ok(movementRollupService.getReport(from, to, groupBy, period, type, itemId, variantId));
+    }
+}
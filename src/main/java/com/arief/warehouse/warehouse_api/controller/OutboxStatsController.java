@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.OutboxStatsResponse;
+import com.arief.warehouse.warehouse_api.service.impl.OutboxDispatcher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/outbox/stats")
+public class OutboxStatsController {
+
+    private final OutboxDispatcher outboxDispatcher;
+
+    public OutboxStatsController(OutboxDispatcher outboxDispatcher) {
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    @GetMapping
+    public ResponseEntity<OutboxStatsResponse> getStats() {
+        return ResponseEntity.ok(outboxDispatcher.getStats());
+    }
+}
@@ -0,0 +1,56 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationMismatchResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunRequest;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunResponse;
+import com.arief.warehouse.warehouse_api.service.ReconciliationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/reconciliation/runs")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationController(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    // Run berjalan di background; status dan progress dibaca lewat GET
+    @PostMapping
+    public ResponseEntity<ReconciliationRunResponse> start(
+            @RequestBody(required = false) ReconciliationRunRequest request) {
+        ReconciliationRunResponse run = reconciliationService.start(request);
+        return ResponseEntity
+                .accepted()
+                .location(URI.create("/api/reconciliation/runs/" + run.getId()))
+                .body(run);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReconciliationRunResponse> getRun(@PathVariable Long id) {
+        return ResponseEntity.ok(reconciliationService.getRun(id));
+    }
+
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<ReconciliationRunResponse> pause(@PathVariable Long id) {
+        return ResponseEntity.ok(reconciliationService.pause(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ReconciliationRunResponse> resume(@PathVariable Long id) {
+        return ResponseEntity.accepted().body(reconciliationService.resume(id));
+    }
+
+    @GetMapping("/{id}/mismatches")
+    public ResponseEntity<PageResponse<ReconciliationMismatchResponse>> getMismatches(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(reconciliationService.getMismatches(id, cursor, limit));
+    }
+}
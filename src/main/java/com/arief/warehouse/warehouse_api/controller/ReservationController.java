@@ -0,0 +1,46 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.ReservationCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ReservationResponse;
+import com.arief.warehouse.warehouse_api.service.ReservationService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    public ReservationController(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @PostMapping("/variants/{id}/reservations")
+    public ResponseEntity<ReservationResponse> reserve(@PathVariable("id") Long variantId,
+                                                       @Valid @RequestBody ReservationCreateRequest request) {
+        ReservationResponse created = reservationService.reserve(variantId, request);
+        return ResponseEntity
+                .created(URI.create("/api/reservations/" + created.getId()))
+                .body(created);
+    }
+
+    @GetMapping("/reservations/{id}")
+    public ResponseEntity<ReservationResponse> getReservation(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.getReservation(id));
+    }
+
+    @PostMapping("/reservations/{id}/confirm")
+    public ResponseEntity<ReservationResponse> confirm(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.confirm(id));
+    }
+
+    // Body berisi status akhir (RELEASED, atau EXPIRED kalau TTL sudah lewat)
+    @DeleteMapping("/reservations/{id}")
+    public ResponseEntity<ReservationResponse> release(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.release(id));
+    }
+}
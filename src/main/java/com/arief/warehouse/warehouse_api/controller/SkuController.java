@@ -0,0 +1,32 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
+import com.arief.warehouse.warehouse_api.dto.SellRequest;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Endpoint untuk client POS/scanner yang hanya tahu SKU
+@RestController
+@RequestMapping("/api/skus")
+public class SkuController {
+
+    private final ItemVariantService itemVariantService;
+
+    public SkuController(ItemVariantService itemVariantService) {
+        this.itemVariantService = itemVariantService;
+    }
+
+    @GetMapping("/{sku}")
+    public ResponseEntity<ItemVariantResponse> getBySku(@PathVariable String sku) {
+        return ResponseEntity.ok(itemVariantService.getVariantBySku(sku));
+    }
+
+    @PostMapping("/{sku}/sell")
+    public ResponseEntity<Void> sell(@PathVariable String sku,
+                                     @Valid @RequestBody SellRequest request) {
+        itemVariantService.sellBySku(sku, request.getQuantity());
+        return ResponseEntity.ok().build();
+    }
+}
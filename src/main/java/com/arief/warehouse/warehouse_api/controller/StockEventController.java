@@ -0,0 +1,30 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+// Pengganti polling /api/variants/{id}: event "stock-change" setiap stok berubah,
+// event "overflow" kalau ada event yang dibuang (client sebaiknya GET ulang)
+@RestController
+@RequestMapping("/api/stock-events")
+public class StockEventController {
+
+    private final StockEventService stockEventService;
+
+    public StockEventController(StockEventService stockEventService) {
+        this.stockEventService = stockEventService;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) List<Long> itemIds,
+                                @RequestParam(required = false) List<Long> variantIds) {
+        return stockEventService.subscribe(itemIds, variantIds);
+    }
+}
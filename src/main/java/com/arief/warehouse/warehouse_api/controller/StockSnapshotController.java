@@ -0,0 +1,35 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.StockAtResponse;
+import com.arief.warehouse.warehouse_api.service.StockSnapshotService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api")
+public class StockSnapshotController {
+
+    private final StockSnapshotService stockSnapshotService;
+
+    public StockSnapshotController(StockSnapshotService stockSnapshotService) {
+        this.stockSnapshotService = stockSnapshotService;
+    }
+
+    @GetMapping("/variants/{id}/stock")
+    public ResponseEntity<StockAtResponse> getStockAt(@PathVariable("id") Long variantId,
+                                                      @RequestParam Instant at) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAt(variantId, at));
+    }
+
+    // Semua variant pada satu waktu (valuasi akhir bulan), per halaman
+    @GetMapping("/stock")
+    public ResponseEntity<PageResponse<StockAtResponse>> getAllStockAt(
+            @RequestParam Instant at,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAt(at, cursor, limit));
+    }
+}
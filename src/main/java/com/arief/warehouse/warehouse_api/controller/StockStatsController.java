@@ -0,0 +1,64 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.JournalStatsResponse;
+import com.arief.warehouse.warehouse_api.dto.LedgerStatsResponse;
+import com.arief.warehouse.warehouse_api.dto.OptimisticStockStatsResponse;
+import com.arief.warehouse.warehouse_api.dto.ReservationStatsResponse;
+import com.arief.warehouse.warehouse_api.dto.SellCombinerStatsResponse;
+import com.arief.warehouse.warehouse_api.service.impl.MovementJournal;
+import com.arief.warehouse.warehouse_api.service.impl.OptimisticStockRetrier;
+import com.arief.warehouse.warehouse_api.service.impl.ReservationExpiry;
+import com.arief.warehouse.warehouse_api.service.impl.SellCombiner;
+import com.arief.warehouse.warehouse_api.service.impl.StockLedger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stock/stats")
+public class StockStatsController {
+
+    private final SellCombiner sellCombiner;
+    private final OptimisticStockRetrier optimisticStockRetrier;
+    private final MovementJournal movementJournal;
+    private final StockLedger stockLedger;
+    private final ReservationExpiry reservationExpiry;
+
+    public StockStatsController(SellCombiner sellCombiner,
+                                OptimisticStockRetrier optimisticStockRetrier,
+                                MovementJournal movementJournal,
+                                StockLedger stockLedger,
+                                ReservationExpiry reservationExpiry) {
+        this.sellCombiner = sellCombiner;
+        this.optimisticStockRetrier = optimisticStockRetrier;
+        this.movementJournal = movementJournal;
+        this.stockLedger = stockLedger;
+        this.reservationExpiry = reservationExpiry;
+    }
+
+    @GetMapping("/combiner")
+    public ResponseEntity<SellCombinerStatsResponse> getCombinerStats() {
+        return ResponseEntity.ok(sellCombiner.getStats());
+    }
+
+    @GetMapping("/optimistic")
+    public ResponseEntity<OptimisticStockStatsResponse> getOptimisticStats() {
+        return ResponseEntity.ok(optimisticStockRetrier.getStats());
+    }
+
+    @GetMapping("/journal")
+    public ResponseEntity<JournalStatsResponse> getJournalStats() {
+        return ResponseEntity.ok(movementJournal.getStats());
+    }
+
+    @GetMapping("/ledger")
+    public ResponseEntity<LedgerStatsResponse> getLedgerStats() {
+        return ResponseEntity.ok(stockLedger.getStats());
+    }
+
+    @GetMapping("/reservations")
+    public ResponseEntity<ReservationStatsResponse> getReservationStats() {
+        return ResponseEntity.ok(reservationExpiry.getStats());
+    }
+}
@@ -0,0 +1,40 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.dto.VariantBulkFormat;
+import com.arief.warehouse.warehouse_api.dto.VariantBulkUpsertResponse;
+import com.arief.warehouse.warehouse_api.service.VariantBulkService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/variants/bulk")
+public class VariantBulkController {
+
+    private final VariantBulkService variantBulkService;
+
+    public VariantBulkController(VariantBulkService variantBulkService) {
+        this.variantBulkService = variantBulkService;
+    }
+
+    // Body dibaca langsung sebagai stream, tidak di-buffer jadi satu String
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<VariantBulkUpsertResponse> upsertCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(upsert(body, VariantBulkFormat.CSV));
+    }
+
+    @PostMapping(consumes = "application/x-ndjson")
+    public ResponseEntity<VariantBulkUpsertResponse> upsertNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(upsert(body, VariantBulkFormat.NDJSON));
+    }
+
+    private VariantBulkUpsertResponse upsert(InputStream body, VariantBulkFormat format) throws IOException {
+        return variantBulkService.upsert(new InputStreamReader(body, StandardCharsets.UTF_8), format);
+    }
+}
@@ -0,0 +1,18 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStatsResponse {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+}
@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRatio;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    private long queryCachePuts;
+    private List<CacheRegionStatsResponse> regions;
+}
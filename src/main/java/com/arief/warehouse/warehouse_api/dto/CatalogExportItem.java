@@ -0,0 +1,23 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogExportItem {
+
+    private Long id;
+    private String name;
+    private String description;
+    private boolean active;
+    private Instant updatedAt;
+    private List<CatalogExportVariant> variants;
+}
@@ -0,0 +1,28 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Satu baris hasil join item + variant untuk export; kolom variant null kalau item belum punya variant
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogExportRow {
+
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private Boolean itemActive;
+    private Instant itemUpdatedAt;
+    private Long variantId;
+    private String sku;
+    private String color;
+    private String size;
+    private BigDecimal price;
+    private Long stockQuantity;
+    private Instant variantUpdatedAt;
+}
@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogExportVariant {
+
+    private Long id;
+    private String sku;
+    private String color;
+    private String size;
+    private BigDecimal price;
+    private long stockQuantity;
+    private Instant updatedAt;
+}
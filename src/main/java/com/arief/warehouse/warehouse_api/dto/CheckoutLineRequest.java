@@ -0,0 +1,20 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutLineRequest {
+
+    @NotNull
+    private Long variantId;
+
+    @NotNull
+    @Min(1)
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutLineResult {
+
+    private Long variantId;
+    private int quantity;
+    private CheckoutLineStatus status;
+
+    // Sisa stok setelah line ini (OK), atau stok yang tersedia saat line gagal
+    private int availableStock;
+}
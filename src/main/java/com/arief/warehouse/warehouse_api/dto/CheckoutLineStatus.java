@@ -0,0 +1,7 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+public enum CheckoutLineStatus {
+    OK,
+    OUT_OF_STOCK,
+    NOT_FOUND
+}
@@ -0,0 +1,20 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequest {
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@Valid CheckoutLineRequest> lines;
+}
@@ -20,4 +20,6 @@ public class ItemVariantResponse {
     private String size;
     private BigDecimal price;
     private Integer stockQuantity;
+    private Integer reservedQuantity;
+    private Integer availableQuantity;
 }
@@ -0,0 +1,27 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalStatsResponse {
+
+    private boolean enabled;
+    // Sudah durable di journal tapi belum ada di stock_movements
+    private long pending;
+    private long lastSeq;
+    private long drainedSeq;
+    private long groupCommits;
+    private long appendedEntries;
+    private double averageGroupSize;
+    private long drainedEntries;
+    private long drainBatches;
+    private long abortedEntries;
+    // Movement untuk variant yang sudah dihapus sebelum sempat di-drain
+    private long skippedEntries;
+}
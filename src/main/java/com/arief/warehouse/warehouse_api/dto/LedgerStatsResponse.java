@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerStatsResponse {
+
+    private boolean enabled;
+    private int variants;
+    private int pending;
+    private long applied;
+    private long rejected;
+    private long flushes;
+    private long flushedMovements;
+    private long skippedMovements;
+    private long flushFailures;
+    private double averageFlushSize;
+}
@@ -0,0 +1,7 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+public enum MovementReportGroupBy {
+    ITEM,
+    VARIANT,
+    TYPE
+}
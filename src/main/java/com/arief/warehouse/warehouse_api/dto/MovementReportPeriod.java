@@ -0,0 +1,10 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+public enum MovementReportPeriod {
+    DAY,
+    // Minggu ISO, mulai Senin
+    WEEK,
+    MONTH,
+    // Satu baris per grup untuk seluruh rentang
+    TOTAL
+}
@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementReportResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private MovementReportGroupBy groupBy;
+    private MovementReportPeriod period;
+    // Movement dengan createdAt sejak titik ini belum masuk laporan; null kalau rollup belum pernah jalan
+    private Instant rolledUpTo;
+    private List<MovementReportRow> rows;
+}
@@ -0,0 +1,26 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementReportRow {
+
+    // Hari pertama periode; null untuk period TOTAL
+    private LocalDate periodStart;
+    // Hanya field sesuai groupBy yang terisi
+    private Long itemId;
+    private Long variantId;
+    private StockMovementType type;
+    // Jumlah quantityChange (OUT bernilai negatif)
+    private long quantity;
+    private long movements;
+}
@@ -0,0 +1,18 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Jumlah quantityChange dan banyaknya movement per variant dalam satu rentang waktu
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementTotal {
+
+    private Long variantId;
+    private Long quantityChange;
+    private Long movements;
+}
@@ -0,0 +1,19 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimisticStockStatsResponse {
+
+    private long operations;
+    private long attempts;
+    private long retries;
+    private long exhausted;
+    private double retriesPerOperation;
+}
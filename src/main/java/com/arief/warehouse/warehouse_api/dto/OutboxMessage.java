@@ -0,0 +1,26 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Yang diterima sink; id outbox dipakai penerima untuk dedup (pengiriman at-least-once)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    private Long id;
+    private Long movementId;
+    private Long variantId;
+    private StockMovementType type;
+    private int quantityChange;
+    private String reason;
+    private Instant occurredAt;
+    private int attempts;
+}
@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsResponse {
+
+    private String sink;
+    private long pending;
+    private long failed;
+    // Umur row PENDING tertua; 0 kalau outbox kosong
+    private long lagMillis;
+    private long delivered;
+    private double deliveredPerSecond;
+    private long batches;
+    private long retries;
+    private long deadLettered;
+    private double averageBatchMillis;
+}
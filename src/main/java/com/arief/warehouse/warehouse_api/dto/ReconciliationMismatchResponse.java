@@ -0,0 +1,26 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationMismatchResponse {
+
+    private Long id;
+    private Long runId;
+    private Long variantId;
+    // Stok row + bucket saat diperiksa
+    private long stockQuantity;
+    private long movementTotal;
+    private long difference;
+    private boolean repaired;
+    private boolean inFlight;
+    private Instant detectedAt;
+}
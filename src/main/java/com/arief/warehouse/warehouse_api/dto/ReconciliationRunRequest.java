@@ -0,0 +1,14 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunRequest {
+
+    // false: hanya laporan selisih
+    private boolean repair;
+}
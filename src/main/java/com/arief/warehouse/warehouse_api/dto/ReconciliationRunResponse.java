@@ -0,0 +1,30 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunResponse {
+
+    private Long id;
+    private ReconciliationStatus status;
+    private boolean repair;
+    private int chunkSize;
+    private int partitions;
+    private int completedPartitions;
+    private long checkedVariants;
+    private long mismatchCount;
+    private long repairedCount;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationCreateRequest {
+
+    @NotNull
+    @Min(1)
+    private Integer quantity;
+
+    // Kosong: pakai warehouse.reservations.default-ttl
+    @Min(1)
+    private Long ttlSeconds;
+}
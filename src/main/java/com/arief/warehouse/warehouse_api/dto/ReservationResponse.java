@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationResponse {
+
+    private Long id;
+    private Long variantId;
+    private int quantity;
+    private ReservationStatus status;
+    private Instant expiresAt;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
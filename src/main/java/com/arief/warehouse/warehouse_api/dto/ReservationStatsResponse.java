@@ -0,0 +1,21 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationStatsResponse {
+
+    // Timer di wheel, termasuk yang sudah dibatalkan tapi belum dibuang dari slotnya
+    private int pendingTimers;
+    private long expired;
+    // Timer jatuh tempo tapi reservasinya sudah tidak ACTIVE (kalah oleh confirm/release)
+    private long staleTimers;
+    private long expireBatches;
+    private long failedExpireBatches;
+}
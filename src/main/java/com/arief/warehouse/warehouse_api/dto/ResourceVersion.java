@@ -0,0 +1,19 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Validator untuk conditional GET: ETag kuat + Last-Modified (epoch millis, -1 kalau tidak dipakai)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceVersion {
+
+    private String etag;
+
+    @Builder.Default
+    private long lastModified = -1L;
+}
@@ -0,0 +1,29 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Hasil agregat rollup per hari; groupId berisi item id atau variant id tergantung query
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupTotal {
+
+    private LocalDate day;
+    private Long groupId;
+    private StockMovementType type;
+    private Long quantity;
+    private Long movements;
+
+    public RollupTotal(LocalDate day, Long groupId, Long quantity, Long movements) {
+        this(day, groupId, null, quantity, movements);
+    }
+
+    public RollupTotal(LocalDate day, StockMovementType type, Long quantity, Long movements) {
+        this(day, null, type, quantity, movements);
+    }
+}
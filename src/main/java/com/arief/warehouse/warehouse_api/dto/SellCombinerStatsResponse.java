@@ -0,0 +1,21 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellCombinerStatsResponse {
+
+    private boolean enabled;
+    private long batches;
+    private long combinedSells;
+    private double averageBatchSize;
+    private int maxBatchSize;
+    // Variant yang sedang punya antrean sell
+    private int activeLanes;
+}
@@ -0,0 +1,24 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAtResponse {
+
+    private Long variantId;
+    private String sku;
+    private Instant at;
+    private int stockQuantity;
+    // Titik awal replay: waktu snapshot, atau waktu query kalau dihitung mundur dari stok sekarang.
+    // null kalau variant belum ada pada waktu itu.
+    private Instant basisAt;
+    private long replayedMovements;
+}
@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Payload SSE stock-change. Kalau beberapa event digabung, quantityChange adalah
+// total perubahan sejak event terakhir yang terkirim dan stockQuantity nilai terbaru
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangeEvent {
+
+    private Long variantId;
+    private Long itemId;
+    private int stockQuantity;
+    private int quantityChange;
+    private StockMovementType type;
+    private Instant occurredAt;
+}
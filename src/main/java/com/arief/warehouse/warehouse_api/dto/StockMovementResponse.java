@@ -0,0 +1,23 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementResponse {
+
+    private Long id;
+    private Long variantId;
+    private StockMovementType type;
+    private int quantityChange;
+    private String reason;
+    private Instant createdAt;
+}
@@ -0,0 +1,6 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+public enum VariantBulkFormat {
+    CSV,
+    NDJSON
+}
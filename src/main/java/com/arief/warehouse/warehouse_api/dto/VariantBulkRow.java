@@ -0,0 +1,39 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Satu baris upload bulk; stockQuantity kosong = stok variant yang sudah ada tidak diubah
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantBulkRow {
+
+    @NotNull
+    private Long itemId;
+
+    @NotBlank
+    @Size(max = 64)
+    private String sku;
+
+    @Size(max = 50)
+    private String color;
+
+    @Size(max = 20)
+    private String size;
+
+    @NotNull
+    @DecimalMin("0.0")
+    private BigDecimal price;
+
+    @Min(0)
+    private Integer stockQuantity;
+}
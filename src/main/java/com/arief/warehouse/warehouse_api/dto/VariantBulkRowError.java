@@ -0,0 +1,18 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantBulkRowError {
+
+    // Nomor baris di file upload (1-based, header CSV ikut dihitung)
+    private long line;
+    private String sku;
+    private String message;
+}
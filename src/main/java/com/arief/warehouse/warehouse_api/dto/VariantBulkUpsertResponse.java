@@ -0,0 +1,22 @@
+package com.arief.warehouse.warehouse_api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantBulkUpsertResponse {
+
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    private List<VariantBulkRowError> errors;
+    private boolean errorsTruncated;
+}
@@ -4,18 +4,29 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "item_variants")
+@Table(
+        name = "item_variants",
+        indexes = @Index(name = "idx_item_variants_item_id_id", columnList = "item_id, id")
+)
+// READ_WRITE: update lewat entity (sell pessimistic/optimistic, checkout) memperbarui entry saat commit,
+// bulk UPDATE (conditional) meng-invalidate region. Stok yang di-shard tidak ikut di-cache.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
 public class ItemVariant extends AuditableEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence + pooled optimizer: IDENTITY mematikan JDBC batch insert di Hibernate
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_variants_seq")
+    @SequenceGenerator(name = "item_variants_seq", sequenceName = "item_variants_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -36,4 +47,16 @@ public class ItemVariant extends AuditableEntity {
 
     @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity = 0;
+
+    // Total reservasi ACTIVE; dijaga bersama stok supaya stok tersedia tidak perlu menjumlah tabel reservasi
+    @Column(name = "reserved_quantity", nullable = false)
+    private int reservedQuantity = 0;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    // > 0 berarti stok dipecah ke stock_buckets dan stock_quantity hanya sisa yang belum dibagi
+    @Column(name = "bucket_count", nullable = false)
+    private int bucketCount = 0;
 }
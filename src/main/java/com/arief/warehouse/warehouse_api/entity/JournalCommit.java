@@ -0,0 +1,26 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Marker commit journal: seq firstSeq..lastSeq milik satu transaksi stok yang sudah commit.
+// Ditulis di dalam transaksi itu sendiri, jadi hanya ada kalau transaksinya commit.
+@Entity
+@Table(name = "journal_commits")
+@Getter
+@Setter
+@NoArgsConstructor
+public class JournalCommit {
+
+    @Id
+    @Column(name = "last_seq")
+    private Long lastSeq;
+
+    @Column(name = "first_seq", nullable = false)
+    private Long firstSeq;
+}
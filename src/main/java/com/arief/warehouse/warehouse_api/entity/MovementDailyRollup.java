@@ -0,0 +1,50 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// Total movement per (variant, hari UTC, tipe). Laporan hanya membaca tabel ini, jadi ukurannya
+// mengikuti jumlah variant yang aktif per hari, bukan jumlah movement.
+@Entity
+@Table(
+        name = "movement_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_movement_daily_rollups_variant_day_type",
+                columnNames = {"variant_id", "rollup_day", "type"}),
+        indexes = @Index(name = "idx_movement_daily_rollups_day_item", columnList = "rollup_day, item_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class MovementDailyRollup {
+
+    // Row hanya ditulis lewat MERGE di MovementRollupServiceImpl, jadi id dari identity
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    // Disalin saat rollup supaya laporan per item tidak perlu join ke item_variants
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    // Hari UTC; "day" adalah keyword di H2
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate rollupDay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockMovementType type;
+
+    // Jumlah quantityChange (OUT bernilai negatif)
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(name = "movement_count", nullable = false)
+    private long movementCount;
+}
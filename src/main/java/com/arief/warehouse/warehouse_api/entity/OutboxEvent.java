@@ -0,0 +1,68 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Satu row per StockMovement, ditulis di transaksi yang sama. Isi movement disalin
+// supaya dispatcher tidak perlu join dan row tetap utuh kalau movement dihapus.
+@Entity
+@Table(
+        name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_events_status_next_id", columnList = "status, next_attempt_at, id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "movement_id", nullable = false)
+    private Long movementId;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false)
+    private StockMovementType movementType;
+
+    @Column(name = "quantity_change", nullable = false)
+    private int quantityChange;
+
+    @Column(nullable = false)
+    private String reason;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    // Klaim dispatcher: row dipegang lease_owner sampai lease_until lewat
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(name = "delivered_at")
+    private Instant deliveredAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    DELIVERED,
+    // Gagal terus sampai maxAttempts; tidak diambil lagi oleh dispatcher
+    FAILED
+}
@@ -0,0 +1,51 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Variant yang stoknya (row + bucket) tidak sama dengan jumlah movement-nya saat diperiksa
+@Entity
+@Table(
+        name = "reconciliation_mismatches",
+        indexes = @Index(name = "idx_reconciliation_mismatches_run_id", columnList = "run_id, id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    // Tanpa foreign key, sama seperti snapshot: laporan tidak menghalangi delete variant
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private long stockQuantity;
+
+    @Column(name = "movement_total", nullable = false)
+    private long movementTotal;
+
+    // stockQuantity - movementTotal
+    @Column(nullable = false)
+    private long difference;
+
+    @Column(nullable = false)
+    private boolean repaired;
+
+    // Movement variant ini masih di journal saat dicek, jadi selisihnya belum tentu nyata dan tidak diperbaiki
+    @Column(name = "in_flight", nullable = false)
+    private boolean inFlight;
+
+    @Column(name = "detected_at", nullable = false)
+    private Instant detectedAt;
+}
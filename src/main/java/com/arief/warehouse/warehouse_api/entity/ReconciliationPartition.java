@@ -0,0 +1,39 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Range id variant (fromId, toId] milik satu worker. checkedUpToId adalah checkpoint-nya:
+// maju per chunk di transaksi yang sama dengan hasil chunk itu.
+@Entity
+@Table(
+        name = "reconciliation_partitions",
+        indexes = @Index(name = "idx_reconciliation_partitions_run", columnList = "run_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "from_id", nullable = false)
+    private long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private long toId;
+
+    @Column(name = "checked_up_to_id", nullable = false)
+    private long checkedUpToId;
+
+    public boolean isDone() {
+        return checkedUpToId >= toId;
+    }
+}
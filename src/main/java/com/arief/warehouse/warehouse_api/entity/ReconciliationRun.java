@@ -0,0 +1,49 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Satu pemeriksaan stock_quantity terhadap jumlah movement. Counter ditambah per chunk di
+// transaksi yang sama dengan checkpoint partisinya, jadi tetap benar setelah resume.
+@Entity
+@Table(name = "reconciliation_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationRun extends AuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReconciliationStatus status = ReconciliationStatus.RUNNING;
+
+    // false: hanya laporan; true: selisih ditutup dengan movement ADJUSTMENT
+    @Column(nullable = false)
+    private boolean repair;
+
+    // Lebar range id yang diperiksa per query
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    @Column(name = "checked_variants", nullable = false)
+    private long checkedVariants;
+
+    @Column(name = "mismatch_count", nullable = false)
+    private long mismatchCount;
+
+    @Column(name = "repaired_count", nullable = false)
+    private long repairedCount;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,10 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    // Dihentikan (manual atau shutdown); bisa dilanjutkan dari checkpoint partisi
+    PAUSED,
+    COMPLETED,
+    // Salah satu worker gagal; bisa dilanjutkan dari checkpoint partisi
+    FAILED
+}
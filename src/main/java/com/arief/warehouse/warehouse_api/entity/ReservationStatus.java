@@ -0,0 +1,10 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+public enum ReservationStatus {
+    ACTIVE,
+    // Sudah jadi penjualan (movement OUT)
+    CONFIRMED,
+    // Dilepas client sebelum TTL habis
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,32 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Sebagian stok dari satu variant; tidak pakai auditing karena diupdate di jalur sell
+@Entity
+@Table(
+        name = "stock_buckets",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"variant_id", "bucket_index"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "variant_id", nullable = false)
+    private ItemVariant variant;
+
+    @Column(name = "bucket_index", nullable = false)
+    private int bucketIndex;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+}
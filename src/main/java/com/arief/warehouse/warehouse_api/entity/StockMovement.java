@@ -7,14 +7,22 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "stock_movements")
+@Table(
+        name = "stock_movements",
+        indexes = {
+                @Index(name = "idx_stock_movements_variant_created_id", columnList = "variant_id, created_at, id"),
+                // Window waktu lintas variant untuk job rollup
+                @Index(name = "idx_stock_movements_created_at", columnList = "created_at")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 public class StockMovement extends AuditableEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,4 +39,8 @@ public class StockMovement extends AuditableEntity {
 
     @Column(nullable = false)
     private String reason;
+
+    // Diisi hanya untuk movement yang masuk lewat journal write-behind; max-nya = watermark drain
+    @Column(name = "journal_seq", unique = true)
+    private Long journalSeq;
 }
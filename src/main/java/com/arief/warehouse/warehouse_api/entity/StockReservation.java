@@ -0,0 +1,42 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Hold stok untuk satu variant. Jumlahnya juga dijaga di item_variants.reserved_quantity selama ACTIVE,
+// jadi tabel ini hanya dibaca per id (confirm/release) dan oleh expiry.
+@Entity
+@Table(
+        name = "stock_reservations",
+        indexes = @Index(name = "idx_stock_reservations_status_expires", columnList = "status, expires_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockReservation extends AuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "variant_id", nullable = false)
+    @JsonIgnore
+    private ItemVariant variant;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.arief.warehouse.warehouse_api.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Stok satu variant pada takenAt (termasuk isi bucket). Titik awal untuk query stok di masa lalu:
+// cukup replay movement antara snapshot terdekat dan waktu yang diminta.
+@Entity
+@Table(
+        name = "stock_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshots_variant_taken",
+                columnNames = {"variant_id", "taken_at"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockSnapshot {
+
+    // Row hanya ditulis lewat INSERT ... SELECT di StockSnapshotServiceImpl, jadi id dari identity, bukan sequence
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Tanpa foreign key: snapshot variant yang dihapus tidak menghalangi delete
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private int stockQuantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private Instant takenAt;
+}
@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineResult;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineStatus;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class CheckoutFailedException extends RuntimeException {
+
+    private final List<CheckoutLineResult> lines;
+
+    public CheckoutFailedException(List<CheckoutLineResult> lines) {
+        super("Checkout rejected: " + countFailed(lines) + " of " + lines.size()
+                + " lines cannot be fulfilled");
+        this.lines = lines;
+    }
+
+    private static long countFailed(List<CheckoutLineResult> lines) {
+        return lines.stream()
+                .filter(line -> line.getStatus() != CheckoutLineStatus.OK)
+                .count();
+    }
+}
@@ -3,6 +3,7 @@ package com.arief.warehouse.warehouse_api.exception;
 import com.arief.warehouse.warehouse_api.dto.ApiErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -38,6 +39,159 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    @ExceptionHandler(StockConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleStockConflict(StockConflictException ex,
+                                                                HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("STOCK_CONFLICT")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // Version entity berubah karena tulis lain (mis. stok) di antara baca dan flush
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleOptimisticLocking(OptimisticLockingFailureException ex,
+                                                                    HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("VERSION_CONFLICT")
+                .message("The resource was modified concurrently, retry the request")
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(CheckoutFailedException.class)
+    public ResponseEntity<ApiErrorResponse> handleCheckoutFailed(CheckoutFailedException ex,
+                                                                 HttpServletRequest request) {
+        List<String> details = ex.getLines()
+                .stream()
+                .map(line -> "variant " + line.getVariantId() + " " + line.getStatus()
+                        + " (requested: " + line.getQuantity()
+                        + ", available: " + line.getAvailableStock() + ")")
+                .toList();
+
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("CHECKOUT_FAILED")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .details(details)
+                .build();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidCursor(InvalidCursorException ex,
+                                                                HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("INVALID_CURSOR")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    @ExceptionHandler(InvalidBulkUploadException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidBulkUpload(InvalidBulkUploadException ex,
+                                                                    HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("INVALID_UPLOAD")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<ApiErrorResponse> handleTooManySubscribers(TooManySubscribersException ex,
+                                                                     HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("TOO_MANY_SUBSCRIBERS")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @ExceptionHandler(LedgerBacklogException.class)
+    public ResponseEntity<ApiErrorResponse> handleLedgerBacklog(LedgerBacklogException ex,
+                                                                HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("LEDGER_BACKLOG")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @ExceptionHandler(MovementsPendingException.class)
+    public ResponseEntity<ApiErrorResponse> handleMovementsPending(MovementsPendingException ex,
+                                                                   HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("MOVEMENTS_PENDING")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @ExceptionHandler(ReservationNotActiveException.class)
+    public ResponseEntity<ApiErrorResponse> handleReservationNotActive(ReservationNotActiveException ex,
+                                                                       HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("RESERVATION_NOT_ACTIVE")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(ReconciliationConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleReconciliationConflict(ReconciliationConflictException ex,
+                                                                         HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("RECONCILIATION_CONFLICT")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(StockOperationUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleStockOperationUnavailable(StockOperationUnavailableException ex,
+                                                                            HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error("STOCK_OPERATION_UNAVAILABLE")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiErrorResponse> handleInvalidRequest(InvalidRequestException ex,
+                                                                 HttpServletRequest request) {
+        ApiErrorResponse body = ApiErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("INVALID_REQUEST")
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiErrorResponse> handleValidation(MethodArgumentNotValidException ex,
                                                              HttpServletRequest request) {
@@ -0,0 +1,7 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+public class InvalidBulkUploadException extends RuntimeException {
+    public InvalidBulkUploadException(String message) {
+        super(message);
+    }
+}
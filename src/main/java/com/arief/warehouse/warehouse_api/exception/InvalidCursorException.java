@@ -0,0 +1,7 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Invalid page cursor: " + cursor);
+    }
+}
@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+// Parameter di luar batas yang bergantung pada konfigurasi atau pada parameter lain (400)
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+public class LedgerBacklogException extends RuntimeException {
+
+    public LedgerBacklogException(int pending) {
+        super("Stock ledger has " + pending + " movements waiting to be persisted, retry later");
+    }
+}
@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+// Movement dari journal/ledger belum masuk stock_movements, jadi tabel itu belum lengkap untuk dibaca (503)
+public class MovementsPendingException extends RuntimeException {
+    public MovementsPendingException(String message) {
+        super(message);
+    }
+}
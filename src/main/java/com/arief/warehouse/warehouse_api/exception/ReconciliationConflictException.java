@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+public class ReconciliationConflictException extends RuntimeException {
+
+    public ReconciliationConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+import com.arief.warehouse.warehouse_api.entity.ReservationStatus;
+
+public class ReservationNotActiveException extends RuntimeException {
+
+    public ReservationNotActiveException(Long reservationId, ReservationStatus status) {
+        super("Reservation " + reservationId + " is " + status + " and can no longer be changed");
+    }
+}
@@ -0,0 +1,17 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+import lombok.Getter;
+
+@Getter
+public class StockConflictException extends RuntimeException {
+
+    private final Long variantId;
+    private final int attempts;
+
+    public StockConflictException(Long variantId, int attempts, Throwable cause) {
+        super("Stock of variant " + variantId + " was modified concurrently. Gave up after "
+                + attempts + " attempts", cause);
+        this.variantId = variantId;
+        this.attempts = attempts;
+    }
+}
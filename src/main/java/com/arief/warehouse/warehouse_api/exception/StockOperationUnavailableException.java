@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+// Operasi stok valid, tapi tidak bisa dijalankan pada mode/keadaan stok saat ini (409)
+public class StockOperationUnavailableException extends RuntimeException {
+    public StockOperationUnavailableException(String message) {
+        super(message);
+    }
+}
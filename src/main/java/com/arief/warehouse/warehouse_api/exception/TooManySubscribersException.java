@@ -0,0 +1,8 @@
+package com.arief.warehouse.warehouse_api.exception;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(int maxSubscribers) {
+        super("Stock event stream is full (" + maxSubscribers + " subscribers), retry later");
+    }
+}
@@ -1,7 +1,51 @@
 package com.arief.warehouse.warehouse_api.repository;
 
+import com.arief.warehouse.warehouse_api.dto.CatalogExportRow;
 import com.arief.warehouse.warehouse_api.entity.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+
+    // Keyset: "where id > ? order by id limit ?", biaya sama untuk halaman mana pun
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Validator conditional GET: hanya kolom versi, tanpa hydrate entity
+    @Query("select i.updatedAt from Item i where i.id = :id")
+    Optional<Instant> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("select i.id as id, i.updatedAt as updatedAt from Item i where i.id > :afterId order by i.id")
+    List<ItemStamp> findStampsByIdGreaterThan(@Param("afterId") Long afterId, Limit limit);
+
+    // Forward-only stream untuk export katalog. Stok variant yang di-shard = sisa + total bucket.
+    // Variant ber-bucket selalu ikut export delta karena sell ke bucket tidak menyentuh updated_at.
+    @Query("select new com.arief.warehouse.warehouse_api.dto.CatalogExportRow(" +
+            "i.id, i.name, i.description, i.active, i.updatedAt, " +
+            "v.id, v.sku, v.color, v.size, v.price, " +
+            "v.stockQuantity + case when v.bucketCount > 0 then " +
+            "coalesce((select sum(b.quantity) from StockBucket b where b.variant = v), 0) else 0 end, " +
+            "v.updatedAt) " +
+            "from Item i left join i.variants v " +
+            "where i.updatedAt >= :since " +
+            "or exists (select c.id from ItemVariant c " +
+            "where c.item = i and (c.updatedAt >= :since or c.bucketCount > 0)) " +
+            "order by i.id, v.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<CatalogExportRow> streamCatalog(@Param("since") Instant since);
+
+    interface ItemStamp {
+        Long getId();
+
+        Instant getUpdatedAt();
+    }
 }
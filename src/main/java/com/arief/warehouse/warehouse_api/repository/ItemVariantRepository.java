@@ -2,19 +2,90 @@ package com.arief.warehouse.warehouse_api.repository;
 
 import com.arief.warehouse.warehouse_api.entity.ItemVariant;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ItemVariantRepository extends JpaRepository<ItemVariant, Long> {
+// Update stok tanpa lock (applyStockDelta, reserveStock, releaseReservedStock) dan updateDetails ada di
+// ItemVariantStockRepository
+public interface ItemVariantRepository extends JpaRepository<ItemVariant, Long>, ItemVariantStockRepository {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ItemVariant> findByItemId(Long itemId);
 
+    Optional<ItemVariant> findBySku(String sku);
+
+    // Validator conditional GET: version naik di setiap jalur tulis stok (termasuk guarded update)
+    @Query("select v.id as id, v.version as version, v.updatedAt as updatedAt, v.bucketCount as bucketCount " +
+            "from ItemVariant v where v.id = :id")
+    Optional<VariantStamp> findStampById(@Param("id") Long id);
+
+    @Query("select v.id as id, v.version as version, v.updatedAt as updatedAt, v.bucketCount as bucketCount " +
+            "from ItemVariant v where v.item.id = :itemId and v.id > :afterId order by v.id")
+    List<VariantStamp> findStampsByItemId(@Param("itemId") Long itemId,
+                                          @Param("afterId") Long afterId,
+                                          Limit limit);
+
+    // Hanya dua kolom untuk isi SkuIndex saat startup
+    @Query("select v.id as id, v.sku as sku from ItemVariant v")
+    Stream<SkuId> streamSkuIds();
+
+    // Query cache menyimpan id saja, entity-nya diambil dari entity cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ItemVariant> findByItemIdAndIdGreaterThanOrderByIdAsc(Long itemId, Long afterId, Limit limit);
+
+    // Halaman semua variant yang sudah ada pada waktu at (valuasi stok)
+    List<ItemVariant> findByIdGreaterThanAndCreatedAtLessThanEqualOrderByIdAsc(Long afterId, Instant at, Limit limit);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select v from ItemVariant v where v.id = :id")
     Optional<ItemVariant> findByIdForUpdate(@Param("id") Long id);
+
+    // Dipakai bulk upsert; urut id dengan alasan yang sama seperti findAllByIdForUpdate
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from ItemVariant v where v.sku in :skus order by v.id")
+    List<ItemVariant> findAllBySkuForUpdate(@Param("skus") Collection<String> skus);
+
+    // Urut berdasarkan id supaya dua checkout selalu lock dengan urutan yang sama (hindari deadlock)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from ItemVariant v where v.id in :ids order by v.id")
+    List<ItemVariant> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("select v.stockQuantity from ItemVariant v where v.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    @Query("select v.stockQuantity - v.reservedQuantity from ItemVariant v where v.id = :id")
+    Optional<Integer> findAvailableQuantityById(@Param("id") Long id);
+
+    List<ItemVariant> findByBucketCountGreaterThan(int bucketCount);
+
+    @Query("select v.id from ItemVariant v where v.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    interface VariantStamp {
+        Long getId();
+
+        Long getVersion();
+
+        Instant getUpdatedAt();
+
+        Integer getBucketCount();
+    }
+
+    interface SkuId {
+        Long getId();
+
+        String getSku();
+    }
 }
@@ -0,0 +1,21 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Update stok (dan kolom non-stok) satu statement tanpa lock; implementasi di ItemVariantStockRepositoryImpl
+public interface ItemVariantStockRepository {
+
+    // 0 row berarti variant tidak ada atau stok tersedia tidak cukup
+    int applyStockDelta(Long id, int delta, Instant now);
+
+    // Tahan stok; 0 row berarti variant tidak ada, di-shard, atau stok tersedia tidak cukup
+    int reserveStock(Long id, int quantity, Instant now);
+
+    // Reservasi selesai tanpa penjualan (dilepas atau kedaluwarsa)
+    int releaseReservedStock(Long id, int quantity, Instant now);
+
+    // PUT variant: stock_quantity/reserved_quantity tidak ikut ditulis, jadi perubahan stok paralel tidak
+    // tertimpa atau membuat PUT gagal karena version. 0 row berarti variant tidak ada
+    int updateDetails(Long id, String sku, String color, String size, BigDecimal price, Instant now);
+}
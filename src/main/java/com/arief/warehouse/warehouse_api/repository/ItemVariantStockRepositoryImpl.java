@@ -0,0 +1,95 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Guarded UPDATE stok lewat JDBC, bukan bulk update JPQL/native.
+ * <p>
+ * Bulk update Hibernate pada entity yang @Cacheable membuang seluruh region ItemVariant (dan query
+ * cache yang bergantung padanya), jadi setiap sell/reserve/release mengosongkan cache katalog. Di sini
+ * hanya variant yang berubah yang dibuang: sekali langsung supaya transaksi ini membaca nilai baru,
+ * dan sekali lagi setelah transaksi selesai karena transaksi lain bisa mengisi ulang cache dengan
+ * nilai lama sebelum commit. Query cache tetap valid: isinya hanya id, dan id tidak berubah.
+ */
+public class ItemVariantStockRepositoryImpl implements ItemVariantStockRepository {
+
+    private static final String APPLY_STOCK_DELTA =
+            "update item_variants set stock_quantity = stock_quantity + ?, version = version + 1, updated_at = ? " +
+                    "where id = ? and stock_quantity + ? >= reserved_quantity";
+
+    private static final String RESERVE_STOCK =
+            "update item_variants set reserved_quantity = reserved_quantity + ?, version = version + 1, " +
+                    "updated_at = ? where id = ? and bucket_count = 0 and stock_quantity - reserved_quantity >= ?";
+
+    private static final String RELEASE_RESERVED_STOCK =
+            "update item_variants set reserved_quantity = reserved_quantity - ?, version = version + 1, " +
+                    "updated_at = ? where id = ?";
+
+    private static final String UPDATE_DETAILS =
+            "update item_variants set sku = ?, color = ?, size = ?, price = ?, version = version + 1, " +
+                    "updated_at = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ItemVariantStockRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int applyStockDelta(Long id, int delta, Instant now) {
+        return update(id, APPLY_STOCK_DELTA, delta, utc(now), id, delta);
+    }
+
+    @Override
+    public int reserveStock(Long id, int quantity, Instant now) {
+        return update(id, RESERVE_STOCK, quantity, utc(now), id, quantity);
+    }
+
+    @Override
+    public int releaseReservedStock(Long id, int quantity, Instant now) {
+        return update(id, RELEASE_RESERVED_STOCK, quantity, utc(now), id);
+    }
+
+    @Override
+    public int updateDetails(Long id, String sku, String color, String size, BigDecimal price, Instant now) {
+        return update(id, UPDATE_DETAILS, sku, color, size, price, utc(now), id);
+    }
+
+    private int update(Long id, String sql, Object... args) {
+        // Sama dengan @Modifying(flushAutomatically, clearAutomatically) sebelumnya
+        entityManager.flush();
+        int updated = jdbcTemplate.update(sql, args);
+        entityManager.clear();
+        if (updated > 0) {
+            evictAfterCompletion(id);
+        }
+        return updated;
+    }
+
+    private void evictAfterCompletion(Long id) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        entityManagerFactory.getCache().evict(ItemVariant.class, id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManagerFactory.getCache().evict(ItemVariant.class, id);
+            }
+        });
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
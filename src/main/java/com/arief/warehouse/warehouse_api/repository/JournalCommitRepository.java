@@ -0,0 +1,25 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.JournalCommit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface JournalCommitRepository extends JpaRepository<JournalCommit, Long> {
+
+    // Insert langsung: save() dengan id terisi akan SELECT dulu (merge) di setiap transaksi stok
+    @Modifying
+    @Query(value = "insert into journal_commits (last_seq, first_seq) values (:lastSeq, :firstSeq)",
+            nativeQuery = true)
+    void insert(@Param("firstSeq") long firstSeq, @Param("lastSeq") long lastSeq);
+
+    List<JournalCommit> findByLastSeqGreaterThan(long seq);
+
+    // Marker yang seluruh entry-nya sudah di stock_movements tidak dibutuhkan recovery lagi
+    @Modifying
+    @Query("delete from JournalCommit c where c.lastSeq <= :seq")
+    int deleteUpTo(@Param("seq") long seq);
+}
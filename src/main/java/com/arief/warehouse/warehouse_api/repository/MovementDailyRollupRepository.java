@@ -0,0 +1,55 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.dto.RollupTotal;
+import com.arief.warehouse.warehouse_api.entity.MovementDailyRollup;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// Query laporan: range scan per hari di tabel rollup, filter opsional (null = semua)
+public interface MovementDailyRollupRepository extends JpaRepository<MovementDailyRollup, Long> {
+
+    String FILTERS = "where r.rollupDay >= :from and r.rollupDay <= :to " +
+            "and (:type is null or r.type = :type) " +
+            "and (:itemId is null or r.itemId = :itemId) " +
+            "and (:variantId is null or r.variantId = :variantId) ";
+
+    @Query("select new com.arief.warehouse.warehouse_api.dto.RollupTotal(" +
+            "r.rollupDay, r.itemId, sum(r.quantity), sum(r.movementCount)) " +
+            "from MovementDailyRollup r " + FILTERS +
+            "group by r.rollupDay, r.itemId")
+    List<RollupTotal> sumByItemAndDay(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("type") StockMovementType type,
+                                      @Param("itemId") Long itemId,
+                                      @Param("variantId") Long variantId);
+
+    @Query("select new com.arief.warehouse.warehouse_api.dto.RollupTotal(" +
+            "r.rollupDay, r.variantId, sum(r.quantity), sum(r.movementCount)) " +
+            "from MovementDailyRollup r " + FILTERS +
+            "group by r.rollupDay, r.variantId")
+    List<RollupTotal> sumByVariantAndDay(@Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         @Param("type") StockMovementType type,
+                                         @Param("itemId") Long itemId,
+                                         @Param("variantId") Long variantId);
+
+    @Query("select new com.arief.warehouse.warehouse_api.dto.RollupTotal(" +
+            "r.rollupDay, r.type, sum(r.quantity), sum(r.movementCount)) " +
+            "from MovementDailyRollup r " + FILTERS +
+            "group by r.rollupDay, r.type")
+    List<RollupTotal> sumByTypeAndDay(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to,
+                                      @Param("type") StockMovementType type,
+                                      @Param("itemId") Long itemId,
+                                      @Param("variantId") Long variantId);
+
+    Optional<MovementDailyRollup> findByVariantIdAndRollupDayAndType(Long variantId,
+                                                                    LocalDate rollupDay,
+                                                                    StockMovementType type);
+}
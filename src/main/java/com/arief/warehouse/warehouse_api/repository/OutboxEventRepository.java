@@ -0,0 +1,70 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.dto.OutboxMessage;
+import com.arief.warehouse.warehouse_api.entity.OutboxEvent;
+import com.arief.warehouse.warehouse_api.entity.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Kandidat klaim, range scan di index (status, next_attempt_at, id)
+    @Query("select e.id from OutboxEvent e " +
+            "where e.status = com.arief.warehouse.warehouse_api.entity.OutboxStatus.PENDING " +
+            "and e.nextAttemptAt <= :now and (e.leaseUntil is null or e.leaseUntil < :now) " +
+            "order by e.id")
+    List<Long> findClaimableIds(@Param("now") Instant now, Limit limit);
+
+    // Kondisi lease diulang supaya dua dispatcher tidak bisa mengklaim row yang sama
+    @Modifying
+    @Query("update OutboxEvent e set e.leaseOwner = :owner, e.leaseUntil = :until " +
+            "where e.id in :ids and e.status = com.arief.warehouse.warehouse_api.entity.OutboxStatus.PENDING " +
+            "and (e.leaseUntil is null or e.leaseUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("owner") String owner,
+              @Param("until") Instant until,
+              @Param("now") Instant now);
+
+    @Query("select new com.arief.warehouse.warehouse_api.dto.OutboxMessage(" +
+            "e.id, e.movementId, e.variantId, e.movementType, e.quantityChange, e.reason, e.occurredAt, e.attempts) " +
+            "from OutboxEvent e where e.leaseOwner = :owner order by e.id")
+    List<OutboxMessage> findClaimed(@Param("owner") String owner);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = com.arief.warehouse.warehouse_api.entity.OutboxStatus.DELIVERED, " +
+            "e.deliveredAt = :now, e.leaseOwner = null, e.leaseUntil = null " +
+            "where e.leaseOwner = :owner")
+    int markDelivered(@Param("owner") String owner, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error, e.leaseOwner = null, e.leaseUntil = null " +
+            "where e.leaseOwner = :owner")
+    int markRetry(@Param("owner") String owner,
+                  @Param("nextAttemptAt") Instant nextAttemptAt,
+                  @Param("error") String error);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.status = com.arief.warehouse.warehouse_api.entity.OutboxStatus.FAILED " +
+            "where e.id in :ids and e.attempts >= :maxAttempts")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("delete from OutboxEvent e " +
+            "where e.status = com.arief.warehouse.warehouse_api.entity.OutboxStatus.DELIVERED " +
+            "and e.deliveredAt < :before")
+    int purgeDelivered(@Param("before") Instant before);
+
+    long countByStatus(OutboxStatus status);
+
+    @Query("select min(e.occurredAt) from OutboxEvent e " +
+            "where e.status = com.arief.warehouse.warehouse_api.entity.OutboxStatus.PENDING")
+    Instant findOldestPendingOccurredAt();
+}
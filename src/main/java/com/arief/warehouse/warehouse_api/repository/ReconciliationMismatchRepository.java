@@ -0,0 +1,12 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.ReconciliationMismatch;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+
+    List<ReconciliationMismatch> findByRunIdAndIdGreaterThanOrderByIdAsc(Long runId, Long afterId, Limit limit);
+}
@@ -0,0 +1,18 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.ReconciliationPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ReconciliationPartitionRepository extends JpaRepository<ReconciliationPartition, Long> {
+
+    List<ReconciliationPartition> findByRunIdOrderByIdAsc(Long runId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ReconciliationPartition p set p.checkedUpToId = :checkedUpToId where p.id = :id")
+    int advance(@Param("id") Long id, @Param("checkedUpToId") long checkedUpToId);
+}
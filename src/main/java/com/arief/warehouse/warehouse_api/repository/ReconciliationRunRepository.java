@@ -0,0 +1,23 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.ReconciliationRun;
+import com.arief.warehouse.warehouse_api.entity.ReconciliationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    boolean existsByStatus(ReconciliationStatus status);
+
+    // Satu statement supaya worker paralel tidak saling menimpa counter
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ReconciliationRun r set r.checkedVariants = r.checkedVariants + :checked, " +
+            "r.mismatchCount = r.mismatchCount + :mismatches, r.repairedCount = r.repairedCount + :repaired " +
+            "where r.id = :id")
+    int addProgress(@Param("id") Long id,
+                    @Param("checked") long checked,
+                    @Param("mismatches") long mismatches,
+                    @Param("repaired") long repaired);
+}
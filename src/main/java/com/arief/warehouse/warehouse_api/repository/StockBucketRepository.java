@@ -0,0 +1,41 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.StockBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+
+    // Guarded update ke satu bucket; 0 row berarti bucket kosong/tidak cukup
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update StockBucket b set b.quantity = b.quantity + :delta " +
+            "where b.variant.id = :variantId and b.bucketIndex = :bucketIndex and b.quantity + :delta >= 0")
+    int applyDelta(@Param("variantId") Long variantId,
+                   @Param("bucketIndex") int bucketIndex,
+                   @Param("delta") int delta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from StockBucket b where b.variant.id = :variantId order by b.bucketIndex")
+    List<StockBucket> findByVariantIdForUpdate(@Param("variantId") Long variantId);
+
+    @Query("select b.variant.id as variantId, sum(b.quantity) as total from StockBucket b " +
+            "where b.variant.id in :variantIds group by b.variant.id")
+    List<BucketTotal> sumByVariantIds(@Param("variantIds") Collection<Long> variantIds);
+
+    @Modifying
+    @Query("delete from StockBucket b where b.variant.id = :variantId")
+    int deleteByVariantId(@Param("variantId") Long variantId);
+
+    interface BucketTotal {
+        Long getVariantId();
+
+        Long getTotal();
+    }
+}
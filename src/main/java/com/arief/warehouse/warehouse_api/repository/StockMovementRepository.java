@@ -1,11 +1,47 @@
 package com.arief.warehouse.warehouse_api.repository;
 
+import com.arief.warehouse.warehouse_api.dto.MovementTotal;
+import com.arief.warehouse.warehouse_api.dto.StockMovementResponse;
 import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
 
     List<StockMovement> findByVariantIdOrderByCreatedAtDesc(Long variantId);
+
+    @Query("select coalesce(max(m.journalSeq), 0) from StockMovement m")
+    long findMaxJournalSeq();
+
+    // Keyset (createdAt, id) menurun; langsung ke DTO, tanpa entity managed.
+    // Range scan di index (variant_id, created_at, id).
+    @Query("select new com.arief.warehouse.warehouse_api.dto.StockMovementResponse(" +
+            "m.id, m.variant.id, m.type, m.quantityChange, m.reason, m.createdAt) " +
+            "from StockMovement m " +
+            "where m.variant.id = :variantId " +
+            "and m.createdAt >= :from and m.createdAt < :to " +
+            "and (m.createdAt < :afterCreatedAt or (m.createdAt = :afterCreatedAt and m.id < :afterId)) " +
+            "order by m.createdAt desc, m.id desc")
+    List<StockMovementResponse> findPage(@Param("variantId") Long variantId,
+                                         @Param("from") Instant from,
+                                         @Param("to") Instant to,
+                                         @Param("afterCreatedAt") Instant afterCreatedAt,
+                                         @Param("afterId") long afterId,
+                                         Limit limit);
+
+    // Total per variant untuk createdAt di (after, upTo]; variant tanpa movement tidak muncul
+    @Query("select new com.arief.warehouse.warehouse_api.dto.MovementTotal(" +
+            "m.variant.id, sum(m.quantityChange), count(m)) " +
+            "from StockMovement m " +
+            "where m.variant.id in :variantIds and m.createdAt > :after and m.createdAt <= :upTo " +
+            "group by m.variant.id")
+    List<MovementTotal> sumByVariantBetween(@Param("variantIds") Collection<Long> variantIds,
+                                            @Param("after") Instant after,
+                                            @Param("upTo") Instant upTo);
 }
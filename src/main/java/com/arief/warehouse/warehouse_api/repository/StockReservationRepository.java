@@ -0,0 +1,34 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.ReservationStatus;
+import com.arief.warehouse.warehouse_api.entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r where r.id = :id")
+    Optional<StockReservation> findByIdForUpdate(@Param("id") Long id);
+
+    // Hanya yang masih ACTIVE dan memang sudah lewat; timer bisa saja sudah kalah oleh confirm/release
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservation r " +
+            "where r.id in :ids and r.status = com.arief.warehouse.warehouse_api.entity.ReservationStatus.ACTIVE " +
+            "and r.expiresAt <= :now order by r.id")
+    List<StockReservation> findExpiredForUpdate(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    // Dipakai sekali saat start untuk mengisi ulang timer
+    @Query("select r.id, r.expiresAt from StockReservation r where r.status = :status")
+    List<Object[]> findIdAndExpiryByStatus(@Param("status") ReservationStatus status);
+
+    long countByStatus(ReservationStatus status);
+}
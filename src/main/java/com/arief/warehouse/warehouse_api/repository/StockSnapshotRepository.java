@@ -0,0 +1,26 @@
+package com.arief.warehouse.warehouse_api.repository;
+
+import com.arief.warehouse.warehouse_api.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Semua lookup berupa range scan di unique index (variant_id, taken_at)
+    Optional<StockSnapshot> findFirstByVariantIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long variantId, Instant at);
+
+    Optional<StockSnapshot> findFirstByVariantIdAndTakenAtGreaterThanOrderByTakenAtAsc(Long variantId, Instant at);
+
+    // Snapshot terakhir sebelum at untuk satu halaman variant sekaligus
+    @Query("select s from StockSnapshot s where s.variantId in :variantIds and s.takenAt = " +
+            "(select max(s2.takenAt) from StockSnapshot s2 where s2.variantId = s.variantId and s2.takenAt <= :at)")
+    List<StockSnapshot> findLatestAtOrBefore(@Param("variantIds") Collection<Long> variantIds, @Param("at") Instant at);
+
+    long countByVariantId(Long variantId);
+}
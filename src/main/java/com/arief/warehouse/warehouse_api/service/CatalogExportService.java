@@ -0,0 +1,11 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface CatalogExportService {
+
+    // Tulis seluruh katalog sebagai NDJSON (satu item + variant-nya per baris)
+    void exportCatalog(Instant updatedSince, OutputStream out) throws IOException;
+}
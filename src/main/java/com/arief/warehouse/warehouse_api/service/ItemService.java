@@ -3,14 +3,16 @@ package com.arief.warehouse.warehouse_api.service;
 import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemUpdateRequest;
-
-import java.util.List;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 
 public interface ItemService {
     ItemResponse create(ItemCreateRequest request);
     ItemResponse update(Long id, ItemUpdateRequest request);
     ItemResponse getById(Long id);
-    List<ItemResponse> getAll();
+    PageResponse<ItemResponse> getAll(String cursor, Integer limit);
+    ResourceVersion getVersion(Long id);
+    ResourceVersion getPageVersion(String cursor, Integer limit);
     void delete(Long id);
 
 }
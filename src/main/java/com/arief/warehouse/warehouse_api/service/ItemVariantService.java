@@ -1,8 +1,12 @@
 package com.arief.warehouse.warehouse_api.service;
 
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineRequest;
+import com.arief.warehouse.warehouse_api.dto.CheckoutResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 
 import java.util.List;
 
@@ -13,7 +17,13 @@ public interface ItemVariantService {
 
     ItemVariantResponse getVariant(Long variantId);
 
-    List<ItemVariantResponse> getVariantsByItem(Long itemId);
+    ItemVariantResponse getVariantBySku(String sku);
+
+    PageResponse<ItemVariantResponse> getVariantsByItem(Long itemId, String cursor, Integer limit);
+
+    ResourceVersion getVariantVersion(Long variantId);
+
+    ResourceVersion getVariantPageVersion(Long itemId, String cursor, Integer limit);
 
     ItemVariantResponse updateVariant(Long variantId, ItemVariantUpdateRequest request);
 
@@ -21,5 +31,13 @@ public interface ItemVariantService {
 
     void sell(Long variantId, int quantity);
 
+    void sellBySku(String sku, int quantity);
+
     void adjustStock(Long variantId, int quantityChange, String reason);
+
+    CheckoutResponse checkout(List<CheckoutLineRequest> lines);
+
+    ItemVariantResponse shardStock(Long variantId, int bucketCount);
+
+    ItemVariantResponse unshardStock(Long variantId);
 }
@@ -0,0 +1,23 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.MovementReportGroupBy;
+import com.arief.warehouse.warehouse_api.dto.MovementReportPeriod;
+import com.arief.warehouse.warehouse_api.dto.MovementReportResponse;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public interface MovementRollupService {
+
+    // Jumlahkan movement sampai sebelum upTo ke tabel rollup. Return jumlah window yang diproses
+    int rollUp(Instant upTo);
+
+    MovementReportResponse getReport(LocalDate from,
+                                     LocalDate to,
+                                     MovementReportGroupBy groupBy,
+                                     MovementReportPeriod period,
+                                     StockMovementType type,
+                                     Long itemId,
+                                     Long variantId);
+}
@@ -0,0 +1,12 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.OutboxMessage;
+
+import java.util.List;
+
+// Tujuan pengiriman outbox (ERP, analytics, ...). Satu batch berhasil atau gagal seluruhnya;
+// kalau gagal, batch yang sama dikirim ulang nanti, jadi penerima harus dedup per id.
+public interface OutboxSink {
+
+    void deliver(List<OutboxMessage> batch) throws Exception;
+}
@@ -0,0 +1,22 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationMismatchResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunRequest;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunResponse;
+
+public interface ReconciliationService {
+
+    // Run berjalan di background; response berisi status awal (RUNNING)
+    ReconciliationRunResponse start(ReconciliationRunRequest request);
+
+    ReconciliationRunResponse getRun(Long runId);
+
+    // Worker berhenti setelah chunk yang sedang berjalan; checkpoint-nya tetap tersimpan
+    ReconciliationRunResponse pause(Long runId);
+
+    // Lanjut dari checkpoint tiap partisi (run PAUSED, FAILED, atau RUNNING yang ditinggal node yang mati)
+    ReconciliationRunResponse resume(Long runId);
+
+    PageResponse<ReconciliationMismatchResponse> getMismatches(Long runId, String cursor, Integer limit);
+}
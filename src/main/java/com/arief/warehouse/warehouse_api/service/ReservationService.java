@@ -0,0 +1,16 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.ReservationCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ReservationResponse;
+
+public interface ReservationService {
+
+    ReservationResponse reserve(Long variantId, ReservationCreateRequest request);
+
+    ReservationResponse getReservation(Long reservationId);
+
+    // Reservasi jadi penjualan: stok turun dan movement OUT dicatat
+    ReservationResponse confirm(Long reservationId);
+
+    ReservationResponse release(Long reservationId);
+}
@@ -0,0 +1,20 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+public interface StockEventService {
+
+    // Filter kosong = semua variant; kalau dua-duanya diisi, event cocok salah satu sudah cukup
+    SseEmitter subscribe(Collection<Long> itemIds, Collection<Long> variantIds);
+
+    // Dikirim setelah transaksi aktif commit; tanpa transaksi langsung dikirim
+    void publishAfterCommit(StockChangeEvent event);
+
+    // Write path memakai ini untuk melewati kerja tambahan kalau tidak ada yang mendengar
+    boolean hasSubscribers();
+
+    int getSubscriberCount();
+}
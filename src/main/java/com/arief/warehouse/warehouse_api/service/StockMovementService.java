@@ -0,0 +1,15 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.StockMovementResponse;
+
+import java.time.Instant;
+
+public interface StockMovementService {
+
+    PageResponse<StockMovementResponse> getMovements(Long variantId,
+                                                     Instant from,
+                                                     Instant to,
+                                                     String cursor,
+                                                     Integer limit);
+}
@@ -0,0 +1,31 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+public interface StockShardService {
+
+    boolean isSharded(Long variantId);
+
+    Set<Long> getShardedVariantIds();
+
+    void shard(Long variantId, int bucketCount);
+
+    void unshard(Long variantId);
+
+    void removeBuckets(Long variantId);
+
+    // false kalau variant ternyata tidak punya bucket; caller lanjut ke jalur stok biasa
+    boolean applyChange(Long variantId, int quantityChange);
+
+    int lockBuckets(Long variantId);
+
+    void applyLockedChange(Long variantId, int quantityChange);
+
+    int getBucketTotal(Long variantId);
+
+    Map<Long, Integer> getBucketTotals(Collection<Long> variantIds);
+
+    void rebalance(Long variantId);
+}
@@ -0,0 +1,17 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.StockAtResponse;
+
+import java.time.Instant;
+
+public interface StockSnapshotService {
+
+    StockAtResponse getStockAt(Long variantId, Instant at);
+
+    // Semua variant yang sudah ada pada waktu at, urut id
+    PageResponse<StockAtResponse> getStockAt(Instant at, String cursor, Integer limit);
+
+    // Return jumlah snapshot yang ditulis
+    int takeSnapshots(Instant takenAt);
+}
@@ -0,0 +1,13 @@
+package com.arief.warehouse.warehouse_api.service;
+
+import com.arief.warehouse.warehouse_api.dto.VariantBulkFormat;
+import com.arief.warehouse.warehouse_api.dto.VariantBulkUpsertResponse;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface VariantBulkService {
+
+    // Upsert variant berdasarkan SKU; baris yang gagal dilaporkan, sisanya tetap diproses
+    VariantBulkUpsertResponse upsert(Reader reader, VariantBulkFormat format) throws IOException;
+}
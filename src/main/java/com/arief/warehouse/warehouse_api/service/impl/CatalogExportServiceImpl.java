@@ -0,0 +1,91 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.CatalogExportItem;
+import com.arief.warehouse.warehouse_api.dto.CatalogExportRow;
+import com.arief.warehouse.warehouse_api.dto.CatalogExportVariant;
+import com.arief.warehouse.warehouse_api.repository.ItemRepository;
+import com.arief.warehouse.warehouse_api.service.CatalogExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class CatalogExportServiceImpl implements CatalogExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final ItemRepository itemRepository;
+    private final ObjectWriter writer;
+
+    public CatalogExportServiceImpl(ItemRepository itemRepository,
+                                    ObjectMapper objectMapper) {
+        this.itemRepository = itemRepository;
+        this.writer = objectMapper.writerFor(CatalogExportItem.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCatalog(Instant updatedSince, OutputStream out) throws IOException {
+        Instant since = updatedSince == null ? Instant.EPOCH : updatedSince;
+
+        // Stream harus ditutup di dalam transaksi; baris dibaca bertahap sesuai fetch size.
+        // Hasilnya DTO, jadi persistence context tidak ikut membesar.
+        try (Stream<CatalogExportRow> rows = itemRepository.streamCatalog(since)) {
+            Iterator<CatalogExportRow> it = rows.iterator();
+            CatalogExportItem current = null;
+            while (it.hasNext()) {
+                CatalogExportRow row = it.next();
+                // Baris urut per item, jadi cukup tahan satu item di memori
+                if (current == null || !current.getId().equals(row.getItemId())) {
+                    if (current != null) {
+                        writeLine(current, out);
+                    }
+                    current = toItem(row);
+                }
+                if (row.getVariantId() != null) {
+                    current.getVariants().add(toVariant(row));
+                }
+            }
+            if (current != null) {
+                writeLine(current, out);
+            }
+        }
+        out.flush();
+    }
+
+    private void writeLine(CatalogExportItem item, OutputStream out) throws IOException {
+        out.write(writer.writeValueAsBytes(item));
+        out.write(NEWLINE);
+    }
+
+    private CatalogExportItem toItem(CatalogExportRow row) {
+        return CatalogExportItem.builder()
+                .id(row.getItemId())
+                .name(row.getItemName())
+                .description(row.getItemDescription())
+                .active(Boolean.TRUE.equals(row.getItemActive()))
+                .updatedAt(row.getItemUpdatedAt())
+                .variants(new ArrayList<>())
+                .build();
+    }
+
+    private CatalogExportVariant toVariant(CatalogExportRow row) {
+        return CatalogExportVariant.builder()
+                .id(row.getVariantId())
+                .sku(row.getSku())
+                .color(row.getColor())
+                .size(row.getSize())
+                .price(row.getPrice())
+                .stockQuantity(row.getStockQuantity() == null ? 0 : row.getStockQuantity())
+                .updatedAt(row.getVariantUpdatedAt())
+                .build();
+    }
+}
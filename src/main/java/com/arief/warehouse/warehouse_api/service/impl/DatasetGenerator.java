@@ -0,0 +1,417 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.DatasetProperties;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generator dataset sintetis untuk uji performa, aktif dengan profile "dataset".
+ * <p>
+ * Row ditulis lewat batch JDBC, bukan JPA, oleh beberapa worker yang masing-masing memegang satu koneksi dan
+ * satu range item. Semua nilai diturunkan dari seed: jumlah movement per variant mengikuti Zipf atas permutasi
+ * acak variant, dan movement tiap variant dibangkitkan dari SplittableRandom milik variant itu, jadi dataset
+ * sama berapa pun parallelism-nya.
+ * <p>
+ * Movement satu variant dibangkitkan dua kali dengan seed yang sama: pass pertama hanya menghitung saldo akhir
+ * untuk stock_quantity (variant harus di-insert sebelum movement-nya), pass kedua menulis row. Saldo tidak
+ * pernah negatif dan stock_quantity = total movement, sama dengan yang dicek reconciliation.
+ * Id diisi eksplisit setelah max(id) yang sudah ada; identity dan sequence dimajukan di akhir.
+ */
+@Component
+@Profile("dataset")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    // Sama dengan allocationSize sequence: nilai sequence = batas atas blok id (pooled optimizer)
+    private static final int ID_BLOCK = 50;
+
+    private static final String INSERT_ITEM =
+            "insert into items (id, name, description, active, created_at, updated_at) values (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_VARIANT =
+            "insert into item_variants (id, item_id, sku, color, size, price, stock_quantity, reserved_quantity, " +
+                    "bucket_count, version, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?, 0, 0, 0, ?, ?)";
+    private static final String INSERT_MOVEMENT =
+            "insert into stock_movements (id, variant_id, type, quantity_change, reason, created_at, updated_at) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] COLORS = {"Black", "White", "Navy", "Grey", "Red", "Green", "Beige"};
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL"};
+
+    // Stream random terpisah per jenis data, supaya mengubah satu tidak menggeser yang lain
+    private static final long CATALOG_STREAM = 0;
+    private static final long ITEM_STREAM = 1;
+    private static final long VARIANT_STREAM = 2;
+    private static final long MOVEMENT_STREAM = 3;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetProperties properties;
+    private final ConfigurableApplicationContext context;
+
+    private final LongAdder insertedItems = new LongAdder();
+    private final LongAdder insertedVariants = new LongAdder();
+    private final LongAdder insertedMovements = new LongAdder();
+
+    public DatasetGenerator(DataSource dataSource,
+                            JdbcTemplate jdbcTemplate,
+                            DatasetProperties properties,
+                            ConfigurableApplicationContext context) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long items = properties.getItems();
+        long variants = properties.getVariants();
+        if (items <= 0 || variants < items || variants > Integer.MAX_VALUE || properties.getMovements() < 0) {
+            throw new IllegalArgumentException("warehouse.dataset needs 0 < items <= variants <= "
+                    + Integer.MAX_VALUE + " and movements >= 0");
+        }
+
+        Instant until = properties.getUntil() != null
+                ? properties.getUntil()
+                : LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Layout layout = new Layout(items, variants,
+                maxId("items"), maxId("item_variants"), maxId("stock_movements"),
+                movementCounts((int) variants),
+                until.minus(properties.getHistory()).toEpochMilli(),
+                properties.getHistory().toMillis());
+
+        int parallelism = (int) Math.max(1, Math.min(properties.getParallelism(), items));
+        List<Partition> partitions = partitions(layout, parallelism);
+        log.info("Generating {} items, {} variants, {} movements (seed {}, skew {}) with {} workers",
+                items, variants, properties.getMovements(), properties.getSeed(), properties.getMovementSkew(),
+                parallelism);
+
+        long startedAt = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                new CustomizableThreadFactory("dataset-generator-"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Partition partition : partitions) {
+                futures.add(executor.submit(() -> {
+                    generate(layout, partition);
+                    return null;
+                }));
+            }
+            awaitWithProgress(futures, startedAt);
+        } finally {
+            executor.shutdownNow();
+        }
+        advanceIds(layout);
+
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        long rows = insertedItems.sum() + insertedVariants.sum() + insertedMovements.sum();
+        log.info("Generated {} items, {} variants, {} movements in {} s: {} rows/s ({} movements/s)",
+                insertedItems.sum(), insertedVariants.sum(), insertedMovements.sum(),
+                String.format("%.1f", seconds), Math.round(rows / seconds),
+                Math.round(insertedMovements.sum() / seconds));
+
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    // Jumlah movement per index variant: rank Zipf dipetakan ke permutasi acak variant, total tepat = movements
+    private int[] movementCounts(int variants) {
+        long total = properties.getMovements();
+        double skew = properties.getMovementSkew();
+
+        int[] variantByRank = new int[variants];
+        for (int i = 0; i < variants; i++) {
+            variantByRank[i] = i;
+        }
+        SplittableRandom random = random(CATALOG_STREAM, 0);
+        for (int i = variants - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = variantByRank[i];
+            variantByRank[i] = variantByRank[j];
+            variantByRank[j] = swap;
+        }
+
+        double weightSum = 0;
+        for (int rank = 1; rank <= variants; rank++) {
+            weightSum += Math.pow(rank, -skew);
+        }
+        int[] counts = new int[variants];
+        long assigned = 0;
+        for (int rank = 0; rank < variants; rank++) {
+            long count = (long) (total * Math.pow(rank + 1, -skew) / weightSum);
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many movements for one variant; lower movement-skew");
+            }
+            counts[variantByRank[rank]] = (int) count;
+            assigned += count;
+        }
+        // Sisa pembulatan (< satu per variant) ke rank teratas
+        for (int rank = 0; assigned < total; rank = (rank + 1) % variants) {
+            counts[variantByRank[rank]]++;
+            assigned++;
+        }
+        return counts;
+    }
+
+    // Range item per worker; id movement awal tiap range = base + total movement variant sebelumnya
+    private List<Partition> partitions(Layout layout, int parallelism) {
+        List<Partition> partitions = new ArrayList<>(parallelism);
+        long movementOffset = 0;
+        long variant = 0;
+        for (int i = 0; i < parallelism; i++) {
+            long itemFrom = layout.items() * i / parallelism;
+            long itemTo = layout.items() * (i + 1) / parallelism;
+            partitions.add(new Partition(itemFrom, itemTo, layout.movementBase() + movementOffset + 1));
+            long variantTo = layout.variantStart(itemTo);
+            for (; variant < variantTo; variant++) {
+                movementOffset += layout.movementCounts()[(int) variant];
+            }
+        }
+        return partitions;
+    }
+
+    private void generate(Layout layout, Partition partition) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Batches batches = new Batches(connection, partition.movementIdStart())) {
+                OffsetDateTime createdAt = OffsetDateTime.ofInstant(
+                        Instant.ofEpochMilli(layout.historyStart()), ZoneOffset.UTC);
+                for (long item = partition.itemFrom(); item < partition.itemTo(); item++) {
+                    long itemId = layout.itemBase() + item + 1;
+                    batches.item(itemId, random(ITEM_STREAM, item), createdAt);
+                    for (long variant = layout.variantStart(item); variant < layout.variantStart(item + 1); variant++) {
+                        long variantId = layout.variantBase() + variant + 1;
+                        int count = layout.movementCounts()[(int) variant];
+                        int stock = movements(layout, variant, variantId, count, null);
+                        batches.variant(variantId, itemId, stock, random(VARIANT_STREAM, variant), createdAt);
+                        movements(layout, variant, variantId, count, batches);
+                    }
+                }
+                batches.flush();
+            }
+        }
+    }
+
+    // Satu pass movement variant; batches null = hanya hitung saldo akhir
+    private int movements(Layout layout, long variant, long variantId, int count, Batches batches)
+            throws SQLException {
+        SplittableRandom random = random(MOVEMENT_STREAM, variant);
+        int balance = 0;
+        for (int k = 0; k < count; k++) {
+            StockMovementType type;
+            int change;
+            String reason;
+            int roll = random.nextInt(100);
+            if (k == 0) {
+                type = StockMovementType.IN;
+                change = 50 + random.nextInt(451);
+                reason = "OPENING_STOCK";
+            } else if (roll < 93) {
+                int quantity = 1 + random.nextInt(3);
+                if (quantity <= balance) {
+                    type = StockMovementType.OUT;
+                    change = -quantity;
+                    reason = "SALE";
+                } else {
+                    // Stok habis: restock, bukan oversell
+                    type = StockMovementType.IN;
+                    change = 10 + random.nextInt(41);
+                    reason = "PURCHASE_ORDER_RECEIPT";
+                }
+            } else if (roll < 98) {
+                type = StockMovementType.IN;
+                change = 10 + random.nextInt(41);
+                reason = "PURCHASE_ORDER_RECEIPT";
+            } else {
+                int delta = 1 + random.nextInt(3);
+                type = StockMovementType.ADJUSTMENT;
+                change = random.nextBoolean() && delta <= balance ? -delta : delta;
+                reason = "CYCLE_COUNT";
+            }
+            balance += change;
+            // Urut waktu per variant, tersebar rata di sepanjang history
+            long offset = (long) ((k + random.nextDouble()) * layout.historyMillis() / count);
+            if (batches != null) {
+                batches.movement(variantId, type, change, reason, layout.historyStart() + offset);
+            }
+        }
+        return balance;
+    }
+
+    private void awaitWithProgress(List<Future<?>> futures, long startedAt) throws Exception {
+        long interval = Math.max(1, properties.getProgressInterval().toMillis());
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(interval, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException ex) {
+                    double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+                    long rows = insertedItems.sum() + insertedVariants.sum() + insertedMovements.sum();
+                    log.info("Dataset progress: {} items, {} variants, {} movements, {} rows/s",
+                            insertedItems.sum(), insertedVariants.sum(), insertedMovements.sum(),
+                            Math.round(rows / seconds));
+                } catch (ExecutionException ex) {
+                    throw ex.getCause() instanceof Exception cause ? cause : ex;
+                }
+            }
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private void advanceIds(Layout layout) {
+        long maxItemId = layout.itemBase() + layout.items();
+        long maxVariantId = layout.variantBase() + layout.variants();
+        long maxMovementId = layout.movementBase() + properties.getMovements();
+        jdbcTemplate.execute("alter table items alter column id restart with " + (maxItemId + 1));
+        jdbcTemplate.execute("alter sequence item_variants_seq restart with " + (maxVariantId + ID_BLOCK));
+        jdbcTemplate.execute("alter sequence stock_movements_seq restart with " + (maxMovementId + ID_BLOCK));
+    }
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(properties.getSeed() ^ (index * 0x9E3779B97F4A7C15L) ^ (stream << 56));
+    }
+
+    private record Layout(long items, long variants, long itemBase, long variantBase, long movementBase,
+                          int[] movementCounts, long historyStart, long historyMillis) {
+
+        // Variant dibagi rata: item i memiliki variant [variantStart(i), variantStart(i + 1))
+        long variantStart(long item) {
+            return item * variants / items;
+        }
+    }
+
+    private record Partition(long itemFrom, long itemTo, long movementIdStart) {
+    }
+
+    // Tiga batch dengan urutan flush item -> variant -> movement, supaya foreign key selalu terpenuhi
+    private final class Batches implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement itemInsert;
+        private final PreparedStatement variantInsert;
+        private final PreparedStatement movementInsert;
+        private long nextMovementId;
+        private int pendingItems;
+        private int pendingVariants;
+        private int pendingMovements;
+
+        private Batches(Connection connection, long firstMovementId) throws SQLException {
+            this.connection = connection;
+            this.itemInsert = connection.prepareStatement(INSERT_ITEM);
+            this.variantInsert = connection.prepareStatement(INSERT_VARIANT);
+            this.movementInsert = connection.prepareStatement(INSERT_MOVEMENT);
+            this.nextMovementId = firstMovementId;
+        }
+
+        void item(long itemId, SplittableRandom random, OffsetDateTime createdAt) throws SQLException {
+            itemInsert.setLong(1, itemId);
+            itemInsert.setString(2, "Item " + itemId);
+            itemInsert.setString(3, "Synthetic item " + itemId);
+            itemInsert.setBoolean(4, random.nextInt(100) < 95);
+            itemInsert.setObject(5, createdAt);
+            itemInsert.setObject(6, createdAt);
+            itemInsert.addBatch();
+            pendingItems++;
+            flushIfFull();
+        }
+
+        void variant(long variantId, long itemId, int stock, SplittableRandom random, OffsetDateTime createdAt)
+                throws SQLException {
+            variantInsert.setLong(1, variantId);
+            variantInsert.setLong(2, itemId);
+            variantInsert.setString(3, "GEN-" + variantId);
+            variantInsert.setString(4, COLORS[random.nextInt(COLORS.length)]);
+            variantInsert.setString(5, SIZES[random.nextInt(SIZES.length)]);
+            variantInsert.setBigDecimal(6, BigDecimal.valueOf(10_000L + random.nextInt(990) * 1_000L));
+            variantInsert.setInt(7, stock);
+            variantInsert.setObject(8, createdAt);
+            variantInsert.setObject(9, createdAt);
+            variantInsert.addBatch();
+            pendingVariants++;
+            flushIfFull();
+        }
+
+        void movement(long variantId, StockMovementType type, int change, String reason, long createdAtMillis)
+                throws SQLException {
+            OffsetDateTime createdAt = OffsetDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneOffset.UTC);
+            movementInsert.setLong(1, nextMovementId++);
+            movementInsert.setLong(2, variantId);
+            movementInsert.setString(3, type.name());
+            movementInsert.setInt(4, change);
+            movementInsert.setString(5, reason);
+            movementInsert.setObject(6, createdAt);
+            movementInsert.setObject(7, createdAt);
+            movementInsert.addBatch();
+            pendingMovements++;
+            flushIfFull();
+        }
+
+        private void flushIfFull() throws SQLException {
+            if (pendingItems + pendingVariants + pendingMovements >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (pendingItems > 0) {
+                itemInsert.executeBatch();
+            }
+            if (pendingVariants > 0) {
+                variantInsert.executeBatch();
+            }
+            if (pendingMovements > 0) {
+                movementInsert.executeBatch();
+            }
+            connection.commit();
+            insertedItems.add(pendingItems);
+            insertedVariants.add(pendingVariants);
+            insertedMovements.add(pendingMovements);
+            pendingItems = 0;
+            pendingVariants = 0;
+            pendingMovements = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            itemInsert.close();
+            variantInsert.close();
+            movementInsert.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.StringJoiner;
+
+// Bangun ETag dari kolom version/updated_at saja, tanpa entity maupun JSON
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Object... parts) {
+        StringJoiner joiner = new StringJoiner("-", "\"", "\"");
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return joiner.toString();
+    }
+
+    // Presisi kolom timestamp di database (mikrodetik)
+    static long micros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    static PageDigest page(int expectedRows) {
+        return new PageDigest(expectedRows);
+    }
+
+    // Digest id + versi semua baris di satu halaman; baris berubah, hilang atau bertambah -> ETag berubah
+    static final class PageDigest {
+
+        private ByteBuffer buffer;
+
+        private PageDigest(int expectedRows) {
+            this.buffer = ByteBuffer.allocate((expectedRows * 3 + 1) * Long.BYTES);
+        }
+
+        PageDigest add(long value) {
+            if (buffer.remaining() < Long.BYTES) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            buffer.putLong(value);
+            return this;
+        }
+
+        String toEtag(String prefix) {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip();
+            buffer.get(bytes);
+            return "\"" + prefix + DigestUtils.md5DigestAsHex(bytes) + "\"";
+        }
+    }
+}
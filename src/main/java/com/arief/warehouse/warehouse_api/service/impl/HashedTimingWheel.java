@@ -0,0 +1,119 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+// Timer untuk banyak deadline sekaligus (ratusan ribu reservasi). schedule/cancel O(1) dari thread mana pun;
+// advance hanya dipanggil satu thread dan per tick hanya menyentuh satu slot. Deadline lebih jauh dari satu
+// putaran disimpan di slot yang sama dengan sisa rounds.
+final class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final List<List<Timeout>> wheel;
+
+    // Timer baru masuk lewat inbox; slot wheel hanya diubah thread yang memanggil advance
+    private final Queue<Timeout> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Tick berikutnya yang akan diproses
+    private long tick;
+
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be > 0");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    Timeout schedule(long id, long deadlineMillis) {
+        Timeout timeout = new Timeout(id, deadlineMillis);
+        pending.incrementAndGet();
+        inbox.add(timeout);
+        return timeout;
+    }
+
+    // Jalankan semua tick yang sudah lewat sampai nowMillis; id yang jatuh tempo dikirim ke expired
+    void advance(long nowMillis, LongConsumer expired) {
+        while (nextTickMillis() <= nowMillis) {
+            transferInbox();
+            List<Timeout> slot = wheel.get((int) (tick & mask));
+            int i = 0;
+            while (i < slot.size()) {
+                Timeout timeout = slot.get(i);
+                if (!timeout.cancelled && timeout.rounds > 0) {
+                    timeout.rounds--;
+                    i++;
+                    continue;
+                }
+                // Urutan dalam slot tidak penting: tukar dengan elemen terakhir supaya remove O(1)
+                int last = slot.size() - 1;
+                slot.set(i, slot.get(last));
+                slot.remove(last);
+                pending.decrementAndGet();
+                if (!timeout.cancelled) {
+                    expired.accept(timeout.id);
+                }
+            }
+            tick++;
+        }
+    }
+
+    // Waktu tick berikutnya selesai; dipakai thread pemanggil untuk menentukan lama tidur
+    long nextTickMillis() {
+        return startMillis + (tick + 1) * tickMillis;
+    }
+
+    // Termasuk timer yang sudah dibatalkan tapi belum dibuang dari slotnya
+    int pending() {
+        return pending.get();
+    }
+
+    private void transferInbox() {
+        Timeout timeout;
+        while ((timeout = inbox.poll()) != null) {
+            if (timeout.cancelled) {
+                pending.decrementAndGet();
+                continue;
+            }
+            // Deadline yang sudah lewat masuk ke tick sekarang, jadi tetap diproses di putaran ini
+            long deadlineTick = Math.max((timeout.deadlineMillis - startMillis) / tickMillis, tick);
+            timeout.rounds = (deadlineTick - tick) / wheel.size();
+            wheel.get((int) (deadlineTick & mask)).add(timeout);
+        }
+    }
+
+    static final class Timeout {
+
+        private final long id;
+        private final long deadlineMillis;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long id, long deadlineMillis) {
+            this.id = id;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        long id() {
+            return id;
+        }
+
+        // Dibuang dari wheel saat slotnya berikutnya diproses
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.arief.warehouse.warehouse_api.service.impl;
 
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
 import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 import com.arief.warehouse.warehouse_api.entity.Item;
 import com.arief.warehouse.warehouse_api.exception.NotFoundException;
 import com.arief.warehouse.warehouse_api.repository.ItemRepository;
 import com.arief.warehouse.warehouse_api.service.ItemService;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 
 @Service
@@ -17,9 +22,15 @@ import java.util.List;
 public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
+    private final PaginationProperties paginationProperties;
+    private final SkuIndex skuIndex;
 
-    public ItemServiceImpl(ItemRepository itemRepository) {
+    public ItemServiceImpl(ItemRepository itemRepository,
+                           PaginationProperties paginationProperties,
+                           SkuIndex skuIndex) {
         this.itemRepository = itemRepository;
+        this.paginationProperties = paginationProperties;
+        this.skuIndex = skuIndex;
     }
 
     @Override
@@ -58,11 +69,53 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemResponse> getAll() {
-        return itemRepository.findAll()
-                .stream()
-                .map(this::toResponse)
-                .toList();
+    public PageResponse<ItemResponse> getAll(String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long afterId = cursor == null ? 0L : PageCursors.decodeId(cursor);
+
+        // Ambil satu lebih banyak untuk tahu masih ada halaman berikutnya atau tidak
+        List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = items.size() > pageSize;
+        List<Item> page = hasNext ? items.subList(0, pageSize) : items;
+
+        return PageResponse.<ItemResponse>builder()
+                .items(page.stream().map(this::toResponse).toList())
+                .nextCursor(hasNext ? PageCursors.encode(page.get(pageSize - 1).getId()) : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getVersion(Long id) {
+        Instant updatedAt = itemRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new NotFoundException("Item not found: " + id));
+        return ResourceVersion.builder()
+                .etag(EntityTags.of("i" + id, EntityTags.micros(updatedAt)))
+                .lastModified(updatedAt.toEpochMilli())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getPageVersion(String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long afterId = cursor == null ? 0L : PageCursors.decodeId(cursor);
+
+        // Range yang sama dengan getAll, tapi hanya id + updated_at
+        List<ItemRepository.ItemStamp> stamps =
+                itemRepository.findStampsByIdGreaterThan(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = stamps.size() > pageSize;
+        List<ItemRepository.ItemStamp> page = hasNext ? stamps.subList(0, pageSize) : stamps;
+
+        EntityTags.PageDigest digest = EntityTags.page(page.size());
+        for (ItemRepository.ItemStamp stamp : page) {
+            digest.add(stamp.getId()).add(EntityTags.micros(stamp.getUpdatedAt()));
+        }
+        digest.add(hasNext ? 1 : 0);
+        // Tanpa Last-Modified: item yang dihapus tidak menaikkan max(updated_at)
+        return ResourceVersion.builder()
+                .etag(digest.toEtag("ip"))
+                .build();
     }
 
     @Override
@@ -70,6 +123,8 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Item not found: " + id));
         itemRepository.delete(item);
+        // Variant ikut terhapus lewat cascade, SKU-nya juga harus keluar dari index
+        item.getVariants().forEach(variant -> skuIndex.unregister(variant.getSku(), variant.getId()));
     }
 
     private ItemResponse toResponse(Item item) {
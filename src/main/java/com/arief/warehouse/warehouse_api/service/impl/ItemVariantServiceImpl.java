@@ -1,22 +1,43 @@
 package com.arief.warehouse.warehouse_api.service.impl;
 
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
+import com.arief.warehouse.warehouse_api.config.StockLockStrategy;
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineRequest;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineResult;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineStatus;
+import com.arief.warehouse.warehouse_api.dto.CheckoutResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
 import com.arief.warehouse.warehouse_api.entity.Item;
 import com.arief.warehouse.warehouse_api.entity.ItemVariant;
 import com.arief.warehouse.warehouse_api.entity.StockMovement;
 import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.CheckoutFailedException;
 import com.arief.warehouse.warehouse_api.exception.NotFoundException;
 import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.StockOperationUnavailableException;
 import com.arief.warehouse.warehouse_api.repository.ItemRepository;
 import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
-import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
 import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import com.arief.warehouse.warehouse_api.service.StockShardService;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 @Service
 @Transactional
@@ -24,14 +45,44 @@ public class ItemVariantServiceImpl implements ItemVariantService {
 
     private final ItemRepository itemRepository;
     private final ItemVariantRepository itemVariantRepository;
-    private final StockMovementRepository stockMovementRepository;
+    private final StockMovementWriter stockMovementWriter;
+    private final StockProperties stockProperties;
+    private final PaginationProperties paginationProperties;
+    private final SellCombiner sellCombiner;
+    private final OptimisticStockRetrier optimisticStockRetrier;
+    private final StockShardService stockShardService;
+    private final SkuIndex skuIndex;
+    private final StockEventService stockEventService;
+    private final StockLedger stockLedger;
+    private final StockMetrics stockMetrics;
+    private final TransactionOperations transactionOperations;
 
     public ItemVariantServiceImpl(ItemRepository itemRepository,
                                   ItemVariantRepository itemVariantRepository,
-                                  StockMovementRepository stockMovementRepository) {
+                                  StockMovementWriter stockMovementWriter,
+                                  StockProperties stockProperties,
+                                  PaginationProperties paginationProperties,
+                                  SellCombiner sellCombiner,
+                                  OptimisticStockRetrier optimisticStockRetrier,
+                                  StockShardService stockShardService,
+                                  SkuIndex skuIndex,
+                                  StockEventService stockEventService,
+                                  StockLedger stockLedger,
+                                  StockMetrics stockMetrics,
+                                  TransactionOperations transactionOperations) {
         this.itemRepository = itemRepository;
         this.itemVariantRepository = itemVariantRepository;
-        this.stockMovementRepository = stockMovementRepository;
+        this.stockMovementWriter = stockMovementWriter;
+        this.stockProperties = stockProperties;
+        this.paginationProperties = paginationProperties;
+        this.sellCombiner = sellCombiner;
+        this.optimisticStockRetrier = optimisticStockRetrier;
+        this.stockShardService = stockShardService;
+        this.skuIndex = skuIndex;
+        this.stockEventService = stockEventService;
+        this.stockLedger = stockLedger;
+        this.stockMetrics = stockMetrics;
+        this.transactionOperations = transactionOperations;
     }
 
     // CRUD
@@ -50,6 +101,7 @@ public class ItemVariantServiceImpl implements ItemVariantService {
         variant.setStockQuantity(request.getInitialStock() == null ? 0 : request.getInitialStock());
 
         ItemVariant saved = itemVariantRepository.save(variant);
+        skuIndex.register(saved.getSku(), saved.getId());
         return toResponse(saved);
     }
 
@@ -63,11 +115,93 @@ public class ItemVariantServiceImpl implements ItemVariantService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemVariantResponse> getVariantsByItem(Long itemId) {
-        return itemVariantRepository.findByItemId(itemId)
-                .stream()
-                .map(this::toResponse)
+    public ItemVariantResponse getVariantBySku(String sku) {
+        return getVariant(resolveSku(sku));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<ItemVariantResponse> getVariantsByItem(Long itemId, String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long afterId = cursor == null ? 0L : PageCursors.decodeId(cursor);
+
+        List<ItemVariant> fetched = itemVariantRepository
+                .findByItemIdAndIdGreaterThanOrderByIdAsc(itemId, afterId, Limit.of(pageSize + 1));
+        boolean hasNext = fetched.size() > pageSize;
+        List<ItemVariant> variants = hasNext ? fetched.subList(0, pageSize) : fetched;
+
+        // Satu query agregat untuk semua variant yang stoknya dipecah ke bucket
+        List<Long> shardedIds = variants.stream()
+                .filter(variant -> variant.getBucketCount() > 0)
+                .map(ItemVariant::getId)
                 .toList();
+        Map<Long, Integer> bucketTotals = stockShardService.getBucketTotals(shardedIds);
+
+        return PageResponse.<ItemVariantResponse>builder()
+                .items(variants.stream()
+                        .map(variant -> toResponse(variant, bucketTotals.getOrDefault(variant.getId(), 0)))
+                        .toList())
+                .nextCursor(hasNext ? PageCursors.encode(variants.get(pageSize - 1).getId()) : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getVariantVersion(Long variantId) {
+        ItemVariantRepository.VariantStamp stamp = itemVariantRepository.findStampById(variantId)
+                .orElseThrow(() -> new NotFoundException("ItemVariant not found: " + variantId));
+
+        if (stamp.getBucketCount() > 0) {
+            // Sell ke bucket tidak menyentuh version/updated_at, jadi total bucket ikut di ETag
+            // dan Last-Modified tidak bisa dipercaya
+            int bucketStock = stockShardService.getBucketTotal(variantId);
+            return ResourceVersion.builder()
+                    .etag(EntityTags.of("v" + variantId, stamp.getVersion(), "b" + bucketStock))
+                    .build();
+        }
+        int ledgerStock = stockLedger.isEnabled() ? stockLedger.peek(variantId) : StockLedger.NOT_MANAGED;
+        if (ledgerStock != StockLedger.NOT_MANAGED) {
+            // Stok di ledger berubah sebelum version di DB (flush), jadi ikut di ETag
+            return ResourceVersion.builder()
+                    .etag(EntityTags.of("v" + variantId, stamp.getVersion(), "l" + ledgerStock))
+                    .build();
+        }
+        return ResourceVersion.builder()
+                .etag(EntityTags.of("v" + variantId, stamp.getVersion()))
+                .lastModified(stamp.getUpdatedAt().toEpochMilli())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getVariantPageVersion(Long itemId, String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long afterId = cursor == null ? 0L : PageCursors.decodeId(cursor);
+
+        List<ItemVariantRepository.VariantStamp> stamps =
+                itemVariantRepository.findStampsByItemId(itemId, afterId, Limit.of(pageSize + 1));
+        boolean hasNext = stamps.size() > pageSize;
+        List<ItemVariantRepository.VariantStamp> page = hasNext ? stamps.subList(0, pageSize) : stamps;
+
+        List<Long> shardedIds = page.stream()
+                .filter(stamp -> stamp.getBucketCount() > 0)
+                .map(ItemVariantRepository.VariantStamp::getId)
+                .toList();
+        Map<Long, Integer> bucketTotals = stockShardService.getBucketTotals(shardedIds);
+
+        EntityTags.PageDigest digest = EntityTags.page(page.size());
+        for (ItemVariantRepository.VariantStamp stamp : page) {
+            digest.add(stamp.getId())
+                    .add(stamp.getVersion())
+                    .add(bucketTotals.getOrDefault(stamp.getId(), 0));
+            if (stockLedger.isEnabled()) {
+                digest.add(stockLedger.peek(stamp.getId()));
+            }
+        }
+        digest.add(hasNext ? 1 : 0);
+        return ResourceVersion.builder()
+                .etag(digest.toEtag("vp" + itemId + "-"))
+                .build();
     }
 
     @Override
@@ -75,85 +209,474 @@ public class ItemVariantServiceImpl implements ItemVariantService {
         ItemVariant variant = itemVariantRepository.findById(variantId)
                 .orElseThrow(() -> new NotFoundException("ItemVariant not found: " + variantId));
 
+        String oldSku = variant.getSku();
+        // Bukan save(): entity lengkap ikut menulis stock_quantity yang bisa sudah diubah sell/flush ledger
+        int updated = itemVariantRepository.updateDetails(variantId, request.getSku(), request.getColor(),
+                request.getSize(), request.getPrice(), Instant.now());
+        if (updated == 0) {
+            throw new NotFoundException("ItemVariant not found: " + variantId);
+        }
+
+        // Entity sudah detached setelah update, jadi nilai baru ini hanya untuk response
         variant.setSku(request.getSku());
         variant.setColor(request.getColor());
         variant.setSize(request.getSize());
         variant.setPrice(request.getPrice());
-
-        ItemVariant saved = itemVariantRepository.save(variant);
-        return toResponse(saved);
+        skuIndex.rename(oldSku, variant.getSku(), variantId);
+        return toResponse(variant);
     }
 
     @Override
     public void deleteVariant(Long variantId) {
         ItemVariant variant = itemVariantRepository.findById(variantId)
                 .orElseThrow(() -> new NotFoundException("ItemVariant not found: " + variantId));
+        if (variant.getBucketCount() > 0) {
+            stockShardService.removeBuckets(variantId);
+        }
         itemVariantRepository.delete(variant);
+        skuIndex.unregister(variant.getSku(), variantId);
+        if (stockLedger.isEnabled()) {
+            stockLedger.forgetAfterCommit(variantId);
+        }
+    }
+
+    @Override
+    public ItemVariantResponse shardStock(Long variantId, int bucketCount) {
+        requireLedgerDisabledForSharding();
+        stockShardService.shard(variantId, bucketCount);
+        return getVariant(variantId);
     }
 
     @Override
+    public ItemVariantResponse unshardStock(Long variantId) {
+        requireLedgerDisabledForSharding();
+        stockShardService.unshard(variantId);
+        return getVariant(variantId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void sell(Long variantId, int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be > 0");
         }
 
-        // Ambil variant dengan DB lock
-        ItemVariant variant = itemVariantRepository.findByIdForUpdate(variantId)
-                .orElseThrow(() ->
-                        new NotFoundException("ItemVariant not found with id: " + variantId)
-                );
-
-        int current = variant.getStockQuantity();
-        if (current < quantity) {
-            // Minta lebih banyak dari stok tersedia
-            throw new OutOfStockException(variantId, quantity, current);
+        long startedAt = System.nanoTime();
+        try {
+            sellInternal(variantId, quantity);
+        } catch (RuntimeException ex) {
+            stockMetrics.recordChange(StockMovementType.OUT, variantId, ex, System.nanoTime() - startedAt);
+            throw ex;
         }
+        stockMetrics.recordChange(StockMovementType.OUT, variantId, StockMetrics.Outcome.SUCCESS,
+                System.nanoTime() - startedAt);
+    }
 
-        // Update stok
-        variant.setStockQuantity(current - quantity);
-        itemVariantRepository.save(variant);
-
-        // Catat movement
-        StockMovement movement = new StockMovement();
-        movement.setVariant(variant);
-        movement.setType(StockMovementType.OUT);
-        movement.setQuantityChange(-quantity);
-        movement.setReason("SALE");
-        stockMovementRepository.save(movement);
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void sellBySku(String sku, int quantity) {
+        sell(resolveSku(sku), quantity);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void adjustStock(Long variantId, int quantityChange, String reason) {
         if (quantityChange == 0) {
             // Tidak ada perubahan, langsung return
             return;
         }
 
+        long startedAt = System.nanoTime();
+        try {
+            if (!stockLedger.isEnabled()
+                    || !changeStockInLedger(variantId, quantityChange, StockMovementType.ADJUSTMENT, reason)) {
+                changeStock(variantId, quantityChange, StockMovementType.ADJUSTMENT, reason);
+            }
+        } catch (RuntimeException ex) {
+            stockMetrics.recordChange(StockMovementType.ADJUSTMENT, variantId, ex, System.nanoTime() - startedAt);
+            throw ex;
+        }
+        stockMetrics.recordChange(StockMovementType.ADJUSTMENT, variantId, StockMetrics.Outcome.SUCCESS,
+                System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public CheckoutResponse checkout(List<CheckoutLineRequest> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Checkout must contain at least one line");
+        }
+
+        TreeSet<Long> variantIds = new TreeSet<>();
+        for (CheckoutLineRequest line : lines) {
+            if (line.getVariantId() == null) {
+                throw new IllegalArgumentException("Variant id is required");
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be > 0");
+            }
+            variantIds.add(line.getVariantId());
+        }
+
+        if (stockLedger.isEnabled()) {
+            CheckoutResponse response = checkoutInLedger(lines);
+            if (response != null) {
+                return response;
+            }
+        }
+
+        // Satu query, semua row di-lock dengan urutan id
+        Map<Long, ItemVariant> variants = new HashMap<>();
+        Map<Long, Integer> initial = new HashMap<>();
+        for (ItemVariant variant : itemVariantRepository.findAllByIdForUpdate(variantIds)) {
+            int available = variant.getStockQuantity() - variant.getReservedQuantity();
+            if (variant.getBucketCount() > 0) {
+                // Bucket di-lock setelah row variant, urutan yang sama untuk semua checkout
+                available += stockShardService.lockBuckets(variant.getId());
+            }
+            variants.put(variant.getId(), variant);
+            initial.put(variant.getId(), available);
+        }
+        Map<Long, Integer> remaining = new HashMap<>(initial);
+
+        // Cek semua line dulu, baru tulis kalau semuanya bisa dipenuhi
+        List<CheckoutLineResult> results = new ArrayList<>(lines.size());
+        if (evaluateCheckout(lines, remaining, results)) {
+            throw new CheckoutFailedException(results);
+        }
+
+        for (ItemVariant variant : variants.values()) {
+            Long variantId = variant.getId();
+            if (variant.getBucketCount() > 0) {
+                stockShardService.applyLockedChange(variantId, remaining.get(variantId) - initial.get(variantId));
+            } else {
+                variant.setStockQuantity(variant.getStockQuantity() + remaining.get(variantId) - initial.get(variantId));
+            }
+        }
+        itemVariantRepository.saveAll(variants.values());
+
+        List<StockMovement> movements = new ArrayList<>(lines.size());
+        for (CheckoutLineRequest line : lines) {
+            StockMovement movement = new StockMovement();
+            movement.setVariant(variants.get(line.getVariantId()));
+            movement.setType(StockMovementType.OUT);
+            movement.setQuantityChange(-line.getQuantity());
+            movement.setReason("SALE");
+            movements.add(movement);
+        }
+        stockMovementWriter.writeAll(movements);
+
+        if (stockEventService.hasSubscribers()) {
+            for (ItemVariant variant : variants.values()) {
+                Long variantId = variant.getId();
+                publishStockChange(variant, remaining.get(variantId),
+                        remaining.get(variantId) - initial.get(variantId), StockMovementType.OUT);
+            }
+        }
+
+        return CheckoutResponse.builder()
+                .lines(results)
+                .build();
+    }
+
+    // Return true kalau ada line yang ditolak; remaining dikurangi untuk line yang lolos
+    private boolean evaluateCheckout(List<CheckoutLineRequest> lines, Map<Long, Integer> remaining,
+                                     List<CheckoutLineResult> results) {
+        boolean rejected = false;
+        for (CheckoutLineRequest line : lines) {
+            Long variantId = line.getVariantId();
+            int quantity = line.getQuantity();
+            Integer available = remaining.get(variantId);
+
+            CheckoutLineResult.CheckoutLineResultBuilder result = CheckoutLineResult.builder()
+                    .variantId(variantId)
+                    .quantity(quantity);
+
+            if (available == null) {
+                results.add(result.status(CheckoutLineStatus.NOT_FOUND).availableStock(0).build());
+                rejected = true;
+            } else if (available < quantity) {
+                results.add(result.status(CheckoutLineStatus.OUT_OF_STOCK).availableStock(available).build());
+                rejected = true;
+            } else {
+                remaining.put(variantId, available - quantity);
+                results.add(result.status(CheckoutLineStatus.OK).availableStock(available - quantity).build());
+            }
+        }
+        return rejected;
+    }
+
+    // Mode ledger: tiap line satu CAS; kalau ada yang gagal, line yang sudah jalan dibalik dan
+    // movement tidak dicatat. null kalau ada variant yang di-shard (checkout lewat jalur DB)
+    private CheckoutResponse checkoutInLedger(List<CheckoutLineRequest> lines) {
+        for (int attempt = 1; ; attempt++) {
+            List<CheckoutLineRequest> applied = new ArrayList<>(lines.size());
+            List<CheckoutLineResult> results = new ArrayList<>(lines.size());
+            Map<Long, Integer> stocks = new HashMap<>();
+            try {
+                for (CheckoutLineRequest line : lines) {
+                    int stock = stockLedger.tryApply(line.getVariantId(), -line.getQuantity());
+                    if (stock == StockLedger.NOT_MANAGED) {
+                        revertInLedger(applied);
+                        return null;
+                    }
+                    applied.add(line);
+                    stocks.put(line.getVariantId(), stock);
+                    results.add(CheckoutLineResult.builder()
+                            .variantId(line.getVariantId())
+                            .quantity(line.getQuantity())
+                            .status(CheckoutLineStatus.OK)
+                            .availableStock(stock)
+                            .build());
+                }
+            } catch (NotFoundException | OutOfStockException ex) {
+                revertInLedger(applied);
+
+                // Laporan per line dihitung dari stok saat ini, sama seperti jalur DB
+                Map<Long, Integer> remaining = new HashMap<>();
+                for (CheckoutLineRequest line : lines) {
+                    try {
+                        int stock = stockLedger.quantityOf(line.getVariantId());
+                        if (stock != StockLedger.NOT_MANAGED) {
+                            remaining.putIfAbsent(line.getVariantId(), stock);
+                        }
+                    } catch (NotFoundException missing) {
+                        // Dilaporkan sebagai NOT_FOUND
+                    }
+                }
+                List<CheckoutLineResult> rejectedResults = new ArrayList<>(lines.size());
+                // Stok bisa sudah bertambah lagi sejak CAS gagal; coba ulang sekali sebelum menyerah
+                if (evaluateCheckout(lines, remaining, rejectedResults) || attempt >= 2) {
+                    throw new CheckoutFailedException(rejectedResults);
+                }
+                continue;
+            }
+
+            for (CheckoutLineRequest line : lines) {
+                stockLedger.record(line.getVariantId(), StockMovementType.OUT, -line.getQuantity(), "SALE");
+            }
+            if (stockEventService.hasSubscribers()) {
+                Map<Long, Integer> changes = new HashMap<>();
+                for (CheckoutLineRequest line : lines) {
+                    changes.merge(line.getVariantId(), -line.getQuantity(), Integer::sum);
+                }
+                changes.forEach((variantId, change) -> publishStockChange(variantId,
+                        stockLedger.itemIdOf(variantId), stocks.get(variantId), change, StockMovementType.OUT));
+            }
+            return CheckoutResponse.builder()
+                    .lines(results)
+                    .build();
+        }
+    }
+
+    private void sellInternal(Long variantId, int quantity) {
+        if (stockLedger.isEnabled() && changeStockInLedger(variantId, -quantity, StockMovementType.OUT, "SALE")) {
+            return;
+        }
+
+        if (stockProperties.getCombiner().isEnabled() && !stockShardService.isSharded(variantId)) {
+            // Antre bersama sell lain untuk variant ini; leader yang buka transaksi
+            sellCombiner.sell(variantId, quantity);
+            return;
+        }
+
+        changeStock(variantId, -quantity, StockMovementType.OUT, "SALE");
+    }
+
+    private void revertInLedger(List<CheckoutLineRequest> applied) {
+        for (CheckoutLineRequest line : applied) {
+            stockLedger.revert(line.getVariantId(), -line.getQuantity());
+        }
+    }
+
+    // Mode ledger: stok berubah di memori, DB menyusul lewat flush. false kalau variant di-shard
+    private boolean changeStockInLedger(Long variantId, int quantityChange, StockMovementType type, String reason) {
+        int stock = stockLedger.change(variantId, quantityChange, type, reason);
+        if (stock == StockLedger.NOT_MANAGED) {
+            return false;
+        }
+        if (stockEventService.hasSubscribers()) {
+            publishStockChange(variantId, stockLedger.itemIdOf(variantId), stock, quantityChange, type);
+        }
+        return true;
+    }
+
+    private void requireLedgerDisabledForSharding() {
+        if (stockLedger.isEnabled()) {
+            // Ledger sudah menghilangkan hot row; dua jalur untuk stok yang sama bisa oversell
+            throw new StockOperationUnavailableException(
+                    "Stock sharding is not available while the stock ledger is enabled");
+        }
+    }
+
+    private void changeStock(Long variantId, int quantityChange, StockMovementType type, String reason) {
+        StockLockStrategy strategy = stockProperties.strategyFor(variantId);
+
+        Runnable attempt = () -> {
+            long[] callbackEndedAt = new long[1];
+            transactionOperations.executeWithoutResult(status -> {
+                ItemVariant variant = applyStockChange(variantId, quantityChange, type, strategy);
+
+                // Catat movement
+                long movementStartedAt = System.nanoTime();
+                recordMovement(variant, type, quantityChange, reason);
+                stockMetrics.recordPhase(type, StockMetrics.Phase.MOVEMENT, System.nanoTime() - movementStartedAt);
+
+                if (stockEventService.hasSubscribers()) {
+                    // Jalur guarded/bucket hanya punya reference; stok dibaca di transaksi yang sama,
+                    // dan hanya kalau ada subscriber
+                    int stock = variant.getStockQuantity();
+                    if (variant.getBucketCount() > 0) {
+                        stock += stockShardService.getBucketTotal(variantId);
+                    }
+                    publishStockChange(variant, stock, quantityChange, type);
+                }
+                callbackEndedAt[0] = System.nanoTime();
+            });
+            // SQL yang ditunda Hibernate (UPDATE jalur pessimistic, INSERT movement) dikirim saat commit
+            stockMetrics.recordPhase(type, StockMetrics.Phase.COMMIT, System.nanoTime() - callbackEndedAt[0]);
+        };
+
+        if (strategy == StockLockStrategy.OPTIMISTIC) {
+            // Tiap percobaan transaksi sendiri, konflik versi diulang dengan backoff
+            optimisticStockRetrier.execute(variantId, attempt);
+        } else {
+            attempt.run();
+        }
+    }
+
+    private ItemVariant applyStockChange(Long variantId, int quantityChange, StockMovementType type,
+                                         StockLockStrategy strategy) {
+        long startedAt = System.nanoTime();
+        if (stockShardService.applyChange(variantId, quantityChange)) {
+            stockMetrics.recordPhase(type, StockMetrics.Phase.UPDATE, System.nanoTime() - startedAt);
+            return itemVariantRepository.getReferenceById(variantId);
+        }
+
+        if (strategy == StockLockStrategy.PESSIMISTIC) {
+            // Phase lock dicatat sendiri di dalam, sisanya masuk update
+            return applyStockChangeLocked(variantId, quantityChange, type);
+        }
+        ItemVariant variant = strategy == StockLockStrategy.CONDITIONAL_UPDATE
+                ? applyStockChangeGuarded(variantId, quantityChange)
+                : applyStockChangeOptimistic(variantId, quantityChange);
+        stockMetrics.recordPhase(type, StockMetrics.Phase.UPDATE, System.nanoTime() - startedAt);
+        return variant;
+    }
+
+    private ItemVariant applyStockChangeLocked(Long variantId, int quantityChange, StockMovementType type) {
+        // Ambil variant dengan DB lock
+        long lockStartedAt = System.nanoTime();
         ItemVariant variant = itemVariantRepository.findByIdForUpdate(variantId)
                 .orElseThrow(() ->
                         new NotFoundException("ItemVariant not found with id: " + variantId)
                 );
+        long lockedAt = System.nanoTime();
+        stockMetrics.recordPhase(type, StockMetrics.Phase.LOCK, lockedAt - lockStartedAt);
 
         int current = variant.getStockQuantity();
         int newQty = current + quantityChange;
 
-        // Jangan ada stok minus
-        if (newQty < 0) {
-            throw new OutOfStockException(variantId, -quantityChange, current);
+        // Jangan ada stok minus, dan stok yang sedang direservasi tidak boleh ikut terjual
+        if (newQty < variant.getReservedQuantity()) {
+            throw new OutOfStockException(variantId, -quantityChange, current - variant.getReservedQuantity());
         }
 
         variant.setStockQuantity(newQty);
         itemVariantRepository.save(variant);
+        stockMetrics.recordPhase(type, StockMetrics.Phase.UPDATE, System.nanoTime() - lockedAt);
+        return variant;
+    }
 
+    private ItemVariant applyStockChangeOptimistic(Long variantId, int quantityChange) {
+        // Tanpa lock; @Version yang menjaga kalau ada writer lain di antara baca dan tulis
+        ItemVariant variant = itemVariantRepository.findById(variantId)
+                .orElseThrow(() ->
+                        new NotFoundException("ItemVariant not found with id: " + variantId)
+                );
+
+        int current = variant.getStockQuantity();
+        int newQty = current + quantityChange;
+        if (newQty < variant.getReservedQuantity()) {
+            throw new OutOfStockException(variantId, -quantityChange, current - variant.getReservedQuantity());
+        }
+
+        variant.setStockQuantity(newQty);
+        // Flush sekarang supaya konflik versi muncul sebelum movement ditulis
+        return itemVariantRepository.saveAndFlush(variant);
+    }
+
+    private ItemVariant applyStockChangeGuarded(Long variantId, int quantityChange) {
+        int updated = itemVariantRepository.applyStockDelta(variantId, quantityChange, Instant.now());
+        if (updated == 0) {
+            // 0 row: bedakan variant tidak ada vs stok tidak cukup (hanya di jalur gagal)
+            int current = itemVariantRepository.findAvailableQuantityById(variantId)
+                    .orElseThrow(() ->
+                            new NotFoundException("ItemVariant not found with id: " + variantId)
+                    );
+            throw new OutOfStockException(variantId, -quantityChange, current);
+        }
+
+        // Reference saja, tidak perlu SELECT untuk foreign key movement
+        return itemVariantRepository.getReferenceById(variantId);
+    }
+
+    private long resolveSku(String sku) {
+        long variantId = skuIndex.find(sku);
+        if (variantId != SkuIndex.NOT_FOUND) {
+            return variantId;
+        }
+
+        // Miss: mungkin dibuat di luar instance ini, cek DB sekali lalu simpan ke index
+        ItemVariant variant = itemVariantRepository.findBySku(sku)
+                .orElseThrow(() -> new NotFoundException("ItemVariant not found with sku: " + sku));
+        skuIndex.put(sku, variant.getId());
+        return variant.getId();
+    }
+
+    private void recordMovement(ItemVariant variant, StockMovementType type, int quantityChange, String reason) {
         StockMovement movement = new StockMovement();
         movement.setVariant(variant);
-        movement.setType(StockMovementType.ADJUSTMENT);
+        movement.setType(type);
         movement.setQuantityChange(quantityChange);
         movement.setReason(reason);
-        stockMovementRepository.save(movement);
+        stockMovementWriter.write(movement);
     }
 
-    private ItemVariantResponse toResponse(ItemVariant variant) {
+    private void publishStockChange(ItemVariant variant, int stockQuantity, int quantityChange,
+                                    StockMovementType type) {
+        publishStockChange(variant.getId(), variant.getItem().getId(), stockQuantity, quantityChange, type);
+    }
+
+    private void publishStockChange(Long variantId, Long itemId, int stockQuantity, int quantityChange,
+                                    StockMovementType type) {
+        stockEventService.publishAfterCommit(StockChangeEvent.builder()
+                .variantId(variantId)
+                .itemId(itemId)
+                .stockQuantity(stockQuantity)
+                .quantityChange(quantityChange)
+                .type(type)
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    // Package-private untuk benchmark mapping di src/jmh
+    ItemVariantResponse toResponse(ItemVariant variant) {
+        int bucketStock = variant.getBucketCount() > 0
+                ? stockShardService.getBucketTotal(variant.getId())
+                : 0;
+        return toResponse(variant, bucketStock);
+    }
+
+    private ItemVariantResponse toResponse(ItemVariant variant, int bucketStock) {
+        int stock = variant.getStockQuantity() + bucketStock;
+        if (stockLedger.isEnabled()) {
+            // Ledger lebih baru dari DB selama perubahan belum di-flush
+            int ledgerStock = stockLedger.peek(variant.getId());
+            if (ledgerStock != StockLedger.NOT_MANAGED) {
+                stock = ledgerStock;
+            }
+        }
+        int reserved = variant.getReservedQuantity();
         return ItemVariantResponse.builder()
                 .id(variant.getId())
                 .itemId(variant.getItem().getId())
@@ -161,7 +684,9 @@ public class ItemVariantServiceImpl implements ItemVariantService {
                 .color(variant.getColor())
                 .size(variant.getSize())
                 .price(variant.getPrice())
-                .stockQuantity(variant.getStockQuantity())
+                .stockQuantity(stock)
+                .reservedQuantity(reserved)
+                .availableQuantity(stock - reserved)
                 .build();
     }
 }
@@ -0,0 +1,30 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+
+import java.time.Instant;
+
+// Satu movement di journal. seq diisi writer saat append; state berubah saat transaksi selesai.
+final class JournalEntry {
+
+    static final int IN_DOUBT = 0;
+    static final int COMMITTED = 1;
+    static final int ABORTED = 2;
+
+    final long variantId;
+    final StockMovementType type;
+    final int quantityChange;
+    final String reason;
+    final Instant createdAt;
+
+    volatile long seq;
+    volatile int state = IN_DOUBT;
+
+    JournalEntry(long variantId, StockMovementType type, int quantityChange, String reason, Instant createdAt) {
+        this.variantId = variantId;
+        this.type = type;
+        this.quantityChange = quantityChange;
+        this.reason = reason;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,258 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log append-only di atas file segment yang di-mmap.
+ * <p>
+ * Format record: [int panjang payload][int CRC32C payload][payload]. Panjang 0 berarti akhir
+ * segment (file baru selalu berisi nol). Record yang CRC-nya tidak cocok dianggap ekor yang
+ * belum selesai ditulis saat crash; pembacaan berhenti di sana dan append berikutnya menimpanya.
+ * Tidak thread-safe untuk append; dipanggil dari satu thread writer.
+ */
+final class JournalLog implements Closeable {
+
+    static final byte ENTRY = 1;
+    static final byte ABORT = 2;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = 8;
+    private static final int MAX_REASON_BYTES = 1024;
+    private static final StockMovementType[] TYPES = StockMovementType.values();
+
+    interface Visitor {
+
+        void onEntry(JournalEntry entry);
+
+        void onAbort(long abortedSeq);
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ByteBuffer scratch;
+
+    // Segment lama (sudah penuh), urut dari yang tertua; dihapus setelah semua isinya di-drain
+    private final Deque<Segment> closed = new ArrayDeque<>();
+    private Segment current;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int syncedPosition;
+
+    private JournalLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.scratch = ByteBuffer.allocate(HEADER + 64 + MAX_REASON_BYTES);
+    }
+
+    // Baca semua segment (visitor menerima record yang valid), lalu siap append di ujung log
+    static JournalLog open(Path directory, int segmentSize, Visitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        JournalLog log = new JournalLog(directory, segmentSize);
+
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            Segment segment = new Segment(path, indexOf(path));
+            boolean last = i == paths.size() - 1;
+            try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                int end = readSegment(data, segment, visitor);
+                if (last) {
+                    log.openForAppend(segment, end, true);
+                } else {
+                    log.closed.addLast(segment);
+                }
+            }
+        }
+        if (log.current == null) {
+            log.openForAppend(new Segment(log.pathFor(0), 0), 0, false);
+        }
+        return log;
+    }
+
+    void appendEntry(JournalEntry entry) throws IOException {
+        byte[] reason = entry.reason.getBytes(StandardCharsets.UTF_8);
+        if (reason.length > MAX_REASON_BYTES) {
+            throw new IllegalArgumentException("Movement reason is too long for the journal");
+        }
+        scratch.clear();
+        scratch.position(HEADER);
+        scratch.put(ENTRY);
+        scratch.putLong(entry.seq);
+        scratch.putLong(entry.variantId);
+        scratch.put((byte) entry.type.ordinal());
+        scratch.putInt(entry.quantityChange);
+        scratch.putLong(entry.createdAt.getEpochSecond());
+        scratch.putInt(entry.createdAt.getNano());
+        scratch.putShort((short) reason.length);
+        scratch.put(reason);
+        write(entry.seq);
+    }
+
+    void appendAbort(long abortedSeq) throws IOException {
+        scratch.clear();
+        scratch.position(HEADER);
+        scratch.put(ABORT);
+        scratch.putLong(abortedSeq);
+        write(abortedSeq);
+    }
+
+    // fsync semua yang ditulis sejak sync terakhir (satu kali per group commit)
+    void sync() {
+        int position = buffer.position();
+        if (position > syncedPosition) {
+            buffer.force(syncedPosition, position - syncedPosition);
+            syncedPosition = position;
+        }
+    }
+
+    // Hapus segment lama yang semua record-nya sudah di-drain
+    synchronized void deleteSegmentsUpTo(long drainedSeq) throws IOException {
+        while (!closed.isEmpty() && closed.peekFirst().maxSeq <= drainedSeq) {
+            Files.deleteIfExists(closed.pollFirst().path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(long seq) throws IOException {
+        int payload = scratch.position() - HEADER;
+        CRC32C crc = new CRC32C();
+        crc.update(scratch.array(), HEADER, payload);
+        scratch.putInt(0, payload);
+        scratch.putInt(4, (int) crc.getValue());
+        scratch.flip();
+
+        // Sisakan tempat untuk penanda akhir segment (panjang 0)
+        if (buffer.remaining() < scratch.remaining() + 4) {
+            roll();
+        }
+        buffer.put(scratch);
+        current.maxSeq = Math.max(current.maxSeq, seq);
+    }
+
+    private void roll() throws IOException {
+        sync();
+        channel.close();
+        synchronized (this) {
+            closed.addLast(current);
+        }
+        openForAppend(new Segment(pathFor(current.index + 1), current.index + 1), 0, false);
+    }
+
+    private void openForAppend(Segment segment, int position, boolean recovered) throws IOException {
+        channel = FileChannel.open(segment.path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) Math.max(segmentSize, channel.size());
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        // Setelah crash, record dari group yang belum selesai bisa tersisa utuh di belakang ekor
+        // yang rusak; semuanya dinolkan supaya tidak terbaca lagi setelah ditimpa append baru
+        if (recovered && position < size) {
+            byte[] zeros = new byte[64 * 1024];
+            buffer.position(position);
+            while (buffer.hasRemaining()) {
+                buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+            }
+            buffer.force(position, size - position);
+        }
+        buffer.position(position);
+        syncedPosition = position;
+        current = segment;
+    }
+
+    private Path pathFor(long index) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, index, SUFFIX));
+    }
+
+    private static long indexOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Kembalikan posisi setelah record valid terakhir
+    private static int readSegment(ByteBuffer data, Segment segment, Visitor visitor) {
+        CRC32C crc = new CRC32C();
+        while (data.remaining() >= HEADER) {
+            int start = data.position();
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length <= 0 || length > data.remaining()) {
+                return start;
+            }
+            crc.reset();
+            ByteBuffer payload = data.slice(data.position(), length);
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            data.position(data.position() + length);
+
+            byte kind = payload.get();
+            if (kind == ENTRY) {
+                long seq = payload.getLong();
+                long variantId = payload.getLong();
+                StockMovementType type = TYPES[payload.get()];
+                int quantityChange = payload.getInt();
+                Instant createdAt = Instant.ofEpochSecond(payload.getLong(), payload.getInt());
+                byte[] reason = new byte[payload.getShort()];
+                payload.get(reason);
+
+                JournalEntry entry = new JournalEntry(variantId, type, quantityChange,
+                        new String(reason, StandardCharsets.UTF_8), createdAt);
+                entry.seq = seq;
+                segment.maxSeq = Math.max(segment.maxSeq, seq);
+                visitor.onEntry(entry);
+            } else if (kind == ABORT) {
+                long abortedSeq = payload.getLong();
+                segment.maxSeq = Math.max(segment.maxSeq, abortedSeq);
+                visitor.onAbort(abortedSeq);
+            } else {
+                return start;
+            }
+        }
+        return data.position();
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final long index;
+        private long maxSeq;
+
+        private Segment(Path path, long index) {
+            this.path = path;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.StampedLock;
+
+// Variant id -> slot stok untuk StockLedger. Index-nya open addressing di atas long[]/int[]
+// (seperti SkuIdTable), stoknya di chunk AtomicIntegerArray supaya perubahan stok cukup satu CAS.
+// Slot tidak pernah dipindah atau dipakai ulang, jadi CAS tetap aman saat index di-resize.
+final class LedgerTable {
+
+    static final int NO_SLOT = -1;
+
+    private static final double MAX_LOAD = 0.6;
+    private static final int MIN_CAPACITY = 16;
+    private static final long TOMBSTONE = -1L;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Satu referensi supaya reader selalu lihat pasangan keys/slots dari generasi yang sama
+    private Index index;
+    private int size;
+    private int used;
+
+    private volatile AtomicIntegerArray[] quantities = new AtomicIntegerArray[0];
+    private volatile long[][] itemIds = new long[0][];
+    private int nextSlot;
+
+    LedgerTable(int expectedSize) {
+        this.index = new Index(capacityFor(expectedSize));
+    }
+
+    int slotOf(long variantId) {
+        long stamp = lock.tryOptimisticRead();
+        int slot = probe(index, variantId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = probe(index, variantId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+
+    // Kalau variant sudah ada (dimuat thread lain lebih dulu), slot yang lama yang dipakai
+    int insert(long variantId, long itemId, int quantity) {
+        long stamp = lock.writeLock();
+        try {
+            int existing = probe(index, variantId);
+            if (existing != NO_SLOT) {
+                return existing;
+            }
+            if (used + 1 > index.keys.length * MAX_LOAD) {
+                resize(Math.max(index.keys.length, capacityFor(size + 1)));
+            }
+            int slot = allocateSlot();
+            itemIds[slot >>> CHUNK_BITS][slot & CHUNK_MASK] = itemId;
+            quantities[slot >>> CHUNK_BITS].set(slot & CHUNK_MASK, quantity);
+            put(variantId, slot);
+            return slot;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Slot lama diberi nilai removed supaya CAS yang sedang berjalan di slot itu gagal
+    boolean remove(long variantId, int removedValue) {
+        long stamp = lock.writeLock();
+        try {
+            long[] keys = index.keys;
+            int mask = keys.length - 1;
+            for (int i = spread(variantId) & mask, n = 0; n < keys.length; i = (i + 1) & mask, n++) {
+                long key = keys[i];
+                if (key == 0L) {
+                    return false;
+                }
+                if (key == variantId) {
+                    int slot = index.slots[i];
+                    keys[i] = TOMBSTONE;
+                    size--;
+                    quantities[slot >>> CHUNK_BITS].set(slot & CHUNK_MASK, removedValue);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int get(int slot) {
+        return quantities[slot >>> CHUNK_BITS].get(slot & CHUNK_MASK);
+    }
+
+    boolean compareAndSet(int slot, int expected, int quantity) {
+        return quantities[slot >>> CHUNK_BITS].compareAndSet(slot & CHUNK_MASK, expected, quantity);
+    }
+
+    long itemIdOf(int slot) {
+        return itemIds[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int allocateSlot() {
+        int slot = nextSlot++;
+        int chunk = slot >>> CHUNK_BITS;
+        if (chunk == quantities.length) {
+            // Chunk lama ikut disalin sebagai referensi, isinya tidak pernah disalin
+            AtomicIntegerArray[] grownQuantities = Arrays.copyOf(quantities, chunk + 1);
+            grownQuantities[chunk] = new AtomicIntegerArray(CHUNK_SIZE);
+            long[][] grownItemIds = Arrays.copyOf(itemIds, chunk + 1);
+            grownItemIds[chunk] = new long[CHUNK_SIZE];
+            itemIds = grownItemIds;
+            quantities = grownQuantities;
+        }
+        return slot;
+    }
+
+    private void put(long variantId, int slot) {
+        long[] keys = index.keys;
+        int mask = keys.length - 1;
+        for (int i = spread(variantId) & mask; ; i = (i + 1) & mask) {
+            long key = keys[i];
+            if (key == 0L || key == TOMBSTONE) {
+                if (key == 0L) {
+                    used++;
+                }
+                // Tulis slot dulu baru key; reader optimistic tetap divalidasi lewat stamp
+                index.slots[i] = slot;
+                keys[i] = variantId;
+                size++;
+                return;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        Index old = index;
+        index = new Index(capacity);
+        size = 0;
+        used = 0;
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != 0L && key != TOMBSTONE) {
+                put(key, old.slots[i]);
+            }
+        }
+    }
+
+    private static int probe(Index index, long variantId) {
+        long[] keys = index.keys;
+        int[] slots = index.slots;
+        int mask = keys.length - 1;
+        // Dibatasi panjang array supaya read optimistic tidak bisa loop selamanya
+        for (int i = spread(variantId) & mask, n = 0; n < keys.length; i = (i + 1) & mask, n++) {
+            long key = keys[i];
+            if (key == 0L) {
+                return NO_SLOT;
+            }
+            if (key == variantId) {
+                return slots[i];
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private static int spread(long variantId) {
+        long hash = variantId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int capacityFor(int entries) {
+        int needed = (int) Math.ceil(Math.max(entries, 1) / MAX_LOAD) + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static final class Index {
+        private final long[] keys;
+        private final int[] slots;
+
+        private Index(int capacity) {
+            this.keys = new long[capacity];
+            this.slots = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+// Insert movement di luar Hibernate dalam satu batch JDBC, beserta row outbox-nya.
+// Dipakai penulis write-behind (journal, ledger); harus dipanggil di dalam transaksi.
+@Component
+public class MovementBatchWriter {
+
+    // Harus sama dengan allocationSize @SequenceGenerator di StockMovement (pooled optimizer)
+    private static final int MOVEMENT_ID_BLOCK = 50;
+
+    private static final String INSERT_MOVEMENT =
+            "insert into stock_movements (id, variant_id, type, quantity_change, reason, journal_seq, created_at, updated_at) " +
+                    "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemVariantRepository itemVariantRepository;
+    private final StockOutbox stockOutbox;
+
+    public MovementBatchWriter(JdbcTemplate jdbcTemplate,
+                               ItemVariantRepository itemVariantRepository,
+                               StockOutbox stockOutbox) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemVariantRepository = itemVariantRepository;
+        this.stockOutbox = stockOutbox;
+    }
+
+    public void insert(List<Row> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        long[] ids = allocateIds(movements.size());
+        List<Object[]> args = new ArrayList<>(movements.size());
+        for (int i = 0; i < movements.size(); i++) {
+            Row row = movements.get(i);
+            OffsetDateTime createdAt = OffsetDateTime.ofInstant(row.createdAt(), ZoneOffset.UTC);
+            args.add(new Object[]{ids[i], row.variantId(), row.type().name(), row.quantityChange(),
+                    row.reason(), row.journalSeq(), createdAt, createdAt});
+            stockOutbox.append(ids[i], row.variantId(), row.type(), row.quantityChange(),
+                    row.reason(), row.createdAt());
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, args);
+    }
+
+    // Buang entry milik variant yang sudah dihapus (insert-nya akan gagal di foreign key)
+    public <T> List<T> retainExistingVariants(List<T> entries, ToLongFunction<T> variantId) {
+        Set<Long> existing = new HashSet<>(itemVariantRepository.findExistingIds(
+                entries.stream().map(variantId::applyAsLong).distinct().toList()));
+        return entries.stream()
+                .filter(entry -> existing.contains(variantId.applyAsLong(entry)))
+                .toList();
+    }
+
+    // Satu nilai sequence = satu blok id (nilai - 49 .. nilai), sama seperti pooled optimizer Hibernate
+    private long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i += MOVEMENT_ID_BLOCK) {
+            long hi = nextSequenceValue();
+            if (hi < MOVEMENT_ID_BLOCK) {
+                // Nilai awal sequence (1) dipakai Hibernate sebagai batas bawah, bukan blok; lewati
+                hi = nextSequenceValue();
+            }
+            for (int j = 0; j < MOVEMENT_ID_BLOCK && i + j < count; j++) {
+                ids[i + j] = hi - MOVEMENT_ID_BLOCK + 1 + j;
+            }
+        }
+        return ids;
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject("select next value for stock_movements_seq", Long.class);
+    }
+
+    public record Row(long variantId, StockMovementType type, int quantityChange, String reason,
+                      Long journalSeq, Instant createdAt) {
+    }
+}
@@ -0,0 +1,582 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.JournalProperties;
+import com.arief.warehouse.warehouse_api.dto.JournalStatsResponse;
+import com.arief.warehouse.warehouse_api.entity.JournalCommit;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.repository.JournalCommitRepository;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journal write-behind untuk stock movement (aktif kalau warehouse.journal.enabled).
+ * <p>
+ * Transaksi stok tidak meng-insert movement. Movement di-append ke journal di beforeCommit dan
+ * caller menunggu fsync; append dari banyak transaksi digabung dalam satu fsync (group commit).
+ * Kalau transaksi rollback, record abort ditulis. Thread drain memindahkan entry yang
+ * transaksinya sudah selesai ke stock_movements (beserta row outbox) dalam batch JDBC besar,
+ * urut seq. Kolom journal_seq di stock_movements adalah watermark recovery: saat start, entry
+ * journal dengan seq di atas max(journal_seq) di-replay.
+ * <p>
+ * Range seq transaksi ditulis ke journal_commits di dalam transaksi stok itu juga, jadi marker hanya ada
+ * kalau transaksinya commit. Recovery hanya me-replay entry yang tercakup marker: entry yang sudah durable
+ * tapi transaksinya rollback atau tidak sempat commit saat proses mati dibuang.
+ * <p>
+ * Harga marker: satu insert kecil per transaksi stok. Seq dibagikan saat entry masuk antrean, jadi insert
+ * itu dijalankan selagi writer melakukan fsync dan tidak menambah waktu row lock ditahan kecuali insert
+ * lebih lambat dari fsync (JournalMarkerBenchmark mengukur selisihnya). Kolom per variant (seq terakhir
+ * di UPDATE stok) tidak cukup: sell sharded tidak meng-update row variant, dan entry transaksi yang
+ * rollback bisa berada di bawah seq commit berikutnya untuk variant yang sama.
+ */
+@Component
+public class MovementJournal implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MovementJournal.class);
+
+    private final JournalProperties properties;
+    private final MovementBatchWriter movementBatchWriter;
+    private final TransactionOperations transactionOperations;
+    private final StockMovementRepository stockMovementRepository;
+    private final JournalCommitRepository journalCommitRepository;
+
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+
+    // Entry durable yang belum di-drain, urut seq; dijaga oleh lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<JournalEntry> pending = new ArrayDeque<>();
+    private long drainedSeq;
+    private boolean drainRequested;
+
+    // seq terakhir per variant yang belum di-drain, untuk read-your-writes
+    private final Map<Long, Long> lastSeqByVariant = new ConcurrentHashMap<>();
+
+    private final LongAdder groupCommits = new LongAdder();
+    private final LongAdder appendedEntries = new LongAdder();
+    private final LongAdder drainedEntries = new LongAdder();
+    private final LongAdder drainBatches = new LongAdder();
+    private final LongAdder abortedEntries = new LongAdder();
+    private final LongAdder skippedEntries = new LongAdder();
+
+    private JournalLog journalLog;
+    private volatile long lastSeq;
+    private Thread writerThread;
+    private Thread drainThread;
+    private volatile boolean running;
+    private volatile IOException failure;
+
+    public MovementJournal(JournalProperties properties,
+                           MovementBatchWriter movementBatchWriter,
+                           TransactionOperations transactionOperations,
+                           StockMovementRepository stockMovementRepository,
+                           JournalCommitRepository journalCommitRepository) {
+        this.properties = properties;
+        this.movementBatchWriter = movementBatchWriter;
+        this.transactionOperations = transactionOperations;
+        this.stockMovementRepository = stockMovementRepository;
+        this.journalCommitRepository = journalCommitRepository;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Dipanggil di dalam transaksi stok sebagai pengganti insert movement
+    public void record(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<JournalEntry> entries = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            entries.add(new JournalEntry(movement.getVariant().getId(), movement.getType(),
+                    movement.getQuantityChange(), movement.getReason(), now));
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendAndWait(new Append(entries, List.of()));
+            try {
+                transactionOperations.executeWithoutResult(status -> markCommitted(entries));
+            } catch (RuntimeException ex) {
+                abort(entries);
+                throw ex;
+            }
+            resolve(entries, JournalEntry.COMMITTED);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Gagal di sini membuat transaksi stok rollback
+                Append append = enqueue(new Append(entries, List.of()));
+                // Marker ikut commit atau rollback bersama transaksi stok; ditulis selagi writer fsync
+                markCommitted(entries);
+                await(append);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    resolve(entries, JournalEntry.COMMITTED);
+                    return;
+                }
+                abort(entries);
+            }
+        });
+    }
+
+    // Read-your-writes: tunggu sampai movement variant ini yang sudah commit ada di stock_movements.
+    // false kalau belum tercapai (timeout atau journal berhenti)
+    public boolean awaitDrained(Long variantId) {
+        if (!isEnabled()) {
+            return true;
+        }
+        Long seq = lastSeqByVariant.get(variantId);
+        return seq == null || awaitDrainedSeq(seq);
+    }
+
+    // true kalau variant ini masih punya movement commit yang belum masuk stock_movements
+    public boolean hasUndrained(Long variantId) {
+        return isEnabled() && lastSeqByVariant.containsKey(variantId);
+    }
+
+    // Untuk pembaca yang butuh seluruh stock_movements (laporan, rekonsiliasi)
+    public boolean awaitDrained() {
+        if (!isEnabled()) {
+            return true;
+        }
+        long target;
+        lock.lock();
+        try {
+            target = pending.isEmpty() ? drainedSeq : pending.peekLast().seq;
+        } finally {
+            lock.unlock();
+        }
+        return awaitDrainedSeq(target);
+    }
+
+    public JournalStatsResponse getStats() {
+        long groups = groupCommits.sum();
+        long appended = appendedEntries.sum();
+        lock.lock();
+        try {
+            return JournalStatsResponse.builder()
+                    .enabled(isEnabled())
+                    .pending(pending.size())
+                    .lastSeq(lastSeq)
+                    .drainedSeq(drainedSeq)
+                    .groupCommits(groups)
+                    .appendedEntries(appended)
+                    .averageGroupSize(groups == 0 ? 0.0 : (double) appended / groups)
+                    .drainedEntries(drainedEntries.sum())
+                    .drainBatches(drainBatches.sum())
+                    .abortedEntries(abortedEntries.sum())
+                    .skippedEntries(skippedEntries.sum())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Lifecycle: recovery sebelum web server menerima request, drain terakhir setelah berhenti
+
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        long watermark = stockMovementRepository.findMaxJournalSeq();
+        // firstSeq -> lastSeq transaksi yang commit tapi belum seluruhnya di-drain
+        TreeMap<Long, Long> committedRanges = new TreeMap<>();
+        for (JournalCommit commit : journalCommitRepository.findByLastSeqGreaterThan(watermark)) {
+            committedRanges.put(commit.getFirstSeq(), commit.getLastSeq());
+        }
+        Map<Long, JournalEntry> recovered = new TreeMap<>();
+        long[] maxSeq = {watermark};
+        try {
+            journalLog = JournalLog.open(Path.of(properties.getDirectory()),
+                    (int) properties.getSegmentSize().toBytes(), new JournalLog.Visitor() {
+                        @Override
+                        public void onEntry(JournalEntry entry) {
+                            maxSeq[0] = Math.max(maxSeq[0], entry.seq);
+                            if (entry.seq > watermark) {
+                                recovered.put(entry.seq, entry);
+                            }
+                        }
+
+                        @Override
+                        public void onAbort(long abortedSeq) {
+                            // Transaksi yang rollback tidak punya marker, jadi sudah terlewati
+                        }
+                    });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open movement journal", ex);
+        }
+
+        lastSeq = maxSeq[0];
+        drainedSeq = watermark;
+        int replayed = 0;
+        for (JournalEntry entry : recovered.values()) {
+            Map.Entry<Long, Long> range = committedRanges.floorEntry(entry.seq);
+            if (range == null || entry.seq > range.getValue()) {
+                continue;
+            }
+            entry.state = JournalEntry.COMMITTED;
+            pending.addLast(entry);
+            lastSeqByVariant.merge(entry.variantId, entry.seq, Math::max);
+            replayed++;
+        }
+        if (replayed > 0) {
+            log.info("Replaying {} undrained movements from journal (after seq {})", replayed, watermark);
+        }
+        if (replayed < recovered.size()) {
+            log.info("Discarding {} journal entries without a commit marker", recovered.size() - replayed);
+        }
+
+        running = true;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("movement-journal-");
+        threads.setDaemon(true);
+        writerThread = threads.newThread(this::writerLoop);
+        drainThread = threads.newThread(this::drainLoop);
+        writerThread.start();
+        drainThread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // Kosongkan yang masih bisa di-drain, sisanya di-replay saat start berikutnya
+        awaitDrained();
+        running = false;
+        writerThread.interrupt();
+        drainThread.interrupt();
+        try {
+            writerThread.join(1000);
+            drainThread.join(1000);
+            journalLog.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.warn("Failed to close movement journal", ex);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Lebih awal dari web server (start) dan lebih akhir saat shutdown
+        return 0;
+    }
+
+    private void appendAndWait(Append append) {
+        await(enqueue(append));
+    }
+
+    private Append enqueue(Append append) {
+        if (failure != null) {
+            throw new IllegalStateException("Movement journal is unavailable", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Movement journal is not running");
+        }
+        // Seq dibagikan bersamaan dengan masuk antrean, jadi urutan antrean (dan file journal) tetap urut seq
+        synchronized (appends) {
+            for (JournalEntry entry : append.entries) {
+                entry.seq = ++lastSeq;
+            }
+            appends.add(append);
+        }
+        return append;
+    }
+
+    private void await(Append append) {
+        try {
+            append.done.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal fsync", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to append to movement journal", ex.getCause());
+        }
+    }
+
+    private void markCommitted(List<JournalEntry> entries) {
+        // Entry satu append mendapat seq berurutan saat masuk antrean
+        journalCommitRepository.insert(entries.get(0).seq, entries.get(entries.size() - 1).seq);
+    }
+
+    private void abort(List<JournalEntry> entries) {
+        List<JournalEntry> appended = entries.stream().filter(entry -> entry.seq > 0).toList();
+        if (appended.isEmpty()) {
+            return;
+        }
+        try {
+            appendAndWait(new Append(List.of(), appended));
+        } catch (RuntimeException ex) {
+            log.error("Failed to journal abort of {} movements", appended.size(), ex);
+        }
+    }
+
+    private void resolve(List<JournalEntry> entries, int state) {
+        lock.lock();
+        try {
+            for (JournalEntry entry : entries) {
+                entry.state = state;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writerLoop() {
+        List<Append> group = new ArrayList<>();
+        while (running) {
+            try {
+                Append first = appends.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.clear();
+                group.add(first);
+                appends.drainTo(group, Math.max(1, properties.getMaxGroupSize()) - 1);
+                writeGroup(group);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeGroup(List<Append> group) {
+        int entries = 0;
+        try {
+            for (Append append : group) {
+                for (JournalEntry entry : append.entries) {
+                    journalLog.appendEntry(entry);
+                    entries++;
+                }
+                for (JournalEntry entry : append.aborts) {
+                    journalLog.appendAbort(entry.seq);
+                }
+            }
+            // Satu fsync untuk seluruh group
+            journalLog.sync();
+        } catch (IOException | RuntimeException ex) {
+            // Isi journal tidak bisa dipercaya lagi; tolak append berikutnya
+            failure = ex instanceof IOException io ? io : new IOException(ex);
+            log.error("Movement journal append failed, journal disabled until restart", ex);
+            group.forEach(append -> append.done.completeExceptionally(ex));
+            return;
+        }
+
+        lock.lock();
+        try {
+            for (Append append : group) {
+                for (JournalEntry entry : append.entries) {
+                    pending.addLast(entry);
+                    lastSeqByVariant.merge(entry.variantId, entry.seq, Math::max);
+                }
+                for (JournalEntry entry : append.aborts) {
+                    entry.state = JournalEntry.ABORTED;
+                    abortedEntries.increment();
+                }
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        groupCommits.increment();
+        appendedEntries.add(entries);
+        group.forEach(append -> append.done.complete(null));
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, properties.getDrainBatchSize());
+        long intervalNanos = properties.getDrainInterval().toNanos();
+        while (running) {
+            List<JournalEntry> batch;
+            lock.lock();
+            try {
+                // Tunggu batch penuh, ada pembaca yang menunggu, atau interval lewat
+                long remaining = intervalNanos;
+                while (running && !drainRequested && resolvedPrefix(batchSize) < batchSize && remaining > 0) {
+                    remaining = changed.awaitNanos(remaining);
+                }
+                drainRequested = false;
+                batch = takeResolvedPrefix(batchSize);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                drain(batch);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to drain {} journal entries, retrying", batch.size(), ex);
+                sleepQuietly(Math.max(100, properties.getDrainInterval().toMillis() * 10));
+                continue;
+            }
+            markDrained(batch);
+        }
+    }
+
+    private void drain(List<JournalEntry> batch) {
+        List<JournalEntry> committed = batch.stream()
+                .filter(entry -> entry.state == JournalEntry.COMMITTED)
+                .toList();
+        if (committed.isEmpty()) {
+            return;
+        }
+        long upToSeq = batch.get(batch.size() - 1).seq;
+        try {
+            insert(committed, upToSeq);
+        } catch (DataIntegrityViolationException ex) {
+            // Biasanya variant sudah dihapus sebelum movement-nya di-drain; buang entry itu saja
+            List<JournalEntry> kept = movementBatchWriter.retainExistingVariants(committed, entry -> entry.variantId);
+            if (kept.size() == committed.size()) {
+                throw ex;
+            }
+            log.warn("Skipping {} journal entries of deleted variants", committed.size() - kept.size());
+            skippedEntries.add(committed.size() - kept.size());
+            if (!kept.isEmpty()) {
+                insert(kept, upToSeq);
+            }
+        }
+    }
+
+    // Marker sampai upToSeq dihapus di transaksi yang sama dengan insert movement-nya
+    private void insert(List<JournalEntry> entries, long upToSeq) {
+        List<MovementBatchWriter.Row> rows = entries.stream()
+                .map(entry -> new MovementBatchWriter.Row(entry.variantId, entry.type, entry.quantityChange,
+                        entry.reason, entry.seq, entry.createdAt))
+                .toList();
+        transactionOperations.executeWithoutResult(status -> {
+            movementBatchWriter.insert(rows);
+            journalCommitRepository.deleteUpTo(upToSeq);
+        });
+    }
+
+    private void markDrained(List<JournalEntry> batch) {
+        long last = batch.get(batch.size() - 1).seq;
+        lock.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                JournalEntry entry = pending.pollFirst();
+                lastSeqByVariant.remove(entry.variantId, entry.seq);
+            }
+            drainedSeq = last;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        drainBatches.increment();
+        drainedEntries.add(batch.size());
+        try {
+            journalLog.deleteSegmentsUpTo(last);
+        } catch (IOException ex) {
+            log.warn("Failed to delete drained journal segments", ex);
+        }
+    }
+
+    // Hanya prefix yang transaksinya sudah selesai; entry IN_DOUBT menahan yang di belakangnya
+    private int resolvedPrefix(int max) {
+        int count = 0;
+        for (JournalEntry entry : pending) {
+            if (count >= max || entry.state == JournalEntry.IN_DOUBT) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private List<JournalEntry> takeResolvedPrefix(int max) {
+        int count = resolvedPrefix(max);
+        List<JournalEntry> batch = new ArrayList<>(count);
+        for (JournalEntry entry : pending) {
+            if (batch.size() >= count) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    private boolean awaitDrainedSeq(long seq) {
+        long deadline = System.nanoTime() + properties.getReadYourWritesTimeout().toNanos();
+        lock.lock();
+        try {
+            while (drainedSeq < seq && running) {
+                drainRequested = true;
+                changed.signalAll();
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.warn("Timed out waiting for journal drain up to seq {} (drained {})", seq, drainedSeq);
+                    return false;
+                }
+                changed.awaitNanos(remaining);
+            }
+            return drainedSeq >= seq;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Append(List<JournalEntry> entries, List<JournalEntry> aborts, CompletableFuture<Void> done) {
+
+        private Append(List<JournalEntry> entries, List<JournalEntry> aborts) {
+            this(entries, aborts, new CompletableFuture<>());
+        }
+    }
+}
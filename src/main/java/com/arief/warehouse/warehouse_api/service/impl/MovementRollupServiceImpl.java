@@ -0,0 +1,221 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.RollupProperties;
+import com.arief.warehouse.warehouse_api.dto.MovementReportGroupBy;
+import com.arief.warehouse.warehouse_api.dto.MovementReportPeriod;
+import com.arief.warehouse.warehouse_api.dto.MovementReportResponse;
+import com.arief.warehouse.warehouse_api.dto.MovementReportRow;
+import com.arief.warehouse.warehouse_api.dto.RollupTotal;
+import com.arief.warehouse.warehouse_api.entity.RollupWatermark;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.repository.MovementDailyRollupRepository;
+import com.arief.warehouse.warehouse_api.repository.RollupWatermarkRepository;
+import com.arief.warehouse.warehouse_api.service.MovementRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rollup harian movement per (variant, hari UTC, tipe) dan laporan yang hanya membaca rollup.
+ * <p>
+ * Rollup tidak ditulis di jalur sell: satu row per variant per hari akan jadi hot row yang
+ * di-update oleh setiap penjualan. Sebagai gantinya job mengejar watermark createdAt per window
+ * yang tidak pernah melewati pergantian hari, jadi harinya sudah pasti dan satu MERGE cukup
+ * untuk seluruh window. Watermark di-lock selama window berjalan dan maju di transaksi yang
+ * sama dengan MERGE, jadi window tidak pernah dijumlahkan dua kali. Watermark berhenti
+ * settleDelay di belakang sekarang supaya movement yang transaksinya belum commit tidak terlewat.
+ */
+@Service
+public class MovementRollupServiceImpl implements MovementRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovementRollupServiceImpl.class);
+
+    static final String WATERMARK_NAME = "movement_daily_rollups";
+
+    private static final String MERGE_WINDOW =
+            "merge into movement_daily_rollups r " +
+                    "using (select m.variant_id, v.item_id, m.type, " +
+                    "sum(m.quantity_change) as quantity, count(*) as movement_count " +
+                    "from stock_movements m join item_variants v on v.id = m.variant_id " +
+                    "where m.created_at >= ? and m.created_at < ? " +
+                    "group by m.variant_id, v.item_id, m.type) s " +
+                    "on (r.variant_id = s.variant_id and r.rollup_day = ? and r.type = s.type) " +
+                    "when matched then update set quantity = r.quantity + s.quantity, " +
+                    "movement_count = r.movement_count + s.movement_count " +
+                    "when not matched then insert (variant_id, item_id, rollup_day, type, quantity, movement_count) " +
+                    "values (s.variant_id, s.item_id, ?, s.type, s.quantity, s.movement_count)";
+
+    // Lewati hari tanpa movement; range scan di index created_at
+    private static final String NEXT_MOVEMENT_AT =
+            "select min(created_at) from stock_movements where created_at >= ?";
+
+    private final MovementDailyRollupRepository movementDailyRollupRepository;
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final PendingMovements pendingMovements;
+    private final RollupProperties rollupProperties;
+
+    public MovementRollupServiceImpl(MovementDailyRollupRepository movementDailyRollupRepository,
+                                     RollupWatermarkRepository rollupWatermarkRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     TransactionOperations transactionOperations,
+                                     PendingMovements pendingMovements,
+                                     RollupProperties rollupProperties) {
+        this.movementDailyRollupRepository = movementDailyRollupRepository;
+        this.rollupWatermarkRepository = rollupWatermarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.pendingMovements = pendingMovements;
+        this.rollupProperties = rollupProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${warehouse.rollups.interval:PT1M}")
+    public void rollUpPeriodically() {
+        if (!rollupProperties.isEnabled()) {
+            return;
+        }
+        try {
+            rollUp(Instant.now().minus(rollupProperties.getSettleDelay()));
+        } catch (RuntimeException ex) {
+            log.warn("Movement rollup failed", ex);
+        }
+    }
+
+    @Override
+    public int rollUp(Instant upTo) {
+        // Movement yang masih di journal atau ledger punya createdAt lama; harus masuk tabel dulu
+        pendingMovements.persist();
+
+        int windows = 0;
+        while (Boolean.TRUE.equals(transactionOperations.execute(status -> rollUpNextWindow(upTo)))) {
+            windows++;
+        }
+        return windows;
+    }
+
+    @Override
+    public MovementReportResponse getReport(LocalDate from,
+                                            LocalDate to,
+                                            MovementReportGroupBy groupBy,
+                                            MovementReportPeriod period,
+                                            StockMovementType type,
+                                            Long itemId,
+                                            Long variantId) {
+        if (from == null || to == null) {
+            throw new InvalidRequestException("Report range requires both from and to");
+        }
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("Report range end must not be before its start");
+        }
+
+        List<RollupTotal> totals = switch (groupBy) {
+            case ITEM -> movementDailyRollupRepository.sumByItemAndDay(from, to, type, itemId, variantId);
+            case VARIANT -> movementDailyRollupRepository.sumByVariantAndDay(from, to, type, itemId, variantId);
+            case TYPE -> movementDailyRollupRepository.sumByTypeAndDay(from, to, type, itemId, variantId);
+        };
+
+        // Query selalu per hari; minggu/bulan/total digabung di sini dari baris yang sudah sedikit
+        Map<RowKey, MovementReportRow> rows = new HashMap<>();
+        for (RollupTotal total : totals) {
+            RowKey key = new RowKey(periodStart(total.getDay(), period), total.getGroupId(), total.getType());
+            MovementReportRow row = rows.computeIfAbsent(key, k -> newRow(k, groupBy));
+            row.setQuantity(row.getQuantity() + total.getQuantity());
+            row.setMovements(row.getMovements() + total.getMovements());
+        }
+
+        return MovementReportResponse.builder()
+                .from(from)
+                .to(to)
+                .groupBy(groupBy)
+                .period(period)
+                .rolledUpTo(rollupWatermarkRepository.findById(WATERMARK_NAME)
+                        .map(RollupWatermark::getWatermark)
+                        .orElse(null))
+                .rows(rows.values().stream()
+                        .sorted(Comparator.comparing(MovementReportRow::getPeriodStart,
+                                        Comparator.nullsFirst(Comparator.naturalOrder()))
+                                .thenComparing(MovementReportRow::getItemId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                .thenComparing(MovementReportRow::getVariantId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                .thenComparing(MovementReportRow::getType, Comparator.nullsFirst(Comparator.naturalOrder())))
+                        .toList())
+                .build();
+    }
+
+    // Satu window: dari watermark sampai akhir hari UTC-nya atau upTo. false kalau sudah mengejar upTo
+    private boolean rollUpNextWindow(Instant upTo) {
+        RollupWatermark watermark = rollupWatermarkRepository.findByNameForUpdate(WATERMARK_NAME).orElse(null);
+        Instant from = watermark == null ? Instant.EPOCH : watermark.getWatermark();
+        if (!from.isBefore(upTo)) {
+            return false;
+        }
+
+        OffsetDateTime next = jdbcTemplate.queryForObject(NEXT_MOVEMENT_AT, OffsetDateTime.class, utc(from));
+        if (next == null || !next.toInstant().isBefore(upTo)) {
+            // Tidak ada movement sampai upTo; watermark langsung maju
+            if (watermark != null) {
+                watermark.setWatermark(upTo);
+            }
+            return false;
+        }
+        if (watermark == null) {
+            // Run pertama; insert bersamaan dari node lain gagal di primary key dan dicoba lagi di run berikutnya
+            watermark = new RollupWatermark();
+            watermark.setName(WATERMARK_NAME);
+            watermark = rollupWatermarkRepository.save(watermark);
+        }
+
+        LocalDate day = LocalDate.ofInstant(next.toInstant(), ZoneOffset.UTC);
+        Instant windowStart = max(from, day.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Instant dayEnd = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant windowEnd = dayEnd.isBefore(upTo) ? dayEnd : upTo;
+
+        jdbcTemplate.update(MERGE_WINDOW, utc(windowStart), utc(windowEnd), day, day);
+        watermark.setWatermark(windowEnd);
+        return true;
+    }
+
+    private static MovementReportRow newRow(RowKey key, MovementReportGroupBy groupBy) {
+        return MovementReportRow.builder()
+                .periodStart(key.periodStart())
+                .itemId(groupBy == MovementReportGroupBy.ITEM ? key.groupId() : null)
+                .variantId(groupBy == MovementReportGroupBy.VARIANT ? key.groupId() : null)
+                .type(key.type())
+                .build();
+    }
+
+    private static LocalDate periodStart(LocalDate day, MovementReportPeriod period) {
+        return switch (period) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            case TOTAL -> null;
+        };
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private record RowKey(LocalDate periodStart, Long groupId, StockMovementType type) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.dto.OptimisticStockStatsResponse;
+import com.arief.warehouse.warehouse_api.exception.StockConflictException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Menjalankan ulang perubahan stok OPTIMISTIC saat versi bentrok, dengan backoff acak (full jitter)
+@Component
+public class OptimisticStockRetrier {
+
+    private final StockProperties stockProperties;
+
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OptimisticStockRetrier(StockProperties stockProperties) {
+        this.stockProperties = stockProperties;
+    }
+
+    // Setiap pemanggilan attempt harus membuka transaksinya sendiri
+    public void execute(Long variantId, Runnable attempt) {
+        StockProperties.Optimistic settings = stockProperties.getOptimistic();
+        int maxAttempts = Math.max(1, settings.getMaxAttempts());
+        operations.increment();
+
+        for (int attemptNo = 1; ; attemptNo++) {
+            attempts.increment();
+            try {
+                attempt.run();
+                return;
+            } catch (OptimisticLockingFailureException ex) {
+                if (attemptNo >= maxAttempts) {
+                    exhausted.increment();
+                    throw new StockConflictException(variantId, attemptNo, ex);
+                }
+                retries.increment();
+                backoff(settings, attemptNo);
+            }
+        }
+    }
+
+    public OptimisticStockStatsResponse getStats() {
+        long operationCount = operations.sum();
+        long retryCount = retries.sum();
+        return OptimisticStockStatsResponse.builder()
+                .operations(operationCount)
+                .attempts(attempts.sum())
+                .retries(retryCount)
+                .exhausted(exhausted.sum())
+                .retriesPerOperation(operationCount == 0 ? 0.0 : (double) retryCount / operationCount)
+                .build();
+    }
+
+    private static void backoff(StockProperties.Optimistic settings, int attemptNo) {
+        long initial = settings.getInitialBackoff().toNanos();
+        long max = settings.getMaxBackoff().toNanos();
+        long ceiling = Math.min(max, initial << Math.min(attemptNo - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Interrupted while retrying stock update");
+        }
+    }
+}
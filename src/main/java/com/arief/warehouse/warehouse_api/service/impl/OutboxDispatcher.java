@@ -0,0 +1,200 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.OutboxProperties;
+import com.arief.warehouse.warehouse_api.dto.OutboxMessage;
+import com.arief.warehouse.warehouse_api.dto.OutboxStatsResponse;
+import com.arief.warehouse.warehouse_api.entity.OutboxStatus;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.service.OutboxSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mengirim row outbox ke {@link OutboxSink} secara batch.
+ * <p>
+ * Per batch: klaim (transaksi pendek, lease dengan token unik), kirim ke sink di luar
+ * transaksi, lalu tandai DELIVERED dalam satu UPDATE. Kalau gagal, seluruh batch dijadwalkan
+ * ulang dengan backoff eksponensial; setelah maxAttempts row jadi FAILED. Pengiriman
+ * at-least-once: instance yang mati setelah kirim tapi sebelum tandai akan dikirim ulang
+ * setelah lease habis.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final TransactionOperations transactionOperations;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final RateWindow deliveredRate = new RateWindow();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxSink sink,
+                            OutboxProperties properties,
+                            TransactionOperations transactionOperations) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Scheduled(fixedDelayString = "${warehouse.outbox.poll-interval:PT1S}")
+    public void poll() {
+        if (!properties.isDispatcherEnabled()) {
+            return;
+        }
+        try {
+            dispatchPending();
+        } catch (RuntimeException ex) {
+            log.warn("Outbox dispatch failed", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void purge() {
+        Instant before = Instant.now().minus(properties.getRetention());
+        transactionOperations.executeWithoutResult(status -> outboxEventRepository.purgeDelivered(before));
+    }
+
+    // Terus ambil batch selama batch penuh, maksimal maxBatchesPerPoll
+    public int dispatchPending() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int total = 0;
+        for (int i = 0; i < Math.max(1, properties.getMaxBatchesPerPoll()); i++) {
+            int sent = dispatchBatch(batchSize);
+            total += sent;
+            if (sent < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public OutboxStatsResponse getStats() {
+        Instant oldest = outboxEventRepository.findOldestPendingOccurredAt();
+        long batchCount = batches.sum();
+        return OutboxStatsResponse.builder()
+                .sink(sink.getClass().getSimpleName())
+                .pending(outboxEventRepository.countByStatus(OutboxStatus.PENDING))
+                .failed(outboxEventRepository.countByStatus(OutboxStatus.FAILED))
+                .lagMillis(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis()))
+                .delivered(delivered.sum())
+                .deliveredPerSecond(deliveredRate.perSecond())
+                .batches(batchCount)
+                .retries(retries.sum())
+                .deadLettered(deadLettered.sum())
+                .averageBatchMillis(batchCount == 0 ? 0.0 : batchNanos.sum() / 1_000_000.0 / batchCount)
+                .build();
+    }
+
+    private int dispatchBatch(int batchSize) {
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+
+        List<OutboxMessage> batch = transactionOperations.execute(status -> {
+            List<Long> ids = outboxEventRepository.findClaimableIds(now, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            outboxEventRepository.claim(ids, owner, now.plus(properties.getLease()), now);
+            return outboxEventRepository.findClaimed(owner);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        try {
+            sink.deliver(batch);
+        } catch (Exception ex) {
+            scheduleRetry(owner, batch, ex);
+            // Sink bermasalah, tunggu tick berikutnya
+            return 0;
+        }
+
+        transactionOperations.executeWithoutResult(status ->
+                outboxEventRepository.markDelivered(owner, Instant.now()));
+
+        batchNanos.add(System.nanoTime() - started);
+        batches.increment();
+        delivered.add(batch.size());
+        deliveredRate.record(batch.size());
+        return batch.size();
+    }
+
+    private void scheduleRetry(String owner, List<OutboxMessage> batch, Exception cause) {
+        int attempt = batch.stream().mapToInt(OutboxMessage::getAttempts).max().orElse(0) + 1;
+        Instant nextAttemptAt = Instant.now().plus(backoff(attempt));
+        List<Long> ids = batch.stream().map(OutboxMessage::getId).toList();
+        String error = String.valueOf(cause.getMessage());
+        String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+        int failed = transactionOperations.execute(status -> {
+            outboxEventRepository.markRetry(owner, nextAttemptAt, truncated);
+            return outboxEventRepository.markFailed(ids, properties.getMaxAttempts());
+        });
+
+        retries.add(batch.size());
+        deadLettered.add(failed);
+        log.warn("Outbox delivery of {} events failed (attempt {}), retrying at {}",
+                batch.size(), attempt, nextAttemptAt, cause);
+    }
+
+    private Duration backoff(int attempt) {
+        Duration initial = properties.getInitialBackoff();
+        Duration max = properties.getMaxBackoff();
+        // initial * 2^(attempt-1), dibatasi maxBackoff
+        int shift = Math.min(attempt - 1, 30);
+        Duration delay = initial.multipliedBy(1L << shift);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    // Jumlah per detik untuk 60 detik terakhir
+    private static final class RateWindow {
+
+        private static final int SECONDS = 60;
+
+        private final long[] counts = new long[SECONDS];
+        private final long[] stamps = new long[SECONDS];
+
+        synchronized void record(long count) {
+            long second = System.currentTimeMillis() / 1000;
+            int slot = (int) (second % SECONDS);
+            if (stamps[slot] != second) {
+                stamps[slot] = second;
+                counts[slot] = 0;
+            }
+            counts[slot] += count;
+        }
+
+        synchronized double perSecond() {
+            long second = System.currentTimeMillis() / 1000;
+            long sum = 0;
+            for (int i = 0; i < SECONDS; i++) {
+                if (second - stamps[i] < SECONDS) {
+                    sum += counts[i];
+                }
+            }
+            return (double) sum / SECONDS;
+        }
+    }
+}
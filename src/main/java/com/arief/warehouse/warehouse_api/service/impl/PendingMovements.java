@@ -0,0 +1,47 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.exception.MovementsPendingException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Memastikan movement yang masih tertahan di journal (write-behind) atau di ledger (stok di memori)
+ * sudah masuk stock_movements, sebelum tabel itu dibaca sebagai sumber kebenaran
+ * (snapshot, rollup, reconciliation).
+ * <p>
+ * Harus dipanggil di luar transaksi: drain journal dan flush ledger commit di transaksinya sendiri.
+ * Kalau target drain/flush tidak tercapai, {@link MovementsPendingException} dilempar supaya job
+ * pemanggil gagal dan diulang di tick berikutnya, bukan membaca tabel yang belum lengkap.
+ */
+@Component
+public class PendingMovements {
+
+    private final MovementJournal movementJournal;
+    private final StockLedger stockLedger;
+
+    public PendingMovements(MovementJournal movementJournal, StockLedger stockLedger) {
+        this.movementJournal = movementJournal;
+        this.stockLedger = stockLedger;
+    }
+
+    public void persist() {
+        if (!movementJournal.awaitDrained()) {
+            throw new MovementsPendingException("Movement journal has not drained yet, retry later");
+        }
+        flushLedger();
+    }
+
+    // Journal cukup ditunggu untuk satu variant; ledger tetap di-flush seluruhnya
+    public void persist(Long variantId) {
+        if (!movementJournal.awaitDrained(variantId)) {
+            throw new MovementsPendingException("Movements of variant " + variantId
+                    + " are still in the journal, retry later");
+        }
+        flushLedger();
+    }
+
+    private void flushLedger() {
+        if (stockLedger.isEnabled() && !stockLedger.flush()) {
+            throw new MovementsPendingException("Stock ledger flush failed, retry later");
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
+import com.arief.warehouse.warehouse_api.config.ReconciliationProperties;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationMismatchResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunRequest;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunResponse;
+import com.arief.warehouse.warehouse_api.entity.ReconciliationMismatch;
+import com.arief.warehouse.warehouse_api.entity.ReconciliationPartition;
+import com.arief.warehouse.warehouse_api.entity.ReconciliationRun;
+import com.arief.warehouse.warehouse_api.entity.ReconciliationStatus;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.ReconciliationConflictException;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.ReconciliationMismatchRepository;
+import com.arief.warehouse.warehouse_api.repository.ReconciliationPartitionRepository;
+import com.arief.warehouse.warehouse_api.repository.ReconciliationRunRepository;
+import com.arief.warehouse.warehouse_api.service.ReconciliationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Rekonsiliasi item_variants.stock_quantity terhadap jumlah stock_movements per variant.
+ * <p>
+ * Range id variant dibagi rata ke beberapa partisi, masing-masing dikerjakan satu worker dari pool
+ * berukuran tetap. Worker memeriksa partisinya per chunk range id dengan satu query agregat (stok row
+ * + bucket vs jumlah movement, di-group per variant), jadi satu chunk = satu round trip dan stok serta
+ * movement terbaca dari statement yang sama. Pool = parallelism, dan tiap worker paling banyak memegang
+ * satu koneksi, jadi run di katalog besar tidak menghabiskan connection pool.
+ * <p>
+ * Selisih dicek ulang di transaksi yang mencatatnya, setelah journal di-drain: movement yang masih di
+ * journal sudah mengubah stok tapi belum ada di tabel. Variant yang movement-nya masuk journal setelah
+ * drain dilaporkan sebagai inFlight dan tidak diperbaiki; kalau drain timeout, chunk itu tidak diperbaiki. Checkpoint partisi maju di transaksi yang sama
+ * dengan hasil chunk-nya, jadi run yang berhenti (pause, shutdown, node mati) dilanjutkan tanpa
+ * memeriksa atau memperbaiki chunk yang sama dua kali.
+ * <p>
+ * Perbaikan tidak mengubah stok: stock_quantity dianggap benar (hasil hitung fisik atau koreksi manual)
+ * dan selisihnya dicatat sebagai movement ADJUSTMENT bertanggal createdAt variant. Dengan tanggal itu
+ * snapshot dan stok di masa lalu yang dihitung mundur dari stok sekarang tidak berubah, dan stok awal
+ * variant yang dibuat tanpa movement IN ikut tertutup. Karena tanggalnya sudah lewat watermark rollup,
+ * koreksi itu ikut di-merge ke rollup harian di transaksi yang sama (RollupBackfill).
+ * <p>
+ * Satu run dikoordinasi satu node; resume run RUNNING yang ditinggal node lain hanya aman kalau node
+ * itu memang sudah mati.
+ */
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationServiceImpl.class);
+
+    static final String REPAIR_REASON = "RECONCILIATION";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // Semua variant di (fromId, toId]; bucket dan movement di-group di range yang sama supaya tiap
+    // tabel cukup satu range scan, bukan subquery per variant
+    private static final String BALANCES_IN_RANGE =
+            "select v.id, v.stock_quantity + coalesce(b.quantity, 0), coalesce(m.quantity, 0), v.created_at " +
+                    "from item_variants v " +
+                    "left join (select variant_id, sum(quantity) as quantity from stock_buckets " +
+                    "where variant_id > ? and variant_id <= ? group by variant_id) b on b.variant_id = v.id " +
+                    "left join (select variant_id, sum(quantity_change) as quantity from stock_movements " +
+                    "where variant_id > ? and variant_id <= ? group by variant_id) m on m.variant_id = v.id " +
+                    "where v.id > ? and v.id <= ?";
+
+    private final ReconciliationRunRepository reconciliationRunRepository;
+    private final ReconciliationPartitionRepository reconciliationPartitionRepository;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+    private final ItemVariantRepository itemVariantRepository;
+    private final MovementBatchWriter movementBatchWriter;
+    private final RollupBackfill rollupBackfill;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final MovementJournal movementJournal;
+    private final PendingMovements pendingMovements;
+    private final ReconciliationProperties properties;
+    private final PaginationProperties paginationProperties;
+    private final ExecutorService workers;
+
+    // Run yang sedang dikerjakan node ini; paling banyak satu
+    private final AtomicReference<ActiveRun> active = new AtomicReference<>();
+
+    public ReconciliationServiceImpl(ReconciliationRunRepository reconciliationRunRepository,
+                                     ReconciliationPartitionRepository reconciliationPartitionRepository,
+                                     ReconciliationMismatchRepository reconciliationMismatchRepository,
+                                     ItemVariantRepository itemVariantRepository,
+                                     MovementBatchWriter movementBatchWriter,
+                                     RollupBackfill rollupBackfill,
+                                     JdbcTemplate jdbcTemplate,
+                                     TransactionOperations transactionOperations,
+                                     MovementJournal movementJournal,
+                                     PendingMovements pendingMovements,
+                                     ReconciliationProperties properties,
+                                     PaginationProperties paginationProperties) {
+        this.reconciliationRunRepository = reconciliationRunRepository;
+        this.reconciliationPartitionRepository = reconciliationPartitionRepository;
+        this.reconciliationMismatchRepository = reconciliationMismatchRepository;
+        this.itemVariantRepository = itemVariantRepository;
+        this.movementBatchWriter = movementBatchWriter;
+        this.rollupBackfill = rollupBackfill;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.movementJournal = movementJournal;
+        this.pendingMovements = pendingMovements;
+        this.properties = properties;
+        this.paginationProperties = paginationProperties;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("reconciliation-");
+        threads.setDaemon(true);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()), threads);
+    }
+
+    @Override
+    public ReconciliationRunResponse start(ReconciliationRunRequest request) {
+        ActiveRun activeRun = claim(null);
+        try {
+            // Stok yang berubah di ledger/journal harus sudah ada di tabel sebelum dibandingkan
+            pendingMovements.persist();
+            ReconciliationRun run = transactionOperations.execute(status ->
+                    createRun(request != null && request.isRepair()));
+            activeRun.runId = run.getId();
+            launch(activeRun);
+        } catch (RuntimeException ex) {
+            active.compareAndSet(activeRun, null);
+            throw ex;
+        }
+        return getRun(activeRun.runId);
+    }
+
+    @Override
+    public ReconciliationRunResponse getRun(Long runId) {
+        ReconciliationRun run = findRun(runId);
+        return toResponse(run, reconciliationPartitionRepository.findByRunIdOrderByIdAsc(runId));
+    }
+
+    @Override
+    public ReconciliationRunResponse pause(Long runId) {
+        ActiveRun activeRun = active.get();
+        if (activeRun != null && runId.equals(activeRun.runId)) {
+            // Status jadi PAUSED setelah semua worker menyelesaikan chunk-nya
+            activeRun.stopRequested = true;
+            return getRun(runId);
+        }
+        transactionOperations.executeWithoutResult(status -> {
+            ReconciliationRun run = findRun(runId);
+            switch (run.getStatus()) {
+                // Ditinggal proses yang berhenti tanpa sempat mencatat statusnya
+                case RUNNING -> run.setStatus(ReconciliationStatus.PAUSED);
+                case PAUSED -> {
+                }
+                default -> throw new ReconciliationConflictException(
+                        "Reconciliation run " + runId + " is " + run.getStatus() + " and cannot be paused");
+            }
+        });
+        return getRun(runId);
+    }
+
+    @Override
+    public ReconciliationRunResponse resume(Long runId) {
+        ActiveRun activeRun = claim(runId);
+        try {
+            pendingMovements.persist();
+            transactionOperations.executeWithoutResult(status -> {
+                ReconciliationRun run = findRun(runId);
+                if (run.getStatus() == ReconciliationStatus.COMPLETED) {
+                    throw new ReconciliationConflictException("Reconciliation run " + runId + " is already COMPLETED");
+                }
+                run.setStatus(ReconciliationStatus.RUNNING);
+                run.setLastError(null);
+                run.setFinishedAt(null);
+            });
+            launch(activeRun);
+        } catch (RuntimeException ex) {
+            active.compareAndSet(activeRun, null);
+            throw ex;
+        }
+        return getRun(runId);
+    }
+
+    @Override
+    public PageResponse<ReconciliationMismatchResponse> getMismatches(Long runId, String cursor, Integer limit) {
+        findRun(runId);
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long afterId = cursor == null ? 0L : PageCursors.decodeId(cursor);
+
+        List<ReconciliationMismatch> fetched = reconciliationMismatchRepository
+                .findByRunIdAndIdGreaterThanOrderByIdAsc(runId, afterId, Limit.of(pageSize + 1));
+        boolean hasNext = fetched.size() > pageSize;
+        List<ReconciliationMismatch> mismatches = hasNext ? fetched.subList(0, pageSize) : fetched;
+
+        return PageResponse.<ReconciliationMismatchResponse>builder()
+                .items(mismatches.stream().map(this::toResponse).toList())
+                .nextCursor(hasNext ? PageCursors.encode(mismatches.get(pageSize - 1).getId()) : null)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ActiveRun activeRun = active.get();
+        if (activeRun != null) {
+            activeRun.stopRequested = true;
+        }
+        workers.shutdown();
+        try {
+            // Chunk yang sedang berjalan diselesaikan dulu supaya run tercatat PAUSED
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private ActiveRun claim(Long runId) {
+        ActiveRun activeRun = new ActiveRun(runId);
+        ActiveRun current = active.get();
+        if (current != null && hasEnded(current)) {
+            // Status akhir sudah commit, finish tinggal melepas run ini
+            active.compareAndSet(current, null);
+        }
+        if (!active.compareAndSet(null, activeRun)) {
+            throw new ReconciliationConflictException("Another reconciliation run is already running on this node");
+        }
+        return activeRun;
+    }
+
+    // Sebelum launch status run belum RUNNING (run baru atau PAUSED yang akan di-resume), jadi belum selesai
+    private boolean hasEnded(ActiveRun activeRun) {
+        return activeRun.launched && reconciliationRunRepository.findById(activeRun.runId)
+                .map(run -> run.getStatus() != ReconciliationStatus.RUNNING)
+                .orElse(true);
+    }
+
+    private ReconciliationRun createRun(boolean repair) {
+        if (reconciliationRunRepository.existsByStatus(ReconciliationStatus.RUNNING)) {
+            throw new ReconciliationConflictException(
+                    "Another reconciliation run is still RUNNING; pause or resume it first");
+        }
+        ReconciliationRun run = new ReconciliationRun();
+        run.setRepair(repair);
+        run.setChunkSize(Math.max(1, properties.getChunkSize()));
+        run = reconciliationRunRepository.save(run);
+
+        // Batas partisi diambil sekali; variant yang dibuat setelah ini tidak ikut diperiksa
+        long[] idRange = jdbcTemplate.queryForObject("select min(id), max(id) from item_variants",
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)});
+        if (idRange == null) {
+            return run;
+        }
+        long lowerBound = idRange[0] - 1;
+        long maxId = idRange[1];
+        long partitions = Math.min(Math.max(1, properties.getParallelism()), maxId - lowerBound);
+        long width = (maxId - lowerBound + partitions - 1) / partitions;
+
+        List<ReconciliationPartition> created = new ArrayList<>();
+        for (long fromId = lowerBound; fromId < maxId; fromId += width) {
+            ReconciliationPartition partition = new ReconciliationPartition();
+            partition.setRunId(run.getId());
+            partition.setFromId(fromId);
+            partition.setToId(Math.min(fromId + width, maxId));
+            partition.setCheckedUpToId(fromId);
+            created.add(partition);
+        }
+        reconciliationPartitionRepository.saveAll(created);
+        return run;
+    }
+
+    private void launch(ActiveRun activeRun) {
+        ReconciliationRun run = findRun(activeRun.runId);
+        boolean repair = run.isRepair();
+        int chunkSize = run.getChunkSize();
+
+        CompletableFuture<?>[] tasks = reconciliationPartitionRepository.findByRunIdOrderByIdAsc(activeRun.runId)
+                .stream()
+                .filter(partition -> !partition.isDone())
+                .map(partition -> CompletableFuture.runAsync(() -> reconcilePartition(activeRun, repair, chunkSize,
+                        partition.getId(), partition.getCheckedUpToId(), partition.getToId()), workers))
+                .toArray(CompletableFuture[]::new);
+        log.info("Reconciliation run {} started with {} pending partitions", activeRun.runId, tasks.length);
+        activeRun.launched = true;
+        CompletableFuture.allOf(tasks).whenComplete((ignored, failure) -> finish(activeRun, failure));
+    }
+
+    private void reconcilePartition(ActiveRun activeRun, boolean repair, int chunkSize,
+                                    Long partitionId, long checkedUpToId, long toId) {
+        try {
+            long fromId = checkedUpToId;
+            while (fromId < toId && !activeRun.stopRequested) {
+                long chunkEnd = Math.min(fromId + chunkSize, toId);
+                reconcileChunk(activeRun.runId, repair, partitionId, fromId, chunkEnd);
+                fromId = chunkEnd;
+                pauseBetweenChunks(activeRun);
+            }
+        } catch (RuntimeException ex) {
+            // Partisi lain ikut berhenti; semuanya dilanjutkan dari checkpoint saat resume
+            activeRun.stopRequested = true;
+            throw ex;
+        }
+    }
+
+    private void reconcileChunk(Long runId, boolean repair, Long partitionId, long fromId, long toId) {
+        List<Balance> balances = readBalances(fromId, toId);
+        Set<Long> suspects = balances.stream()
+                .filter(Balance::mismatched)
+                .map(Balance::variantId)
+                .collect(Collectors.toSet());
+        // Stok untuk movement yang masih di journal sudah berubah; tunggu sampai movement-nya masuk tabel.
+        // Kalau drain timeout, chunk ini hanya dilaporkan
+        boolean drained = suspects.isEmpty() || movementJournal.awaitDrained();
+
+        transactionOperations.executeWithoutResult(status -> {
+            List<Balance> mismatched = List.of();
+            if (!suspects.isEmpty()) {
+                if (repair) {
+                    // Cek ulang dan perbaikan harus atomic terhadap reconciler lain (mis. resume di node lain)
+                    itemVariantRepository.findAllByIdForUpdate(suspects);
+                }
+                mismatched = readBalances(fromId, toId).stream()
+                        .filter(balance -> balance.mismatched() && suspects.contains(balance.variantId()))
+                        .toList();
+            }
+            int repaired = record(runId, repair && drained, mismatched);
+            reconciliationPartitionRepository.advance(partitionId, toId);
+            reconciliationRunRepository.addProgress(runId, balances.size(), mismatched.size(), repaired);
+        });
+    }
+
+    private List<Balance> readBalances(long fromId, long toId) {
+        return jdbcTemplate.query(BALANCES_IN_RANGE,
+                (rs, rowNum) -> new Balance(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                        rs.getObject(4, OffsetDateTime.class).toInstant()),
+                fromId, toId, fromId, toId, fromId, toId);
+    }
+
+    private int record(Long runId, boolean repair, List<Balance> mismatched) {
+        if (mismatched.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        List<ReconciliationMismatch> mismatches = new ArrayList<>(mismatched.size());
+        List<MovementBatchWriter.Row> repairs = new ArrayList<>();
+        for (Balance balance : mismatched) {
+            long difference = balance.stockQuantity() - balance.movementTotal();
+            // Dicek setelah balance dibaca: movement yang sudah commit pasti sudah tercatat di journal.
+            // Movement yang commit setelah awaitDrained membuat selisih semu, jadi tidak diperbaiki
+            boolean inFlight = movementJournal.hasUndrained(balance.variantId());
+            // quantityChange bertipe int; selisih di luar itu hanya dilaporkan
+            boolean repairable = repair && !inFlight
+                    && difference >= Integer.MIN_VALUE && difference <= Integer.MAX_VALUE;
+            if (repairable) {
+                repairs.add(new MovementBatchWriter.Row(balance.variantId(), StockMovementType.ADJUSTMENT,
+                        (int) difference, REPAIR_REASON, null, balance.createdAt()));
+            }
+
+            ReconciliationMismatch mismatch = new ReconciliationMismatch();
+            mismatch.setRunId(runId);
+            mismatch.setVariantId(balance.variantId());
+            mismatch.setStockQuantity(balance.stockQuantity());
+            mismatch.setMovementTotal(balance.movementTotal());
+            mismatch.setDifference(difference);
+            mismatch.setRepaired(repairable);
+            mismatch.setInFlight(inFlight);
+            mismatch.setDetectedAt(now);
+            mismatches.add(mismatch);
+        }
+        reconciliationMismatchRepository.saveAll(mismatches);
+        movementBatchWriter.insert(repairs);
+        // Tanggal koreksi jauh di belakang watermark rollup; job tidak akan melihatnya
+        rollupBackfill.addBackdated(repairs);
+        return repairs.size();
+    }
+
+    private void finish(ActiveRun activeRun, Throwable failure) {
+        try {
+            ReconciliationStatus status = transactionOperations.execute(tx -> {
+                ReconciliationRun run = findRun(activeRun.runId);
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    run.setStatus(ReconciliationStatus.FAILED);
+                    run.setLastError(truncate(String.valueOf(cause)));
+                } else if (reconciliationPartitionRepository.findByRunIdOrderByIdAsc(activeRun.runId).stream()
+                        .allMatch(ReconciliationPartition::isDone)) {
+                    run.setStatus(ReconciliationStatus.COMPLETED);
+                    run.setFinishedAt(Instant.now());
+                } else {
+                    run.setStatus(ReconciliationStatus.PAUSED);
+                }
+                return run.getStatus();
+            });
+            if (failure != null) {
+                log.warn("Reconciliation run {} failed", activeRun.runId, failure);
+            } else {
+                log.info("Reconciliation run {} is {}", activeRun.runId, status);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not record the end of reconciliation run {}", activeRun.runId, ex);
+        } finally {
+            active.compareAndSet(activeRun, null);
+        }
+    }
+
+    private void pauseBetweenChunks(ActiveRun activeRun) {
+        Duration pause = properties.getPauseBetweenChunks();
+        if (pause == null || pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            activeRun.stopRequested = true;
+        }
+    }
+
+    private ReconciliationRun findRun(Long runId) {
+        return reconciliationRunRepository.findById(runId)
+                .orElseThrow(() -> new NotFoundException("Reconciliation run not found: " + runId));
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private ReconciliationRunResponse toResponse(ReconciliationRun run, List<ReconciliationPartition> partitions) {
+        return ReconciliationRunResponse.builder()
+                .id(run.getId())
+                .status(run.getStatus())
+                .repair(run.isRepair())
+                .chunkSize(run.getChunkSize())
+                .partitions(partitions.size())
+                .completedPartitions((int) partitions.stream().filter(ReconciliationPartition::isDone).count())
+                .checkedVariants(run.getCheckedVariants())
+                .mismatchCount(run.getMismatchCount())
+                .repairedCount(run.getRepairedCount())
+                .lastError(run.getLastError())
+                .createdAt(run.getCreatedAt())
+                .updatedAt(run.getUpdatedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+
+    private ReconciliationMismatchResponse toResponse(ReconciliationMismatch mismatch) {
+        return ReconciliationMismatchResponse.builder()
+                .id(mismatch.getId())
+                .runId(mismatch.getRunId())
+                .variantId(mismatch.getVariantId())
+                .stockQuantity(mismatch.getStockQuantity())
+                .movementTotal(mismatch.getMovementTotal())
+                .difference(mismatch.getDifference())
+                .repaired(mismatch.isRepaired())
+                .inFlight(mismatch.isInFlight())
+                .detectedAt(mismatch.getDetectedAt())
+                .build();
+    }
+
+    private static final class ActiveRun {
+        private volatile Long runId;
+        private volatile boolean stopRequested;
+        private volatile boolean launched;
+
+        private ActiveRun(Long runId) {
+            this.runId = runId;
+        }
+    }
+
+    // stockQuantity = stok row + bucket
+    private record Balance(long variantId, long stockQuantity, long movementTotal, Instant createdAt) {
+
+        boolean mismatched() {
+            return stockQuantity != movementTotal;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.ReservationProperties;
+import com.arief.warehouse.warehouse_api.dto.ReservationStatsResponse;
+import com.arief.warehouse.warehouse_api.entity.ReservationStatus;
+import com.arief.warehouse.warehouse_api.entity.StockReservation;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Meng-expire reservasi saat TTL habis memakai {@link HashedTimingWheel}, bukan scan berkala ke DB.
+ * <p>
+ * Timer didaftarkan setelah reservasi commit dan dibatalkan setelah confirm/release commit. Satu
+ * thread memutar wheel; id yang jatuh tempo di-expire per batch dalam satu transaksi: row yang masih
+ * ACTIVE dan sudah lewat di-lock, ditandai EXPIRED, lalu reserved_quantity dikurangi sekali per
+ * variant. Timer yang kalah balapan dengan confirm/release cukup diabaikan. Batch yang gagal
+ * dijadwalkan ulang.
+ * <p>
+ * Timer hanya ada di memori; saat start timer dibangun ulang sekali dari reservasi ACTIVE, jadi
+ * reservasi yang lewat selama aplikasi mati di-expire pada tick pertama.
+ */
+@Component
+public class ReservationExpiry implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiry.class);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final ReservationProperties properties;
+    private final StockReservationRepository stockReservationRepository;
+    private final ItemVariantRepository itemVariantRepository;
+    private final TransactionOperations transactionOperations;
+    private final HashedTimingWheel wheel;
+
+    // Untuk membatalkan timer per reservasi
+    private final Map<Long, HashedTimingWheel.Timeout> timers = new ConcurrentHashMap<>();
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder staleTimers = new LongAdder();
+    private final LongAdder expireBatches = new LongAdder();
+    private final LongAdder failedExpireBatches = new LongAdder();
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public ReservationExpiry(ReservationProperties properties,
+                             StockReservationRepository stockReservationRepository,
+                             ItemVariantRepository itemVariantRepository,
+                             TransactionOperations transactionOperations) {
+        this.properties = properties;
+        this.stockReservationRepository = stockReservationRepository;
+        this.itemVariantRepository = itemVariantRepository;
+        this.transactionOperations = transactionOperations;
+        this.wheel = new HashedTimingWheel(properties.getTickDuration().toMillis(), properties.getWheelSize(),
+                System.currentTimeMillis());
+    }
+
+    // Timer baru aktif setelah commit; reservasi yang rollback tidak pernah punya timer
+    public void scheduleAfterCommit(Long reservationId, Instant expiresAt) {
+        runAfterCommit(() -> schedule(reservationId, expiresAt));
+    }
+
+    public void cancelAfterCommit(Long reservationId) {
+        runAfterCommit(() -> {
+            HashedTimingWheel.Timeout timeout = timers.remove(reservationId);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        });
+    }
+
+    public ReservationStatsResponse getStats() {
+        return ReservationStatsResponse.builder()
+                .pendingTimers(wheel.pending())
+                .expired(expired.sum())
+                .staleTimers(staleTimers.sum())
+                .expireBatches(expireBatches.sum())
+                .failedExpireBatches(failedExpireBatches.sum())
+                .build();
+    }
+
+    // Lifecycle: timer dibangun ulang sebelum web server menerima request
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        List<Object[]> active = stockReservationRepository.findIdAndExpiryByStatus(ReservationStatus.ACTIVE);
+        for (Object[] row : active) {
+            schedule((Long) row[0], (Instant) row[1]);
+        }
+        log.info("Reservation expiry loaded {} active reservations", active.size());
+
+        running = true;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("reservation-expiry-");
+        threads.setDaemon(true);
+        worker = threads.newThread(this::expiryLoop);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void schedule(Long reservationId, Instant expiresAt) {
+        timers.put(reservationId, wheel.schedule(reservationId, expiresAt.toEpochMilli()));
+    }
+
+    private void expiryLoop() {
+        while (running) {
+            long now = System.currentTimeMillis();
+            long wait = wheel.nextTickMillis() - now;
+            if (wait > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(wait));
+                continue;
+            }
+
+            List<Long> due = new ArrayList<>();
+            wheel.advance(now, id -> {
+                timers.remove(id);
+                due.add(id);
+            });
+            int batchSize = Math.max(1, properties.getExpireBatchSize());
+            for (int from = 0; from < due.size(); from += batchSize) {
+                expireBatch(due.subList(from, Math.min(from + batchSize, due.size())));
+            }
+        }
+    }
+
+    private void expireBatch(List<Long> reservationIds) {
+        try {
+            int count = transactionOperations.execute(status -> {
+                Instant now = Instant.now();
+                List<StockReservation> reservations =
+                        stockReservationRepository.findExpiredForUpdate(reservationIds, now);
+
+                // Satu UPDATE per variant, urut id supaya urutan lock sama antar transaksi
+                Map<Long, Integer> releasedPerVariant = new TreeMap<>();
+                for (StockReservation reservation : reservations) {
+                    reservation.setStatus(ReservationStatus.EXPIRED);
+                    releasedPerVariant.merge(reservation.getVariant().getId(), reservation.getQuantity(), Integer::sum);
+                }
+                releasedPerVariant.forEach((variantId, quantity) ->
+                        itemVariantRepository.releaseReservedStock(variantId, quantity, now));
+                return reservations.size();
+            });
+            expireBatches.increment();
+            expired.add(count);
+            staleTimers.add(reservationIds.size() - count);
+        } catch (RuntimeException ex) {
+            failedExpireBatches.increment();
+            log.warn("Failed to expire {} reservations, retrying in {}", reservationIds.size(), RETRY_DELAY, ex);
+            Instant retryAt = Instant.now().plus(RETRY_DELAY);
+            reservationIds.forEach(id -> schedule(id, retryAt));
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.ReservationProperties;
+import com.arief.warehouse.warehouse_api.dto.ReservationCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ReservationResponse;
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.ReservationStatus;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.entity.StockReservation;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.ReservationNotActiveException;
+import com.arief.warehouse.warehouse_api.exception.StockOperationUnavailableException;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockReservationRepository;
+import com.arief.warehouse.warehouse_api.service.ReservationService;
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@Service
+@Transactional
+public class ReservationServiceImpl implements ReservationService {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ItemVariantRepository itemVariantRepository;
+    private final StockMovementWriter stockMovementWriter;
+    private final StockEventService stockEventService;
+    private final StockLedger stockLedger;
+    private final ReservationExpiry reservationExpiry;
+    private final ReservationProperties properties;
+
+    public ReservationServiceImpl(StockReservationRepository stockReservationRepository,
+                                  ItemVariantRepository itemVariantRepository,
+                                  StockMovementWriter stockMovementWriter,
+                                  StockEventService stockEventService,
+                                  StockLedger stockLedger,
+                                  ReservationExpiry reservationExpiry,
+                                  ReservationProperties properties) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.itemVariantRepository = itemVariantRepository;
+        this.stockMovementWriter = stockMovementWriter;
+        this.stockEventService = stockEventService;
+        this.stockLedger = stockLedger;
+        this.reservationExpiry = reservationExpiry;
+        this.properties = properties;
+    }
+
+    @Override
+    public ReservationResponse reserve(Long variantId, ReservationCreateRequest request) {
+        if (stockLedger.isEnabled()) {
+            // Ledger memegang stok di memori dan tidak tahu soal reserved_quantity
+            throw new StockOperationUnavailableException(
+                    "Reservations are not available while the stock ledger is enabled");
+        }
+        int quantity = request.getQuantity();
+        Duration ttl = resolveTtl(request.getTtlSeconds());
+
+        // Guarded UPDATE: hold tidak perlu lock row variant lebih lama dari satu statement
+        Instant now = Instant.now();
+        if (itemVariantRepository.reserveStock(variantId, quantity, now) == 0) {
+            ItemVariant variant = itemVariantRepository.findById(variantId)
+                    .orElseThrow(() -> new NotFoundException("ItemVariant not found with id: " + variantId));
+            if (variant.getBucketCount() > 0) {
+                throw new StockOperationUnavailableException("Stock of variant " + variantId
+                        + " is sharded and cannot be reserved");
+            }
+            throw new OutOfStockException(variantId, quantity,
+                    variant.getStockQuantity() - variant.getReservedQuantity());
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setVariant(itemVariantRepository.getReferenceById(variantId));
+        reservation.setQuantity(quantity);
+        // Presisi milidetik, sama dengan timer, supaya expiry tidak pernah datang sebelum expiresAt
+        reservation.setExpiresAt(now.plus(ttl).truncatedTo(ChronoUnit.MILLIS));
+        StockReservation saved = stockReservationRepository.save(reservation);
+
+        reservationExpiry.scheduleAfterCommit(saved.getId(), saved.getExpiresAt());
+        return toResponse(saved);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReservationResponse getReservation(Long reservationId) {
+        return toResponse(stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new NotFoundException("Reservation not found with id: " + reservationId)));
+    }
+
+    // Reservasi yang sudah lewat tapi timernya belum jalan di-expire di sini; hasil itu tetap di-commit
+    @Override
+    @Transactional(noRollbackFor = ReservationNotActiveException.class)
+    public ReservationResponse confirm(Long reservationId) {
+        if (stockLedger.isEnabled()) {
+            // Reservasi dari sebelum ledger aktif: confirm menulis stock_quantity di luar ledger, jadi
+            // stok di memori tidak ikut turun. Reservasi itu tetap bisa dilepas atau kedaluwarsa
+            throw new StockOperationUnavailableException(
+                    "Reservations cannot be confirmed while the stock ledger is enabled");
+        }
+        StockReservation reservation = lockForUpdate(reservationId);
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new ReservationNotActiveException(reservationId, reservation.getStatus());
+        }
+
+        // Urutan lock sama dengan expiry: reservasi dulu, baru variant
+        Long variantId = reservation.getVariant().getId();
+        ItemVariant variant = itemVariantRepository.findByIdForUpdate(variantId)
+                .orElseThrow(() -> new NotFoundException("ItemVariant not found with id: " + variantId));
+        int quantity = reservation.getQuantity();
+        // Stok tersedia tidak berubah: stok dan reservasi turun bersama
+        variant.setStockQuantity(variant.getStockQuantity() - quantity);
+        variant.setReservedQuantity(variant.getReservedQuantity() - quantity);
+        itemVariantRepository.save(variant);
+
+        StockMovement movement = new StockMovement();
+        movement.setVariant(variant);
+        movement.setType(StockMovementType.OUT);
+        movement.setQuantityChange(-quantity);
+        movement.setReason("SALE");
+        stockMovementWriter.write(movement);
+
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        reservationExpiry.cancelAfterCommit(reservationId);
+
+        stockEventService.publishAfterCommit(StockChangeEvent.builder()
+                .variantId(variantId)
+                .itemId(variant.getItem().getId())
+                .stockQuantity(variant.getStockQuantity())
+                .quantityChange(-quantity)
+                .type(StockMovementType.OUT)
+                .occurredAt(Instant.now())
+                .build());
+        return toResponse(reservation);
+    }
+
+    // Idempotent untuk reservasi yang sudah dilepas atau kedaluwarsa
+    @Override
+    public ReservationResponse release(Long reservationId) {
+        StockReservation reservation = lockForUpdate(reservationId);
+        switch (reservation.getStatus()) {
+            case ACTIVE -> {
+                reservation.setStatus(ReservationStatus.RELEASED);
+                itemVariantRepository.releaseReservedStock(
+                        reservation.getVariant().getId(), reservation.getQuantity(), Instant.now());
+                reservationExpiry.cancelAfterCommit(reservationId);
+            }
+            case CONFIRMED -> throw new ReservationNotActiveException(reservationId, reservation.getStatus());
+            default -> {
+                // Sudah RELEASED/EXPIRED: hold sudah dilepas sebelumnya
+            }
+        }
+        return toResponse(reservation);
+    }
+
+    // Lock reservasi; yang ACTIVE tapi sudah lewat langsung di-expire tanpa menunggu timer
+    private StockReservation lockForUpdate(Long reservationId) {
+        StockReservation reservation = stockReservationRepository.findByIdForUpdate(reservationId)
+                .orElseThrow(() -> new NotFoundException("Reservation not found with id: " + reservationId));
+        Instant now = Instant.now();
+        if (reservation.getStatus() == ReservationStatus.ACTIVE && !reservation.getExpiresAt().isAfter(now)) {
+            reservation.setStatus(ReservationStatus.EXPIRED);
+            itemVariantRepository.releaseReservedStock(reservation.getVariant().getId(), reservation.getQuantity(), now);
+            reservationExpiry.cancelAfterCommit(reservationId);
+        }
+        return reservation;
+    }
+
+    private Duration resolveTtl(Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            return properties.getDefaultTtl();
+        }
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        if (ttl.compareTo(properties.getMaxTtl()) > 0) {
+            throw new InvalidRequestException("Reservation TTL must not exceed "
+                    + properties.getMaxTtl().toSeconds() + " seconds");
+        }
+        return ttl;
+    }
+
+    private static ReservationResponse toResponse(StockReservation reservation) {
+        return ReservationResponse.builder()
+                .id(reservation.getId())
+                .variantId(reservation.getVariant().getId())
+                .quantity(reservation.getQuantity())
+                .status(reservation.getStatus())
+                .expiresAt(reservation.getExpiresAt())
+                .createdAt(reservation.getCreatedAt())
+                .updatedAt(reservation.getUpdatedAt())
+                .build();
+    }
+}
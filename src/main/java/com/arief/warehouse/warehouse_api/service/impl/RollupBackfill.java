@@ -0,0 +1,78 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.MovementDailyRollup;
+import com.arief.warehouse.warehouse_api.entity.RollupWatermark;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.MovementDailyRollupRepository;
+import com.arief.warehouse.warehouse_api.repository.RollupWatermarkRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Menjumlahkan movement bertanggal mundur (koreksi reconciliation) langsung ke rollup harian.
+ * <p>
+ * Job rollup hanya maju dari watermark createdAt, jadi movement di bawah watermark tidak akan pernah
+ * dilihatnya. Watermark di-lock sampai transaksi pemanggil commit: movement di bawahnya di-merge di
+ * sini, sisanya dibiarkan untuk job, yang menunggu lock ini dan baru membaca setelah movement-nya
+ * commit. Tidak ada yang terlewat atau terhitung dua kali.
+ */
+@Component
+public class RollupBackfill {
+
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+    private final MovementDailyRollupRepository movementDailyRollupRepository;
+    private final ItemVariantRepository itemVariantRepository;
+
+    public RollupBackfill(RollupWatermarkRepository rollupWatermarkRepository,
+                          MovementDailyRollupRepository movementDailyRollupRepository,
+                          ItemVariantRepository itemVariantRepository) {
+        this.rollupWatermarkRepository = rollupWatermarkRepository;
+        this.movementDailyRollupRepository = movementDailyRollupRepository;
+        this.itemVariantRepository = itemVariantRepository;
+    }
+
+    // Harus di transaksi yang sama dengan insert movement-nya
+    public void addBackdated(List<MovementBatchWriter.Row> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Instant rolledUpTo = lockWatermark();
+        for (MovementBatchWriter.Row movement : movements) {
+            if (!movement.createdAt().isBefore(rolledUpTo)) {
+                continue;
+            }
+            LocalDate day = LocalDate.ofInstant(movement.createdAt(), ZoneOffset.UTC);
+            MovementDailyRollup rollup = movementDailyRollupRepository
+                    .findByVariantIdAndRollupDayAndType(movement.variantId(), day, movement.type())
+                    .orElseGet(() -> newRollup(movement, day));
+            rollup.setQuantity(rollup.getQuantity() + movement.quantityChange());
+            rollup.setMovementCount(rollup.getMovementCount() + 1);
+            movementDailyRollupRepository.save(rollup);
+        }
+    }
+
+    private Instant lockWatermark() {
+        return rollupWatermarkRepository.findByNameForUpdate(MovementRollupServiceImpl.WATERMARK_NAME)
+                .map(RollupWatermark::getWatermark)
+                .orElseGet(() -> {
+                    // Job belum pernah jalan: watermark dibuat di epoch supaya run pertamanya menunggu commit ini
+                    RollupWatermark watermark = new RollupWatermark();
+                    watermark.setName(MovementRollupServiceImpl.WATERMARK_NAME);
+                    watermark.setWatermark(Instant.EPOCH);
+                    return rollupWatermarkRepository.saveAndFlush(watermark).getWatermark();
+                });
+    }
+
+    private MovementDailyRollup newRollup(MovementBatchWriter.Row movement, LocalDate day) {
+        MovementDailyRollup rollup = new MovementDailyRollup();
+        rollup.setVariantId(movement.variantId());
+        rollup.setItemId(itemVariantRepository.getReferenceById(movement.variantId()).getItem().getId());
+        rollup.setRollupDay(day);
+        rollup.setType(movement.type());
+        return rollup;
+    }
+}
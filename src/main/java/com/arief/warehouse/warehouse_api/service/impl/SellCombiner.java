@@ -0,0 +1,265 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.dto.SellCombinerStatsResponse;
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Flat combining untuk sell pada variant yang sama.
+ * <p>
+ * Setiap caller antre di lane milik variant-nya. Thread yang berhasil jadi leader
+ * mengambil satu row lock, memproses antrean secara FIFO sampai stok habis, menulis
+ * satu update stok + batch movement, lalu menyelesaikan future setiap caller setelah commit.
+ * Caller harus memanggil ini di luar transaksi supaya tidak menahan koneksi selama menunggu.
+ */
+@Component
+public class SellCombiner {
+
+    // Interval follower mengecek apakah perlu mengambil alih peran leader
+    private static final long FOLLOWER_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ItemVariantRepository itemVariantRepository;
+    private final StockMovementWriter stockMovementWriter;
+    private final StockProperties stockProperties;
+    private final StockEventService stockEventService;
+    private final TransactionTemplate batchTransaction;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder combinedSells = new LongAdder();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+
+    public SellCombiner(ItemVariantRepository itemVariantRepository,
+                        StockMovementWriter stockMovementWriter,
+                        StockProperties stockProperties,
+                        StockEventService stockEventService,
+                        PlatformTransactionManager transactionManager) {
+        this.itemVariantRepository = itemVariantRepository;
+        this.stockMovementWriter = stockMovementWriter;
+        this.stockProperties = stockProperties;
+        this.stockEventService = stockEventService;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        // Batch harus commit sebelum future diselesaikan
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void sell(Long variantId, int quantity) {
+        PendingSell pending = new PendingSell(quantity);
+        Lane lane;
+        // Lane yang baru ditutup leader sudah/segera keluar dari map; ambil yang baru
+        do {
+            lane = lanes.computeIfAbsent(variantId, id -> new Lane());
+        } while (!lane.enqueue(pending));
+
+        while (!pending.result.isDone()) {
+            if (lane.combining.compareAndSet(false, true)) {
+                try {
+                    combine(variantId, lane);
+                } finally {
+                    // Antrean kosong: lane dilepas supaya map tidak menyimpan setiap variant yang pernah dijual
+                    if (lane.closeIfIdle()) {
+                        lanes.remove(variantId, lane);
+                    }
+                    lane.combining.set(false);
+                }
+            } else {
+                awaitQuietly(pending.result);
+            }
+        }
+
+        try {
+            pending.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for combined sell", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    public SellCombinerStatsResponse getStats() {
+        long batchCount = batches.sum();
+        long sellCount = combinedSells.sum();
+        return SellCombinerStatsResponse.builder()
+                .enabled(stockProperties.getCombiner().isEnabled())
+                .batches(batchCount)
+                .combinedSells(sellCount)
+                .averageBatchSize(batchCount == 0 ? 0.0 : (double) sellCount / batchCount)
+                .maxBatchSize(maxBatchSize.get())
+                .activeLanes(lanes.size())
+                .build();
+    }
+
+    private void combine(Long variantId, Lane lane) {
+        StockProperties.Combiner settings = stockProperties.getCombiner();
+        int batchSize = Math.max(1, settings.getBatchSize());
+
+        // Beri kesempatan batch terisi, tapi tidak lebih dari maxWait
+        long deadline = System.nanoTime() + settings.getMaxWait().toNanos();
+        while (lane.size.get() < batchSize && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(FOLLOWER_POLL_NANOS / 10);
+        }
+
+        List<PendingSell> batch = lane.drain(batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            batchTransaction.executeWithoutResult(status -> applyBatch(variantId, batch));
+        } catch (RuntimeException ex) {
+            // Transaksi rollback, tidak ada yang terjual
+            batch.forEach(pending -> pending.result.completeExceptionally(ex));
+            return;
+        }
+
+        batches.increment();
+        combinedSells.add(batch.size());
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+
+        for (PendingSell pending : batch) {
+            if (pending.failure == null) {
+                pending.result.complete(null);
+            } else {
+                pending.result.completeExceptionally(pending.failure);
+            }
+        }
+    }
+
+    private void applyBatch(Long variantId, List<PendingSell> batch) {
+        ItemVariant variant = itemVariantRepository.findByIdForUpdate(variantId).orElse(null);
+        if (variant == null) {
+            NotFoundException notFound = new NotFoundException("ItemVariant not found with id: " + variantId);
+            batch.forEach(pending -> pending.failure = notFound);
+            return;
+        }
+
+        int stock = variant.getStockQuantity();
+        // Stok yang direservasi tidak ikut dijual
+        int reserved = variant.getReservedQuantity();
+        List<StockMovement> movements = new ArrayList<>(batch.size());
+        for (PendingSell pending : batch) {
+            if (pending.quantity > stock - reserved) {
+                pending.failure = new OutOfStockException(variantId, pending.quantity, stock - reserved);
+                continue;
+            }
+            stock -= pending.quantity;
+
+            StockMovement movement = new StockMovement();
+            movement.setVariant(variant);
+            movement.setType(StockMovementType.OUT);
+            movement.setQuantityChange(-pending.quantity);
+            movement.setReason("SALE");
+            movements.add(movement);
+        }
+
+        if (movements.isEmpty()) {
+            return;
+        }
+
+        int sold = variant.getStockQuantity() - stock;
+        variant.setStockQuantity(stock);
+        itemVariantRepository.save(variant);
+        stockMovementWriter.writeAll(movements);
+
+        // Satu event per batch: stok akhir dan total yang terjual
+        stockEventService.publishAfterCommit(StockChangeEvent.builder()
+                .variantId(variantId)
+                .itemId(variant.getItem().getId())
+                .stockQuantity(stock)
+                .quantityChange(-sold)
+                .type(StockMovementType.OUT)
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    private static void awaitQuietly(CompletableFuture<Void> result) {
+        try {
+            result.get(FOLLOWER_POLL_NANOS, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // dicek ulang oleh loop pemanggil
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for combined sell", ex);
+        }
+    }
+
+    private static final class Lane {
+
+        private final Queue<PendingSell> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean combining = new AtomicBoolean();
+        private boolean closed;
+
+        // false: lane sudah ditutup, caller harus mengambil lane baru dari map
+        synchronized boolean enqueue(PendingSell pending) {
+            if (closed) {
+                return false;
+            }
+            queue.add(pending);
+            size.incrementAndGet();
+            return true;
+        }
+
+        // Ditutup di bawah lock yang sama dengan enqueue, jadi tidak ada sell yang tertinggal di lane tertutup
+        synchronized boolean closeIfIdle() {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        List<PendingSell> drain(int max) {
+            List<PendingSell> batch = new ArrayList<>(Math.min(max, Math.max(size.get(), 1)));
+            PendingSell pending;
+            while (batch.size() < max && (pending = queue.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(pending);
+            }
+            return batch;
+        }
+    }
+
+    private static final class PendingSell {
+
+        private final int quantity;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private RuntimeException failure;
+
+        PendingSell(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
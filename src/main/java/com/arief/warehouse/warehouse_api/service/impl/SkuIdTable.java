@@ -0,0 +1,188 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import java.util.concurrent.locks.StampedLock;
+
+// Hash table SKU -> variant id dengan open addressing (linear probing).
+// Key dan id disimpan di dua array paralel, jadi tidak ada Node atau Long per entry
+// seperti di HashMap. Read tanpa lock (optimistic read StampedLock), write serial.
+final class SkuIdTable {
+
+    static final long NOT_FOUND = -1L;
+
+    private static final double MAX_LOAD = 0.6;
+    private static final int MIN_CAPACITY = 16;
+
+    // Penanda slot yang dihapus; dibandingkan dengan ==, bukan equals
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String TOMBSTONE = new String("");
+
+    private final StampedLock lock = new StampedLock();
+
+    // Satu referensi supaya reader selalu lihat pasangan keys/ids dari generasi yang sama
+    private Table table;
+    private int size;
+    private int used;
+
+    SkuIdTable(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    long get(String sku) {
+        int hash = spread(sku.hashCode());
+        long stamp = lock.tryOptimisticRead();
+        long id = probe(table, sku, hash);
+        if (!lock.validate(stamp)) {
+            // Ada writer di tengah jalan, ulangi dengan read lock
+            stamp = lock.readLock();
+            try {
+                id = probe(table, sku, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return id;
+    }
+
+    void put(String sku, long id) {
+        long stamp = lock.writeLock();
+        try {
+            if (used + 1 > table.keys.length * MAX_LOAD) {
+                // Tombstone ikut dihitung; kalau kebanyakan tombstone cukup rehash di ukuran yang sama.
+                // Tidak pernah mengecil, supaya churn tidak bolak-balik resize
+                resize(Math.max(table.keys.length, capacityFor(size + 1)));
+            }
+            insert(sku, id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Hapus hanya kalau sku masih menunjuk ke id ini
+    boolean remove(String sku, long id) {
+        int hash = spread(sku.hashCode());
+        long stamp = lock.writeLock();
+        try {
+            String[] keys = table.keys;
+            int mask = keys.length - 1;
+            for (int i = hash & mask, n = 0; n < keys.length; i = (i + 1) & mask, n++) {
+                String key = keys[i];
+                if (key == null) {
+                    return false;
+                }
+                if (key != TOMBSTONE && key.equals(sku)) {
+                    if (table.ids[i] != id) {
+                        return false;
+                    }
+                    keys[i] = TOMBSTONE;
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int capacity() {
+        long stamp = lock.readLock();
+        try {
+            return table.keys.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void insert(String sku, long id) {
+        int hash = spread(sku.hashCode());
+        String[] keys = table.keys;
+        int mask = keys.length - 1;
+        int firstFree = -1;
+        for (int i = hash & mask, n = 0; n < keys.length; i = (i + 1) & mask, n++) {
+            String key = keys[i];
+            if (key == null) {
+                if (firstFree < 0) {
+                    firstFree = i;
+                    used++;
+                }
+                break;
+            }
+            if (key == TOMBSTONE) {
+                if (firstFree < 0) {
+                    firstFree = i;
+                }
+                continue;
+            }
+            if (key.equals(sku)) {
+                table.ids[i] = id;
+                return;
+            }
+        }
+        // Tulis id dulu baru key; reader optimistic tetap divalidasi lewat stamp
+        table.ids[firstFree] = id;
+        keys[firstFree] = sku;
+        size++;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        table = new Table(capacity);
+        size = 0;
+        used = 0;
+        for (int i = 0; i < old.keys.length; i++) {
+            String key = old.keys[i];
+            if (key != null && key != TOMBSTONE) {
+                insert(key, old.ids[i]);
+            }
+        }
+    }
+
+    private static long probe(Table table, String sku, int hash) {
+        String[] keys = table.keys;
+        long[] ids = table.ids;
+        int mask = keys.length - 1;
+        // Dibatasi panjang array supaya read optimistic tidak bisa loop selamanya
+        for (int i = hash & mask, n = 0; n < keys.length; i = (i + 1) & mask, n++) {
+            String key = keys[i];
+            if (key == null) {
+                return NOT_FOUND;
+            }
+            if (key != TOMBSTONE && key.equals(sku)) {
+                return ids[i];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int capacityFor(int entries) {
+        int needed = (int) Math.ceil(Math.max(entries, 1) / MAX_LOAD) + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static final class Table {
+        private final String[] keys;
+        private final long[] ids;
+
+        private Table(int capacity) {
+            this.keys = new String[capacity];
+            this.ids = new long[capacity];
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.stream.Stream;
+
+// SKU -> variant id di memori, supaya scan POS tidak perlu query untuk resolve id
+@Component
+public class SkuIndex {
+
+    public static final long NOT_FOUND = SkuIdTable.NOT_FOUND;
+
+    private final ItemVariantRepository itemVariantRepository;
+    private final SkuIdTable table = new SkuIdTable(1024);
+
+    public SkuIndex(ItemVariantRepository itemVariantRepository) {
+        this.itemVariantRepository = itemVariantRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<ItemVariantRepository.SkuId> rows = itemVariantRepository.streamSkuIds()) {
+            rows.forEach(row -> table.put(row.getSku(), row.getId()));
+        }
+    }
+
+    public long find(String sku) {
+        return table.get(sku);
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    // Tanpa hook rollback; dipakai untuk isi ulang dari hasil query DB
+    public void put(String sku, long variantId) {
+        table.put(sku, variantId);
+    }
+
+    // Index langsung diubah; kalau transaksi rollback, perubahan dibalik
+    public void register(String sku, long variantId) {
+        table.put(sku, variantId);
+        onRollback(() -> table.remove(sku, variantId));
+    }
+
+    public void rename(String oldSku, String newSku, long variantId) {
+        if (oldSku.equals(newSku)) {
+            return;
+        }
+        table.remove(oldSku, variantId);
+        table.put(newSku, variantId);
+        onRollback(() -> {
+            table.remove(newSku, variantId);
+            table.put(oldSku, variantId);
+        });
+    }
+
+    public void unregister(String sku, long variantId) {
+        if (table.remove(sku, variantId)) {
+            onRollback(() -> table.put(sku, variantId));
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
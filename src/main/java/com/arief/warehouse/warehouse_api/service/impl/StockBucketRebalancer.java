@@ -0,0 +1,34 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.service.StockShardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Meratakan isi bucket secara berkala supaya guarded update jarang jatuh ke jalur lock-semua
+@Component
+public class StockBucketRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(StockBucketRebalancer.class);
+
+    private final StockShardService stockShardService;
+
+    public StockBucketRebalancer(StockShardService stockShardService) {
+        this.stockShardService = stockShardService;
+    }
+
+    @Scheduled(fixedDelayString = "${warehouse.stock.sharding.rebalance-interval:PT30S}")
+    public void rebalanceAll() {
+        for (Long variantId : List.copyOf(stockShardService.getShardedVariantIds())) {
+            try {
+                // Satu transaksi pendek per variant supaya lock bucket tidak ditahan lama
+                stockShardService.rebalance(variantId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to rebalance stock buckets for variant {}", variantId, ex);
+            }
+        }
+    }
+}
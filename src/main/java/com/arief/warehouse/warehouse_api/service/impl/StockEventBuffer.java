@@ -0,0 +1,70 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Buffer per subscriber SSE. Event untuk variant yang masih antre digabung ke entry lama,
+// jadi isi buffer paling banyak satu entry per variant. Kalau penuh, entry tertua dibuang
+// dan dihitung supaya client tahu harus sinkron ulang.
+final class StockEventBuffer {
+
+    private final int capacity;
+    private final LinkedHashMap<Long, StockChangeEvent> pending = new LinkedHashMap<>();
+    private long dropped;
+    private boolean heartbeatDue;
+
+    StockEventBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    synchronized void offer(StockChangeEvent event) {
+        StockChangeEvent queued = pending.get(event.getVariantId());
+        if (queued != null) {
+            // put ke key yang sudah ada tidak mengubah urutan, posisi antre tetap
+            pending.put(event.getVariantId(), StockChangeEvent.builder()
+                    .variantId(event.getVariantId())
+                    .itemId(event.getItemId())
+                    .stockQuantity(event.getStockQuantity())
+                    .quantityChange(queued.getQuantityChange() + event.getQuantityChange())
+                    .type(event.getType())
+                    .occurredAt(event.getOccurredAt())
+                    .build());
+            return;
+        }
+        if (pending.size() >= capacity) {
+            Iterator<Map.Entry<Long, StockChangeEvent>> eldest = pending.entrySet().iterator();
+            eldest.next();
+            eldest.remove();
+            dropped++;
+        }
+        pending.put(event.getVariantId(), event);
+    }
+
+    synchronized void markDropped(long count) {
+        dropped += count;
+    }
+
+    synchronized void requestHeartbeat() {
+        heartbeatDue = true;
+    }
+
+    synchronized boolean hasWork() {
+        return !pending.isEmpty() || dropped > 0 || heartbeatDue;
+    }
+
+    synchronized Batch take() {
+        Batch batch = new Batch(new ArrayList<>(pending.values()), dropped, heartbeatDue);
+        pending.clear();
+        dropped = 0;
+        heartbeatDue = false;
+        return batch;
+    }
+
+    record Batch(List<StockChangeEvent> events, long dropped, boolean heartbeat) {
+    }
+}
@@ -0,0 +1,331 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockEventProperties;
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+import com.arief.warehouse.warehouse_api.exception.TooManySubscribersException;
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream SSE perubahan stok.
+ * <p>
+ * Write path hanya menaruh event ke antrean terbatas setelah commit (tidak pernah menunggu).
+ * Satu thread fan-out membagi event ke buffer subscriber yang cocok lewat index per variant
+ * dan per item, lalu thread dispatcher menulis ke koneksi. Subscriber yang lambat hanya
+ * membuat buffer-nya sendiri menggabung/membuang event.
+ * <p>
+ * emitter.send bisa tertahan sampai write timeout container kalau client berhenti membaca. Send yang
+ * lewat sendTimeout dilepas dari semua index dan pool dispatcher diberi satu thread tambahan selama
+ * send itu masih tertahan, jadi peer yang macet tidak mengurangi thread untuk subscriber lain.
+ */
+@Service
+public class StockEventServiceImpl implements StockEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockEventServiceImpl.class);
+
+    private final StockEventProperties properties;
+    private final BlockingQueue<StockChangeEvent> queue;
+    private final ThreadPoolExecutor dispatcher;
+    private final Thread fanOutThread;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byVariant = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byItem = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Event yang tidak masuk antrean fan-out; diteruskan ke semua subscriber sebagai overflow
+    private final AtomicLong queueDropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public StockEventServiceImpl(StockEventProperties properties) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        int dispatcherThreads = Math.max(1, properties.getDispatcherThreads());
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("stock-events-"));
+        this.fanOutThread = new CustomizableThreadFactory("stock-events-fanout-").newThread(this::fanOutLoop);
+        this.fanOutThread.setDaemon(true);
+        this.fanOutThread.start();
+    }
+
+    @Override
+    public SseEmitter subscribe(Collection<Long> itemIds, Collection<Long> variantIds) {
+        int max = properties.getMaxSubscribers();
+        if (subscriberCount.incrementAndGet() > max) {
+            subscriberCount.decrementAndGet();
+            throw new TooManySubscribersException(max);
+        }
+
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter,
+                itemIds == null ? Set.of() : Set.copyOf(itemIds),
+                variantIds == null ? Set.of() : Set.copyOf(variantIds));
+
+        subscribers.add(subscriber);
+        if (subscriber.itemIds.isEmpty() && subscriber.variantIds.isEmpty()) {
+            unfiltered.add(subscriber);
+        }
+        subscriber.variantIds.forEach(id -> byVariant.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        subscriber.itemIds.forEach(id -> byItem.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(subscriber));
+
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(ex -> unregister(subscriber));
+
+        // Kirim komentar awal supaya header langsung sampai ke client
+        subscriber.buffer.requestHeartbeat();
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @Override
+    public void publishAfterCommit(StockChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(event);
+            }
+        });
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Scheduled(fixedDelayString = "${warehouse.stock-events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        // Komentar kosong menjaga koneksi lewat proxy dan memunculkan koneksi yang sudah putus
+        for (Subscriber subscriber : subscribers) {
+            subscriber.buffer.requestHeartbeat();
+            subscriber.schedule();
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void releaseStalledSends() {
+        long timeoutNanos = properties.getSendTimeout().toNanos();
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.markStalled(now, timeoutNanos)) {
+                log.warn("Stock event send blocked longer than {}, dropping subscriber", properties.getSendTimeout());
+                // Emitter tidak disentuh di sini: send yang tertahan memegang lock-nya
+                unregister(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        fanOutThread.interrupt();
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void enqueue(StockChangeEvent event) {
+        if (!queue.offer(event)) {
+            queueDropped.incrementAndGet();
+        }
+    }
+
+    private void fanOutLoop() {
+        while (running) {
+            try {
+                StockChangeEvent event = queue.poll(1, TimeUnit.SECONDS);
+                long dropped = queueDropped.getAndSet(0);
+                if (dropped > 0) {
+                    for (Subscriber subscriber : subscribers) {
+                        subscriber.buffer.markDropped(dropped);
+                        subscriber.schedule();
+                    }
+                }
+                if (event != null) {
+                    fanOut(event);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Failed to fan out stock event", ex);
+            }
+        }
+    }
+
+    private void fanOut(StockChangeEvent event) {
+        for (Subscriber subscriber : unfiltered) {
+            subscriber.offer(event);
+        }
+        for (Subscriber subscriber : byVariant.getOrDefault(event.getVariantId(), Set.of())) {
+            subscriber.offer(event);
+        }
+        for (Subscriber subscriber : byItem.getOrDefault(event.getItemId(), Set.of())) {
+            // Sudah dapat lewat filter variant
+            if (!subscriber.variantIds.contains(event.getVariantId())) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.remove(subscriber);
+        unfiltered.remove(subscriber);
+        subscriber.variantIds.forEach(id -> removeFromIndex(byVariant, id, subscriber));
+        subscriber.itemIds.forEach(id -> removeFromIndex(byItem, id, subscriber));
+        subscriberCount.decrementAndGet();
+    }
+
+    // Dipanggil berpasangan: tambah saat send dinyatakan macet, kurangi saat send itu akhirnya kembali
+    private void resizeDispatcher(int delta) {
+        synchronized (dispatcher) {
+            int size = dispatcher.getCorePoolSize() + delta;
+            if (delta > 0) {
+                dispatcher.setMaximumPoolSize(size);
+                dispatcher.setCorePoolSize(size);
+            } else {
+                dispatcher.setCorePoolSize(size);
+                dispatcher.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private static void removeFromIndex(Map<Long, Set<Subscriber>> index, Long key, Subscriber subscriber) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> itemIds;
+        private final Set<Long> variantIds;
+        private final StockEventBuffer buffer = new StockEventBuffer(properties.getBufferSize());
+        // Paling banyak satu task drain per subscriber, jadi urutan kirim terjaga
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Waktu mulai drain yang sedang mengirim (0 = tidak mengirim); dijaga oleh monitor subscriber
+        private long sendStartedNanos;
+        private boolean stalled;
+
+        private Subscriber(SseEmitter emitter, Set<Long> itemIds, Set<Long> variantIds) {
+            this.emitter = emitter;
+            this.itemIds = itemIds;
+            this.variantIds = variantIds;
+        }
+
+        private void offer(StockChangeEvent event) {
+            buffer.offer(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                scheduled.set(false);
+            }
+        }
+
+        private synchronized boolean markStalled(long now, long timeoutNanos) {
+            if (sendStartedNanos == 0 || stalled || now - sendStartedNanos < timeoutNanos) {
+                return false;
+            }
+            stalled = true;
+            resizeDispatcher(1);
+            return true;
+        }
+
+        private synchronized boolean finishSend() {
+            sendStartedNanos = 0;
+            if (stalled) {
+                resizeDispatcher(-1);
+            }
+            return stalled;
+        }
+
+        private void drain() {
+            StockEventBuffer.Batch batch = buffer.take();
+            synchronized (this) {
+                sendStartedNanos = System.nanoTime();
+            }
+            boolean stalledSend;
+            try {
+                if (batch.dropped() > 0) {
+                    emitter.send(SseEmitter.event().name("overflow").data(batch.dropped()));
+                }
+                for (StockChangeEvent event : batch.events()) {
+                    emitter.send(SseEmitter.event().name("stock-change").data(event, MediaType.APPLICATION_JSON));
+                }
+                if (batch.heartbeat() && batch.events().isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client sudah putus (atau write timeout container); lepas dari semua index
+                unregister(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                stalledSend = finishSend();
+                scheduled.set(false);
+            }
+            if (stalledSend) {
+                // Sudah dilepas oleh releaseStalledSends; client yang selambat ini harus reconnect
+                emitter.completeWithError(new IOException("Stock event send blocked longer than "
+                        + properties.getSendTimeout()));
+                return;
+            }
+            // Event yang masuk selama send tidak menjadwalkan drain baru, cek lagi di sini
+            if (buffer.hasWork()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.dto.LedgerStatsResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.LedgerBacklogException;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stok di memori sebagai sumber kebenaran (aktif kalau warehouse.stock.ledger.enabled).
+ * <p>
+ * Sell/adjust cukup satu CAS di {@link LedgerTable}, tanpa transaksi DB. Setiap perubahan dicatat
+ * sebagai movement di antrean; thread flush memindahkannya ke DB secara berkala, satu transaksi
+ * per batch: stock_quantity ditambah delta per variant (bukan ditimpa) dan movement di-insert
+ * bersama row outbox-nya. item_variants dan stock_movements yang tersimpan selalu cocok satu sama
+ * lain, jadi saat start stok cukup dimuat ulang dari item_variants.
+ * <p>
+ * Batasan: hanya untuk satu node, dan perubahan yang belum di-flush (paling lama flushInterval)
+ * hilang kalau proses mati. Variant yang stoknya di-shard tidak dipegang ledger dan tetap lewat
+ * jalur DB.
+ */
+@Component
+public class StockLedger implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    // Dikembalikan untuk variant yang tidak dipegang ledger (stoknya di-shard)
+    public static final int NOT_MANAGED = -1;
+
+    // Nilai slot variant yang sudah dihapus; CAS yang masih memegang slot ini akan gagal
+    private static final int REMOVED = Integer.MIN_VALUE;
+
+    private static final String UPDATE_STOCK =
+            "update item_variants set stock_quantity = stock_quantity + ?, version = version + 1, updated_at = ? " +
+                    "where id = ?";
+
+    private final StockProperties stockProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final MovementBatchWriter movementBatchWriter;
+    private final EntityManagerFactory entityManagerFactory;
+    private final LedgerTable table;
+
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    // Movement yang belum tersimpan di DB, termasuk batch yang sedang diulang
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Batch yang gagal di-flush dicoba lagi sebelum antrean; dijaga flushLock
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private List<Change> retry = List.of();
+
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedMovements = new LongAdder();
+    private final LongAdder skippedMovements = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public StockLedger(StockProperties stockProperties,
+                       JdbcTemplate jdbcTemplate,
+                       TransactionOperations transactionOperations,
+                       MovementBatchWriter movementBatchWriter,
+                       EntityManagerFactory entityManagerFactory) {
+        this.stockProperties = stockProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.movementBatchWriter = movementBatchWriter;
+        this.entityManagerFactory = entityManagerFactory;
+        this.table = new LedgerTable(stockProperties.getLedger().getInitialCapacity());
+    }
+
+    public boolean isEnabled() {
+        return stockProperties.getLedger().isEnabled();
+    }
+
+    // Ubah stok dan catat movement-nya. Return stok baru, atau NOT_MANAGED
+    public int change(long variantId, int quantityChange, StockMovementType type, String reason) {
+        int stock = tryApply(variantId, quantityChange);
+        if (stock != NOT_MANAGED) {
+            record(variantId, type, quantityChange, reason);
+        }
+        return stock;
+    }
+
+    // Hanya CAS, tanpa movement; dipakai checkout yang baru mencatat movement kalau semua line lolos
+    public int tryApply(long variantId, int quantityChange) {
+        awaitCapacity();
+        int slot = slotFor(variantId);
+        while (true) {
+            int current = table.get(slot);
+            if (current == NOT_MANAGED) {
+                return NOT_MANAGED;
+            }
+            if (current == REMOVED) {
+                slot = slotFor(variantId);
+                continue;
+            }
+            int next = current + quantityChange;
+            if (next < 0) {
+                rejected.increment();
+                throw new OutOfStockException(variantId, -quantityChange, current);
+            }
+            if (table.compareAndSet(slot, current, next)) {
+                applied.increment();
+                return next;
+            }
+        }
+    }
+
+    // Balikkan tryApply yang tidak jadi dipakai (tanpa cek stok, tanpa movement)
+    public void revert(long variantId, int quantityChange) {
+        int slot = table.slotOf(variantId);
+        if (slot == LedgerTable.NO_SLOT) {
+            return;
+        }
+        while (true) {
+            int current = table.get(slot);
+            if (current < 0 || table.compareAndSet(slot, current, current - quantityChange)) {
+                return;
+            }
+        }
+    }
+
+    public void record(long variantId, StockMovementType type, int quantityChange, String reason) {
+        changes.add(new Change(variantId, type, quantityChange, reason, Instant.now()));
+        if (pending.incrementAndGet() >= stockProperties.getLedger().getFlushBatchSize()) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    // Bulk upsert: stok diset ke nilai absolut di dalam transaksi pemanggil. Movement dicatat kalau
+    // transaksi commit; kalau rollback, selisihnya dibalik (perubahan lain di antaranya tetap)
+    public int setQuantity(long variantId, int quantity, String reason) {
+        awaitCapacity();
+        int slot = slotFor(variantId);
+        int current;
+        while (true) {
+            current = table.get(slot);
+            if (current == NOT_MANAGED) {
+                throw new IllegalStateException("Stock of variant " + variantId + " is not managed by the ledger");
+            }
+            if (current == REMOVED) {
+                slot = slotFor(variantId);
+                continue;
+            }
+            if (table.compareAndSet(slot, current, quantity)) {
+                break;
+            }
+        }
+
+        int change = quantity - current;
+        if (change == 0) {
+            return 0;
+        }
+        applied.increment();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(variantId, StockMovementType.ADJUSTMENT, change, reason);
+            return change;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    record(variantId, StockMovementType.ADJUSTMENT, change, reason);
+                } else {
+                    revert(variantId, change);
+                }
+            }
+        });
+        return change;
+    }
+
+    // Stok saat ini tanpa memuat dari DB; NOT_MANAGED kalau belum dimuat atau stoknya di-shard
+    public int peek(long variantId) {
+        int slot = table.slotOf(variantId);
+        if (slot == LedgerTable.NO_SLOT) {
+            return NOT_MANAGED;
+        }
+        int current = table.get(slot);
+        return current < 0 ? NOT_MANAGED : current;
+    }
+
+    // Seperti peek, tapi variant yang belum dimuat diambil dari DB
+    public int quantityOf(long variantId) {
+        int current = table.get(slotFor(variantId));
+        return current < 0 ? NOT_MANAGED : current;
+    }
+
+    public long itemIdOf(long variantId) {
+        return table.itemIdOf(slotFor(variantId));
+    }
+
+    // Variant dihapus: slot dilepas setelah commit, movement yang belum di-flush dibuang saat flush
+    public void forgetAfterCommit(long variantId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            table.remove(variantId, REMOVED);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                table.remove(variantId, REMOVED);
+            }
+        });
+    }
+
+    // Simpan semua movement yang sudah tercatat sebelum pemanggilan ini; false kalau ada batch yang gagal
+    public boolean flush() {
+        int batchSize = Math.max(1, stockProperties.getLedger().getFlushBatchSize());
+        flushLock.lock();
+        try {
+            int flushed;
+            do {
+                flushed = flushBatch(batchSize);
+            } while (flushed >= batchSize);
+            return flushed >= 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public LedgerStatsResponse getStats() {
+        long flushCount = flushes.sum();
+        long flushed = flushedMovements.sum();
+        return LedgerStatsResponse.builder()
+                .enabled(isEnabled())
+                .variants(table.size())
+                .pending(pending.get())
+                .applied(applied.sum())
+                .rejected(rejected.sum())
+                .flushes(flushCount)
+                .flushedMovements(flushed)
+                .skippedMovements(skippedMovements.sum())
+                .flushFailures(flushFailures.sum())
+                .averageFlushSize(flushCount == 0 ? 0.0 : (double) flushed / flushCount)
+                .build();
+    }
+
+    // Lifecycle: stok dimuat sebelum web server menerima request, flush terakhir setelah berhenti
+
+    @Override
+    public void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        jdbcTemplate.query("select id, item_id, stock_quantity, bucket_count from item_variants",
+                (RowCallbackHandler) rs -> table.insert(rs.getLong(1), rs.getLong(2),
+                        rs.getInt(4) > 0 ? NOT_MANAGED : rs.getInt(3)));
+        log.info("Stock ledger loaded {} variants", table.size());
+
+        running = true;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("stock-ledger-");
+        threads.setDaemon(true);
+        flusher = threads.newThread(this::flushLoop);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (pending.get() > 0) {
+            log.error("Stock ledger stopped with {} movements not persisted", pending.get());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Lebih awal dari web server (start) dan lebih akhir saat shutdown
+        return 0;
+    }
+
+    private int slotFor(long variantId) {
+        int slot = table.slotOf(variantId);
+        if (slot != LedgerTable.NO_SLOT) {
+            return slot;
+        }
+        // Miss: variant baru (atau dibuat instance lain sebelum ledger aktif), muat sekali dari DB
+        List<long[]> rows = jdbcTemplate.query(
+                "select item_id, stock_quantity, bucket_count from item_variants where id = ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getInt(2), rs.getInt(3)},
+                variantId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("ItemVariant not found with id: " + variantId);
+        }
+        long[] row = rows.get(0);
+        return table.insert(variantId, row[0], row[2] > 0 ? NOT_MANAGED : (int) row[1]);
+    }
+
+    private void awaitCapacity() {
+        int maxPending = stockProperties.getLedger().getMaxPending();
+        if (pending.get() < maxPending) {
+            return;
+        }
+        LockSupport.unpark(flusher);
+        long deadline = System.nanoTime() + stockProperties.getLedger().getBacklogTimeout().toNanos();
+        while (pending.get() >= maxPending) {
+            if (System.nanoTime() >= deadline) {
+                throw new LedgerBacklogException(pending.get());
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void flushLoop() {
+        int batchSize = Math.max(1, stockProperties.getLedger().getFlushBatchSize());
+        long intervalNanos = stockProperties.getLedger().getFlushInterval().toNanos();
+        while (running) {
+            if (pending.get() < batchSize) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            int flushed;
+            flushLock.lock();
+            try {
+                flushed = flushBatch(batchSize);
+            } finally {
+                flushLock.unlock();
+            }
+            if (flushed < 0) {
+                // DB bermasalah; jangan diulang terus-menerus
+                LockSupport.parkNanos(this, Math.max(intervalNanos * 10, TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+        }
+    }
+
+    // Return jumlah movement yang diproses, atau -1 kalau gagal (batch disimpan untuk diulang)
+    private int flushBatch(int batchSize) {
+        List<Change> batch = new ArrayList<>(retry);
+        retry = List.of();
+        Change change;
+        while (batch.size() < batchSize && (change = changes.poll()) != null) {
+            batch.add(change);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            write(batch);
+        } catch (RuntimeException ex) {
+            retry = batch;
+            flushFailures.increment();
+            log.warn("Failed to flush {} ledger movements, retrying", batch.size(), ex);
+            return -1;
+        }
+        pending.addAndGet(-batch.size());
+        flushes.increment();
+        return batch.size();
+    }
+
+    private void write(List<Change> batch) {
+        try {
+            persist(batch);
+            flushedMovements.add(batch.size());
+        } catch (DataIntegrityViolationException ex) {
+            // Biasanya variant sudah dihapus sebelum movement-nya di-flush; buang movement itu saja
+            List<Change> kept = movementBatchWriter.retainExistingVariants(batch, Change::variantId);
+            if (kept.size() == batch.size()) {
+                throw ex;
+            }
+            log.warn("Skipping {} ledger movements of deleted variants", batch.size() - kept.size());
+            persist(kept);
+            skippedMovements.add(batch.size() - kept.size());
+            flushedMovements.add(kept.size());
+        }
+    }
+
+    private void persist(List<Change> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Delta per variant, urut id supaya urutan lock row selalu sama
+        Map<Long, Integer> deltas = new TreeMap<>();
+        List<MovementBatchWriter.Row> rows = new ArrayList<>(batch.size());
+        for (Change change : batch) {
+            deltas.merge(change.variantId(), change.quantityChange(), Integer::sum);
+            rows.add(new MovementBatchWriter.Row(change.variantId(), change.type(), change.quantityChange(),
+                    change.reason(), null, change.createdAt()));
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((variantId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, now, variantId});
+            }
+        });
+
+        transactionOperations.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_STOCK, updates);
+            movementBatchWriter.insert(rows);
+        });
+
+        // Update lewat JDBC tidak terlihat oleh Hibernate; buang entity cache supaya version tidak basi
+        Cache cache = entityManagerFactory.getCache();
+        deltas.keySet().forEach(variantId -> cache.evict(ItemVariant.class, variantId));
+    }
+
+    private record Change(long variantId, StockMovementType type, int quantityChange, String reason,
+                          Instant createdAt) {
+    }
+}
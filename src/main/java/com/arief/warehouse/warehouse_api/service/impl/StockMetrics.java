@@ -0,0 +1,192 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.StockConflictException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metric jalur stok (sell/adjustStock) untuk Actuator/Prometheus.
+ * <p>
+ * Semua meter didaftarkan sekali di constructor dan disimpan di array per enum, jadi jalur panas hanya
+ * System.nanoTime() dan Timer.record() tanpa lookup registry atau alokasi tag. Jumlah per tipe dan
+ * outcome dibaca dari _count timer warehouse.stock.change, bukan counter terpisah.
+ * <p>
+ * Hot variant dihitung per window di map yang dibatasi hotVariantCapacity; di akhir window top-N
+ * dipindah ke gauge dengan tag rank (bukan variant id), jadi jumlah time series tetap N.
+ */
+@Component
+public class StockMetrics {
+
+    public enum Phase {
+        // SELECT ... FOR UPDATE, termasuk menunggu lock (hanya strategi PESSIMISTIC)
+        LOCK,
+        // Perubahan stok; di jalur PESSIMISTIC SQL UPDATE-nya baru dikirim saat COMMIT
+        UPDATE,
+        MOVEMENT,
+        // Flush Hibernate + commit
+        COMMIT
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        OUT_OF_STOCK,
+        NOT_FOUND,
+        CONFLICT,
+        ERROR
+    }
+
+    // Batas bucket histogram: 10µs .. 5s
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(10_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(5);
+
+    private final Timer[][] changeTimers;
+    private final Timer[][] phaseTimers;
+    private final int hotVariantCapacity;
+
+    private volatile ConcurrentHashMap<Long, LongAdder> hotWindow = new ConcurrentHashMap<>();
+    private final AtomicInteger hotWindowSize = new AtomicInteger();
+    private final long[] hotIds;
+    private final long[] hotCounts;
+
+    public StockMetrics(MeterRegistry meterRegistry, StockProperties stockProperties) {
+        StockMovementType[] types = StockMovementType.values();
+        changeTimers = new Timer[types.length][Outcome.values().length];
+        phaseTimers = new Timer[types.length][Phase.values().length];
+        for (StockMovementType type : types) {
+            for (Outcome outcome : Outcome.values()) {
+                changeTimers[type.ordinal()][outcome.ordinal()] = Timer.builder("warehouse.stock.change")
+                        .description("Stock changes through sell/adjustStock, end to end")
+                        .tag("type", type.name())
+                        .tag("outcome", tagValue(outcome))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(meterRegistry);
+            }
+            for (Phase phase : Phase.values()) {
+                phaseTimers[type.ordinal()][phase.ordinal()] = Timer.builder("warehouse.stock.change.phase")
+                        .description("Time spent in one phase of a database stock change")
+                        .tag("type", type.name())
+                        .tag("phase", tagValue(phase))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(meterRegistry);
+            }
+        }
+
+        StockProperties.Metrics properties = stockProperties.getMetrics();
+        hotVariantCapacity = Math.max(1, properties.getHotVariantCapacity());
+        int ranks = Math.max(0, properties.getHotVariants());
+        hotIds = new long[ranks];
+        hotCounts = new long[ranks];
+        for (int i = 0; i < ranks; i++) {
+            int rank = i;
+            String rankTag = String.valueOf(rank + 1);
+            Gauge.builder("warehouse.stock.hot.variant", this, metrics -> metrics.hotIds[rank])
+                    .description("Variant id at this rank of the last hot-variant window (0 = empty)")
+                    .tag("rank", rankTag)
+                    .strongReference(true)
+                    .register(meterRegistry);
+            Gauge.builder("warehouse.stock.hot.variant.changes", this, metrics -> metrics.hotCounts[rank])
+                    .description("Stock changes of the variant at this rank in the last window")
+                    .tag("rank", rankTag)
+                    .strongReference(true)
+                    .register(meterRegistry);
+        }
+    }
+
+    public void recordChange(StockMovementType type, Long variantId, Outcome outcome, long nanos) {
+        changeTimers[type.ordinal()][outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        trackHotVariant(variantId);
+    }
+
+    public void recordChange(StockMovementType type, Long variantId, RuntimeException failure, long nanos) {
+        recordChange(type, variantId, outcomeOf(failure), nanos);
+    }
+
+    public void recordPhase(StockMovementType type, Phase phase, long nanos) {
+        phaseTimers[type.ordinal()][phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Tutup window: top-N pindah ke gauge, hitungan dimulai dari nol
+    @Scheduled(fixedDelayString = "${warehouse.stock.metrics.hot-variant-window:PT10S}")
+    public void rotateHotVariants() {
+        Map<Long, LongAdder> closed = hotWindow;
+        hotWindow = new ConcurrentHashMap<>();
+        hotWindowSize.set(0);
+
+        int ranks = hotIds.length;
+        if (ranks == 0) {
+            return;
+        }
+        // Min-heap sebesar N: O(variant x log N)
+        PriorityQueue<long[]> top = new PriorityQueue<>(ranks, (a, b) -> Long.compare(a[1], b[1]));
+        closed.forEach((variantId, count) -> {
+            long changes = count.sum();
+            if (top.size() < ranks) {
+                top.add(new long[]{variantId, changes});
+            } else if (changes > top.peek()[1]) {
+                top.poll();
+                top.add(new long[]{variantId, changes});
+            }
+        });
+        // Heap keluar dari yang terkecil; rank 1 = paling sering, rank tanpa variant diisi 0
+        for (int i = ranks - 1; i >= 0; i--) {
+            long[] entry = i < top.size() ? top.poll() : null;
+            hotIds[i] = entry == null ? 0L : entry[0];
+            hotCounts[i] = entry == null ? 0L : entry[1];
+        }
+    }
+
+    private void trackHotVariant(Long variantId) {
+        if (variantId == null) {
+            return;
+        }
+        ConcurrentHashMap<Long, LongAdder> window = hotWindow;
+        LongAdder count = window.get(variantId);
+        if (count == null) {
+            if (hotWindowSize.get() >= hotVariantCapacity) {
+                return;
+            }
+            count = window.computeIfAbsent(variantId, id -> {
+                hotWindowSize.incrementAndGet();
+                return new LongAdder();
+            });
+        }
+        count.increment();
+    }
+
+    private static Outcome outcomeOf(RuntimeException failure) {
+        if (failure instanceof OutOfStockException) {
+            return Outcome.OUT_OF_STOCK;
+        }
+        if (failure instanceof NotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (failure instanceof StockConflictException) {
+            return Outcome.CONFLICT;
+        }
+        return Outcome.ERROR;
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,79 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.StockMovementResponse;
+import com.arief.warehouse.warehouse_api.exception.InvalidCursorException;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.service.StockMovementService;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class StockMovementServiceImpl implements StockMovementService {
+
+    // Batas default kalau client tidak kirim from/to (masih dalam range TIMESTAMP database)
+    private static final Instant EARLIEST = Instant.EPOCH;
+    private static final Instant LATEST = Instant.parse("9999-12-31T23:59:59Z");
+
+    private final StockMovementRepository stockMovementRepository;
+    private final PaginationProperties paginationProperties;
+    private final MovementJournal movementJournal;
+
+    public StockMovementServiceImpl(StockMovementRepository stockMovementRepository,
+                                    PaginationProperties paginationProperties,
+                                    MovementJournal movementJournal) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.paginationProperties = paginationProperties;
+        this.movementJournal = movementJournal;
+    }
+
+    @Override
+    public PageResponse<StockMovementResponse> getMovements(Long variantId,
+                                                            Instant from,
+                                                            Instant to,
+                                                            String cursor,
+                                                            Integer limit) {
+        // Movement yang masih di journal ditunggu dulu sampai masuk tabel (read-your-writes)
+        movementJournal.awaitDrained(variantId);
+
+        int pageSize = paginationProperties.resolveLimit(limit);
+        Instant fromInclusive = from == null ? EARLIEST : from;
+        Instant toExclusive = to == null ? LATEST : to;
+
+        // Tanpa cursor: mulai dari yang paling baru di dalam range
+        Instant afterCreatedAt = toExclusive;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] keys = PageCursors.decode(cursor, 3);
+            try {
+                afterCreatedAt = Instant.ofEpochSecond(Long.parseLong(keys[0]), Long.parseLong(keys[1]));
+                afterId = Long.parseLong(keys[2]);
+            } catch (RuntimeException ex) {
+                throw new InvalidCursorException(cursor);
+            }
+        }
+
+        List<StockMovementResponse> fetched = stockMovementRepository.findPage(
+                variantId, fromInclusive, toExclusive, afterCreatedAt, afterId, Limit.of(pageSize + 1));
+        boolean hasNext = fetched.size() > pageSize;
+        List<StockMovementResponse> page = hasNext ? fetched.subList(0, pageSize) : fetched;
+
+        String nextCursor = null;
+        if (hasNext) {
+            StockMovementResponse last = page.get(pageSize - 1);
+            nextCursor = PageCursors.encode(
+                    last.getCreatedAt().getEpochSecond(), last.getCreatedAt().getNano(), last.getId());
+        }
+
+        return PageResponse.<StockMovementResponse>builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Satu pintu penulisan movement dari transaksi stok: insert langsung (+ outbox) atau lewat journal
+@Component
+public class StockMovementWriter {
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockOutbox stockOutbox;
+    private final MovementJournal movementJournal;
+
+    public StockMovementWriter(StockMovementRepository stockMovementRepository,
+                               StockOutbox stockOutbox,
+                               MovementJournal movementJournal) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.stockOutbox = stockOutbox;
+        this.movementJournal = movementJournal;
+    }
+
+    public void write(StockMovement movement) {
+        if (movementJournal.isEnabled()) {
+            movementJournal.record(List.of(movement));
+            return;
+        }
+        stockMovementRepository.save(movement);
+        // Row outbox di transaksi yang sama; dikirim ke sistem lain oleh OutboxDispatcher
+        stockOutbox.append(movement);
+    }
+
+    public void writeAll(List<StockMovement> movements) {
+        if (movementJournal.isEnabled()) {
+            // Outbox ditulis saat drain, bersama insert movement-nya
+            movementJournal.record(movements);
+            return;
+        }
+        stockMovementRepository.saveAll(movements);
+        stockOutbox.appendAll(movements);
+    }
+}
@@ -0,0 +1,62 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.OutboxEvent;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Menulis row outbox di transaksi pemanggil. Id dari sequence, jadi INSERT-nya ikut
+// JDBC batch bersama movement saat flush: satu batch insert tambahan per transaksi.
+@Component
+public class StockOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    public StockOutbox(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    public void append(StockMovement movement) {
+        outboxEventRepository.save(toEvent(movement));
+    }
+
+    public void appendAll(Collection<StockMovement> movements) {
+        List<OutboxEvent> events = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            events.add(toEvent(movement));
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    // Untuk movement yang di-insert langsung lewat JDBC (drain journal)
+    public void append(Long movementId, Long variantId, StockMovementType type, int quantityChange,
+                       String reason, Instant occurredAt) {
+        outboxEventRepository.save(toEvent(movementId, variantId, type, quantityChange, reason, occurredAt));
+    }
+
+    // Movement harus sudah di-persist (id dan createdAt sudah terisi)
+    private static OutboxEvent toEvent(StockMovement movement) {
+        Instant occurredAt = movement.getCreatedAt() == null ? Instant.now() : movement.getCreatedAt();
+        return toEvent(movement.getId(), movement.getVariant().getId(), movement.getType(),
+                movement.getQuantityChange(), movement.getReason(), occurredAt);
+    }
+
+    private static OutboxEvent toEvent(Long movementId, Long variantId, StockMovementType type, int quantityChange,
+                                       String reason, Instant occurredAt) {
+        OutboxEvent event = new OutboxEvent();
+        event.setMovementId(movementId);
+        event.setVariantId(variantId);
+        event.setMovementType(type);
+        event.setQuantityChange(quantityChange);
+        event.setReason(reason);
+        event.setOccurredAt(occurredAt);
+        event.setNextAttemptAt(occurredAt);
+        return event;
+    }
+}
@@ -0,0 +1,250 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockBucket;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.StockOperationUnavailableException;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockBucketRepository;
+import com.arief.warehouse.warehouse_api.service.StockShardService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+@Transactional
+public class StockShardServiceImpl implements StockShardService {
+
+    // Berapa bucket dicoba dengan guarded update sebelum lock semua bucket
+    private static final int MAX_PROBES = 4;
+
+    private final ItemVariantRepository itemVariantRepository;
+    private final StockBucketRepository stockBucketRepository;
+    private final StockProperties stockProperties;
+
+    // variantId -> jumlah bucket, supaya jalur sell tidak perlu baca item_variants
+    private final Map<Long, Integer> bucketCounts = new ConcurrentHashMap<>();
+
+    public StockShardServiceImpl(ItemVariantRepository itemVariantRepository,
+                                 StockBucketRepository stockBucketRepository,
+                                 StockProperties stockProperties) {
+        this.itemVariantRepository = itemVariantRepository;
+        this.stockBucketRepository = stockBucketRepository;
+        this.stockProperties = stockProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadShardedVariants() {
+        for (ItemVariant variant : itemVariantRepository.findByBucketCountGreaterThan(0)) {
+            bucketCounts.put(variant.getId(), variant.getBucketCount());
+        }
+    }
+
+    @Override
+    public boolean isSharded(Long variantId) {
+        return bucketCounts.containsKey(variantId);
+    }
+
+    @Override
+    public Set<Long> getShardedVariantIds() {
+        return Collections.unmodifiableSet(bucketCounts.keySet());
+    }
+
+    @Override
+    public void shard(Long variantId, int bucketCount) {
+        int maxBuckets = stockProperties.getSharding().getMaxBuckets();
+        if (bucketCount < 1 || bucketCount > maxBuckets) {
+            throw new InvalidRequestException("Bucket count must be between 1 and " + maxBuckets);
+        }
+
+        ItemVariant variant = itemVariantRepository.findByIdForUpdate(variantId)
+                .orElseThrow(() -> new NotFoundException("ItemVariant not found with id: " + variantId));
+        // Reservasi dijaga di row variant, bucket tidak tahu soal hold
+        if (variant.getReservedQuantity() > 0) {
+            throw new StockOperationUnavailableException("Variant " + variantId
+                    + " has active reservations and cannot be sharded");
+        }
+
+        List<StockBucket> existing = stockBucketRepository.findByVariantIdForUpdate(variantId);
+        int total = variant.getStockQuantity() + sum(existing);
+
+        // Pakai ulang bucket yang ada supaya tidak bentrok dengan unique (variant_id, bucket_index)
+        List<StockBucket> buckets = new ArrayList<>(bucketCount);
+        for (StockBucket bucket : existing) {
+            if (bucket.getBucketIndex() < bucketCount) {
+                buckets.add(bucket);
+            } else {
+                stockBucketRepository.delete(bucket);
+            }
+        }
+        for (int index = buckets.size(); index < bucketCount; index++) {
+            StockBucket bucket = new StockBucket();
+            bucket.setVariant(variant);
+            bucket.setBucketIndex(index);
+            buckets.add(bucket);
+        }
+
+        distribute(total, buckets);
+        stockBucketRepository.saveAll(buckets);
+
+        variant.setStockQuantity(0);
+        variant.setBucketCount(bucketCount);
+        itemVariantRepository.save(variant);
+
+        Integer previous = bucketCounts.put(variantId, bucketCount);
+        onRollback(() -> restore(variantId, previous));
+    }
+
+    @Override
+    public void unshard(Long variantId) {
+        ItemVariant variant = itemVariantRepository.findByIdForUpdate(variantId)
+                .orElseThrow(() -> new NotFoundException("ItemVariant not found with id: " + variantId));
+
+        List<StockBucket> buckets = stockBucketRepository.findByVariantIdForUpdate(variantId);
+        variant.setStockQuantity(variant.getStockQuantity() + sum(buckets));
+        variant.setBucketCount(0);
+        itemVariantRepository.save(variant);
+        stockBucketRepository.deleteAll(buckets);
+
+        Integer previous = bucketCounts.remove(variantId);
+        onRollback(() -> restore(variantId, previous));
+    }
+
+    @Override
+    public void removeBuckets(Long variantId) {
+        stockBucketRepository.deleteByVariantId(variantId);
+
+        Integer previous = bucketCounts.remove(variantId);
+        onRollback(() -> restore(variantId, previous));
+    }
+
+    @Override
+    public boolean applyChange(Long variantId, int quantityChange) {
+        Integer bucketCount = bucketCounts.get(variantId);
+        if (bucketCount == null) {
+            return false;
+        }
+
+        // Coba beberapa bucket acak tanpa lock; tiap percobaan satu UPDATE ber-guard
+        int start = ThreadLocalRandom.current().nextInt(bucketCount);
+        int probes = quantityChange > 0 ? 1 : Math.min(bucketCount, MAX_PROBES);
+        for (int i = 0; i < probes; i++) {
+            int index = (start + i) % bucketCount;
+            if (stockBucketRepository.applyDelta(variantId, index, quantityChange) == 1) {
+                return true;
+            }
+        }
+
+        // Stok terpecah di banyak bucket kecil: lock semua, ambil dari gabungannya sekaligus rebalance
+        List<StockBucket> buckets = stockBucketRepository.findByVariantIdForUpdate(variantId);
+        if (buckets.isEmpty()) {
+            return false;
+        }
+        applyLocked(variantId, buckets, quantityChange);
+        return true;
+    }
+
+    @Override
+    public int lockBuckets(Long variantId) {
+        return sum(stockBucketRepository.findByVariantIdForUpdate(variantId));
+    }
+
+    @Override
+    public void applyLockedChange(Long variantId, int quantityChange) {
+        applyLocked(variantId, stockBucketRepository.findByVariantIdForUpdate(variantId), quantityChange);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getBucketTotal(Long variantId) {
+        return getBucketTotals(List.of(variantId)).getOrDefault(variantId, 0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getBucketTotals(Collection<Long> variantIds) {
+        if (variantIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Integer> totals = new HashMap<>();
+        for (StockBucketRepository.BucketTotal total : stockBucketRepository.sumByVariantIds(variantIds)) {
+            totals.put(total.getVariantId(), total.getTotal().intValue());
+        }
+        return totals;
+    }
+
+    @Override
+    public void rebalance(Long variantId) {
+        List<StockBucket> buckets = stockBucketRepository.findByVariantIdForUpdate(variantId);
+        if (buckets.isEmpty()) {
+            return;
+        }
+        // Hanya bucket yang berubah yang ikut di-flush (dirty checking)
+        distribute(sum(buckets), buckets);
+    }
+
+    private void applyLocked(Long variantId, List<StockBucket> buckets, int quantityChange) {
+        int total = sum(buckets);
+        if (total + quantityChange < 0) {
+            throw new OutOfStockException(variantId, -quantityChange, total);
+        }
+        distribute(total + quantityChange, buckets);
+    }
+
+    private static void distribute(int total, List<StockBucket> buckets) {
+        int count = buckets.size();
+        int share = total / count;
+        int remainder = total % count;
+        for (int i = 0; i < count; i++) {
+            buckets.get(i).setQuantity(share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    private static int sum(List<StockBucket> buckets) {
+        int total = 0;
+        for (StockBucket bucket : buckets) {
+            total += bucket.getQuantity();
+        }
+        return total;
+    }
+
+    private void restore(Long variantId, Integer bucketCount) {
+        if (bucketCount == null) {
+            bucketCounts.remove(variantId);
+        } else {
+            bucketCounts.put(variantId, bucketCount);
+        }
+    }
+
+    // Registry langsung diubah; kalau transaksi rollback, kembalikan nilai sebelumnya
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
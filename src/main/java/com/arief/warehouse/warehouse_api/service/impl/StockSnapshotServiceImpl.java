@@ -0,0 +1,264 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
+import com.arief.warehouse.warehouse_api.config.SnapshotProperties;
+import com.arief.warehouse.warehouse_api.dto.MovementTotal;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.StockAtResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockSnapshot;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.repository.StockSnapshotRepository;
+import com.arief.warehouse.warehouse_api.service.StockSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stok per variant pada waktu tertentu, dari snapshot berkala + replay movement.
+ * <p>
+ * Snapshot ditulis per batch variant dengan satu INSERT ... SELECT: stok sekarang (row + bucket)
+ * dikurangi movement setelah takenAt, dalam satu statement supaya stok dan movement terbaca dari
+ * keadaan yang sama. Variant yang tidak punya movement sejak snapshot terakhirnya dilewati, jadi
+ * jumlah row tumbuh mengikuti variant yang aktif, bukan jumlah variant.
+ * <p>
+ * Query mengambil snapshot terakhir sebelum waktu yang diminta lalu replay maju; kalau tidak ada,
+ * snapshot pertama sesudahnya (replay mundur), dan kalau variant belum punya snapshot sama sekali,
+ * mundur dari stok sekarang. Stok awal saat variant dibuat tidak punya movement, jadi waktu sebelum
+ * createdAt variant dijawab 0.
+ * <p>
+ * Tidak transactional: movement di journal dan perubahan di ledger di-flush dulu, dan itu berjalan
+ * di transaksinya sendiri.
+ */
+@Service
+public class StockSnapshotServiceImpl implements StockSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockSnapshotServiceImpl.class);
+
+    // Stok variant v pada waktu parameter pertama
+    private static final String STOCK_AT =
+            "v.stock_quantity " +
+                    "+ coalesce((select sum(b.quantity) from stock_buckets b where b.variant_id = v.id), 0) " +
+                    "- coalesce((select sum(m.quantity_change) from stock_movements m " +
+                    "where m.variant_id = v.id and m.created_at > ?), 0)";
+
+    private static final String INSERT_SNAPSHOTS =
+            "insert into stock_snapshots (variant_id, stock_quantity, taken_at) " +
+                    "select v.id, " + STOCK_AT + ", ? from item_variants v " +
+                    "where v.id > ? and v.id <= ? and v.created_at <= ? " +
+                    "and not exists (select 1 from stock_snapshots s where s.variant_id = v.id and s.taken_at >= ?) " +
+                    "and (not exists (select 1 from stock_snapshots s where s.variant_id = v.id) " +
+                    "or exists (select 1 from stock_movements m where m.variant_id = v.id and m.created_at > " +
+                    "(select max(s.taken_at) from stock_snapshots s where s.variant_id = v.id)))";
+
+    private static final String SELECT_CURRENT_BACKWARD =
+            "select " + STOCK_AT + ", (select count(*) from stock_movements m " +
+                    "where m.variant_id = v.id and m.created_at > ?) from item_variants v where v.id = ?";
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ItemVariantRepository itemVariantRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PendingMovements pendingMovements;
+    private final SnapshotProperties snapshotProperties;
+    private final PaginationProperties paginationProperties;
+
+    public StockSnapshotServiceImpl(StockSnapshotRepository stockSnapshotRepository,
+                                    StockMovementRepository stockMovementRepository,
+                                    ItemVariantRepository itemVariantRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PendingMovements pendingMovements,
+                                    SnapshotProperties snapshotProperties,
+                                    PaginationProperties paginationProperties) {
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.itemVariantRepository = itemVariantRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pendingMovements = pendingMovements;
+        this.snapshotProperties = snapshotProperties;
+        this.paginationProperties = paginationProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${warehouse.snapshots.interval:PT1H}",
+            initialDelayString = "${warehouse.snapshots.interval:PT1H}")
+    public void snapshotPeriodically() {
+        if (!snapshotProperties.isEnabled()) {
+            return;
+        }
+        try {
+            int written = takeSnapshots(Instant.now().minus(snapshotProperties.getSettleDelay()));
+            log.info("Wrote {} stock snapshots", written);
+        } catch (RuntimeException ex) {
+            log.warn("Stock snapshot failed", ex);
+        }
+    }
+
+    @Override
+    public int takeSnapshots(Instant takenAt) {
+        pendingMovements.persist();
+
+        OffsetDateTime at = OffsetDateTime.ofInstant(takenAt, ZoneOffset.UTC);
+        int batchSize = Math.max(1, snapshotProperties.getBatchSize());
+        int written = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select id from item_variants where id > ? order by id limit ?", Long.class, afterId, batchSize);
+            if (ids.isEmpty()) {
+                return written;
+            }
+            long upToId = ids.get(ids.size() - 1);
+            // Satu statement per batch, auto-commit; batch yang gagal tidak membatalkan batch sebelumnya
+            written += jdbcTemplate.update(INSERT_SNAPSHOTS, at, at, afterId, upToId, at, at);
+            afterId = upToId;
+        }
+    }
+
+    @Override
+    public StockAtResponse getStockAt(Long variantId, Instant at) {
+        Instant pointInTime = requirePast(at);
+        pendingMovements.persist(variantId);
+
+        ItemVariant variant = itemVariantRepository.findById(variantId)
+                .orElseThrow(() -> new NotFoundException("ItemVariant not found: " + variantId));
+        if (pointInTime.isBefore(variant.getCreatedAt())) {
+            return notYetCreated(variant, pointInTime);
+        }
+
+        Optional<StockSnapshot> before = stockSnapshotRepository
+                .findFirstByVariantIdAndTakenAtLessThanEqualOrderByTakenAtDesc(variantId, pointInTime);
+        if (before.isPresent()) {
+            StockSnapshot snapshot = before.get();
+            MovementTotal total = sumMovements(variantId, snapshot.getTakenAt(), pointInTime);
+            return replayed(variant, pointInTime, snapshot, total, 1);
+        }
+        return stockAtWithoutEarlierSnapshot(variant, pointInTime);
+    }
+
+    @Override
+    public PageResponse<StockAtResponse> getStockAt(Instant at, String cursor, Integer limit) {
+        Instant pointInTime = requirePast(at);
+        pendingMovements.persist();
+
+        int pageSize = paginationProperties.resolveLimit(limit);
+        long afterId = cursor == null ? 0L : PageCursors.decodeId(cursor);
+        List<ItemVariant> fetched = itemVariantRepository
+                .findByIdGreaterThanAndCreatedAtLessThanEqualOrderByIdAsc(afterId, pointInTime, Limit.of(pageSize + 1));
+        boolean hasNext = fetched.size() > pageSize;
+        List<ItemVariant> variants = hasNext ? fetched.subList(0, pageSize) : fetched;
+
+        Map<Long, StockSnapshot> snapshots = new HashMap<>();
+        if (!variants.isEmpty()) {
+            List<Long> ids = variants.stream().map(ItemVariant::getId).toList();
+            for (StockSnapshot snapshot : stockSnapshotRepository.findLatestAtOrBefore(ids, pointInTime)) {
+                snapshots.put(snapshot.getVariantId(), snapshot);
+            }
+        }
+
+        // Snapshot dari satu job punya takenAt yang sama: satu query agregat per takenAt, bukan per variant
+        Map<Instant, List<Long>> idsByBasis = new HashMap<>();
+        snapshots.values().forEach(snapshot -> idsByBasis
+                .computeIfAbsent(snapshot.getTakenAt(), basis -> new ArrayList<>())
+                .add(snapshot.getVariantId()));
+        Map<Long, MovementTotal> totals = new HashMap<>();
+        idsByBasis.forEach((basis, ids) -> stockMovementRepository.sumByVariantBetween(ids, basis, pointInTime)
+                .forEach(total -> totals.put(total.getVariantId(), total)));
+
+        List<StockAtResponse> items = new ArrayList<>(variants.size());
+        for (ItemVariant variant : variants) {
+            StockSnapshot snapshot = snapshots.get(variant.getId());
+            if (snapshot == null) {
+                // Variant baru atau waktu sebelum snapshot pertama; jarang, jadi query per variant
+                items.add(stockAtWithoutEarlierSnapshot(variant, pointInTime));
+            } else {
+                MovementTotal total = totals.getOrDefault(variant.getId(), noMovements(variant.getId()));
+                items.add(replayed(variant, pointInTime, snapshot, total, 1));
+            }
+        }
+
+        return PageResponse.<StockAtResponse>builder()
+                .items(items)
+                .nextCursor(hasNext ? PageCursors.encode(variants.get(pageSize - 1).getId()) : null)
+                .build();
+    }
+
+    // Replay mundur dari snapshot pertama setelah at, atau dari stok sekarang kalau belum ada snapshot
+    private StockAtResponse stockAtWithoutEarlierSnapshot(ItemVariant variant, Instant at) {
+        Optional<StockSnapshot> after = stockSnapshotRepository
+                .findFirstByVariantIdAndTakenAtGreaterThanOrderByTakenAtAsc(variant.getId(), at);
+        if (after.isPresent()) {
+            StockSnapshot snapshot = after.get();
+            MovementTotal total = sumMovements(variant.getId(), at, snapshot.getTakenAt());
+            return replayed(variant, at, snapshot, total, -1);
+        }
+
+        Instant now = Instant.now();
+        OffsetDateTime atUtc = OffsetDateTime.ofInstant(at, ZoneOffset.UTC);
+        return jdbcTemplate.queryForObject(SELECT_CURRENT_BACKWARD,
+                (rs, rowNum) -> StockAtResponse.builder()
+                        .variantId(variant.getId())
+                        .sku(variant.getSku())
+                        .at(at)
+                        .stockQuantity(rs.getInt(1))
+                        .basisAt(now)
+                        .replayedMovements(rs.getLong(2))
+                        .build(),
+                atUtc, atUtc, variant.getId());
+    }
+
+    private MovementTotal sumMovements(Long variantId, Instant after, Instant upTo) {
+        List<MovementTotal> totals = stockMovementRepository.sumByVariantBetween(List.of(variantId), after, upTo);
+        return totals.isEmpty() ? noMovements(variantId) : totals.get(0);
+    }
+
+    // direction 1: snapshot + movement sesudahnya, -1: snapshot - movement sebelumnya
+    private static StockAtResponse replayed(ItemVariant variant, Instant at, StockSnapshot snapshot,
+                                            MovementTotal total, int direction) {
+        return StockAtResponse.builder()
+                .variantId(variant.getId())
+                .sku(variant.getSku())
+                .at(at)
+                .stockQuantity(snapshot.getStockQuantity() + direction * total.getQuantityChange().intValue())
+                .basisAt(snapshot.getTakenAt())
+                .replayedMovements(total.getMovements())
+                .build();
+    }
+
+    private static StockAtResponse notYetCreated(ItemVariant variant, Instant at) {
+        return StockAtResponse.builder()
+                .variantId(variant.getId())
+                .sku(variant.getSku())
+                .at(at)
+                .stockQuantity(0)
+                .build();
+    }
+
+    private static MovementTotal noMovements(Long variantId) {
+        return new MovementTotal(variantId, 0L, 0L);
+    }
+
+    private static Instant requirePast(Instant at) {
+        if (at == null) {
+            throw new InvalidRequestException("Point in time is required");
+        }
+        if (at.isAfter(Instant.now())) {
+            throw new InvalidRequestException("Point in time must not be in the future");
+        }
+        return at;
+    }
+}
@@ -0,0 +1,376 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.BulkProperties;
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+import com.arief.warehouse.warehouse_api.dto.VariantBulkFormat;
+import com.arief.warehouse.warehouse_api.dto.VariantBulkRow;
+import com.arief.warehouse.warehouse_api.dto.VariantBulkRowError;
+import com.arief.warehouse.warehouse_api.dto.VariantBulkUpsertResponse;
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.InvalidBulkUploadException;
+import com.arief.warehouse.warehouse_api.repository.ItemRepository;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import com.arief.warehouse.warehouse_api.service.VariantBulkService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class VariantBulkServiceImpl implements VariantBulkService {
+
+    private static final String BULK_REASON = "BULK_UPSERT";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("itemid", "sku", "price");
+
+    private final ItemRepository itemRepository;
+    private final ItemVariantRepository itemVariantRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final BulkProperties bulkProperties;
+    private final TransactionOperations transactionOperations;
+    private final SkuIndex skuIndex;
+    private final StockEventService stockEventService;
+    private final StockMovementWriter stockMovementWriter;
+    private final StockLedger stockLedger;
+    private final ObjectReader rowReader;
+
+    public VariantBulkServiceImpl(ItemRepository itemRepository,
+                                  ItemVariantRepository itemVariantRepository,
+                                  EntityManager entityManager,
+                                  Validator validator,
+                                  BulkProperties bulkProperties,
+                                  TransactionOperations transactionOperations,
+                                  SkuIndex skuIndex,
+                                  StockEventService stockEventService,
+                                  StockMovementWriter stockMovementWriter,
+                                  StockLedger stockLedger,
+                                  ObjectMapper objectMapper) {
+        this.itemRepository = itemRepository;
+        this.itemVariantRepository = itemVariantRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.bulkProperties = bulkProperties;
+        this.transactionOperations = transactionOperations;
+        this.skuIndex = skuIndex;
+        this.stockEventService = stockEventService;
+        this.stockMovementWriter = stockMovementWriter;
+        this.stockLedger = stockLedger;
+        this.rowReader = objectMapper.readerFor(VariantBulkRow.class);
+    }
+
+    @Override
+    public VariantBulkUpsertResponse upsert(Reader reader, VariantBulkFormat format) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        Report report = new Report(bulkProperties.getMaxErrors());
+        int chunkSize = Math.max(1, bulkProperties.getChunkSize());
+
+        Map<String, Integer> header = null;
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long lineNo = 0;
+        String line;
+
+        // Dibaca per baris, hanya satu chunk yang ditahan di memori
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == VariantBulkFormat.CSV && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+
+            report.totalRows++;
+            VariantBulkRow row;
+            try {
+                row = format == VariantBulkFormat.CSV ? parseCsvRow(header, line) : rowReader.readValue(line);
+            } catch (IllegalArgumentException | JsonProcessingException ex) {
+                report.fail(lineNo, null, "Unparseable row: " + ex.getMessage());
+                continue;
+            }
+
+            Set<ConstraintViolation<VariantBulkRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                report.fail(lineNo, row.getSku(), message);
+                continue;
+            }
+
+            chunk.add(new PendingRow(lineNo, row));
+            if (chunk.size() >= chunkSize) {
+                applyChunk(chunk, report);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, report);
+        }
+
+        return report.toResponse();
+    }
+
+    private void applyChunk(List<PendingRow> chunk, Report report) {
+        try {
+            Report chunkReport = transactionOperations.execute(status -> upsertChunk(chunk));
+            report.merge(chunkReport);
+        } catch (RuntimeException ex) {
+            if (chunk.size() == 1) {
+                PendingRow row = chunk.get(0);
+                report.fail(row.line(), row.row().getSku(), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                return;
+            }
+            // Satu baris bermasalah (mis. SKU bentrok dengan upload lain) membatalkan seluruh chunk;
+            // ulangi per baris supaya baris lain tetap masuk dan yang gagal bisa dilaporkan
+            for (PendingRow row : chunk) {
+                applyChunk(List.of(row), report);
+            }
+        }
+    }
+
+    private Report upsertChunk(List<PendingRow> chunk) {
+        Report chunkReport = new Report(Integer.MAX_VALUE);
+
+        Set<Long> itemIds = new HashSet<>();
+        Set<String> skus = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            itemIds.add(pending.row().getItemId());
+            skus.add(pending.row().getSku());
+        }
+
+        // Dua query per chunk, bukan dua query per baris
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            items.put(item.getId(), item);
+        }
+        Map<String, ItemVariant> variants = new HashMap<>();
+        for (ItemVariant variant : itemVariantRepository.findAllBySkuForUpdate(skus)) {
+            variants.put(variant.getSku(), variant);
+        }
+
+        for (PendingRow pending : chunk) {
+            VariantBulkRow row = pending.row();
+            Item item = items.get(row.getItemId());
+            if (item == null) {
+                chunkReport.fail(pending.line(), row.getSku(), "Item not found: " + row.getItemId());
+                continue;
+            }
+
+            ItemVariant variant = variants.get(row.getSku());
+            if (variant == null) {
+                variant = new ItemVariant();
+                variant.setSku(row.getSku());
+                variant.setStockQuantity(row.getStockQuantity() == null ? 0 : row.getStockQuantity());
+                applyFields(variant, item, row);
+                // persist langsung: id dari sequence, INSERT ditunda sampai flush (ikut batch)
+                entityManager.persist(variant);
+                skuIndex.register(variant.getSku(), variant.getId());
+                variants.put(row.getSku(), variant);
+                chunkReport.created++;
+                continue;
+            }
+
+            if (row.getStockQuantity() != null && variant.getBucketCount() > 0) {
+                chunkReport.fail(pending.line(), row.getSku(),
+                        "Stock of sharded variant " + variant.getId() + " cannot be set by bulk upsert");
+                continue;
+            }
+            if (row.getStockQuantity() != null && row.getStockQuantity() < variant.getReservedQuantity()) {
+                chunkReport.fail(pending.line(), row.getSku(), "Stock " + row.getStockQuantity()
+                        + " is below reserved quantity " + variant.getReservedQuantity());
+                continue;
+            }
+
+            applyFields(variant, item, row);
+            if (row.getStockQuantity() != null && stockLedger.isEnabled()) {
+                // Stok dipegang ledger: kolom stock_quantity hanya diubah lewat flush (delta)
+                int change = stockLedger.setQuantity(variant.getId(), row.getStockQuantity(), BULK_REASON);
+                if (change != 0) {
+                    publishAdjustment(variant, item, row.getStockQuantity(), change);
+                }
+            } else if (row.getStockQuantity() != null && !row.getStockQuantity().equals(variant.getStockQuantity())) {
+                int change = row.getStockQuantity() - variant.getStockQuantity();
+                variant.setStockQuantity(row.getStockQuantity());
+
+                StockMovement movement = new StockMovement();
+                movement.setVariant(variant);
+                movement.setType(StockMovementType.ADJUSTMENT);
+                movement.setQuantityChange(change);
+                movement.setReason(BULK_REASON);
+                stockMovementWriter.write(movement);
+
+                publishAdjustment(variant, item, variant.getStockQuantity(), change);
+            }
+            chunkReport.updated++;
+        }
+
+        // Kirim batch sekarang dan lepas entity chunk ini supaya persistence context tidak membesar
+        entityManager.flush();
+        entityManager.clear();
+        return chunkReport;
+    }
+
+    // Terkirim hanya kalau chunk ini commit
+    private void publishAdjustment(ItemVariant variant, Item item, int stockQuantity, int change) {
+        stockEventService.publishAfterCommit(StockChangeEvent.builder()
+                .variantId(variant.getId())
+                .itemId(item.getId())
+                .stockQuantity(stockQuantity)
+                .quantityChange(change)
+                .type(StockMovementType.ADJUSTMENT)
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    private void applyFields(ItemVariant variant, Item item, VariantBulkRow row) {
+        variant.setItem(item);
+        variant.setColor(row.getColor());
+        variant.setSize(row.getSize());
+        variant.setPrice(row.getPrice());
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> columns = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !header.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidBulkUploadException("CSV header is missing columns: " + missing);
+        }
+        return header;
+    }
+
+    private VariantBulkRow parseCsvRow(Map<String, Integer> header, String line) {
+        List<String> values = splitCsv(line);
+
+        VariantBulkRow row = new VariantBulkRow();
+        String itemId = column(header, values, "itemid");
+        row.setItemId(itemId == null ? null : Long.valueOf(itemId));
+        row.setSku(column(header, values, "sku"));
+        row.setColor(column(header, values, "color"));
+        row.setSize(column(header, values, "size"));
+        String price = column(header, values, "price");
+        row.setPrice(price == null ? null : new BigDecimal(price));
+        String stock = column(header, values, "stockquantity");
+        row.setStockQuantity(stock == null ? null : Integer.valueOf(stock));
+        return row;
+    }
+
+    private String column(Map<String, Integer> header, List<String> values, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // CSV sederhana: koma sebagai pemisah, field boleh diapit kutip ganda ("" = kutip literal)
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private record PendingRow(long line, VariantBulkRow row) {
+    }
+
+    private static final class Report {
+
+        private final int maxErrors;
+        private final List<VariantBulkRowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long created;
+        private long updated;
+        private long failed;
+
+        private Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(VariantBulkRowError.builder()
+                        .line(line)
+                        .sku(sku)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private void merge(Report chunk) {
+            created += chunk.created;
+            updated += chunk.updated;
+            for (VariantBulkRowError error : chunk.errors) {
+                fail(error.getLine(), error.getSku(), error.getMessage());
+            }
+        }
+
+        private VariantBulkUpsertResponse toResponse() {
+            // Error parsing dicatat saat dibaca, error chunk saat di-flush; urutkan lagi per baris
+            errors.sort(Comparator.comparingLong(VariantBulkRowError::getLine));
+            return VariantBulkUpsertResponse.builder()
+                    .totalRows(totalRows)
+                    .created(created)
+                    .updated(updated)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.arief.warehouse.warehouse_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTrackingDataSourceTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new SqlTrackingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:sql-tracking;DB_CLOSE_DELAY=-1", "sa", "")));
+
+    @AfterEach
+    void tearDown() {
+        SqlTracker.end();
+        jdbcTemplate.execute("drop table if exists tracked");
+    }
+
+    @Test
+    void countsStatementsRowsAndCapturesSql_onTrackedThreadOnly() {
+        jdbcTemplate.execute("create table tracked (id int primary key)");
+
+        SqlTracker.Stats stats = SqlTracker.begin(2, false);
+        jdbcTemplate.batchUpdate("insert into tracked (id) values (?)", List.of(
+                new Object[]{1}, new Object[]{2}, new Object[]{3}));
+        List<Integer> ids = jdbcTemplate.queryForList("select id from tracked order by id", Integer.class);
+        jdbcTemplate.update("delete from tracked where id > ?", 1);
+        SqlTracker.end();
+
+        assertThat(ids).containsExactly(1, 2, 3);
+        // Batch satu round trip; row = 3 insert + 3 dibaca + 2 dihapus
+        assertThat(stats.getStatements()).isEqualTo(3);
+        assertThat(stats.getRows()).isEqualTo(8);
+        assertThat(stats.getCapturedStatements()).containsExactly(
+                "insert into tracked (id) values (?)", "select id from tracked order by id");
+
+        // Di luar request tidak ada yang dihitung
+        jdbcTemplate.queryForList("select id from tracked", Integer.class);
+        assertThat(stats.getStatements()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,143 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.repository.ItemRepository;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+class CatalogExportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemVariantRepository itemVariantRepository;
+
+    private Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription("Export test item");
+        item.setActive(true);
+        return itemRepository.save(item);
+    }
+
+    private ItemVariant createVariant(Item item, String sku, int stock) {
+        ItemVariant variant = new ItemVariant();
+        variant.setItem(item);
+        variant.setSku(sku);
+        variant.setColor("Black");
+        variant.setSize("M");
+        variant.setPrice(BigDecimal.valueOf(150_000));
+        variant.setStockQuantity(stock);
+        return itemVariantRepository.save(variant);
+    }
+
+    private List<JsonNode> parseLines(String body) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private JsonNode findItem(List<JsonNode> lines, Long itemId) {
+        return lines.stream()
+                .filter(node -> node.get("id").asLong() == itemId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Test
+    void export_writesOneLinePerItemWithVariantsAndStock() throws Exception {
+        Item jacket = createItem("Jacket");
+        createVariant(jacket, "JK-BLACK-M", 7);
+        createVariant(jacket, "JK-BLACK-L", 3);
+        Item empty = createItem("Socks");
+
+        String body = mockMvc.perform(get("/api/catalog/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = parseLines(body);
+
+        JsonNode jacketLine = findItem(lines, jacket.getId());
+        assertThat(jacketLine).isNotNull();
+        assertThat(jacketLine.get("name").asText()).isEqualTo("Jacket");
+        assertThat(jacketLine.get("variants")).hasSize(2);
+        assertThat(jacketLine.get("variants").get(0).get("sku").asText()).isEqualTo("JK-BLACK-M");
+        assertThat(jacketLine.get("variants").get(0).get("stockQuantity").asInt()).isEqualTo(7);
+        assertThat(jacketLine.get("variants").get(1).get("stockQuantity").asInt()).isEqualTo(3);
+
+        JsonNode emptyLine = findItem(lines, empty.getId());
+        assertThat(emptyLine).isNotNull();
+        assertThat(emptyLine.get("variants")).isEmpty();
+    }
+
+    @Test
+    void export_withGzip_compressesBody() throws Exception {
+        Item jacket = createItem("Jacket");
+        createVariant(jacket, "JK-GZ-M", 5);
+
+        byte[] compressed = mockMvc.perform(get("/api/catalog/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertThat(findItem(parseLines(body), jacket.getId())).isNotNull();
+    }
+
+    @Test
+    void export_withUpdatedSinceInFuture_skipsUnchangedItems() throws Exception {
+        Item jacket = createItem("Jacket");
+        createVariant(jacket, "JK-OLD-M", 5);
+
+        String body = mockMvc.perform(get("/api/catalog/export")
+                        .param("updatedSince", "2999-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(findItem(parseLines(body), jacket.getId())).isNull();
+    }
+}
@@ -2,6 +2,8 @@ package com.arief.warehouse.warehouse_api.controller;
 
 import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemUpdateRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,17 +12,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.*;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.arief.warehouse.warehouse_api.controller.SqlAssertions.maxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Tidak transactional: setiap request commit sendiri, jadi maxStatements hanya menghitung SQL endpoint itu
 @SpringBootTest
 @AutoConfigureMockMvc
-@Transactional
 @ActiveProfiles("test")
-class ItemControllerIntegrationTest {
+class ItemControllerIntegrationTest extends CatalogTestSupport {
 
     @Autowired
     private MockMvc mockMvc;
@@ -34,21 +40,27 @@ class ItemControllerIntegrationTest {
 
         String json = objectMapper.writeValueAsString(request);
 
-        mockMvc.perform(post("/api/items")
+        String body = mockMvc.perform(post("/api/items")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isCreated())
+                .andExpect(maxStatements(1))
                 .andExpect(header().string("Location", startsWith("/api/items/")))
                 .andExpect(jsonPath("$.id", notNullValue()))
                 .andExpect(jsonPath("$.name").value("T-Shirt"))
                 .andExpect(jsonPath("$.description").value("Basic cotton T-Shirt"))
-                .andExpect(jsonPath("$.active").value(true));
+                .andExpect(jsonPath("$.active").value(true))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        trackItem(objectMapper.readTree(body).get("id").asLong());
     }
 
     @Test
     void getItem_notFound_returns404WithErrorJson() throws Exception {
         mockMvc.perform(get("/api/items/{id}", 9999L))
                 .andExpect(status().isNotFound())
+                .andExpect(maxStatements(1))
                 .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.error").value("NOT_FOUND"))
                 .andExpect(jsonPath("$.message", containsString("Item not found")))
@@ -65,11 +77,13 @@ class ItemControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(createJson))
                 .andExpect(status().isCreated())
+                .andExpect(maxStatements(1))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
 
         Long id = objectMapper.readTree(responseBody).get("id").asLong();
+        trackItem(id);
 
         ItemUpdateRequest update = new ItemUpdateRequest("Shoes Pro", "Running shoes updated", false);
         String updateJson = objectMapper.writeValueAsString(update);
@@ -78,11 +92,101 @@ class ItemControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(updateJson))
                 .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
                 .andExpect(jsonPath("$.id").value(id))
                 .andExpect(jsonPath("$.name").value("Shoes Pro"))
                 .andExpect(jsonPath("$.active").value(false));
 
         mockMvc.perform(delete("/api/items/{id}", id))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isNoContent())
+                .andExpect(maxStatements(3));
+    }
+
+    @Test
+    void getItem_conditionalGet_returns304UntilItemChanges() throws Exception {
+        String body = mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ItemCreateRequest("Cap", null, true))))
+                .andExpect(status().isCreated())
+                .andExpect(maxStatements(1))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long id = objectMapper.readTree(body).get("id").asLong();
+        trackItem(id);
+
+        String etag = mockMvc.perform(get("/api/items/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/api/items/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(maxStatements(1))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(put("/api/items/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ItemUpdateRequest("Cap Pro", null, true))))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(2));
+
+        mockMvc.perform(get("/api/items/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.name").value("Cap Pro"));
+    }
+
+    @Test
+    void listItems_followsCursorUntilLastPage() throws Exception {
+        for (String name : List.of("Page-A", "Page-B", "Page-C")) {
+            String body = mockMvc.perform(post("/api/items")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new ItemCreateRequest(name, null, true))))
+                    .andExpect(status().isCreated())
+                    .andExpect(maxStatements(1))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            trackItem(objectMapper.readTree(body).get("id").asLong());
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/items").param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(maxStatements(2))
+                    .andExpect(jsonPath("$.items.length()", lessThanOrEqualTo(2)))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> names.add(item.get("name").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null && pages < 1000);
+
+        assertThat(names).contains("Page-A", "Page-B", "Page-C");
+        assertThat(names).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void listItems_invalidCursor_returns400() throws Exception {
+        mockMvc.perform(get("/api/items").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(maxStatements(0))
+                .andExpect(jsonPath("$.error").value("INVALID_CURSOR"));
     }
 }
@@ -3,6 +3,8 @@ package com.arief.warehouse.warehouse_api.controller;
 import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 import com.arief.warehouse.warehouse_api.exception.GlobalExceptionHandler;
 import com.arief.warehouse.warehouse_api.exception.NotFoundException;
 import com.arief.warehouse.warehouse_api.service.ItemService;
@@ -19,6 +21,8 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -65,16 +69,30 @@ class ItemControllerTest {
                 .active(true)
                 .build();
 
+        when(itemService.getVersion(1L)).thenReturn(new ResourceVersion("\"i1-100\"", 1_700_000_000_000L));
         when(itemService.getById(1L)).thenReturn(response);
 
         mockMvc.perform(get("/api/items/{id}", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"i1-100\""))
+                .andExpect(header().exists("Last-Modified"))
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getItem_shouldReturn304_withoutLoadingItem_whenEtagMatches() throws Exception {
+        when(itemService.getVersion(1L)).thenReturn(new ResourceVersion("\"i1-100\"", 1_700_000_000_000L));
+
+        mockMvc.perform(get("/api/items/{id}", 1L).header("If-None-Match", "\"i1-100\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getById(1L);
+    }
+
     @Test
     void getItem_shouldReturn404_whenNotFound() throws Exception {
-        when(itemService.getById(1L)).thenThrow(new NotFoundException("Item not found: 1"));
+        when(itemService.getVersion(1L)).thenThrow(new NotFoundException("Item not found: 1"));
 
         mockMvc.perform(get("/api/items/{id}", 1L))
                 .andExpect(status().isNotFound())
@@ -86,11 +104,17 @@ class ItemControllerTest {
         ItemResponse r1 = ItemResponse.builder().id(1L).name("A").active(true).build();
         ItemResponse r2 = ItemResponse.builder().id(2L).name("B").active(false).build();
 
-        when(itemService.getAll()).thenReturn(List.of(r1, r2));
+        when(itemService.getPageVersion(null, null)).thenReturn(ResourceVersion.builder().etag("\"ip1\"").build());
+        when(itemService.getAll(null, null)).thenReturn(PageResponse.<ItemResponse>builder()
+                .items(List.of(r1, r2))
+                .nextCursor("Mg")
+                .build());
 
         mockMvc.perform(get("/api/items"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(header().string("ETag", "\"ip1\""))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"));
     }
 
     @Test
@@ -7,10 +7,13 @@ import com.arief.warehouse.warehouse_api.entity.Item;
 import com.arief.warehouse.warehouse_api.entity.ItemVariant;
 import com.arief.warehouse.warehouse_api.entity.StockMovement;
 import com.arief.warehouse.warehouse_api.entity.StockMovementType;
-import com.arief.warehouse.warehouse_api.repository.ItemRepository;
-import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
-import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.repository.StockBucketRepository;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -18,22 +21,23 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.*;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.arief.warehouse.warehouse_api.controller.SqlAssertions.maxStatements;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Tidak transactional: setiap request commit sendiri, jadi maxStatements hanya menghitung SQL endpoint itu
 @SpringBootTest
 @AutoConfigureMockMvc
-@Transactional
 @ActiveProfiles("test")
-class ItemVariantControllerIntegrationTest {
+class ItemVariantControllerIntegrationTest extends CatalogTestSupport {
 
     @Autowired
     private MockMvc mockMvc;
@@ -42,20 +46,26 @@ class ItemVariantControllerIntegrationTest {
     private ObjectMapper objectMapper;
 
     @Autowired
-    private ItemRepository itemRepository;
+    private StockBucketRepository stockBucketRepository;
 
     @Autowired
-    private ItemVariantRepository itemVariantRepository;
+    private OutboxEventRepository outboxEventRepository;
 
     @Autowired
-    private StockMovementRepository stockMovementRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        stockBucketRepository.deleteAllInBatch();
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    private void evictSecondLevelCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
 
     private ItemVariant createVariantWithStock(int stock) {
-        Item item = new Item();
-        item.setName("Hoodie");
-        item.setDescription("Warehouse test hoodie");
-        item.setActive(true);
-        item = itemRepository.save(item);
+        Item item = createItem("Hoodie");
 
         ItemVariant variant = new ItemVariant();
         variant.setItem(item);
@@ -70,12 +80,7 @@ class ItemVariantControllerIntegrationTest {
 
     @Test
     void variantCrud_flow_create_list_update_delete() throws Exception {
-        Item item = new Item();
-        item.setName("T-Shirt");
-        item.setDescription("Integration test item");
-        item.setActive(true);
-        item = itemRepository.save(item);
-        Long itemId = item.getId();
+        Long itemId = createItem("T-Shirt").getId();
 
         String createJson = """
             {
@@ -91,6 +96,7 @@ class ItemVariantControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(createJson))
                 .andExpect(status().isCreated())
+                .andExpect(maxStatements(2))
                 .andExpect(jsonPath("$.id", notNullValue()))
                 .andExpect(jsonPath("$.itemId").value(itemId))
                 .andReturn()
@@ -101,8 +107,10 @@ class ItemVariantControllerIntegrationTest {
 
         mockMvc.perform(get("/api/items/{itemId}/variants", itemId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(variantId))
-                .andExpect(jsonPath("$[0].sku").value("TSHIRT-BLACK-M"));
+                .andExpect(maxStatements(2))
+                .andExpect(jsonPath("$.items[0].id").value(variantId))
+                .andExpect(jsonPath("$.items[0].sku").value("TSHIRT-BLACK-M"))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
 
         ItemVariantUpdateRequest updateRequest = new ItemVariantUpdateRequest(
                 "TSHIRT-BLACK-M-NEW",
@@ -116,12 +124,45 @@ class ItemVariantControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(updateJson))
                 .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
                 .andExpect(jsonPath("$.id").value(variantId))
                 .andExpect(jsonPath("$.sku").value("TSHIRT-BLACK-M-NEW"))
                 .andExpect(jsonPath("$.price").value(105_000.0));
 
         mockMvc.perform(delete("/api/variants/{id}", variantId))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isNoContent())
+                .andExpect(maxStatements(2));
+    }
+
+    @Test
+    void listVariants_statementCountDoesNotGrowWithVariants() throws Exception {
+        Item item = createItem("List item");
+        List<Long> variantIds = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            variantIds.add(createVariant(item, "LIST-" + i, 10).getId());
+        }
+
+        // Cache dikosongkan supaya setiap variant benar-benar dibaca dari DB: N+1 tidak tertutup cache
+        evictSecondLevelCache();
+        mockMvc.perform(get("/api/items/{itemId}/variants", item.getId()))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
+                .andExpect(jsonPath("$.items", hasSize(5)));
+
+        for (Long variantId : variantIds.subList(0, 2)) {
+            mockMvc.perform(put("/api/variants/{id}/stock/shards", variantId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{ \"bucketCount\": 2 }"))
+                    .andExpect(status().isOk());
+        }
+
+        // Total bucket diambil satu query untuk semua variant sharded, di validator dan di body
+        evictSecondLevelCache();
+        mockMvc.perform(get("/api/items/{itemId}/variants", item.getId()))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4))
+                .andExpect(jsonPath("$.items", hasSize(5)))
+                .andExpect(jsonPath("$.items[0].stockQuantity").value(10));
     }
 
     @Test
@@ -136,6 +177,7 @@ class ItemVariantControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk())
+                .andExpect(maxStatements(4))
                 .andExpect(content().string(isEmptyString()));
 
         ItemVariant updated = itemVariantRepository.findById(variantId).orElseThrow();
@@ -152,6 +194,36 @@ class ItemVariantControllerIntegrationTest {
         assertNotNull(movement.getCreatedAt());
     }
 
+    @Test
+    void getVariant_etagChangesAfterSell() throws Exception {
+        ItemVariant variant = createVariantWithStock(10);
+        Long variantId = variant.getId();
+
+        String etag = mockMvc.perform(get("/api/variants/{id}", variantId))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/variants/{id}", variantId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(maxStatements(1));
+
+        mockMvc.perform(post("/api/variants/{id}/sell", variantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SellRequest(1))))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4));
+
+        mockMvc.perform(get("/api/variants/{id}", variantId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(2))
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.stockQuantity").value(9));
+    }
+
     @Test
     void sellVariant_outOfStock_returns400WithErrorJson_andNoMovement() throws Exception {
         ItemVariant variant = createVariantWithStock(2);
@@ -164,6 +236,7 @@ class ItemVariantControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isBadRequest())
+                .andExpect(maxStatements(1))
                 .andExpect(jsonPath("$.status").value(400))
                 .andExpect(jsonPath("$.error").value("OUT_OF_STOCK"))
                 .andExpect(jsonPath("$.message", containsString("Not enough stock")))
@@ -188,6 +261,7 @@ class ItemVariantControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isNotFound())
+                .andExpect(maxStatements(1))
                 .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.error").value("NOT_FOUND"))
                 .andExpect(jsonPath("$.message", containsString("ItemVariant not found")))
@@ -204,6 +278,7 @@ class ItemVariantControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isBadRequest())
+                .andExpect(maxStatements(0))
                 .andExpect(jsonPath("$.status").value(400))
                 .andExpect(jsonPath("$.error").value("VALIDATION_ERROR"))
                 .andExpect(jsonPath("$.message").value("Request validation failed"))
@@ -222,7 +297,8 @@ class ItemVariantControllerIntegrationTest {
         mockMvc.perform(post("/api/variants/{id}/stock/adjust", variantId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4));
 
         ItemVariant updated = itemVariantRepository.findById(variantId).orElseThrow();
         assertEquals(15, updated.getStockQuantity());
@@ -239,7 +315,7 @@ class ItemVariantControllerIntegrationTest {
     }
 
     @Test
-    void getMovements_afterSell_returnsJsonArrayWithCorrectFields() throws Exception {
+    void getMovements_afterSell_returnsPageWithCorrectFields() throws Exception {
         ItemVariant variant = createVariantWithStock(8);
         Long variantId = variant.getId();
 
@@ -249,15 +325,194 @@ class ItemVariantControllerIntegrationTest {
         mockMvc.perform(post("/api/variants/{id}/sell", variantId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4));
 
         mockMvc.perform(get("/api/variants/{id}/movements", variantId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].id", notNullValue()))
-                .andExpect(jsonPath("$[0].type").value("OUT"))
-                .andExpect(jsonPath("$[0].quantityChange").value(-3))
-                .andExpect(jsonPath("$[0].reason").value("SALE"))
-                .andExpect(jsonPath("$[0].createdAt", notNullValue()));
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", notNullValue()))
+                .andExpect(jsonPath("$.items[0].variantId").value(variantId))
+                .andExpect(jsonPath("$.items[0].type").value("OUT"))
+                .andExpect(jsonPath("$.items[0].quantityChange").value(-3))
+                .andExpect(jsonPath("$.items[0].reason").value("SALE"))
+                .andExpect(jsonPath("$.items[0].createdAt", notNullValue()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getMovements_withLimit_pagesNewestFirst() throws Exception {
+        ItemVariant variant = createVariantWithStock(10);
+        Long variantId = variant.getId();
+
+        for (int qty = 1; qty <= 2; qty++) {
+            mockMvc.perform(post("/api/variants/{id}/sell", variantId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new SellRequest(qty))))
+                    .andExpect(status().isOk())
+                    .andExpect(maxStatements(4));
+        }
+
+        String firstPage = mockMvc.perform(get("/api/variants/{id}/movements", variantId)
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].quantityChange").value(-2))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/variants/{id}/movements", variantId)
+                        .param("limit", "1")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].quantityChange").value(-1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/variants/{id}/movements", variantId)
+                        .param("to", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    void skuEndpoints_createThenLookupAndSellBySku() throws Exception {
+        Item item = createItem("Scanner item");
+
+        String createJson = """
+            {
+              "sku": "SCAN-001",
+              "price": 15000.0,
+              "initialStock": 5
+            }
+            """;
+        mockMvc.perform(post("/api/items/{itemId}/variants", item.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createJson))
+                .andExpect(status().isCreated())
+                .andExpect(maxStatements(2));
+
+        mockMvc.perform(get("/api/skus/{sku}", "SCAN-001"))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.sku").value("SCAN-001"))
+                .andExpect(jsonPath("$.stockQuantity").value(5));
+
+        mockMvc.perform(post("/api/skus/{sku}/sell", "SCAN-001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SellRequest(2))))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4));
+
+        mockMvc.perform(get("/api/skus/{sku}", "SCAN-001"))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.stockQuantity").value(3));
+
+        mockMvc.perform(get("/api/skus/{sku}", "NO-SUCH-SKU"))
+                .andExpect(status().isNotFound())
+                .andExpect(maxStatements(1));
+    }
+
+    @Test
+    void checkout_multipleLines_sellsAllInOneRequest() throws Exception {
+        ItemVariant variant = createVariantWithStock(10);
+        Long variantId = variant.getId();
+
+        String json = """
+            {
+              "lines": [
+                { "variantId": %d, "quantity": 2 },
+                { "variantId": %d, "quantity": 3 }
+              ]
+            }
+            """.formatted(variantId, variantId);
+
+        mockMvc.perform(post("/api/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4))
+                .andExpect(jsonPath("$.lines", hasSize(2)))
+                .andExpect(jsonPath("$.lines[0].status").value("OK"))
+                .andExpect(jsonPath("$.lines[1].availableStock").value(5));
+
+        ItemVariant updated = itemVariantRepository.findById(variantId).orElseThrow();
+        assertEquals(5, updated.getStockQuantity());
+        assertEquals(2, stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variantId).size());
+    }
+
+    @Test
+    void checkout_lineOutOfStock_returns400WithPerLineDetails_andWritesNothing() throws Exception {
+        ItemVariant variant = createVariantWithStock(4);
+        Long variantId = variant.getId();
+
+        String json = """
+            {
+              "lines": [
+                { "variantId": %d, "quantity": 3 },
+                { "variantId": %d, "quantity": 2 }
+              ]
+            }
+            """.formatted(variantId, variantId);
+
+        mockMvc.perform(post("/api/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isBadRequest())
+                .andExpect(maxStatements(1))
+                .andExpect(jsonPath("$.error").value("CHECKOUT_FAILED"))
+                .andExpect(jsonPath("$.details", hasSize(2)))
+                .andExpect(jsonPath("$.details[1]", containsString("OUT_OF_STOCK")));
+
+        ItemVariant after = itemVariantRepository.findById(variantId).orElseThrow();
+        assertEquals(4, after.getStockQuantity());
+        assertEquals(0, stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variantId).size());
+    }
+
+    @Test
+    void shardedStock_sellsAcrossBuckets_andReadsSumOfBuckets() throws Exception {
+        ItemVariant variant = createVariantWithStock(10);
+        Long variantId = variant.getId();
+
+        mockMvc.perform(put("/api/variants/{id}/stock/shards", variantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"bucketCount\": 4 }"))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(8))
+                .andExpect(jsonPath("$.stockQuantity").value(10));
+
+        // 7 > isi bucket mana pun, harus digabung dari beberapa bucket
+        mockMvc.perform(post("/api/variants/{id}/sell", variantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SellRequest(7))))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(8));
+
+        mockMvc.perform(get("/api/variants/{id}", variantId))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4))
+                .andExpect(jsonPath("$.stockQuantity").value(3));
+
+        mockMvc.perform(post("/api/variants/{id}/sell", variantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SellRequest(5))))
+                .andExpect(status().isBadRequest())
+                .andExpect(maxStatements(5))
+                .andExpect(jsonPath("$.error").value("OUT_OF_STOCK"));
+
+        mockMvc.perform(delete("/api/variants/{id}/stock/shards", variantId))
+                .andExpect(status().isOk())
+                .andExpect(maxStatements(4))
+                .andExpect(jsonPath("$.stockQuantity").value(3));
+
+        ItemVariant after = itemVariantRepository.findById(variantId).orElseThrow();
+        assertEquals(3, after.getStockQuantity());
+        assertEquals(0, after.getBucketCount());
     }
 }
@@ -2,12 +2,19 @@ package com.arief.warehouse.warehouse_api.controller;
 
 import com.arief.warehouse.warehouse_api.dto.ItemVariantCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
+import com.arief.warehouse.warehouse_api.dto.ResourceVersion;
 import com.arief.warehouse.warehouse_api.dto.SellRequest;
-import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.dto.StockMovementResponse;
+import com.arief.warehouse.warehouse_api.dto.StockShardRequest;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
 import com.arief.warehouse.warehouse_api.exception.GlobalExceptionHandler;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
 import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
-import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.exception.StockOperationUnavailableException;
 import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.StockMovementService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -15,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -39,7 +47,7 @@ class ItemVariantControllerTest {
     private ItemVariantService itemVariantService;
 
     @MockitoBean
-    private StockMovementRepository stockMovementRepository;
+    private StockMovementService stockMovementService;
 
     @Test
     void createVariant_shouldReturn201WithBody() throws Exception {
@@ -92,14 +100,18 @@ class ItemVariantControllerTest {
                 .sku("TSHIRT-BLACK-L")
                 .build();
 
-        Mockito.when(itemVariantService.getVariantsByItem(itemId))
-                .thenReturn(List.of(v1, v2));
+        Mockito.when(itemVariantService.getVariantPageVersion(itemId, null, 2))
+                .thenReturn(ResourceVersion.builder().etag("\"vp1-abc\"").build());
+        Mockito.when(itemVariantService.getVariantsByItem(itemId, null, 2))
+                .thenReturn(PageResponse.<ItemVariantResponse>builder()
+                        .items(List.of(v1, v2))
+                        .build());
 
-        mockMvc.perform(get("/api/items/{itemId}/variants", itemId))
+        mockMvc.perform(get("/api/items/{itemId}/variants", itemId).param("limit", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(10L))
-                .andExpect(jsonPath("$[1].id").value(11L));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(10L))
+                .andExpect(jsonPath("$.items[1].id").value(11L));
     }
 
     @Test
@@ -130,15 +142,58 @@ class ItemVariantControllerTest {
     }
 
     @Test
-    void getMovements_shouldReturn200WithList() throws Exception {
-        StockMovement m = new StockMovement();
-        m.setId(1L);
+    void getMovements_shouldReturn200WithPage() throws Exception {
+        StockMovementResponse m = StockMovementResponse.builder()
+                .id(1L)
+                .variantId(1L)
+                .build();
 
-        Mockito.when(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(1L))
-                .thenReturn(List.of(m));
+        Mockito.when(stockMovementService.getMovements(eq(1L), isNull(), isNull(), isNull(), isNull()))
+                .thenReturn(PageResponse.<StockMovementResponse>builder()
+                        .items(List.of(m))
+                        .nextCursor("next")
+                        .build());
 
         mockMvc.perform(get("/api/variants/{id}/movements", 1L))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void shardStock_shouldReturn409_whenVariantHasReservations() throws Exception {
+        Mockito.when(itemVariantService.shardStock(anyLong(), anyInt()))
+                .thenThrow(new StockOperationUnavailableException("Variant 1 has active reservations"));
+
+        mockMvc.perform(put("/api/variants/{id}/stock/shards", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockShardRequest(4))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("STOCK_OPERATION_UNAVAILABLE"));
+    }
+
+    @Test
+    void shardStock_shouldReturn400_whenBucketCountAboveMax() throws Exception {
+        Mockito.when(itemVariantService.shardStock(anyLong(), anyInt()))
+                .thenThrow(new InvalidRequestException("Bucket count must be between 1 and 64"));
+
+        mockMvc.perform(put("/api/variants/{id}/stock/shards", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockShardRequest(1000))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_REQUEST"));
+    }
+
+    @Test
+    void updateVariant_shouldReturn409_whenVersionChangedConcurrently() throws Exception {
+        Mockito.when(itemVariantService.updateVariant(anyLong(), any(ItemVariantUpdateRequest.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ItemVariant.class, 1L));
+
+        mockMvc.perform(put("/api/variants/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ItemVariantUpdateRequest(
+                                "TSHIRT-BLACK-M", "Black", "M", BigDecimal.valueOf(99_000)))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("VERSION_CONFLICT"));
     }
 }
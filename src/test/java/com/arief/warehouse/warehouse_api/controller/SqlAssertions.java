@@ -0,0 +1,41 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.config.SqlTracker;
+import com.arief.warehouse.warehouse_api.config.SqlTrackingFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batas jumlah SQL per request untuk MockMvc, supaya regresi N+1 ketahuan di test endpoint.
+ * <p>
+ * Dibaca dari stats yang disimpan SqlTrackingFilter di request, jadi tidak butuh header X-Sql-*.
+ * Test pemakainya tidak @Transactional: setiap request commit sendiri seperti di produksi, jadi batasnya
+ * adalah jumlah SQL endpoint itu sendiri. Pengambilan sequence (pooled, sekali per 50 id) tidak dihitung
+ * karena request mana yang kebagian tergantung urutan test.
+ */
+final class SqlAssertions {
+
+    private static final Pattern SEQUENCE_CALL = Pattern.compile("(?i)next value for|nextval\\(");
+
+    private SqlAssertions() {
+    }
+
+    static ResultMatcher maxStatements(int max) {
+        return result -> {
+            HttpServletRequest request = result.getRequest();
+            SqlTracker.Stats stats = (SqlTracker.Stats) request.getAttribute(SqlTrackingFilter.STATS_ATTRIBUTE);
+            assertThat(stats).as("SQL tracking stats (is warehouse.sql-tracking enabled?)").isNotNull();
+            long sequenceCalls = stats.getCapturedStatements().stream()
+                    .filter(sql -> SEQUENCE_CALL.matcher(sql).find())
+                    .count();
+            assertThat(stats.getStatements() - sequenceCalls)
+                    .as("SQL statements for %s %s:\n  %s", request.getMethod(), request.getRequestURI(),
+                            String.join("\n  ", stats.getCapturedStatements()))
+                    .isLessThanOrEqualTo(max);
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.repository.ItemRepository;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Event dikirim setelah commit, jadi test ini tidak transactional dan membersihkan datanya sendiri
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StockEventControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemVariantRepository itemVariantRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (Long itemId : itemIds) {
+            for (ItemVariant variant : itemVariantRepository.findByItemId(itemId)) {
+                stockMovementRepository.deleteAll(
+                        stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId()));
+            }
+            itemRepository.deleteById(itemId);
+        }
+    }
+
+    @Test
+    void subscribe_byVariant_receivesCommittedChangesOfThatVariantOnly() throws Exception {
+        ItemVariant watched = createVariant("SSE-WATCHED", 10);
+        ItemVariant other = createVariant("SSE-OTHER", 10);
+
+        MvcResult result = mockMvc.perform(get("/api/stock-events").param("variantIds", watched.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        itemVariantService.sell(other.getId(), 1);
+        // Rollback: tidak boleh ada event
+        assertThatThrownBy(() -> itemVariantService.sell(watched.getId(), 99))
+                .isInstanceOf(OutOfStockException.class);
+        itemVariantService.sell(watched.getId(), 3);
+        itemVariantService.adjustStock(watched.getId(), 5, "RESTOCK");
+
+        String body = awaitContent(response, "\"stockQuantity\":12");
+
+        assertThat(body).contains("event:stock-change");
+        assertThat(body).contains("\"variantId\":" + watched.getId());
+        assertThat(body).doesNotContain("\"variantId\":" + other.getId());
+        assertThat(body).doesNotContain("\"quantityChange\":-99");
+    }
+
+    @Test
+    void subscribe_byItem_receivesChangesOfItsVariants() throws Exception {
+        ItemVariant variant = createVariant("SSE-ITEM", 10);
+
+        MvcResult result = mockMvc.perform(get("/api/stock-events")
+                        .param("itemIds", variant.getItem().getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        itemVariantService.sell(variant.getId(), 4);
+
+        String body = awaitContent(result.getResponse(), "\"stockQuantity\":6");
+        assertThat(body).contains("\"quantityChange\":-4").contains("\"type\":\"OUT\"");
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = response.getContentAsString(StandardCharsets.UTF_8);
+        }
+        assertThat(body).contains(expected);
+        return body;
+    }
+
+    private ItemVariant createVariant(String sku, int stock) {
+        Item item = new Item();
+        item.setName("Events " + sku);
+        item.setActive(true);
+        item = itemRepository.save(item);
+        itemIds.add(item.getId());
+
+        ItemVariant variant = new ItemVariant();
+        variant.setItem(item);
+        variant.setSku(sku);
+        variant.setPrice(BigDecimal.valueOf(10_000));
+        variant.setStockQuantity(stock);
+        return itemVariantRepository.save(variant);
+    }
+}
@@ -0,0 +1,148 @@
+package com.arief.warehouse.warehouse_api.controller;
+
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.repository.ItemRepository;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+class VariantBulkControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemVariantRepository itemVariantRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    private Item createItem() {
+        Item item = new Item();
+        item.setName("Cap");
+        item.setDescription("Bulk test item");
+        item.setActive(true);
+        return itemRepository.save(item);
+    }
+
+    private ItemVariant findBySku(Long itemId, String sku) {
+        return itemVariantRepository.findByItemId(itemId).stream()
+                .filter(variant -> variant.getSku().equals(sku))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void upsertCsv_createsAndUpdatesBySku_andReportsBadRows() throws Exception {
+        Item item = createItem();
+
+        ItemVariant existing = new ItemVariant();
+        existing.setItem(item);
+        existing.setSku("CAP-RED");
+        existing.setColor("Red");
+        existing.setPrice(BigDecimal.valueOf(50_000));
+        existing.setStockQuantity(10);
+        existing = itemVariantRepository.saveAndFlush(existing);
+
+        String csv = """
+                itemId,sku,color,size,price,stockQuantity
+                %d,CAP-RED,Red,L,55000,4
+                %d,CAP-BLUE,"Blue, Navy",M,60000,8
+                %d,,Green,M,60000,1
+                9999999,CAP-GHOST,Gray,M,60000,1
+                %d,CAP-BAD,Black,M,not-a-number,1
+                """.formatted(item.getId(), item.getId(), item.getId(), item.getId());
+
+        mockMvc.perform(post("/api/variants/bulk")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(5))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[1].sku").value("CAP-GHOST"))
+                .andExpect(jsonPath("$.errors[2].line").value(6))
+                .andExpect(jsonPath("$.errorsTruncated").value(false));
+
+        ItemVariant updated = findBySku(item.getId(), "CAP-RED");
+        assertThat(updated.getId()).isEqualTo(existing.getId());
+        assertThat(updated.getSize()).isEqualTo("L");
+        assertThat(updated.getPrice()).isEqualByComparingTo("55000");
+        assertThat(updated.getStockQuantity()).isEqualTo(4);
+
+        ItemVariant created = findBySku(item.getId(), "CAP-BLUE");
+        assertThat(created.getColor()).isEqualTo("Blue, Navy");
+        assertThat(created.getStockQuantity()).isEqualTo(8);
+
+        // Perubahan stok lewat bulk tetap tercatat sebagai movement
+        List<StockMovement> movements = stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(existing.getId());
+        assertThat(movements).hasSize(1);
+        assertThat(movements.get(0).getType()).isEqualTo(StockMovementType.ADJUSTMENT);
+        assertThat(movements.get(0).getQuantityChange()).isEqualTo(-6);
+    }
+
+    @Test
+    void upsertNdjson_withoutStock_keepsExistingStock() throws Exception {
+        Item item = createItem();
+
+        String first = """
+                {"itemId": %d, "sku": "CAP-ND", "color": "White", "price": 40000, "stockQuantity": 12}
+                """.formatted(item.getId());
+        mockMvc.perform(post("/api/variants/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(first))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+
+        String second = """
+                {"itemId": %d, "sku": "CAP-ND", "color": "Ivory", "price": 42000}
+                {"itemId": %d, "sku": "CAP-ND-2", "price": -1}
+                """.formatted(item.getId(), item.getId());
+        mockMvc.perform(post("/api/variants/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].sku").value("CAP-ND-2"));
+
+        ItemVariant variant = findBySku(item.getId(), "CAP-ND");
+        assertThat(variant.getColor()).isEqualTo("Ivory");
+        assertThat(variant.getStockQuantity()).isEqualTo(12);
+    }
+
+    @Test
+    void upsertCsv_missingRequiredColumn_returns400() throws Exception {
+        mockMvc.perform(post("/api/variants/bulk")
+                        .contentType("text/csv")
+                        .content("sku,price\nCAP-X,1000\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_UPLOAD"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void advance_firesOnlyDueTimers_neverBeforeDeadline() {
+        HashedTimingWheel wheel = new HashedTimingWheel(10, 8, 0);
+        wheel.schedule(1L, 25);
+        wheel.schedule(2L, 40);
+        // Lebih jauh dari satu putaran (8 x 10ms), jatuh di slot yang sama dengan deadline 25
+        wheel.schedule(3L, 105);
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(29, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(30, expired::add);
+        assertThat(expired).containsExactly(1L);
+
+        wheel.advance(100, expired::add);
+        assertThat(expired).containsExactly(1L, 2L);
+        assertThat(wheel.pending()).isEqualTo(1);
+
+        wheel.advance(110, expired::add);
+        assertThat(expired).containsExactly(1L, 2L, 3L);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void cancelledTimer_isDroppedWithoutFiring() {
+        HashedTimingWheel wheel = new HashedTimingWheel(10, 8, 0);
+        HashedTimingWheel.Timeout cancelledBeforeTransfer = wheel.schedule(1L, 20);
+        HashedTimingWheel.Timeout cancelledInWheel = wheel.schedule(2L, 50);
+        List<Long> expired = new ArrayList<>();
+
+        cancelledBeforeTransfer.cancel();
+        wheel.advance(10, expired::add);
+        cancelledInWheel.cancel();
+        wheel.advance(200, expired::add);
+
+        assertThat(expired).isEmpty();
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void pastDeadline_firesOnNextTick() {
+        HashedTimingWheel wheel = new HashedTimingWheel(10, 8, 0);
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(500, expired::add);
+
+        wheel.schedule(1L, 100);
+        wheel.advance(510, expired::add);
+
+        assertThat(expired).containsExactly(1L);
+    }
+
+    @Test
+    void manyTimers_allFireOnce() {
+        HashedTimingWheel wheel = new HashedTimingWheel(1, 64, 0);
+        int timers = 100_000;
+        for (int i = 0; i < timers; i++) {
+            wheel.schedule(i, i % 5_000);
+        }
+        List<Long> expired = new ArrayList<>();
+
+        wheel.advance(5_000, expired::add);
+
+        assertThat(expired).hasSize(timers).doesNotHaveDuplicates();
+        assertThat(wheel.pending()).isZero();
+    }
+}
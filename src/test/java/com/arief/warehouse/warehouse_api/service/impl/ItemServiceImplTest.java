@@ -1,14 +1,17 @@
 package com.arief.warehouse.warehouse_api.service.impl;
 
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
 import com.arief.warehouse.warehouse_api.dto.ItemCreateRequest;
 import com.arief.warehouse.warehouse_api.dto.ItemResponse;
 import com.arief.warehouse.warehouse_api.dto.ItemUpdateRequest;
+import com.arief.warehouse.warehouse_api.dto.PageResponse;
 import com.arief.warehouse.warehouse_api.entity.Item;
 import com.arief.warehouse.warehouse_api.exception.NotFoundException;
 import com.arief.warehouse.warehouse_api.repository.ItemRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,7 +28,7 @@ class ItemServiceImplTest {
     @BeforeEach
     void setUp() {
         itemRepository = mock(ItemRepository.class);
-        itemService = new ItemServiceImpl(itemRepository);
+        itemService = new ItemServiceImpl(itemRepository, new PaginationProperties(), mock(SkuIndex.class));
     }
 
     @Test
@@ -76,7 +79,7 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void getAll_shouldReturnListOfItems() {
+    void getAll_shouldReturnFirstPageOfItems() {
         Item i1 = new Item();
         i1.setId(1L);
         i1.setName("Item A");
@@ -87,12 +90,42 @@ class ItemServiceImplTest {
         i2.setName("Item B");
         i2.setActive(false);
 
-        when(itemRepository.findAll()).thenReturn(List.of(i1, i2));
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(i1, i2));
 
-        List<ItemResponse> result = itemService.getAll();
+        PageResponse<ItemResponse> result = itemService.getAll(null, null);
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getName()).isEqualTo("Item A");
+        assertThat(result.getItems()).hasSize(2);
+        assertThat(result.getItems().get(0).getName()).isEqualTo("Item A");
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAll_shouldReturnCursorOfLastItem_whenMorePagesExist_andResumeAfterIt() {
+        Item i1 = new Item();
+        i1.setId(1L);
+        i1.setName("Item A");
+
+        Item i2 = new Item();
+        i2.setId(2L);
+        i2.setName("Item B");
+
+        Item i3 = new Item();
+        i3.setId(3L);
+        i3.setName("Item C");
+
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(i1, i2, i3));
+
+        PageResponse<ItemResponse> first = itemService.getAll(null, 2);
+
+        assertThat(first.getItems()).extracting(ItemResponse::getId).containsExactly(1L, 2L);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(List.of(i3));
+
+        PageResponse<ItemResponse> second = itemService.getAll(first.getNextCursor(), 2);
+
+        assertThat(second.getItems()).extracting(ItemResponse::getId).containsExactly(3L);
+        assertThat(second.getNextCursor()).isNull();
     }
 
     @Test
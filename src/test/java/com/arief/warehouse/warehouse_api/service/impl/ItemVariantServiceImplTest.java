@@ -1,18 +1,37 @@
 package com.arief.warehouse.warehouse_api.service.impl;
 
+import com.arief.warehouse.warehouse_api.config.PaginationProperties;
+import com.arief.warehouse.warehouse_api.config.StockLockStrategy;
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineRequest;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineResult;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineStatus;
+import com.arief.warehouse.warehouse_api.dto.CheckoutResponse;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantUpdateRequest;
 import com.arief.warehouse.warehouse_api.entity.Item;
 import com.arief.warehouse.warehouse_api.entity.ItemVariant;
 import com.arief.warehouse.warehouse_api.entity.StockMovement;
 import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.CheckoutFailedException;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
 import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.StockConflictException;
 import com.arief.warehouse.warehouse_api.repository.ItemRepository;
 import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
 import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import com.arief.warehouse.warehouse_api.service.StockEventService;
+import com.arief.warehouse.warehouse_api.service.StockShardService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +43,9 @@ class ItemVariantServiceImplTest {
     private ItemRepository itemRepository;
     private ItemVariantRepository itemVariantRepository;
     private StockMovementRepository stockMovementRepository;
+    private StockProperties stockProperties;
+    private StockShardService stockShardService;
+    private SkuIndex skuIndex;
     private ItemVariantServiceImpl itemVariantService;
 
     @BeforeEach
@@ -31,23 +53,40 @@ class ItemVariantServiceImplTest {
         itemRepository = mock(ItemRepository.class);
         itemVariantRepository = mock(ItemVariantRepository.class);
         stockMovementRepository = mock(StockMovementRepository.class);
+        stockProperties = new StockProperties();
+        stockShardService = mock(StockShardService.class);
+        skuIndex = new SkuIndex(itemVariantRepository);
 
         itemVariantService = new ItemVariantServiceImpl(
                 itemRepository,
                 itemVariantRepository,
-                stockMovementRepository
+                new StockMovementWriter(stockMovementRepository, mock(StockOutbox.class), mock(MovementJournal.class)),
+                stockProperties,
+                new PaginationProperties(),
+                mock(SellCombiner.class),
+                new OptimisticStockRetrier(stockProperties),
+                stockShardService,
+                skuIndex,
+                mock(StockEventService.class),
+                mock(StockLedger.class),
+                new StockMetrics(new SimpleMeterRegistry(), stockProperties),
+                TransactionOperations.withoutTransaction()
         );
     }
 
     private ItemVariant buildVariant(int stockQuantity) {
+        return buildVariant(1L, "TSHIRT-BLACK-M", stockQuantity);
+    }
+
+    private ItemVariant buildVariant(Long id, String sku, int stockQuantity) {
         Item item = new Item();
         item.setId(1L);
         item.setName("T-Shirt");
 
         ItemVariant variant = new ItemVariant();
-        variant.setId(1L);
+        variant.setId(id);
         variant.setItem(item);
-        variant.setSku("TSHIRT-BLACK-M");
+        variant.setSku(sku);
         variant.setColor("Black");
         variant.setSize("M");
         variant.setPrice(new BigDecimal("99000"));
@@ -102,6 +141,79 @@ class ItemVariantServiceImplTest {
         verify(stockMovementRepository, never()).save(any());
     }
 
+    @Test
+    void sell_shouldNotSellReservedStock() {
+        Long variantId = 1L;
+        ItemVariant variant = buildVariant(10);
+        variant.setReservedQuantity(8);
+
+        when(itemVariantRepository.findByIdForUpdate(variantId))
+                .thenReturn(Optional.of(variant));
+
+        OutOfStockException ex = assertThrows(
+                OutOfStockException.class,
+                () -> itemVariantService.sell(variantId, 3)
+        );
+
+        // Yang tersedia hanya stok di luar reservasi
+        assertThat(ex.getAvailable()).isEqualTo(2);
+        assertThat(variant.getStockQuantity()).isEqualTo(10);
+        verify(stockMovementRepository, never()).save(any());
+    }
+
+    @Test
+    void sellBySku_shouldResolveFromIndex_withoutSkuQuery() {
+        ItemVariant variant = buildVariant(10);
+        skuIndex.put("TSHIRT-BLACK-M", 1L);
+
+        when(itemVariantRepository.findByIdForUpdate(1L))
+                .thenReturn(Optional.of(variant));
+
+        itemVariantService.sellBySku("TSHIRT-BLACK-M", 4);
+
+        assertThat(variant.getStockQuantity()).isEqualTo(6);
+        verify(itemVariantRepository, never()).findBySku(any());
+    }
+
+    @Test
+    void sellBySku_shouldFallBackToDatabase_andCacheId_onIndexMiss() {
+        ItemVariant variant = buildVariant(10);
+
+        when(itemVariantRepository.findBySku("TSHIRT-BLACK-M"))
+                .thenReturn(Optional.of(variant));
+        when(itemVariantRepository.findByIdForUpdate(1L))
+                .thenReturn(Optional.of(variant));
+
+        itemVariantService.sellBySku("TSHIRT-BLACK-M", 1);
+
+        assertThat(skuIndex.find("TSHIRT-BLACK-M")).isEqualTo(1L);
+    }
+
+    @Test
+    void sellBySku_shouldThrowNotFound_whenSkuUnknown() {
+        when(itemVariantRepository.findBySku("UNKNOWN")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemVariantService.sellBySku("UNKNOWN", 1));
+    }
+
+    @Test
+    void updateVariant_shouldMoveIndexEntry_whenSkuChanges() {
+        ItemVariant variant = buildVariant(10);
+        skuIndex.put("TSHIRT-BLACK-M", 1L);
+
+        when(itemVariantRepository.findById(1L)).thenReturn(Optional.of(variant));
+        when(itemVariantRepository.updateDetails(eq(1L), eq("TSHIRT-BLACK-L"), eq("Black"), eq("L"),
+                eq(new BigDecimal("99000")), any(Instant.class))).thenReturn(1);
+
+        itemVariantService.updateVariant(1L, new ItemVariantUpdateRequest(
+                "TSHIRT-BLACK-L", "Black", "L", new BigDecimal("99000")));
+
+        assertThat(skuIndex.find("TSHIRT-BLACK-M")).isEqualTo(SkuIndex.NOT_FOUND);
+        assertThat(skuIndex.find("TSHIRT-BLACK-L")).isEqualTo(1L);
+        // Stok tidak ikut ditulis
+        verify(itemVariantRepository, never()).save(any(ItemVariant.class));
+    }
+
     @Test
     void adjustStock_shouldIncreaseStock_andCreateAdjustmentMovement() {
         Long variantId = 1L;
@@ -148,4 +260,176 @@ class ItemVariantServiceImplTest {
         verify(itemVariantRepository, never()).save(any());
         verify(stockMovementRepository, never()).save(any());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkout_shouldDecrementAllVariants_andCreateOneMovementPerLine() {
+        ItemVariant black = buildVariant(1L, "TSHIRT-BLACK-M", 10);
+        ItemVariant white = buildVariant(2L, "TSHIRT-WHITE-M", 4);
+
+        when(itemVariantRepository.findAllByIdForUpdate(any()))
+                .thenReturn(List.of(black, white));
+
+        CheckoutResponse response = itemVariantService.checkout(List.of(
+                new CheckoutLineRequest(2L, 1),
+                new CheckoutLineRequest(1L, 3),
+                new CheckoutLineRequest(2L, 2)
+        ));
+
+        assertThat(black.getStockQuantity()).isEqualTo(7);
+        assertThat(white.getStockQuantity()).isEqualTo(1);
+        assertThat(response.getLines())
+                .extracting(CheckoutLineResult::getStatus)
+                .containsOnly(CheckoutLineStatus.OK);
+        assertThat(response.getLines().get(2).getAvailableStock()).isEqualTo(1);
+
+        ArgumentCaptor<List<StockMovement>> movementCaptor = ArgumentCaptor.forClass(List.class);
+        verify(stockMovementRepository).saveAll(movementCaptor.capture());
+        assertThat(movementCaptor.getValue())
+                .extracting(StockMovement::getQuantityChange)
+                .containsExactly(-1, -3, -2);
+    }
+
+    @Test
+    void checkout_shouldRejectWholeCart_whenAnyLineCannotBeFulfilled() {
+        ItemVariant black = buildVariant(1L, "TSHIRT-BLACK-M", 10);
+        ItemVariant white = buildVariant(2L, "TSHIRT-WHITE-M", 1);
+
+        when(itemVariantRepository.findAllByIdForUpdate(any()))
+                .thenReturn(List.of(black, white));
+
+        CheckoutFailedException ex = assertThrows(
+                CheckoutFailedException.class,
+                () -> itemVariantService.checkout(List.of(
+                        new CheckoutLineRequest(1L, 3),
+                        new CheckoutLineRequest(2L, 2),
+                        new CheckoutLineRequest(99L, 1)
+                ))
+        );
+
+        assertThat(ex.getLines())
+                .extracting(CheckoutLineResult::getStatus)
+                .containsExactly(CheckoutLineStatus.OK, CheckoutLineStatus.OUT_OF_STOCK, CheckoutLineStatus.NOT_FOUND);
+
+        // tidak ada yang ditulis sama sekali
+        assertThat(black.getStockQuantity()).isEqualTo(10);
+        assertThat(white.getStockQuantity()).isEqualTo(1);
+        verify(itemVariantRepository, never()).saveAll(any());
+        verify(stockMovementRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void sell_conditionalUpdate_shouldDecrementWithoutLock_andCreateOutMovement() {
+        stockProperties.setStrategy(StockLockStrategy.CONDITIONAL_UPDATE);
+        Long variantId = 1L;
+        ItemVariant reference = buildVariant(10);
+
+        when(itemVariantRepository.applyStockDelta(eq(variantId), eq(-3), any()))
+                .thenReturn(1);
+        when(itemVariantRepository.getReferenceById(variantId))
+                .thenReturn(reference);
+
+        itemVariantService.sell(variantId, 3);
+
+        verify(itemVariantRepository, never()).findByIdForUpdate(any());
+        verify(itemVariantRepository, never()).save(any());
+
+        ArgumentCaptor<StockMovement> movementCaptor = ArgumentCaptor.forClass(StockMovement.class);
+        verify(stockMovementRepository).save(movementCaptor.capture());
+        assertThat(movementCaptor.getValue().getVariant()).isEqualTo(reference);
+        assertThat(movementCaptor.getValue().getType()).isEqualTo(StockMovementType.OUT);
+        assertThat(movementCaptor.getValue().getQuantityChange()).isEqualTo(-3);
+    }
+
+    @Test
+    void sell_conditionalUpdate_shouldThrowOutOfStock_whenNoRowUpdated() {
+        stockProperties.setStrategy(StockLockStrategy.CONDITIONAL_UPDATE);
+        Long variantId = 1L;
+
+        when(itemVariantRepository.applyStockDelta(eq(variantId), eq(-5), any()))
+                .thenReturn(0);
+        when(itemVariantRepository.findAvailableQuantityById(variantId))
+                .thenReturn(Optional.of(2));
+
+        OutOfStockException ex = assertThrows(
+                OutOfStockException.class,
+                () -> itemVariantService.sell(variantId, 5)
+        );
+
+        assertThat(ex.getRequested()).isEqualTo(5);
+        assertThat(ex.getAvailable()).isEqualTo(2);
+        verify(stockMovementRepository, never()).save(any());
+    }
+
+    @Test
+    void adjustStock_conditionalUpdate_shouldThrowNotFound_whenVariantMissing() {
+        stockProperties.setStrategy(StockLockStrategy.CONDITIONAL_UPDATE);
+
+        when(itemVariantRepository.applyStockDelta(eq(99L), eq(-1), any()))
+                .thenReturn(0);
+        when(itemVariantRepository.findAvailableQuantityById(99L))
+                .thenReturn(Optional.empty());
+
+        assertThrows(
+                NotFoundException.class,
+                () -> itemVariantService.adjustStock(99L, -1, "CORRECTION")
+        );
+        verify(stockMovementRepository, never()).save(any());
+    }
+
+    @Test
+    void sell_shardedVariant_shouldTakeFromBuckets_andSkipVariantRow() {
+        Long variantId = 1L;
+        ItemVariant reference = buildVariant(0);
+
+        when(stockShardService.applyChange(variantId, -2)).thenReturn(true);
+        when(itemVariantRepository.getReferenceById(variantId)).thenReturn(reference);
+
+        itemVariantService.sell(variantId, 2);
+
+        verify(itemVariantRepository, never()).findByIdForUpdate(any());
+        verify(itemVariantRepository, never()).applyStockDelta(any(), anyInt(), any());
+
+        ArgumentCaptor<StockMovement> movementCaptor = ArgumentCaptor.forClass(StockMovement.class);
+        verify(stockMovementRepository).save(movementCaptor.capture());
+        assertThat(movementCaptor.getValue().getQuantityChange()).isEqualTo(-2);
+    }
+
+    @Test
+    void sell_optimistic_shouldReadWithoutLock_andFlushVersionedUpdate() {
+        stockProperties.setStrategy(StockLockStrategy.OPTIMISTIC);
+        Long variantId = 1L;
+        ItemVariant variant = buildVariant(10);
+
+        when(itemVariantRepository.findById(variantId)).thenReturn(Optional.of(variant));
+        when(itemVariantRepository.saveAndFlush(variant)).thenReturn(variant);
+
+        itemVariantService.sell(variantId, 4);
+
+        assertThat(variant.getStockQuantity()).isEqualTo(6);
+        verify(itemVariantRepository, never()).findByIdForUpdate(any());
+        verify(stockMovementRepository).save(any(StockMovement.class));
+    }
+
+    @Test
+    void sell_optimistic_perVariantOverride_shouldRetryOnVersionConflict_thenGiveUp() {
+        stockProperties.getVariantStrategies().put(1L, StockLockStrategy.OPTIMISTIC);
+        stockProperties.getOptimistic().setMaxAttempts(3);
+        stockProperties.getOptimistic().setInitialBackoff(Duration.ZERO);
+        Long variantId = 1L;
+        ItemVariant variant = buildVariant(10);
+
+        when(itemVariantRepository.findById(variantId)).thenReturn(Optional.of(variant));
+        when(itemVariantRepository.saveAndFlush(variant))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ItemVariant.class, variantId));
+
+        StockConflictException ex = assertThrows(
+                StockConflictException.class,
+                () -> itemVariantService.sell(variantId, 1)
+        );
+
+        assertThat(ex.getAttempts()).isEqualTo(3);
+        verify(itemVariantRepository, times(3)).findById(variantId);
+        verify(stockMovementRepository, never()).save(any());
+    }
 }
@@ -0,0 +1,125 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_replaysEntriesAndAborts() throws IOException {
+        Instant createdAt = Instant.parse("2025-01-01T10:15:30.123456789Z");
+        try (JournalLog log = JournalLog.open(directory, SEGMENT_SIZE, new Recorder())) {
+            log.appendEntry(entry(1, 7L, -3, "SELL", createdAt));
+            log.appendEntry(entry(2, 8L, 5, "RESTOCK gudang", createdAt));
+            log.appendAbort(2);
+            log.sync();
+        }
+
+        Recorder recorder = new Recorder();
+        JournalLog.open(directory, SEGMENT_SIZE, recorder).close();
+
+        assertThat(recorder.entries).extracting(entry -> entry.seq).containsExactly(1L, 2L);
+        JournalEntry first = recorder.entries.get(0);
+        assertThat(first.variantId).isEqualTo(7L);
+        assertThat(first.type).isEqualTo(StockMovementType.OUT);
+        assertThat(first.quantityChange).isEqualTo(-3);
+        assertThat(first.reason).isEqualTo("SELL");
+        assertThat(first.createdAt).isEqualTo(createdAt);
+        assertThat(recorder.aborts).containsExactly(2L);
+    }
+
+    @Test
+    void tornTail_isIgnored_andOverwrittenByNextAppend() throws IOException {
+        try (JournalLog log = JournalLog.open(directory, SEGMENT_SIZE, new Recorder())) {
+            log.appendEntry(entry(1, 7L, -1, "SELL", Instant.now()));
+            log.appendEntry(entry(2, 7L, -1, "SELL", Instant.now()));
+            log.sync();
+        }
+        // Rusak satu byte di payload record kedua, seperti tulisan yang terpotong saat crash
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            long secondPayload = 8L + firstLength + 8L;
+            file.seek(secondPayload + 3);
+            file.write(0x7f);
+        }
+
+        Recorder recorder = new Recorder();
+        try (JournalLog log = JournalLog.open(directory, SEGMENT_SIZE, recorder)) {
+            assertThat(recorder.entries).extracting(entry -> entry.seq).containsExactly(1L);
+            log.appendEntry(entry(3, 9L, -2, "SELL", Instant.now()));
+            log.sync();
+        }
+
+        Recorder reopened = new Recorder();
+        JournalLog.open(directory, SEGMENT_SIZE, reopened).close();
+        assertThat(reopened.entries).extracting(entry -> entry.seq).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void fullSegment_rollsOver_andDrainedSegmentsAreDeleted() throws IOException {
+        try (JournalLog log = JournalLog.open(directory, SEGMENT_SIZE, new Recorder())) {
+            for (long seq = 1; seq <= 200; seq++) {
+                log.appendEntry(entry(seq, seq, -1, "SELL", Instant.now()));
+            }
+            log.sync();
+            int written = segments().size();
+            assertThat(written).isGreaterThan(2);
+
+            // Segment aktif tidak pernah dihapus
+            log.deleteSegmentsUpTo(200);
+            assertThat(segments()).hasSize(1);
+        }
+
+        Recorder recorder = new Recorder();
+        JournalLog.open(directory, SEGMENT_SIZE, recorder).close();
+        assertThat(recorder.entries).isNotEmpty();
+        assertThat(recorder.entries.get(recorder.entries.size() - 1).seq).isEqualTo(200L);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static JournalEntry entry(long seq, long variantId, int quantityChange, String reason, Instant createdAt) {
+        StockMovementType type = quantityChange < 0 ? StockMovementType.OUT : StockMovementType.ADJUSTMENT;
+        JournalEntry entry = new JournalEntry(variantId, type, quantityChange, reason, createdAt);
+        entry.seq = seq;
+        return entry;
+    }
+
+    private static final class Recorder implements JournalLog.Visitor {
+
+        private final List<JournalEntry> entries = new ArrayList<>();
+        private final List<Long> aborts = new ArrayList<>();
+
+        @Override
+        public void onEntry(JournalEntry entry) {
+            entries.add(entry);
+        }
+
+        @Override
+        public void onAbort(long abortedSeq) {
+            aborts.add(abortedSeq);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerTableTest {
+
+    @Test
+    void insertCasRemove_basicOperations() {
+        LedgerTable table = new LedgerTable(4);
+
+        int slot = table.insert(7L, 1L, 10);
+        assertThat(table.slotOf(7L)).isEqualTo(slot);
+        assertThat(table.slotOf(8L)).isEqualTo(LedgerTable.NO_SLOT);
+        assertThat(table.itemIdOf(slot)).isEqualTo(1L);
+
+        // Insert kedua untuk variant yang sama memakai slot yang sudah ada
+        assertThat(table.insert(7L, 1L, 99)).isEqualTo(slot);
+        assertThat(table.get(slot)).isEqualTo(10);
+
+        assertThat(table.compareAndSet(slot, 10, 7)).isTrue();
+        assertThat(table.compareAndSet(slot, 10, 5)).isFalse();
+        assertThat(table.get(slot)).isEqualTo(7);
+
+        assertThat(table.remove(7L, Integer.MIN_VALUE)).isTrue();
+        assertThat(table.slotOf(7L)).isEqualTo(LedgerTable.NO_SLOT);
+        assertThat(table.get(slot)).isEqualTo(Integer.MIN_VALUE);
+        assertThat(table.remove(7L, Integer.MIN_VALUE)).isFalse();
+    }
+
+    @Test
+    void insert_growsAcrossChunks_andKeepsSlotsStable() {
+        LedgerTable table = new LedgerTable(1);
+        int[] slots = new int[20_000];
+
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = table.insert(i + 1, 1L, i);
+        }
+
+        assertThat(table.size()).isEqualTo(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            assertThat(table.slotOf(i + 1)).isEqualTo(slots[i]);
+            assertThat(table.get(slots[i])).isEqualTo(i);
+        }
+    }
+}
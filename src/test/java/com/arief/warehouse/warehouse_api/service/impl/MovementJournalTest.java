@@ -0,0 +1,179 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.JournalProperties;
+import com.arief.warehouse.warehouse_api.dto.JournalStatsResponse;
+import com.arief.warehouse.warehouse_api.dto.StockMovementResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.repository.JournalCommitRepository;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.StockMovementService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Drain berjalan di thread sendiri setelah commit, jadi test ini tidak transactional dan membersihkan datanya sendiri
+@SpringBootTest(properties = {
+        "warehouse.journal.enabled=true",
+        "warehouse.journal.directory=build/test-journal/${random.uuid}"
+})
+@ActiveProfiles("test")
+class MovementJournalTest extends CatalogTestSupport {
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private StockMovementService stockMovementService;
+
+    @Autowired
+    private MovementJournal movementJournal;
+
+    @Autowired
+    private MovementBatchWriter movementBatchWriter;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JournalCommitRepository journalCommitRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @TempDir
+    Path recoveryDirectory;
+
+    @AfterEach
+    void tearDown() {
+        movementJournal.awaitDrained();
+        outboxEventRepository.deleteAllInBatch();
+        journalCommitRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void sell_movementIsReadableRightAfterCommit_withJournalSeqAndOutboxRow() {
+        ItemVariant variant = createVariant("JOURNAL-RYW", 10);
+
+        itemVariantService.sell(variant.getId(), 3);
+        itemVariantService.adjustStock(variant.getId(), 4, "RESTOCK");
+
+        // Tanpa menunggu: getMovements sendiri menunggu drain variant ini
+        List<StockMovementResponse> movements = stockMovementService
+                .getMovements(variant.getId(), null, null, null, null).getItems();
+
+        assertThat(movements).extracting(StockMovementResponse::getQuantityChange)
+                .containsExactlyInAnyOrder(-3, 4);
+        List<StockMovement> stored = stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId());
+        assertThat(stored).allSatisfy(movement -> assertThat(movement.getJournalSeq()).isNotNull());
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getVariantId().equals(variant.getId()))
+                .hasSize(2);
+        assertThat(itemVariantRepository.findById(variant.getId()).orElseThrow().getStockQuantity())
+                .isEqualTo(11);
+
+        JournalStatsResponse stats = movementJournal.getStats();
+        assertThat(stats.isEnabled()).isTrue();
+        assertThat(stats.getAppendedEntries()).isGreaterThanOrEqualTo(2);
+        assertThat(stats.getDrainedSeq()).isGreaterThanOrEqualTo(stored.get(0).getJournalSeq());
+    }
+
+    @Test
+    void transactionRolledBackAfterJournalAppend_isAbortedAndNeverDrained() {
+        ItemVariant variant = createVariant("JOURNAL-ABORT", 10);
+        long abortedBefore = movementJournal.getStats().getAbortedEntries();
+
+        assertThatThrownBy(() -> transactionOperations.executeWithoutResult(status -> {
+            itemVariantService.adjustStock(variant.getId(), 5, "RESTOCK");
+            // Didaftarkan setelah journal, jadi gagal setelah movement sudah di-fsync
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit failed");
+                }
+            });
+        })).isInstanceOf(IllegalStateException.class);
+
+        movementJournal.awaitDrained();
+
+        assertThat(movementJournal.getStats().getAbortedEntries()).isEqualTo(abortedBefore + 1);
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId())).isEmpty();
+        assertThat(itemVariantRepository.findById(variant.getId()).orElseThrow().getStockQuantity())
+                .isEqualTo(10);
+    }
+
+    @Test
+    void start_replaysOnlyEntriesWithCommitMarker() throws IOException {
+        ItemVariant variant = createVariant("JOURNAL-RECOVERY", 10);
+        // Jauh di atas seq journal milik context supaya tidak bentrok dengan unique journal_seq
+        long base = stockMovementRepository.findMaxJournalSeq() + 1_000_000;
+
+        try (JournalLog log = JournalLog.open(recoveryDirectory, 1 << 20, new JournalLog.Visitor() {
+            @Override
+            public void onEntry(JournalEntry entry) {
+            }
+
+            @Override
+            public void onAbort(long abortedSeq) {
+            }
+        })) {
+            log.appendEntry(entry(base + 1, variant.getId(), -2, "SELL"));
+            log.appendEntry(entry(base + 2, variant.getId(), 7, "ROLLED BACK"));
+            log.appendEntry(entry(base + 3, variant.getId(), -1, "SELL"));
+            log.appendEntry(entry(base + 4, variant.getId(), 5, "IN DOUBT"));
+            log.appendEntry(entry(base + 5, variant.getId(), -4, "SELL"));
+            log.appendAbort(base + 2);
+            log.sync();
+        }
+        // Marker hanya untuk transaksi yang commit; base + 4 durable tapi transaksinya tidak pernah commit
+        transactionOperations.executeWithoutResult(status -> {
+            journalCommitRepository.insert(base + 1, base + 1);
+            journalCommitRepository.insert(base + 3, base + 3);
+            journalCommitRepository.insert(base + 5, base + 5);
+        });
+
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(recoveryDirectory.toString());
+        MovementJournal recovered = new MovementJournal(properties, movementBatchWriter, transactionOperations,
+                stockMovementRepository, journalCommitRepository);
+        recovered.start();
+        try {
+            recovered.awaitDrained();
+
+            List<StockMovement> stored = stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId());
+            assertThat(stored).extracting(StockMovement::getJournalSeq)
+                    .containsExactlyInAnyOrder(base + 1, base + 3, base + 5);
+            assertThat(stored).extracting(StockMovement::getReason).containsOnly("SELL");
+            assertThat(recovered.getStats().getDrainedSeq()).isEqualTo(base + 5);
+            // Marker yang sudah di-drain dibuang bersama insert movement-nya
+            assertThat(journalCommitRepository.findByLastSeqGreaterThan(base)).isEmpty();
+        } finally {
+            recovered.stop();
+        }
+    }
+
+    private static JournalEntry entry(long seq, Long variantId, int quantityChange, String reason) {
+        StockMovementType type = quantityChange < 0 ? StockMovementType.OUT : StockMovementType.ADJUSTMENT;
+        JournalEntry entry = new JournalEntry(variantId, type, quantityChange, reason, Instant.now());
+        entry.seq = seq;
+        return entry;
+    }
+}
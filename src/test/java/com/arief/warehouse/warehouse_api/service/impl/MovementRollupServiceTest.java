@@ -0,0 +1,131 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.MovementReportGroupBy;
+import com.arief.warehouse.warehouse_api.dto.MovementReportPeriod;
+import com.arief.warehouse.warehouse_api.dto.MovementReportResponse;
+import com.arief.warehouse.warehouse_api.dto.MovementReportRow;
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.repository.MovementDailyRollupRepository;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.repository.RollupWatermarkRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.MovementRollupService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovementRollupServiceTest extends CatalogTestSupport {
+
+    @Autowired
+    private MovementRollupService movementRollupService;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private MovementDailyRollupRepository movementDailyRollupRepository;
+
+    @Autowired
+    private RollupWatermarkRepository rollupWatermarkRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        movementDailyRollupRepository.deleteAllInBatch();
+        rollupWatermarkRepository.deleteAllInBatch();
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void report_readsRollups_groupedByTypeAndItem() {
+        Item shirts = createItem("Rollup shirts");
+        Item shoes = createItem("Rollup shoes");
+        ItemVariant shirtM = createVariant(shirts, "ROLLUP-SHIRT-M", 20);
+        ItemVariant shirtL = createVariant(shirts, "ROLLUP-SHIRT-L", 20);
+        ItemVariant shoe = createVariant(shoes, "ROLLUP-SHOE-42", 20);
+
+        itemVariantService.sell(shirtM.getId(), 2);
+        itemVariantService.sell(shirtM.getId(), 3);
+        itemVariantService.sell(shirtL.getId(), 1);
+        itemVariantService.adjustStock(shirtL.getId(), 4, "RESTOCK");
+        itemVariantService.sell(shoe.getId(), 6);
+
+        assertThat(movementRollupService.rollUp(Instant.now())).isPositive();
+
+        MovementReportResponse byType = report(MovementReportGroupBy.TYPE, MovementReportPeriod.TOTAL, null,
+                shirts.getId());
+        assertThat(byType.getRolledUpTo()).isNotNull();
+        assertThat(byType.getRows())
+                .extracting(MovementReportRow::getType, MovementReportRow::getQuantity, MovementReportRow::getMovements)
+                .containsExactly(
+                        tuple(StockMovementType.OUT, -6L, 3L),
+                        tuple(StockMovementType.ADJUSTMENT, 4L, 1L));
+
+        MovementReportResponse soldByItem = report(MovementReportGroupBy.ITEM, MovementReportPeriod.TOTAL,
+                StockMovementType.OUT, null);
+        assertThat(soldByItem.getRows())
+                .filteredOn(row -> row.getItemId().equals(shirts.getId()) || row.getItemId().equals(shoes.getId()))
+                .extracting(MovementReportRow::getItemId, MovementReportRow::getQuantity)
+                .containsExactlyInAnyOrder(
+                        tuple(shirts.getId(), -6L),
+                        tuple(shoes.getId(), -6L));
+    }
+
+    @Test
+    void rollUp_isIncremental_andNeverCountsAWindowTwice() {
+        Item item = createItem("Rollup incremental");
+        ItemVariant variant = createVariant(item, "ROLLUP-INCREMENTAL", 20);
+
+        itemVariantService.sell(variant.getId(), 1);
+        Instant firstRun = Instant.now();
+        movementRollupService.rollUp(firstRun);
+        // Upto yang sama: watermark sudah di sana, tidak ada yang dijumlahkan lagi
+        assertThat(movementRollupService.rollUp(firstRun)).isZero();
+
+        itemVariantService.sell(variant.getId(), 2);
+        movementRollupService.rollUp(Instant.now());
+
+        MovementReportResponse daily = report(MovementReportGroupBy.VARIANT, MovementReportPeriod.DAY,
+                StockMovementType.OUT, item.getId());
+        assertThat(daily.getRows()).hasSize(1);
+        MovementReportRow row = daily.getRows().get(0);
+        assertThat(row.getVariantId()).isEqualTo(variant.getId());
+        assertThat(row.getPeriodStart()).isEqualTo(LocalDate.now(ZoneOffset.UTC));
+        assertThat(row.getQuantity()).isEqualTo(-3);
+        assertThat(row.getMovements()).isEqualTo(2);
+    }
+
+    @Test
+    void report_withEndBeforeStart_isRejectedAsInvalidRequest() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        assertThatThrownBy(() -> movementRollupService.getReport(today, today.minusDays(1),
+                MovementReportGroupBy.TYPE, MovementReportPeriod.TOTAL, null, null, null))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private MovementReportResponse report(MovementReportGroupBy groupBy, MovementReportPeriod period,
+                                          StockMovementType type, Long itemId) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return movementRollupService.getReport(today.minusDays(1), today.plusDays(1), groupBy, period, type,
+                itemId, null);
+    }
+}
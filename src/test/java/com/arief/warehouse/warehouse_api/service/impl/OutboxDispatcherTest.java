@@ -0,0 +1,146 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.OutboxProperties;
+import com.arief.warehouse.warehouse_api.dto.OutboxMessage;
+import com.arief.warehouse.warehouse_api.dto.OutboxStatsResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.OutboxEvent;
+import com.arief.warehouse.warehouse_api.entity.OutboxStatus;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Outbox baru terlihat setelah commit, jadi test ini tidak transactional dan membersihkan datanya sendiri
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatcherTest extends CatalogTestSupport {
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private InMemoryOutboxSink inMemoryOutboxSink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionOperations transactionOperations;
+
+    @BeforeEach
+    void setUp() {
+        // Row dari test lain tidak relevan di sini
+        outboxEventRepository.deleteAllInBatch();
+        inMemoryOutboxSink.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void sellAndAdjust_writeOutboxRows_thatDispatcherDeliversAndMarksDone() {
+        ItemVariant variant = createVariant("OUTBOX-OK", 10);
+
+        itemVariantService.sell(variant.getId(), 3);
+        itemVariantService.adjustStock(variant.getId(), 5, "RESTOCK");
+        // Rollback: tidak ada row outbox
+        assertThatThrownBy(() -> itemVariantService.sell(variant.getId(), 99))
+                .isInstanceOf(OutOfStockException.class);
+
+        assertThat(outboxEventRepository.countByStatus(OutboxStatus.PENDING)).isEqualTo(2);
+
+        int sent = outboxDispatcher.dispatchPending();
+
+        assertThat(sent).isEqualTo(2);
+        List<OutboxMessage> messages = inMemoryOutboxSink.getMessages();
+        assertThat(messages).extracting(OutboxMessage::getType)
+                .containsExactly(StockMovementType.OUT, StockMovementType.ADJUSTMENT);
+        assertThat(messages).extracting(OutboxMessage::getQuantityChange).containsExactly(-3, 5);
+        assertThat(messages).allSatisfy(message -> {
+            assertThat(message.getVariantId()).isEqualTo(variant.getId());
+            assertThat(message.getMovementId()).isNotNull();
+        });
+
+        assertThat(outboxEventRepository.countByStatus(OutboxStatus.PENDING)).isZero();
+        assertThat(outboxEventRepository.countByStatus(OutboxStatus.DELIVERED)).isEqualTo(2);
+        assertThat(outboxDispatcher.dispatchPending()).isZero();
+
+        OutboxStatsResponse stats = outboxDispatcher.getStats();
+        assertThat(stats.getDelivered()).isGreaterThanOrEqualTo(2);
+        assertThat(stats.getLagMillis()).isZero();
+    }
+
+    @Test
+    void failingSink_reschedulesBatch_thenDeadLettersAfterMaxAttempts() {
+        ItemVariant variant = createVariant("OUTBOX-FAIL", 10);
+        itemVariantService.sell(variant.getId(), 1);
+
+        OutboxProperties properties = new OutboxProperties();
+        properties.setMaxAttempts(2);
+        properties.setInitialBackoff(Duration.ZERO);
+        OutboxDispatcher failing = new OutboxDispatcher(outboxEventRepository, batch -> {
+            throw new IOException("ERP unavailable");
+        }, properties, transactionOperations);
+
+        assertThat(failing.dispatchPending()).isZero();
+
+        OutboxEvent retried = singleEvent();
+        assertThat(retried.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isEqualTo("ERP unavailable");
+        assertThat(retried.getLeaseOwner()).isNull();
+
+        failing.dispatchPending();
+
+        assertThat(singleEvent().getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(failing.getStats().getRetries()).isEqualTo(2);
+        assertThat(failing.getStats().getDeadLettered()).isEqualTo(1);
+
+        // FAILED tidak diambil lagi
+        assertThat(outboxDispatcher.dispatchPending()).isZero();
+        assertThat(inMemoryOutboxSink.getMessages()).isEmpty();
+    }
+
+    @Test
+    void retryBackoff_keepsRowOutOfNextPoll() {
+        ItemVariant variant = createVariant("OUTBOX-BACKOFF", 10);
+        itemVariantService.sell(variant.getId(), 1);
+
+        OutboxProperties properties = new OutboxProperties();
+        properties.setInitialBackoff(Duration.ofHours(1));
+        new OutboxDispatcher(outboxEventRepository, batch -> {
+            throw new IOException("timeout");
+        }, properties, transactionOperations).dispatchPending();
+
+        assertThat(singleEvent().getNextAttemptAt()).isAfter(Instant.now().plus(Duration.ofMinutes(30)));
+        assertThat(outboxDispatcher.dispatchPending()).isZero();
+    }
+
+    private OutboxEvent singleEvent() {
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).hasSize(1);
+        return events.get(0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.exception.MovementsPendingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class PendingMovementsTest {
+
+    private MovementJournal movementJournal;
+    private StockLedger stockLedger;
+    private PendingMovements pendingMovements;
+
+    @BeforeEach
+    void setUp() {
+        movementJournal = mock(MovementJournal.class);
+        stockLedger = mock(StockLedger.class);
+        pendingMovements = new PendingMovements(movementJournal, stockLedger);
+    }
+
+    @Test
+    void persist_flushesLedger_whenJournalDrained() {
+        when(movementJournal.awaitDrained()).thenReturn(true);
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.flush()).thenReturn(true);
+
+        pendingMovements.persist();
+
+        verify(stockLedger).flush();
+    }
+
+    @Test
+    void persist_throws_whenJournalDrainTimesOut() {
+        when(movementJournal.awaitDrained()).thenReturn(false);
+
+        assertThatThrownBy(() -> pendingMovements.persist())
+                .isInstanceOf(MovementsPendingException.class);
+        verify(stockLedger, never()).flush();
+    }
+
+    @Test
+    void persist_throws_whenLedgerFlushFails() {
+        when(movementJournal.awaitDrained(7L)).thenReturn(true);
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.flush()).thenReturn(false);
+
+        assertThatThrownBy(() -> pendingMovements.persist(7L))
+                .isInstanceOf(MovementsPendingException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.ReconciliationMismatchResponse;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunRequest;
+import com.arief.warehouse.warehouse_api.dto.ReconciliationRunResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.ReconciliationStatus;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.repository.JournalCommitRepository;
+import com.arief.warehouse.warehouse_api.repository.MovementDailyRollupRepository;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.repository.ReconciliationMismatchRepository;
+import com.arief.warehouse.warehouse_api.repository.ReconciliationPartitionRepository;
+import com.arief.warehouse.warehouse_api.repository.ReconciliationRunRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.ReconciliationService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+
+// Movement yang commit setelah drain disimulasikan lewat spy, karena jarak itu terlalu sempit untuk dikejar
+@SpringBootTest(properties = {
+        "warehouse.journal.enabled=true",
+        "warehouse.journal.directory=build/test-journal/${random.uuid}"
+})
+@ActiveProfiles("test")
+class ReconciliationJournalTest extends CatalogTestSupport {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @MockitoSpyBean
+    private MovementJournal movementJournal;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JournalCommitRepository journalCommitRepository;
+
+    @Autowired
+    private ReconciliationRunRepository reconciliationRunRepository;
+
+    @Autowired
+    private ReconciliationPartitionRepository reconciliationPartitionRepository;
+
+    @Autowired
+    private ReconciliationMismatchRepository reconciliationMismatchRepository;
+
+    @Autowired
+    private MovementDailyRollupRepository movementDailyRollupRepository;
+
+    @AfterEach
+    void tearDown() {
+        movementJournal.awaitDrained();
+        movementDailyRollupRepository.deleteAllInBatch();
+        reconciliationMismatchRepository.deleteAllInBatch();
+        reconciliationPartitionRepository.deleteAllInBatch();
+        reconciliationRunRepository.deleteAllInBatch();
+        outboxEventRepository.deleteAllInBatch();
+        journalCommitRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void repair_reportsVariantWithUndrainedMovementsAsInFlight_withoutRepairingIt() throws InterruptedException {
+        ItemVariant inFlight = createVariant("RECON-JOURNAL-FLIGHT", 10);
+        ItemVariant settled = createVariant("RECON-JOURNAL-SETTLED", 10);
+        doReturn(true).when(movementJournal).hasUndrained(inFlight.getId());
+
+        ReconciliationRunResponse run = awaitEnd(reconciliationService.start(new ReconciliationRunRequest(true)));
+
+        assertThat(run.getStatus()).isEqualTo(ReconciliationStatus.COMPLETED);
+        Map<Long, ReconciliationMismatchResponse> mismatches = mismatchesByVariant(run.getId());
+        assertThat(mismatches.get(inFlight.getId()).isInFlight()).isTrue();
+        assertThat(mismatches.get(inFlight.getId()).isRepaired()).isFalse();
+        assertThat(mismatches.get(settled.getId()).isInFlight()).isFalse();
+        assertThat(mismatches.get(settled.getId()).isRepaired()).isTrue();
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(inFlight.getId())).isEmpty();
+    }
+
+    @Test
+    void repair_afterDrainTimeout_onlyReportsMismatches() throws InterruptedException {
+        ItemVariant variant = createVariant("RECON-JOURNAL-TIMEOUT", 10);
+        itemVariantService.sell(variant.getId(), 2);
+        // Drain saat run dimulai berhasil; drain sebelum chunk diperiksa timeout
+        doCallRealMethod().doReturn(false).when(movementJournal).awaitDrained();
+
+        ReconciliationRunResponse run = awaitEnd(reconciliationService.start(new ReconciliationRunRequest(true)));
+
+        assertThat(run.getRepairedCount()).isZero();
+        ReconciliationMismatchResponse mismatch = mismatchesByVariant(run.getId()).get(variant.getId());
+        assertThat(mismatch.getDifference()).isEqualTo(10);
+        assertThat(mismatch.isRepaired()).isFalse();
+
+        movementJournal.awaitDrained(variant.getId());
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId()))
+                .extracting(StockMovement::getType)
+                .containsExactly(StockMovementType.OUT);
+    }
+
+    private ReconciliationRunResponse awaitEnd(ReconciliationRunResponse run) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        ReconciliationRunResponse current = reconciliationService.getRun(run.getId());
+        while (current.getStatus() == ReconciliationStatus.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            current = reconciliationService.getRun(run.getId());
+        }
+        return current;
+    }
+
+    private Map<Long, ReconciliationMismatchResponse> mismatchesByVariant(Long runId) {
+        return reconciliationService.getMismatches(runId, null, 200).getItems().stream()
+                .collect(Collectors.toMap(ReconciliationMismatchResponse::getVariantId, Function.identity()));
+    }
+}
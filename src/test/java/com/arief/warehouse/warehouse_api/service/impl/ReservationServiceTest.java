@@ -0,0 +1,169 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
+import com.arief.warehouse.warehouse_api.dto.ReservationCreateRequest;
+import com.arief.warehouse.warehouse_api.dto.ReservationResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.ReservationStatus;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.ReservationNotActiveException;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.repository.StockReservationRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.ReservationService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Expiry berjalan di thread sendiri, jadi test ini tidak transactional dan membersihkan datanya sendiri
+@SpringBootTest(properties = "warehouse.reservations.tick-duration=10ms")
+@ActiveProfiles("test")
+class ReservationServiceTest extends CatalogTestSupport {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        stockReservationRepository.deleteAllInBatch();
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void reservedStock_cannotBeSold_andConfirmTurnsItIntoSale() {
+        ItemVariant variant = createVariant("RESERVE-CONFIRM", 10);
+
+        ReservationResponse reservation = reservationService.reserve(variant.getId(), request(7, null));
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.ACTIVE);
+
+        ItemVariantResponse held = itemVariantService.getVariant(variant.getId());
+        assertThat(held.getStockQuantity()).isEqualTo(10);
+        assertThat(held.getReservedQuantity()).isEqualTo(7);
+        assertThat(held.getAvailableQuantity()).isEqualTo(3);
+
+        assertThatThrownBy(() -> itemVariantService.sell(variant.getId(), 4))
+                .isInstanceOfSatisfying(OutOfStockException.class,
+                        ex -> assertThat(ex.getAvailable()).isEqualTo(3));
+        itemVariantService.sell(variant.getId(), 3);
+
+        ReservationResponse confirmed = reservationService.confirm(reservation.getId());
+        assertThat(confirmed.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+
+        ItemVariantResponse sold = itemVariantService.getVariant(variant.getId());
+        assertThat(sold.getStockQuantity()).isZero();
+        assertThat(sold.getReservedQuantity()).isZero();
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId()))
+                .extracting(StockMovement::getQuantityChange)
+                .containsExactlyInAnyOrder(-3, -7);
+
+        assertThatThrownBy(() -> reservationService.release(reservation.getId()))
+                .isInstanceOf(ReservationNotActiveException.class);
+    }
+
+    @Test
+    void release_returnsHoldToAvailableStock_andIsIdempotent() {
+        ItemVariant variant = createVariant("RESERVE-RELEASE", 5);
+
+        ReservationResponse reservation = reservationService.reserve(variant.getId(), request(5, null));
+        assertThatThrownBy(() -> reservationService.reserve(variant.getId(), request(1, null)))
+                .isInstanceOf(OutOfStockException.class);
+
+        assertThat(reservationService.release(reservation.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+        assertThat(reservationService.release(reservation.getId()).getStatus()).isEqualTo(ReservationStatus.RELEASED);
+
+        ItemVariantResponse released = itemVariantService.getVariant(variant.getId());
+        assertThat(released.getReservedQuantity()).isZero();
+        assertThat(released.getAvailableQuantity()).isEqualTo(5);
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId())).isEmpty();
+    }
+
+    @Test
+    void expiredReservation_isReleasedByTimer_andCannotBeConfirmed() throws InterruptedException {
+        ItemVariant variant = createVariant("RESERVE-EXPIRE", 4);
+
+        ReservationResponse reservation = reservationService.reserve(variant.getId(), request(3, 1L));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (reservationService.getReservation(reservation.getId()).getStatus() == ReservationStatus.ACTIVE
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(reservationService.getReservation(reservation.getId()).getStatus())
+                .isEqualTo(ReservationStatus.EXPIRED);
+        assertThat(itemVariantService.getVariant(variant.getId()).getAvailableQuantity()).isEqualTo(4);
+        assertThatThrownBy(() -> reservationService.confirm(reservation.getId()))
+                .isInstanceOf(ReservationNotActiveException.class);
+    }
+
+    @Test
+    void ttlAboveMax_isRejectedAsInvalidRequest_withoutHoldingStock() {
+        ItemVariant variant = createVariant("RESERVE-TTL", 5);
+
+        // Default max-ttl 2 jam
+        assertThatThrownBy(() -> reservationService.reserve(variant.getId(), request(1, 3 * 3600L)))
+                .isInstanceOf(InvalidRequestException.class);
+
+        assertThat(itemVariantService.getVariant(variant.getId()).getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void concurrentReservations_neverHoldMoreThanStock() throws InterruptedException {
+        ItemVariant variant = createVariant("RESERVE-RACE", 50);
+        int threads = 8;
+        int reservesPerThread = 20;
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < reservesPerThread; i++) {
+                    try {
+                        reservationService.reserve(variant.getId(), request(1, null));
+                        held.incrementAndGet();
+                    } catch (OutOfStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(held.get()).isEqualTo(50);
+        assertThat(rejected.get()).isEqualTo(threads * reservesPerThread - 50);
+        assertThat(itemVariantService.getVariant(variant.getId()).getAvailableQuantity()).isZero();
+    }
+
+    private static ReservationCreateRequest request(int quantity, Long ttlSeconds) {
+        return new ReservationCreateRequest(quantity, ttlSeconds);
+    }
+}
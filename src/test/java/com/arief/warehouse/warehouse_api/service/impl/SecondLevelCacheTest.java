@@ -0,0 +1,130 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockLockStrategy;
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.dto.ItemVariantResponse;
+import com.arief.warehouse.warehouse_api.dto.ReservationCreateRequest;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.repository.StockReservationRepository;
+import com.arief.warehouse.warehouse_api.service.ItemService;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.ReservationService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache hanya terlihat antar transaksi, jadi test ini tidak transactional
+ * dan membersihkan datanya sendiri.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest extends CatalogTestSupport {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private StockProperties stockProperties;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockProperties.setStrategy(StockLockStrategy.PESSIMISTIC);
+        stockReservationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void repeatReads_ofItemAndVariants_issueNoSql() {
+        ItemVariant variant = createVariant("CACHE-READ", 10);
+        Long itemId = variant.getItem().getId();
+
+        // Baca pertama mengisi cache
+        itemService.getById(itemId);
+        itemVariantService.getVariant(variant.getId());
+        itemVariantService.getVariantsByItem(itemId, null, null);
+
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(itemService.getById(itemId).getName()).isEqualTo("Item CACHE-READ");
+            assertThat(itemVariantService.getVariant(variant.getId()).getStockQuantity()).isEqualTo(10);
+            assertThat(itemVariantService.getVariantsByItem(itemId, null, null).getItems()).hasSize(1);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getSecondLevelCacheMissCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void sell_refreshesCachedStock_forEveryStrategy() {
+        for (StockLockStrategy strategy : StockLockStrategy.values()) {
+            stockProperties.setStrategy(strategy);
+            ItemVariant variant = createVariant("CACHE-" + strategy, 10);
+
+            assertThat(itemVariantService.getVariant(variant.getId()).getStockQuantity()).isEqualTo(10);
+
+            itemVariantService.sell(variant.getId(), 3);
+            assertThat(itemVariantService.getVariant(variant.getId()).getStockQuantity())
+                    .as("stock after sell with %s", strategy)
+                    .isEqualTo(7);
+
+            itemVariantService.adjustStock(variant.getId(), 5, "RESTOCK");
+            assertThat(itemVariantService.getVariant(variant.getId()).getStockQuantity())
+                    .as("stock after adjust with %s", strategy)
+                    .isEqualTo(12);
+        }
+    }
+
+    @Test
+    void conditionalUpdateSellAndReserve_evictOnlyTheChangedVariant() {
+        stockProperties.setStrategy(StockLockStrategy.CONDITIONAL_UPDATE);
+        ItemVariant sold = createVariant("CACHE-GUARDED-SOLD", 10);
+        ItemVariant unrelated = createVariant("CACHE-GUARDED-OTHER", 10);
+        itemVariantService.getVariant(sold.getId());
+        itemVariantService.getVariant(unrelated.getId());
+
+        itemVariantService.sell(sold.getId(), 3);
+        reservationService.reserve(sold.getId(), new ReservationCreateRequest(2, null));
+
+        statistics.clear();
+        assertThat(itemVariantService.getVariant(unrelated.getId()).getStockQuantity()).isEqualTo(10);
+        // Variant lain tetap di cache: tidak ada SQL
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+
+        ItemVariantResponse changed = itemVariantService.getVariant(sold.getId());
+        assertThat(changed.getStockQuantity()).isEqualTo(7);
+        assertThat(changed.getReservedQuantity()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,100 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkuIdTableTest {
+
+    @Test
+    void putGetRemove_basicOperations() {
+        SkuIdTable table = new SkuIdTable(4);
+
+        table.put("SKU-A", 1L);
+        table.put("SKU-B", 2L);
+        table.put("SKU-A", 3L);
+
+        assertThat(table.get("SKU-A")).isEqualTo(3L);
+        assertThat(table.get("SKU-B")).isEqualTo(2L);
+        assertThat(table.get("SKU-C")).isEqualTo(SkuIdTable.NOT_FOUND);
+        assertThat(table.size()).isEqualTo(2);
+
+        // Tidak dihapus kalau id sudah berbeda (SKU dipakai variant lain)
+        assertThat(table.remove("SKU-A", 1L)).isFalse();
+        assertThat(table.remove("SKU-A", 3L)).isTrue();
+        assertThat(table.get("SKU-A")).isEqualTo(SkuIdTable.NOT_FOUND);
+        assertThat(table.get("SKU-B")).isEqualTo(2L);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_growsTable_andKeepsAllEntries() {
+        SkuIdTable table = new SkuIdTable(1);
+
+        for (int i = 0; i < 10_000; i++) {
+            table.put("SKU-" + i, i);
+        }
+
+        assertThat(table.size()).isEqualTo(10_000);
+        assertThat(table.capacity()).isGreaterThan(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(table.get("SKU-" + i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void churn_doesNotGrowTable_whenSizeStaysConstant() {
+        SkuIdTable table = new SkuIdTable(100);
+        int initialCapacity = table.capacity();
+
+        // Tombstone dibersihkan saat rehash, jadi kapasitas tidak ikut naik
+        for (int i = 0; i < 50_000; i++) {
+            table.put("SKU-" + i, i);
+            table.remove("SKU-" + i, i);
+        }
+
+        assertThat(table.size()).isZero();
+        assertThat(table.capacity()).isEqualTo(initialCapacity);
+    }
+
+    @Test
+    void get_duringConcurrentWrites_neverReturnsWrongId() throws Exception {
+        SkuIdTable table = new SkuIdTable(16);
+        for (int i = 0; i < 1_000; i++) {
+            table.put("STABLE-" + i, i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger wrong = new AtomicInteger();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < 1_000; i++) {
+                        if (table.get("STABLE-" + i) != i) {
+                            wrong.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        // Writer memaksa beberapa kali resize sambil reader jalan
+        for (int i = 0; i < 100_000; i++) {
+            table.put("CHURN-" + i, i);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(wrong.get()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.StockChangeEvent;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockEventBufferTest {
+
+    private static StockChangeEvent event(long variantId, int stock, int change, StockMovementType type) {
+        return StockChangeEvent.builder()
+                .variantId(variantId)
+                .itemId(1L)
+                .stockQuantity(stock)
+                .quantityChange(change)
+                .type(type)
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    void offer_sameVariant_coalescesIntoLatestStockAndNetChange() {
+        StockEventBuffer buffer = new StockEventBuffer(8);
+
+        buffer.offer(event(1L, 9, -1, StockMovementType.OUT));
+        buffer.offer(event(2L, 5, -5, StockMovementType.OUT));
+        buffer.offer(event(1L, 7, -2, StockMovementType.OUT));
+        buffer.offer(event(1L, 17, 10, StockMovementType.ADJUSTMENT));
+
+        StockEventBuffer.Batch batch = buffer.take();
+
+        // Variant 1 tetap di posisi pertama walaupun event terakhirnya datang belakangan
+        assertThat(batch.events()).extracting(StockChangeEvent::getVariantId).containsExactly(1L, 2L);
+        StockChangeEvent merged = batch.events().get(0);
+        assertThat(merged.getStockQuantity()).isEqualTo(17);
+        assertThat(merged.getQuantityChange()).isEqualTo(7);
+        assertThat(merged.getType()).isEqualTo(StockMovementType.ADJUSTMENT);
+        assertThat(batch.dropped()).isZero();
+        assertThat(buffer.hasWork()).isFalse();
+    }
+
+    @Test
+    void offer_whenFull_dropsEldestAndCountsIt() {
+        StockEventBuffer buffer = new StockEventBuffer(2);
+
+        buffer.offer(event(1L, 1, -1, StockMovementType.OUT));
+        buffer.offer(event(2L, 1, -1, StockMovementType.OUT));
+        buffer.offer(event(3L, 1, -1, StockMovementType.OUT));
+        buffer.markDropped(4);
+
+        StockEventBuffer.Batch batch = buffer.take();
+
+        assertThat(batch.events()).extracting(StockChangeEvent::getVariantId).containsExactly(2L, 3L);
+        assertThat(batch.dropped()).isEqualTo(5);
+    }
+
+    @Test
+    void heartbeat_isReportedOnceUntilRequestedAgain() {
+        StockEventBuffer buffer = new StockEventBuffer(2);
+
+        buffer.requestHeartbeat();
+        assertThat(buffer.hasWork()).isTrue();
+        assertThat(buffer.take().heartbeat()).isTrue();
+        assertThat(buffer.take().heartbeat()).isFalse();
+    }
+}
@@ -0,0 +1,205 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineRequest;
+import com.arief.warehouse.warehouse_api.dto.CheckoutLineStatus;
+import com.arief.warehouse.warehouse_api.dto.CheckoutResponse;
+import com.arief.warehouse.warehouse_api.dto.LedgerStatsResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.entity.StockMovement;
+import com.arief.warehouse.warehouse_api.entity.StockReservation;
+import com.arief.warehouse.warehouse_api.exception.CheckoutFailedException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.StockOperationUnavailableException;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.repository.StockReservationRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.ReservationService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Flush berjalan di thread sendiri, jadi test ini tidak transactional; interval dibuat panjang
+// supaya flush hanya terjadi saat dipanggil test
+@SpringBootTest(properties = {
+        "warehouse.stock.ledger.enabled=true",
+        "warehouse.stock.ledger.flush-interval=1h"
+})
+@ActiveProfiles("test")
+class StockLedgerTest extends CatalogTestSupport {
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @AfterEach
+    void tearDown() {
+        stockLedger.flush();
+        outboxEventRepository.deleteAllInBatch();
+        stockReservationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void sell_changesLedgerImmediately_andFlushPersistsStockWithMovements() {
+        ItemVariant variant = createVariant("LEDGER-SELL", 10);
+
+        itemVariantService.sell(variant.getId(), 3);
+        itemVariantService.adjustStock(variant.getId(), 5, "RESTOCK");
+        assertThatThrownBy(() -> itemVariantService.sell(variant.getId(), 50))
+                .isInstanceOf(OutOfStockException.class);
+
+        // Response sudah pakai ledger, DB belum berubah sampai flush
+        assertThat(itemVariantService.getVariant(variant.getId()).getStockQuantity()).isEqualTo(12);
+        assertThat(itemVariantRepository.findStockQuantityById(variant.getId())).contains(10);
+        String etagBeforeFlush = itemVariantService.getVariantVersion(variant.getId()).getEtag();
+
+        stockLedger.flush();
+
+        assertThat(itemVariantRepository.findStockQuantityById(variant.getId())).contains(12);
+        List<StockMovement> movements = stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId());
+        assertThat(movements).extracting(StockMovement::getQuantityChange).containsExactlyInAnyOrder(-3, 5);
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getVariantId().equals(variant.getId()))
+                .hasSize(2);
+        // Flush menaikkan version, jadi validator ikut berubah
+        assertThat(itemVariantService.getVariantVersion(variant.getId()).getEtag()).isNotEqualTo(etagBeforeFlush);
+
+        LedgerStatsResponse stats = stockLedger.getStats();
+        assertThat(stats.isEnabled()).isTrue();
+        assertThat(stats.getPending()).isZero();
+        assertThat(stats.getRejected()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void concurrentSells_neverOversell() throws InterruptedException {
+        ItemVariant variant = createVariant("LEDGER-RACE", 500);
+        int threads = 8;
+        int sellsPerThread = 100;
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < sellsPerThread; i++) {
+                    try {
+                        itemVariantService.sell(variant.getId(), 1);
+                        sold.incrementAndGet();
+                    } catch (OutOfStockException ex) {
+                        outOfStock.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sold.get()).isEqualTo(500);
+        assertThat(outOfStock.get()).isEqualTo(threads * sellsPerThread - 500);
+
+        stockLedger.flush();
+        assertThat(itemVariantRepository.findStockQuantityById(variant.getId())).contains(0);
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId())).hasSize(500);
+    }
+
+    @Test
+    void checkout_rejectsWholeOrder_andLeavesLedgerUntouched() {
+        ItemVariant plenty = createVariant("LEDGER-CO-A", 10);
+        ItemVariant scarce = createVariant("LEDGER-CO-B", 1);
+
+        assertThatThrownBy(() -> itemVariantService.checkout(List.of(
+                line(plenty.getId(), 4),
+                line(scarce.getId(), 2))))
+                .isInstanceOfSatisfying(CheckoutFailedException.class, ex ->
+                        assertThat(ex.getLines()).extracting(result -> result.getStatus())
+                                .containsExactly(CheckoutLineStatus.OK, CheckoutLineStatus.OUT_OF_STOCK));
+
+        assertThat(stockLedger.peek(plenty.getId())).isEqualTo(10);
+        assertThat(stockLedger.peek(scarce.getId())).isEqualTo(1);
+
+        CheckoutResponse response = itemVariantService.checkout(List.of(
+                line(plenty.getId(), 4),
+                line(scarce.getId(), 1)));
+        assertThat(response.getLines()).extracting(result -> result.getAvailableStock()).containsExactly(6, 0);
+
+        stockLedger.flush();
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(plenty.getId())).hasSize(1);
+        assertThat(itemVariantRepository.findStockQuantityById(scarce.getId())).contains(0);
+    }
+
+    @Test
+    void deletedVariant_unflushedMovementsAreSkipped() {
+        ItemVariant variant = createVariant("LEDGER-DELETE", 10);
+        ItemVariant other = createVariant("LEDGER-KEEP", 10);
+        long skippedBefore = stockLedger.getStats().getSkippedMovements();
+
+        itemVariantService.sell(variant.getId(), 2);
+        itemVariantService.sell(other.getId(), 1);
+        itemVariantService.deleteVariant(variant.getId());
+
+        stockLedger.flush();
+
+        assertThat(stockLedger.getStats().getSkippedMovements()).isEqualTo(skippedBefore + 1);
+        assertThat(stockLedger.getStats().getPending()).isZero();
+        assertThat(itemVariantRepository.findStockQuantityById(other.getId())).contains(9);
+    }
+
+    @Test
+    void confirm_ofReservationMadeBeforeLedger_isRejected_andStockUntouched() {
+        ItemVariant variant = createVariant("LEDGER-RESERVED", 10);
+        // Reservasi dan hold-nya dibuat langsung, seperti saat ledger belum aktif
+        variant.setReservedQuantity(4);
+        itemVariantRepository.save(variant);
+        StockReservation reservation = new StockReservation();
+        reservation.setVariant(variant);
+        reservation.setQuantity(4);
+        reservation.setExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS));
+        Long reservationId = stockReservationRepository.save(reservation).getId();
+
+        assertThatThrownBy(() -> reservationService.confirm(reservationId))
+                .isInstanceOf(StockOperationUnavailableException.class);
+
+        itemVariantService.sell(variant.getId(), 1);
+        stockLedger.flush();
+        assertThat(itemVariantRepository.findStockQuantityById(variant.getId())).contains(9);
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId()))
+                .extracting(StockMovement::getQuantityChange)
+                .containsExactly(-1);
+    }
+
+    private static CheckoutLineRequest line(Long variantId, int quantity) {
+        CheckoutLineRequest line = new CheckoutLineRequest();
+        line.setVariantId(variantId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
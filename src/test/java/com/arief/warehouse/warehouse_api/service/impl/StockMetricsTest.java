@@ -0,0 +1,86 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.entity.StockMovementType;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void recordChange_countsPerTypeAndOutcome() {
+        StockMetrics metrics = new StockMetrics(registry, new StockProperties());
+
+        metrics.recordChange(StockMovementType.OUT, 1L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.recordChange(StockMovementType.OUT, 1L, new OutOfStockException(1L, 5, 2), 2_000);
+        metrics.recordChange(StockMovementType.OUT, 1L, new IllegalStateException("boom"), 3_000);
+        metrics.recordPhase(StockMovementType.OUT, StockMetrics.Phase.LOCK, 4_000);
+
+        assertThat(registry.get("warehouse.stock.change").tags("type", "OUT", "outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("warehouse.stock.change").tags("type", "OUT", "outcome", "out_of_stock").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("warehouse.stock.change").tags("type", "OUT", "outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("warehouse.stock.change.phase").tags("type", "OUT", "phase", "lock").timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isEqualTo(4_000);
+    }
+
+    @Test
+    void rotateHotVariants_publishesTopNByRank_andStartsNewWindow() {
+        StockProperties properties = new StockProperties();
+        properties.getMetrics().setHotVariants(2);
+        StockMetrics metrics = new StockMetrics(registry, properties);
+
+        for (int i = 0; i < 5; i++) {
+            metrics.recordChange(StockMovementType.OUT, 7L, StockMetrics.Outcome.SUCCESS, 1_000);
+        }
+        for (int i = 0; i < 3; i++) {
+            metrics.recordChange(StockMovementType.OUT, 8L, StockMetrics.Outcome.SUCCESS, 1_000);
+        }
+        metrics.recordChange(StockMovementType.ADJUSTMENT, 9L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.rotateHotVariants();
+
+        assertThat(gauge("warehouse.stock.hot.variant", "1")).isEqualTo(7);
+        assertThat(gauge("warehouse.stock.hot.variant.changes", "1")).isEqualTo(5);
+        assertThat(gauge("warehouse.stock.hot.variant", "2")).isEqualTo(8);
+        assertThat(gauge("warehouse.stock.hot.variant.changes", "2")).isEqualTo(3);
+        assertThat(registry.find("warehouse.stock.hot.variant").tag("rank", "3").gauge()).isNull();
+
+        // Window baru kosong: rank yang tidak terisi jadi 0
+        metrics.recordChange(StockMovementType.OUT, 9L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.rotateHotVariants();
+
+        assertThat(gauge("warehouse.stock.hot.variant", "1")).isEqualTo(9);
+        assertThat(gauge("warehouse.stock.hot.variant", "2")).isZero();
+    }
+
+    @Test
+    void trackHotVariant_ignoresNewVariantsOnceWindowIsFull() {
+        StockProperties properties = new StockProperties();
+        properties.getMetrics().setHotVariants(3);
+        properties.getMetrics().setHotVariantCapacity(2);
+        StockMetrics metrics = new StockMetrics(registry, properties);
+
+        metrics.recordChange(StockMovementType.OUT, 1L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.recordChange(StockMovementType.OUT, 2L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.recordChange(StockMovementType.OUT, 3L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.recordChange(StockMovementType.OUT, 2L, StockMetrics.Outcome.SUCCESS, 1_000);
+        metrics.rotateHotVariants();
+
+        assertThat(gauge("warehouse.stock.hot.variant", "1")).isEqualTo(2);
+        assertThat(gauge("warehouse.stock.hot.variant", "2")).isEqualTo(1);
+        assertThat(gauge("warehouse.stock.hot.variant", "3")).isZero();
+    }
+
+    private double gauge(String name, String rank) {
+        return registry.get(name).tag("rank", rank).gauge().value();
+    }
+}
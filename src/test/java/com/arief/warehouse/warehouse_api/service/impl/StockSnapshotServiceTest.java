@@ -0,0 +1,143 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.dto.StockAtResponse;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.exception.InvalidRequestException;
+import com.arief.warehouse.warehouse_api.repository.OutboxEventRepository;
+import com.arief.warehouse.warehouse_api.repository.StockSnapshotRepository;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.service.StockSnapshotService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Waktu movement diisi auditing, jadi test memberi jeda kecil di antara operasi supaya batas waktunya jelas
+@SpringBootTest
+@ActiveProfiles("test")
+class StockSnapshotServiceTest extends CatalogTestSupport {
+
+    @Autowired
+    private StockSnapshotService stockSnapshotService;
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        stockSnapshotRepository.deleteAllInBatch();
+        outboxEventRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void stockAt_replaysForwardAndBackwardFromNearestSnapshot() throws InterruptedException {
+        ItemVariant variant = createVariant("SNAPSHOT-REPLAY", 10);
+        Instant afterCreate = pause();
+        itemVariantService.sell(variant.getId(), 2);
+        Instant afterFirstSell = pause();
+        stockSnapshotService.takeSnapshots(afterFirstSell);
+        itemVariantService.sell(variant.getId(), 3);
+        Instant afterSecondSell = pause();
+        itemVariantService.adjustStock(variant.getId(), 5, "RESTOCK");
+        Instant now = pause();
+
+        assertThat(stockSnapshotRepository.countByVariantId(variant.getId())).isEqualTo(1);
+
+        // Sebelum snapshot: mundur dari snapshot
+        StockAtResponse beforeSnapshot = stockSnapshotService.getStockAt(variant.getId(), afterCreate);
+        assertThat(beforeSnapshot.getStockQuantity()).isEqualTo(10);
+        assertThat(beforeSnapshot.getReplayedMovements()).isEqualTo(1);
+
+        assertThat(stockSnapshotService.getStockAt(variant.getId(), afterFirstSell).getStockQuantity()).isEqualTo(8);
+
+        StockAtResponse afterSnapshot = stockSnapshotService.getStockAt(variant.getId(), afterSecondSell);
+        assertThat(afterSnapshot.getStockQuantity()).isEqualTo(5);
+        assertThat(afterSnapshot.getReplayedMovements()).isEqualTo(1);
+
+        assertThat(stockSnapshotService.getStockAt(variant.getId(), now).getStockQuantity()).isEqualTo(10);
+
+        StockAtResponse beforeCreation = stockSnapshotService
+                .getStockAt(variant.getId(), variant.getCreatedAt().minusSeconds(1));
+        assertThat(beforeCreation.getStockQuantity()).isZero();
+        assertThat(beforeCreation.getBasisAt()).isNull();
+    }
+
+    @Test
+    void stockAt_inTheFuture_isRejectedAsInvalidRequest() {
+        ItemVariant variant = createVariant("SNAPSHOT-FUTURE", 1);
+        Instant tomorrow = Instant.now().plusSeconds(86_400);
+
+        assertThatThrownBy(() -> stockSnapshotService.getStockAt(variant.getId(), tomorrow))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> stockSnapshotService.getStockAt(tomorrow, null, null))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void stockAt_withoutSnapshot_replaysBackwardFromCurrentStock() throws InterruptedException {
+        ItemVariant variant = createVariant("SNAPSHOT-NONE", 4);
+        itemVariantService.sell(variant.getId(), 1);
+        Instant afterSell = pause();
+        itemVariantService.adjustStock(variant.getId(), 2, "RESTOCK");
+
+        StockAtResponse response = stockSnapshotService.getStockAt(variant.getId(), afterSell);
+
+        assertThat(response.getStockQuantity()).isEqualTo(3);
+        assertThat(response.getReplayedMovements()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkStockAt_usesLatestSnapshotPerVariant_andSnapshotsOnlyChangedVariants() throws InterruptedException {
+        ItemVariant busy = createVariant("SNAPSHOT-BUSY", 10);
+        ItemVariant quiet = createVariant("SNAPSHOT-QUIET", 7);
+        itemVariantService.sell(busy.getId(), 1);
+        Instant firstSnapshot = pause();
+        stockSnapshotService.takeSnapshots(firstSnapshot);
+
+        itemVariantService.sell(busy.getId(), 2);
+        Instant secondSnapshot = pause();
+        stockSnapshotService.takeSnapshots(secondSnapshot);
+        itemVariantService.sell(quiet.getId(), 2);
+        Instant end = pause();
+
+        // Variant tanpa movement sejak snapshot terakhir tidak di-snapshot lagi
+        assertThat(stockSnapshotRepository.countByVariantId(busy.getId())).isEqualTo(2);
+        assertThat(stockSnapshotRepository.countByVariantId(quiet.getId())).isEqualTo(1);
+
+        assertThat(stockByVariant(firstSnapshot))
+                .containsEntry(busy.getId(), 9)
+                .containsEntry(quiet.getId(), 7);
+        assertThat(stockByVariant(end))
+                .containsEntry(busy.getId(), 7)
+                .containsEntry(quiet.getId(), 5);
+    }
+
+    private Map<Long, Integer> stockByVariant(Instant at) {
+        return stockSnapshotService.getStockAt(at, null, 200).getItems().stream()
+                .collect(Collectors.toMap(StockAtResponse::getVariantId, StockAtResponse::getStockQuantity,
+                        (first, second) -> first));
+    }
+
+    // Waktu yang jelas berada di antara dua operasi
+    private static Instant pause() throws InterruptedException {
+        Thread.sleep(5);
+        Instant now = Instant.now();
+        Thread.sleep(5);
+        return now;
+    }
+}
@@ -0,0 +1,158 @@
+package com.arief.warehouse.warehouse_api.service.impl;
+
+import com.arief.warehouse.warehouse_api.config.StockLockStrategy;
+import com.arief.warehouse.warehouse_api.config.StockProperties;
+import com.arief.warehouse.warehouse_api.exception.NotFoundException;
+import com.arief.warehouse.warehouse_api.exception.OutOfStockException;
+import com.arief.warehouse.warehouse_api.exception.StockConflictException;
+import com.arief.warehouse.warehouse_api.service.ItemVariantService;
+import com.arief.warehouse.warehouse_api.support.CatalogTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Membandingkan strategi stok di bawah contention pada satu variant yang sama.
+ * Tidak transactional: setiap sell commit sendiri seperti request HTTP sungguhan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockStrategyContentionTest extends CatalogTestSupport {
+
+    private static final int THREADS = 8;
+    private static final int INITIAL_STOCK = 200;
+
+    private static final Logger log = LoggerFactory.getLogger(StockStrategyContentionTest.class);
+
+    @Autowired
+    private ItemVariantService itemVariantService;
+
+    @Autowired
+    private StockProperties stockProperties;
+
+    @Autowired
+    private SellCombiner sellCombiner;
+
+    @Autowired
+    private OptimisticStockRetrier optimisticStockRetrier;
+
+    @AfterEach
+    void tearDown() {
+        stockProperties.setStrategy(StockLockStrategy.PESSIMISTIC);
+        stockProperties.getCombiner().setEnabled(false);
+        stockProperties.getVariantStrategies().clear();
+    }
+
+    @Test
+    void pessimistic_neverOversells_underContention() throws Exception {
+        runContended(StockLockStrategy.PESSIMISTIC);
+    }
+
+    @Test
+    void conditionalUpdate_neverOversells_underContention() throws Exception {
+        runContended(StockLockStrategy.CONDITIONAL_UPDATE);
+    }
+
+    @Test
+    void optimistic_neverOversells_underContention() throws Exception {
+        long retriesBefore = optimisticStockRetrier.getStats().getRetries();
+
+        runContended(StockLockStrategy.OPTIMISTIC);
+
+        log.info("OPTIMISTIC: {} version-conflict retries",
+                optimisticStockRetrier.getStats().getRetries() - retriesBefore);
+    }
+
+    @Test
+    void combiner_neverOversells_andBatchesConcurrentSells() throws Exception {
+        stockProperties.getCombiner().setEnabled(true);
+        long combinedBefore = sellCombiner.getStats().getCombinedSells();
+
+        runContended("COMBINER");
+
+        assertThat(sellCombiner.getStats().getCombinedSells() - combinedBefore)
+                .isEqualTo(INITIAL_STOCK + THREADS);
+        // Semua antrean sudah kosong, jadi tidak ada lane yang tertahan
+        assertThat(sellCombiner.getStats().getActiveLanes()).isZero();
+    }
+
+    @Test
+    void combiner_releasesLane_forUnknownVariant() {
+        stockProperties.getCombiner().setEnabled(true);
+
+        assertThatThrownBy(() -> itemVariantService.sell(Long.MAX_VALUE, 1))
+                .isInstanceOf(NotFoundException.class);
+
+        assertThat(sellCombiner.getStats().getActiveLanes()).isZero();
+    }
+
+    private void runContended(StockLockStrategy strategy) throws Exception {
+        stockProperties.setStrategy(strategy);
+        runContended(strategy.name());
+    }
+
+    private void runContended(String label) throws Exception {
+        Long variantId = createVariant("CONTENTION-" + label, INITIAL_STOCK).getId();
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                // Setiap thread jual 1 unit sampai stok habis
+                while (true) {
+                    try {
+                        itemVariantService.sell(variantId, 1);
+                        sold.incrementAndGet();
+                    } catch (OutOfStockException ex) {
+                        rejected.incrementAndGet();
+                        return null;
+                    } catch (StockConflictException ex) {
+                        // retry habis (OPTIMISTIC), belum terjual; coba lagi
+                        conflicts.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        pool.shutdown();
+
+        log.info("{}: {} sells by {} threads in {} ms ({} sells/s, {} gave up on conflict)",
+                label, sold.get(), THREADS, elapsedMillis,
+                elapsedMillis == 0 ? sold.get() : sold.get() * 1000L / elapsedMillis,
+                conflicts.get());
+
+        assertThat(sold.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(rejected.get()).isEqualTo(THREADS);
+        assertThat(itemVariantRepository.findStockQuantityById(variantId)).contains(0);
+        assertThat(stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variantId))
+                .hasSize(INITIAL_STOCK);
+    }
+}
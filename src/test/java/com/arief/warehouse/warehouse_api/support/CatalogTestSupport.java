@@ -0,0 +1,73 @@
+package com.arief.warehouse.warehouse_api.support;
+
+import com.arief.warehouse.warehouse_api.entity.Item;
+import com.arief.warehouse.warehouse_api.entity.ItemVariant;
+import com.arief.warehouse.warehouse_api.repository.ItemRepository;
+import com.arief.warehouse.warehouse_api.repository.ItemVariantRepository;
+import com.arief.warehouse.warehouse_api.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base untuk test non-transactional yang membuat item/variant sungguhan di DB bersama.
+ * <p>
+ * Variant dibuat lewat repository: stok awal tanpa movement IN, seperti variant lama. Item yang dibuat
+ * dicatat dan dihapus setelah test beserta movement variant-nya. {@code @AfterEach} subclass jalan lebih
+ * dulu, jadi di sana cukup tabel yang khusus test itu (outbox, reservasi, rollup, flush ledger/journal).
+ */
+public abstract class CatalogTestSupport {
+
+    @Autowired
+    protected ItemRepository itemRepository;
+
+    @Autowired
+    protected ItemVariantRepository itemVariantRepository;
+
+    @Autowired
+    protected StockMovementRepository stockMovementRepository;
+
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteCatalog() {
+        for (Long itemId : itemIds) {
+            for (ItemVariant variant : itemVariantRepository.findByItemId(itemId)) {
+                stockMovementRepository.deleteAll(
+                        stockMovementRepository.findByVariantIdOrderByCreatedAtDesc(variant.getId()));
+            }
+            itemRepository.deleteById(itemId);
+        }
+    }
+
+    protected Item createItem(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setActive(true);
+        item = itemRepository.save(item);
+        itemIds.add(item.getId());
+        return item;
+    }
+
+    // Item dibuat lewat API (bukan createItem) tetap dihapus setelah test
+    protected void trackItem(Long itemId) {
+        itemIds.add(itemId);
+    }
+
+    protected ItemVariant createVariant(Item item, String sku, int stock) {
+        ItemVariant variant = new ItemVariant();
+        variant.setItem(item);
+        variant.setSku(sku);
+        variant.setPrice(BigDecimal.valueOf(10_000));
+        variant.setStockQuantity(stock);
+        return itemVariantRepository.save(variant);
+    }
+
+    // Satu item per variant
+    protected ItemVariant createVariant(String sku, int stock) {
+        return createVariant(createItem("Item " + sku), sku, stock);
+    }
+}